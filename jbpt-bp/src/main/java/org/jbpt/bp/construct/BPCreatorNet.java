@@ -2,8 +2,10 @@ package org.jbpt.bp.construct;
 
 import java.util.Collection;
 
+import org.jbpt.algo.graph.ReachabilityIndex;
 import org.jbpt.bp.BehaviouralProfile;
 import org.jbpt.bp.RelSetType;
+import org.jbpt.petri.Flow;
 import org.jbpt.petri.NetSystem;
 import org.jbpt.petri.Node;
 import org.jbpt.petri.PetriNet;
@@ -51,6 +53,7 @@ public class BPCreatorNet extends AbstractRelSetCreator implements RelSetCreator
 		RelSetType[][] matrix = profile.getMatrix();
 		
 		ConcurrencyRelation concurrencyRelation = new ConcurrencyRelation(pn);
+		ReachabilityIndex<Flow,Node> reachability = new ReachabilityIndex<Flow,Node>(pn);
 		
 		for(Node n1 : profile.getEntities()) {
 			int index1 = profile.getEntities().indexOf(n1);
@@ -66,7 +69,7 @@ public class BPCreatorNet extends AbstractRelSetCreator implements RelSetCreator
 				 * What about the relation of a node to itself?
 				 */
 				if (index1 == index2) {
-					if (PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n1,n2))
+					if (reachability.hasPath(n1,n2))
 						matrix[index1][index1] = RelSetType.Interleaving;
 					else
 						matrix[index1][index1] = RelSetType.Exclusive;
@@ -74,20 +77,24 @@ public class BPCreatorNet extends AbstractRelSetCreator implements RelSetCreator
 				/*
 				 * Check all cases for two distinct nodes of the net
 				 */
-				else if (PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n1,n2) && PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n2,n1)) {
-					super.setMatrixEntry(matrix,index1,index2,RelSetType.Interleaving);
-				}
-				else if (concurrencyRelation.areConcurrent(index1,index2)) {
-					super.setMatrixEntry(matrix,index1,index2,RelSetType.Interleaving);
-				}
-				else if (!concurrencyRelation.areConcurrent(index1,index2) && !PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n1,n2) && !PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n2,n1)) {
-					super.setMatrixEntry(matrix,index1,index2,RelSetType.Exclusive);
-				}
-				else if (PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n1,n2) && !PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n2,n1)) {
-					super.setMatrixEntryOrder(matrix,index1,index2);
-				}
-				else if (PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n2,n1) && !PetriNet.DIRECTED_GRAPH_ALGORITHMS.hasPath(pn,n1,n2)) {
-					super.setMatrixEntryOrder(matrix,index2,index1);
+				else {
+					boolean path12 = reachability.hasPath(n1,n2);
+					boolean path21 = reachability.hasPath(n2,n1);
+					if (path12 && path21) {
+						super.setMatrixEntry(matrix,index1,index2,RelSetType.Interleaving);
+					}
+					else if (concurrencyRelation.areConcurrent(index1,index2)) {
+						super.setMatrixEntry(matrix,index1,index2,RelSetType.Interleaving);
+					}
+					else if (!path12 && !path21) {
+						super.setMatrixEntry(matrix,index1,index2,RelSetType.Exclusive);
+					}
+					else if (path12) {
+						super.setMatrixEntryOrder(matrix,index1,index2);
+					}
+					else {
+						super.setMatrixEntryOrder(matrix,index2,index1);
+					}
 				}
 			}
 		}
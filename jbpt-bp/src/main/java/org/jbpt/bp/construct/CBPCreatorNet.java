@@ -1,12 +1,12 @@
 package org.jbpt.bp.construct;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
 
+import org.jbpt.algo.graph.DominatorTree;
 import org.jbpt.bp.BehaviouralProfile;
 import org.jbpt.bp.CausalBehaviouralProfile;
 import org.jbpt.bp.RelSetType;
+import org.jbpt.petri.Flow;
 import org.jbpt.petri.NetSystem;
 import org.jbpt.petri.Node;
 import org.jbpt.petri.PetriNet;
@@ -71,14 +71,14 @@ public class CBPCreatorNet extends AbstractRelSetCreator implements CBPCreator<N
 		 * Compute co-occurrence if net is S-net
 		 */
 		else if (PetriNet.STRUCTURAL_CHECKS.isSNet(pn)) {
-			Map<Node,Set<Node>> dominators = PetriNet.DIRECTED_GRAPH_ALGORITHMS.getDominators(pn,false);
-			Map<Node,Set<Node>> postdominators = PetriNet.DIRECTED_GRAPH_ALGORITHMS.getDominators(pn,true);
+			DominatorTree<Flow,Node> dominators = PetriNet.DIRECTED_GRAPH_ALGORITHMS.getDominatorTree(pn,false);
+			DominatorTree<Flow,Node> postdominators = PetriNet.DIRECTED_GRAPH_ALGORITHMS.getDominatorTree(pn,true);
 			
 			for(Node n1 : profile.getEntities()) {
 				int index1 = profile.getEntities().indexOf(n1);
 				for(Node n2 : profile.getEntities()) {
 					int index2 = profile.getEntities().indexOf(n2);
-					if (dominators.get(n1).contains(n2) || postdominators.get(n1).contains(n2))
+					if (dominators.dominates(n2,n1) || postdominators.dominates(n2,n1))
 						profile.getCooccurrenceMatrix()[index1][index2] = true;
 				}
 			}
@@ -1,5 +1,6 @@
 package org.jbpt.bp.construct;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -10,11 +11,15 @@ import java.util.Set;
 
 import org.jbpt.bp.BehaviouralProfile;
 import org.jbpt.bp.CausalBehaviouralProfile;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
 import org.jbpt.petri.NetSystem;
 import org.jbpt.petri.Node;
 import org.jbpt.petri.Place;
 import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompactCompletePrefixUnfolding;
 import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingCache;
 import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
 import org.jbpt.petri.unfolding.OccurrenceNet;
 import org.jbpt.petri.unfolding.OrderingRelationType;
@@ -34,7 +39,20 @@ public class CBPCreatorUnfolding extends AbstractRelSetCreator implements
 	}
 	
 	private CBPCreatorUnfolding() {
-		
+		this.cache = null;
+	}
+	
+	/**
+	 * Create a creator of causal behavioural profiles that caches complete prefix unfoldings.
+	 * Unfoldings of augmented nets get cached; hence, a profile of a net system that is structurally 
+	 * identical to a net system for which a profile was derived before is derived without unfolding.
+	 * If the cache persists unfoldings and an unfolding cannot be persisted, deriving the profile
+	 * fails with an {@link IllegalStateException} that is caused by the {@link IOException} of the cache.
+	 * 
+	 * @param cache Cache of complete prefix unfoldings, <tt>null</tt> to unfold every net system.
+	 */
+	public CBPCreatorUnfolding(CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache) {
+		this.cache = cache;
 	}
 	
 	protected NetSystem augmentedNet;
@@ -49,12 +67,22 @@ public class CBPCreatorUnfolding extends AbstractRelSetCreator implements
 	// the unfolding as an occurrence net
 	protected OccurrenceNet occurrenceNet;
 	
+	// cache of unfoldings of augmented nets (null if unfoldings are not cached)
+	protected final CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache;
+	
 	protected boolean[][] eventContinuationMatrix;
 	protected List<Transition> transitionsForEventContinutationMatrix;
 
 	protected boolean[][] transitiveCausalityMatrixUnfolding; 
 	protected List<Transition> nodesForTransitiveCausalityMatrixUnfolding;
 
+	/**
+	 * @return Cache of complete prefix unfoldings used when deriving causal behavioural profiles, or <tt>null</tt>.
+	 */
+	public CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> getCache() {
+		return this.cache;
+	}
+
 	public CausalBehaviouralProfile<NetSystem, Node> deriveCausalBehaviouralProfile(NetSystem pn) {
 		return deriveCausalBehaviouralProfile(pn, new ArrayList<Node>(pn.getTransitions()));
 	}
@@ -110,7 +138,7 @@ public class CBPCreatorUnfolding extends AbstractRelSetCreator implements
 		setup.ADEQUATE_ORDER = AdequateOrderType.ESPARZA_FOR_ARBITRARY_SYSTEMS;
 		setup.MAX_BOUND = 2;
 		
-		this.unfolding = new CompletePrefixUnfolding(this.augmentedNet,setup);
+		this.unfolding = this.unfold(setup);
 		this.occurrenceNet = (OccurrenceNet) this.unfolding.getOccurrenceNet();
 		
 		/*
@@ -198,6 +226,29 @@ public class CBPCreatorUnfolding extends AbstractRelSetCreator implements
 		return deriveCooccurrence(cProfile);
 	}
 
+	/**
+	 * Get complete prefix unfolding of the augmented net, from the cache if possible.
+	 * 
+	 * @throws IllegalStateException if the cache cannot persist the unfolding.
+	 */
+	protected CompletePrefixUnfolding unfold(CompletePrefixUnfoldingSetup setup) {
+		if (this.cache==null)
+			return new CompletePrefixUnfolding(this.augmentedNet,setup);
+		
+		CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cached = this.cache.get(CompletePrefixUnfolding.class,this.augmentedNet,setup);
+		if (cached!=null)
+			return new CompletePrefixUnfolding(cached,setup);
+		
+		CompletePrefixUnfolding result = new CompletePrefixUnfolding(this.augmentedNet,setup);
+		try {
+			this.cache.put(this.augmentedNet,setup,result);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot persist the complete prefix unfolding of the augmented net!", e);
+		}
+		
+		return result;
+	}
+
 	protected void createAugmentedNet(NetSystem pn) {
 
 		this.augmentedNet = pn;
@@ -70,9 +70,11 @@ public class ProjTARCreatorStateSpace extends AbstractRelSetCreator implements R
 		nodes.retainAll(selectedTransitions);
 
 		/*
-		 * Derive projected state space
+		 * Derive projected state space; stubborn sets preserve the steps 
+		 * between selected transitions, while concurrent transitions outside 
+		 * the projection set are not interleaved
 		 */
-		this.space = new ProjectedStateSpace<Flow, Node, Place, Transition, Marking>(pn,selectedTransitions);
+		this.space = new ProjectedStateSpace<Flow, Node, Place, Transition, Marking>(pn,selectedTransitions,true);
 		this.space.create();
 		
 		/*
@@ -82,6 +82,7 @@ public class Bpmn<E extends BpmnControlFlow<V>, V extends FlowNode> extends Proc
 		set.add(flow.getSource());
 		set.add(flow.getTarget());
 		this.edges.put(flow, set);
+		this.modified();
 	}
 
 	@Override
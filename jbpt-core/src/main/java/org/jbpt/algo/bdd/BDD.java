@@ -0,0 +1,637 @@
+package org.jbpt.algo.bdd;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reduced ordered binary decision diagrams (BDDs) over a fixed number of variables.<br/><br/>
+ *
+ * BDDs are referred to by integer handles; {@link #ZERO} and {@link #ONE} are the constant functions.
+ * Variable 0 is the topmost variable of all diagrams. Nodes are kept canonical by a unique table, and results of operations are memoized
+ * in an operation cache.<br/><br/>
+ *
+ * Garbage collection runs at the beginning of an operation once the number of nodes has grown beyond a limit. It keeps all nodes reachable
+ * from operands of the operation and from BDDs that are referenced using {@link #ref(int)}. Hence, a BDD that is used after subsequent operations
+ * must be referenced and should be dereferenced using {@link #deref(int)} once it is no longer needed.<br/><br/>
+ *
+ * Instances of this class are not thread-safe.
+ */
+public class BDD {
+
+	/**
+	 * Constant false.
+	 */
+	public static final int ZERO = 0;
+
+	/**
+	 * Constant true.
+	 */
+	public static final int ONE = 1;
+
+	private static final int OP_AND = 0;
+	private static final int OP_OR = 1;
+	private static final int OP_XOR = 2;
+	private static final int OP_DIFF = 3;
+	private static final int OP_NOT = 4;
+	private static final int OP_EXISTS = 5;
+	private static final int OP_RELPROD = 6;
+
+	private static final int MIN_NODES = 1024;
+
+	// number of variables
+	private int vars = 0;
+
+	// nodes: variable (-1 for free nodes), low and high successors, next node in the hash chain or free list, and external references
+	private int[] var = null;
+	private int[] low = null;
+	private int[] high = null;
+	private int[] next = null;
+	private int[] refs = null;
+	// first never used node, head of the free list, and number of allocated nodes
+	private int top = 2;
+	private int free = -1;
+	private int nodes = 2;
+	// garbage collection runs once this number of nodes is allocated
+	private int gcLimit = 0;
+	private int gcRuns = 0;
+
+	// unique table: heads of hash chains
+	private int[] buckets = null;
+
+	// operation cache
+	private int[] cacheOp = null;
+	private int[] cacheA = null;
+	private int[] cacheB = null;
+	private int[] cacheC = null;
+	private int[] cacheResult = null;
+
+	/**
+	 * Create a BDD manager.
+	 *
+	 * @param vars Number of variables.
+	 */
+	public BDD(int vars) {
+		this(vars, 1 << 16, 1 << 16);
+	}
+
+	/**
+	 * Create a BDD manager.
+	 *
+	 * @param vars Number of variables.
+	 * @param nodes Initial size of the node table (the table grows as needed).
+	 * @param cache Size of the operation cache.
+	 */
+	public BDD(int vars, int nodes, int cache) {
+		if (vars<0) throw new IllegalArgumentException("Number of variables must not be negative!");
+		this.vars = vars;
+
+		int size = Integer.highestOneBit(Math.max(MIN_NODES, nodes)-1) << 1;
+		this.var = new int[size];
+		this.low = new int[size];
+		this.high = new int[size];
+		this.next = new int[size];
+		this.refs = new int[size];
+		this.buckets = new int[size];
+		Arrays.fill(this.buckets, -1);
+		this.gcLimit = size;
+
+		// terminals are below all variables
+		this.var[ZERO] = vars;
+		this.var[ONE] = vars;
+		this.low[ONE] = this.high[ONE] = ONE;
+
+		int cacheSize = Integer.highestOneBit(Math.max(MIN_NODES, cache)-1) << 1;
+		this.cacheOp = new int[cacheSize];
+		this.cacheA = new int[cacheSize];
+		this.cacheB = new int[cacheSize];
+		this.cacheC = new int[cacheSize];
+		this.cacheResult = new int[cacheSize];
+		Arrays.fill(this.cacheOp, -1);
+	}
+
+	/**
+	 * @return Number of variables.
+	 */
+	public int getVariableCount() {
+		return this.vars;
+	}
+
+	/**
+	 * @param v Variable.
+	 * @return BDD of the function that is true iff the variable is true.
+	 */
+	public int ithVar(int v) {
+		this.checkVariable(v);
+		this.checkGC(ZERO, ZERO, ZERO);
+		return this.mk(v, ZERO, ONE);
+	}
+
+	/**
+	 * @param v Variable.
+	 * @return BDD of the function that is true iff the variable is false.
+	 */
+	public int nithVar(int v) {
+		this.checkVariable(v);
+		this.checkGC(ZERO, ZERO, ZERO);
+		return this.mk(v, ONE, ZERO);
+	}
+
+	/**
+	 * Get conjunction of variables, e.g., to be used as a set of variables to quantify.
+	 *
+	 * @param vs Variables.
+	 * @return BDD of the conjunction of the given variables.
+	 */
+	public int cube(int[] vs) {
+		boolean[] values = new boolean[vs.length];
+		Arrays.fill(values, true);
+		return this.cube(vs, values);
+	}
+
+	/**
+	 * Get conjunction of literals.
+	 *
+	 * @param vs Variables.
+	 * @param values Values of the variables, i.e., positive literals for <tt>true</tt> and negative literals for <tt>false</tt>.
+	 * @return BDD of the conjunction of the literals, or {@link #ZERO} if a variable is given with both values.
+	 */
+	public int cube(int[] vs, boolean[] values) {
+		if (vs.length!=values.length) throw new IllegalArgumentException("Values of all given variables expected!");
+		long[] literals = new long[vs.length];
+		for (int i=0; i<vs.length; i++) {
+			this.checkVariable(vs[i]);
+			literals[i] = ((long) vs[i] << 1) | (values[i] ? 1 : 0);
+		}
+		Arrays.sort(literals);
+
+		this.checkGC(ZERO, ZERO, ZERO);
+		int result = ONE;
+		for (int i=literals.length-1; i>=0; i--) {
+			if (i<literals.length-1 && literals[i]==literals[i+1]) continue;
+			int v = (int) (literals[i] >> 1);
+			if (i<literals.length-1 && v==(int) (literals[i+1] >> 1)) return ZERO;
+			result = (literals[i] & 1)==1 ? this.mk(v, ZERO, result) : this.mk(v, result, ZERO);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get a full assignment of variables.
+	 *
+	 * @param values Values of all variables.
+	 * @return BDD of the function that is true only for the given assignment.
+	 */
+	public int minterm(boolean[] values) {
+		if (values.length!=this.vars) throw new IllegalArgumentException("Values of all variables expected!");
+		this.checkGC(ZERO, ZERO, ZERO);
+		int result = ONE;
+		for (int v=this.vars-1; v>=0; v--)
+			result = values[v] ? this.mk(v, ZERO, result) : this.mk(v, result, ZERO);
+
+		return result;
+	}
+
+	/**
+	 * Reference a BDD, i.e., protect it from garbage collection.
+	 *
+	 * @param f BDD.
+	 * @return The given BDD.
+	 */
+	public int ref(int f) {
+		if (f>ONE) this.refs[f]++;
+		return f;
+	}
+
+	/**
+	 * Dereference a BDD that was referenced using {@link #ref(int)}.
+	 *
+	 * @param f BDD.
+	 */
+	public void deref(int f) {
+		if (f<=ONE) return;
+		if (this.refs[f]<=0) throw new IllegalStateException("BDD is not referenced!");
+		this.refs[f]--;
+	}
+
+	/**
+	 * @return Conjunction of the given BDDs.
+	 */
+	public int and(int a, int b) {
+		this.checkGC(a, b, ZERO);
+		return this.apply(OP_AND, a, b);
+	}
+
+	/**
+	 * @return Disjunction of the given BDDs.
+	 */
+	public int or(int a, int b) {
+		this.checkGC(a, b, ZERO);
+		return this.apply(OP_OR, a, b);
+	}
+
+	/**
+	 * @return Exclusive disjunction of the given BDDs.
+	 */
+	public int xor(int a, int b) {
+		this.checkGC(a, b, ZERO);
+		return this.apply(OP_XOR, a, b);
+	}
+
+	/**
+	 * @return Conjunction of the first BDD and the negation of the second BDD.
+	 */
+	public int diff(int a, int b) {
+		this.checkGC(a, b, ZERO);
+		return this.apply(OP_DIFF, a, b);
+	}
+
+	/**
+	 * @return Negation of the given BDD.
+	 */
+	public int not(int a) {
+		this.checkGC(a, ZERO, ZERO);
+		return this.not2(a);
+	}
+
+	/**
+	 * Existential quantification.
+	 *
+	 * @param f BDD.
+	 * @param cube Conjunction of variables to quantify, see {@link #cube(int[])}.
+	 * @return BDD of the function that is true for an assignment iff f is true for the assignment modified at some of the given variables.
+	 */
+	public int exists(int f, int cube) {
+		this.checkGC(f, cube, ZERO);
+		return this.exists2(f, cube);
+	}
+
+	/**
+	 * Relational product, i.e., existential quantification of a conjunction, without constructing the conjunction.
+	 *
+	 * @param f BDD.
+	 * @param g BDD.
+	 * @param cube Conjunction of variables to quantify, see {@link #cube(int[])}.
+	 * @return BDD of the function <tt>exists(and(f,g),cube)</tt>.
+	 */
+	public int relProd(int f, int g, int cube) {
+		this.checkGC(f, g, cube);
+		return this.relProd2(f, g, cube);
+	}
+
+	/**
+	 * @param f BDD.
+	 * @return Topmost variable of the BDD, or the number of variables if the BDD is a constant.
+	 */
+	public int getVar(int f) {
+		return this.var[f];
+	}
+
+	/**
+	 * @param f BDD.
+	 * @return Low successor (topmost variable false) of a non-constant BDD.
+	 */
+	public int getLow(int f) {
+		return this.low[f];
+	}
+
+	/**
+	 * @param f BDD.
+	 * @return High successor (topmost variable true) of a non-constant BDD.
+	 */
+	public int getHigh(int f) {
+		return this.high[f];
+	}
+
+	/**
+	 * @param f BDD.
+	 * @return Number of satisfying assignments of all variables.
+	 */
+	public double satCount(int f) {
+		return Math.scalb(this.satCount(f, new HashMap<Integer,Double>()), this.var[f]);
+	}
+
+	/**
+	 * Get a satisfying assignment.
+	 *
+	 * @param f BDD.
+	 * @return Values of variables (1 for true, 0 for false, -1 if the value is irrelevant), or <tt>null</tt> if f is {@link #ZERO}.
+	 */
+	public int[] satOne(int f) {
+		if (f==ZERO) return null;
+
+		int[] result = new int[this.vars];
+		Arrays.fill(result, -1);
+		while (f!=ONE) {
+			if (this.low[f]!=ZERO) {
+				result[this.var[f]] = 0;
+				f = this.low[f];
+			}
+			else {
+				result[this.var[f]] = 1;
+				f = this.high[f];
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param f BDD.
+	 * @return Number of nodes of the BDD, excluding constants.
+	 */
+	public int nodeCount(int f) {
+		boolean[] visited = new boolean[this.top];
+		int[] stack = new int[this.top];
+		int size = 0, result = 0;
+		stack[size++] = f;
+		while (size>0) {
+			int g = stack[--size];
+			if (g<=ONE || visited[g]) continue;
+			visited[g] = true;
+			result++;
+			stack[size++] = this.low[g];
+			stack[size++] = this.high[g];
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return Number of allocated nodes, including constants and nodes that are not yet garbage collected.
+	 */
+	public int countNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * @return Number of garbage collection runs.
+	 */
+	public int countGarbageCollections() {
+		return this.gcRuns;
+	}
+
+	/**
+	 * Collect all nodes that are not reachable from referenced BDDs.
+	 */
+	public void gc() {
+		this.gc(ZERO, ZERO, ZERO);
+	}
+
+	/*
+	 * Recursive operations; nodes are never collected during these operations.
+	 */
+
+	private int apply(int op, int a, int b) {
+		switch (op) {
+			case OP_AND:
+				if (a==ZERO || b==ZERO) return ZERO;
+				if (a==ONE || a==b) return b;
+				if (b==ONE) return a;
+				break;
+			case OP_OR:
+				if (a==ONE || b==ONE) return ONE;
+				if (a==ZERO || a==b) return b;
+				if (b==ZERO) return a;
+				break;
+			case OP_XOR:
+				if (a==b) return ZERO;
+				if (a==ZERO) return b;
+				if (b==ZERO) return a;
+				if (a==ONE) return this.not2(b);
+				if (b==ONE) return this.not2(a);
+				break;
+			case OP_DIFF:
+				if (a==ZERO || b==ONE || a==b) return ZERO;
+				if (b==ZERO) return a;
+				if (a==ONE) return this.not2(b);
+				break;
+		}
+
+		// commutative operations
+		if (op!=OP_DIFF && a>b) {
+			int tmp = a;
+			a = b;
+			b = tmp;
+		}
+
+		int slot = this.cacheSlot(op, a, b, 0);
+		if (this.cacheOp[slot]==op && this.cacheA[slot]==a && this.cacheB[slot]==b) return this.cacheResult[slot];
+
+		int va = this.var[a], vb = this.var[b];
+		int v = Math.min(va, vb);
+		int l = this.apply(op, va==v ? this.low[a] : a, vb==v ? this.low[b] : b);
+		int h = this.apply(op, va==v ? this.high[a] : a, vb==v ? this.high[b] : b);
+		int result = this.mk(v, l, h);
+
+		this.cacheStore(slot, op, a, b, 0, result);
+		return result;
+	}
+
+	private int not2(int a) {
+		if (a==ZERO) return ONE;
+		if (a==ONE) return ZERO;
+
+		int slot = this.cacheSlot(OP_NOT, a, 0, 0);
+		if (this.cacheOp[slot]==OP_NOT && this.cacheA[slot]==a) return this.cacheResult[slot];
+
+		int result = this.mk(this.var[a], this.not2(this.low[a]), this.not2(this.high[a]));
+		this.cacheStore(slot, OP_NOT, a, 0, 0, result);
+		return result;
+	}
+
+	private int exists2(int f, int cube) {
+		if (f<=ONE) return f;
+		while (cube!=ONE && this.var[cube]<this.var[f]) cube = this.high[cube];
+		if (cube==ONE) return f;
+
+		int slot = this.cacheSlot(OP_EXISTS, f, cube, 0);
+		if (this.cacheOp[slot]==OP_EXISTS && this.cacheA[slot]==f && this.cacheB[slot]==cube) return this.cacheResult[slot];
+
+		int result;
+		if (this.var[f]==this.var[cube]) {
+			int l = this.exists2(this.low[f], this.high[cube]);
+			result = l==ONE ? ONE : this.apply(OP_OR, l, this.exists2(this.high[f], this.high[cube]));
+		}
+		else
+			result = this.mk(this.var[f], this.exists2(this.low[f], cube), this.exists2(this.high[f], cube));
+
+		this.cacheStore(slot, OP_EXISTS, f, cube, 0, result);
+		return result;
+	}
+
+	private int relProd2(int f, int g, int cube) {
+		if (f==ZERO || g==ZERO) return ZERO;
+		if (f==ONE && g==ONE) return ONE;
+		if (f==ONE) return this.exists2(g, cube);
+		if (g==ONE || f==g) return this.exists2(f, cube);
+		if (f>g) {
+			int tmp = f;
+			f = g;
+			g = tmp;
+		}
+
+		int vf = this.var[f], vg = this.var[g];
+		int v = Math.min(vf, vg);
+		while (cube!=ONE && this.var[cube]<v) cube = this.high[cube];
+		if (cube==ONE) return this.apply(OP_AND, f, g);
+
+		int slot = this.cacheSlot(OP_RELPROD, f, g, cube);
+		if (this.cacheOp[slot]==OP_RELPROD && this.cacheA[slot]==f && this.cacheB[slot]==g && this.cacheC[slot]==cube) return this.cacheResult[slot];
+
+		int f0 = vf==v ? this.low[f] : f, f1 = vf==v ? this.high[f] : f;
+		int g0 = vg==v ? this.low[g] : g, g1 = vg==v ? this.high[g] : g;
+		int result;
+		if (this.var[cube]==v) {
+			int l = this.relProd2(f0, g0, this.high[cube]);
+			result = l==ONE ? ONE : this.apply(OP_OR, l, this.relProd2(f1, g1, this.high[cube]));
+		}
+		else
+			result = this.mk(v, this.relProd2(f0, g0, cube), this.relProd2(f1, g1, cube));
+
+		this.cacheStore(slot, OP_RELPROD, f, g, cube, result);
+		return result;
+	}
+
+	private double satCount(int f, Map<Integer,Double> counts) {
+		if (f==ZERO) return 0;
+		if (f==ONE) return 1;
+		Double result = counts.get(f);
+		if (result!=null) return result;
+
+		int l = this.low[f], h = this.high[f];
+		double count = Math.scalb(this.satCount(l, counts), this.var[l]-this.var[f]-1)
+				+ Math.scalb(this.satCount(h, counts), this.var[h]-this.var[f]-1);
+		counts.put(f, count);
+		return count;
+	}
+
+	/*
+	 * Node table
+	 */
+
+	private int mk(int v, int l, int h) {
+		if (l==h) return l;
+
+		int bucket = this.hash(v, l, h) & (this.buckets.length-1);
+		for (int n=this.buckets[bucket]; n>=0; n=this.next[n])
+			if (this.var[n]==v && this.low[n]==l && this.high[n]==h) return n;
+
+		if (this.free<0 && this.top==this.var.length) {
+			this.grow();
+			bucket = this.hash(v, l, h) & (this.buckets.length-1);
+		}
+
+		int n;
+		if (this.free>=0) {
+			n = this.free;
+			this.free = this.next[n];
+		}
+		else
+			n = this.top++;
+
+		this.var[n] = v;
+		this.low[n] = l;
+		this.high[n] = h;
+		this.refs[n] = 0;
+		this.next[n] = this.buckets[bucket];
+		this.buckets[bucket] = n;
+		this.nodes++;
+		return n;
+	}
+
+	private void grow() {
+		int size = this.var.length*2;
+		this.var = Arrays.copyOf(this.var, size);
+		this.low = Arrays.copyOf(this.low, size);
+		this.high = Arrays.copyOf(this.high, size);
+		this.next = Arrays.copyOf(this.next, size);
+		this.refs = Arrays.copyOf(this.refs, size);
+		this.buckets = new int[size];
+		this.rehash();
+	}
+
+	private void rehash() {
+		Arrays.fill(this.buckets, -1);
+		int mask = this.buckets.length-1;
+		for (int n=2; n<this.top; n++) {
+			if (this.var[n]<0) continue;
+			int bucket = this.hash(this.var[n], this.low[n], this.high[n]) & mask;
+			this.next[n] = this.buckets[bucket];
+			this.buckets[bucket] = n;
+		}
+	}
+
+	private void checkGC(int a, int b, int c) {
+		if (this.nodes<this.gcLimit) return;
+
+		this.gc(a, b, c);
+		// collect again once the number of live nodes has doubled
+		this.gcLimit = Math.max(this.var.length/2, this.nodes*2);
+	}
+
+	private void gc(int a, int b, int c) {
+		this.gcRuns++;
+
+		// mark nodes reachable from referenced nodes and operands
+		boolean[] marked = new boolean[this.top];
+		int[] stack = new int[2*this.top+3];
+		int size = 0;
+		for (int n=2; n<this.top; n++)
+			if (this.var[n]>=0 && this.refs[n]>0) stack[size++] = n;
+		stack[size++] = a;
+		stack[size++] = b;
+		stack[size++] = c;
+		while (size>0) {
+			int n = stack[--size];
+			if (n<=ONE || marked[n]) continue;
+			marked[n] = true;
+			stack[size++] = this.low[n];
+			stack[size++] = this.high[n];
+		}
+
+		// sweep
+		this.free = -1;
+		this.nodes = 2;
+		for (int n=this.top-1; n>=2; n--) {
+			if (marked[n]) {
+				this.nodes++;
+				continue;
+			}
+			this.var[n] = -1;
+			this.refs[n] = 0;
+			this.next[n] = this.free;
+			this.free = n;
+		}
+
+		this.rehash();
+		Arrays.fill(this.cacheOp, -1);
+	}
+
+	private int hash(int v, int l, int h) {
+		int result = v*12582917 + l*4256249 + h*741457;
+		return result ^ (result >>> 16);
+	}
+
+	/*
+	 * Operation cache
+	 */
+
+	private int cacheSlot(int op, int a, int b, int c) {
+		int result = op*1000003 + a*12582917 + b*4256249 + c*741457;
+		return (result ^ (result >>> 15)) & (this.cacheOp.length-1);
+	}
+
+	private void cacheStore(int slot, int op, int a, int b, int c, int result) {
+		this.cacheOp[slot] = op;
+		this.cacheA[slot] = a;
+		this.cacheB[slot] = b;
+		this.cacheC[slot] = c;
+		this.cacheResult[slot] = result;
+	}
+
+	private void checkVariable(int v) {
+		if (v<0 || v>=this.vars) throw new IllegalArgumentException("Variable " + v + " does not exist!");
+	}
+}
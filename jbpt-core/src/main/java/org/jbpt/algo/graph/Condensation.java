@@ -0,0 +1,170 @@
+package org.jbpt.algo.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpt.graph.abs.IDirectedEdge;
+import org.jbpt.graph.abs.IDirectedGraph;
+import org.jbpt.hypergraph.abs.IVertex;
+
+/**
+ * Condensation of a directed graph, i.e., the directed acyclic graph of its strongly connected components (SCCs).<br/><br/>
+ *
+ * Vertices are numbered 0..n-1 and components are numbered 0..c-1 in reverse topological order, i.e., every edge between two
+ * components leads from a component with a greater number to a component with a smaller number.
+ * Edges of the condensation are stored in compressed sparse row (CSR) layout without duplicates.
+ * Components are computed by an iterative version of Tarjan's algorithm in O(|V|+|E|) time.
+ *
+ * @param <E> template for edge (extends IDirectedEdge)
+ * @param <V> template for vertex (extends IVertex)
+ */
+class Condensation<E extends IDirectedEdge<V>,V extends IVertex> {
+
+	// vertices and their indexes
+	List<V> vertices = null;
+	Map<V,Integer> indexes = null;
+
+	// component of every vertex, number of components, components with a cycle
+	int[] component = null;
+	int components = 0;
+	boolean[] cyclic = null;
+
+	// successors of components
+	int[] offsets = null;
+	int[] successors = null;
+
+	Condensation(IDirectedGraph<E,V> g) {
+		Collection<V> vs = g.getVertices();
+		this.vertices = new ArrayList<V>(vs);
+		int n = this.vertices.size();
+		this.indexes = new HashMap<V,Integer>(n*2);
+		for (int i=0; i<n; i++) this.indexes.put(this.vertices.get(i), i);
+
+		// successors of vertices
+		Collection<E> edges = g.getEdges();
+		int[] sources = new int[edges.size()];
+		int[] targets = new int[edges.size()];
+		int m = 0;
+		for (E e : edges) {
+			Integer s = this.indexes.get(e.getSource());
+			Integer t = this.indexes.get(e.getTarget());
+			if (s==null || t==null) continue;
+			sources[m] = s;
+			targets[m++] = t;
+		}
+		int[] vOffsets = new int[n+1];
+		for (int k=0; k<m; k++) vOffsets[sources[k]+1]++;
+		for (int i=0; i<n; i++) vOffsets[i+1] += vOffsets[i];
+		int[] vSuccessors = new int[m];
+		int[] fill = Arrays.copyOf(vOffsets, n);
+		for (int k=0; k<m; k++) vSuccessors[fill[sources[k]]++] = targets[k];
+
+		this.tarjan(n, vOffsets, vSuccessors);
+
+		// self-loops make components cyclic; edges between components form the condensation
+		this.cyclic = new boolean[this.components];
+		int[] size = new int[this.components];
+		for (int i=0; i<n; i++) size[this.component[i]]++;
+		for (int c=0; c<this.components; c++) this.cyclic[c] = size[c]>1;
+
+		int[] cOffsets = new int[this.components+1];
+		for (int k=0; k<m; k++) {
+			int cs = this.component[sources[k]], ct = this.component[targets[k]];
+			if (cs==ct) this.cyclic[cs] = true;
+			else cOffsets[cs+1]++;
+		}
+		for (int c=0; c<this.components; c++) cOffsets[c+1] += cOffsets[c];
+		int[] cSuccessors = new int[cOffsets[this.components]];
+		fill = Arrays.copyOf(cOffsets, this.components);
+		for (int k=0; k<m; k++) {
+			int cs = this.component[sources[k]], ct = this.component[targets[k]];
+			if (cs!=ct) cSuccessors[fill[cs]++] = ct;
+		}
+
+		// remove duplicate edges
+		int[] stamp = new int[this.components];
+		Arrays.fill(stamp, -1);
+		this.offsets = new int[this.components+1];
+		int count = 0;
+		for (int c=0; c<this.components; c++) {
+			this.offsets[c] = count;
+			for (int k=cOffsets[c]; k<cOffsets[c+1]; k++) {
+				int d = cSuccessors[k];
+				if (stamp[d]==c) continue;
+				stamp[d] = c;
+				cSuccessors[count++] = d;
+			}
+		}
+		this.offsets[this.components] = count;
+		this.successors = Arrays.copyOf(cSuccessors, count);
+	}
+
+	/**
+	 * Get index of a vertex.
+	 *
+	 * @param v Vertex.
+	 * @return Index of the vertex, or -1 if the vertex is not in the graph.
+	 */
+	int getIndex(Object v) {
+		Integer i = this.indexes.get(v);
+		return i==null ? -1 : i;
+	}
+
+	/**
+	 * Iterative Tarjan's algorithm; components are numbered in the order of completion, i.e., in reverse topological order.
+	 */
+	private void tarjan(int n, int[] offsets, int[] successors) {
+		this.component = new int[n];
+		Arrays.fill(this.component, -1);
+		int[] index = new int[n];
+		Arrays.fill(index, -1);
+		int[] low = new int[n];
+		int[] stack = new int[n];
+		int top = 0;
+		// call stack of vertices and positions in their successors
+		int[] calls = new int[n];
+		int[] next = new int[n];
+		int counter = 0;
+
+		for (int root=0; root<n; root++) {
+			if (index[root]>=0) continue;
+			int depth = 0;
+			calls[depth] = root;
+			next[depth] = offsets[root];
+			index[root] = low[root] = counter++;
+			stack[top++] = root;
+
+			while (depth>=0) {
+				int v = calls[depth];
+				if (next[depth]<offsets[v+1]) {
+					int w = successors[next[depth]++];
+					if (index[w]<0) {
+						index[w] = low[w] = counter++;
+						stack[top++] = w;
+						depth++;
+						calls[depth] = w;
+						next[depth] = offsets[w];
+					}
+					else if (this.component[w]<0 && index[w]<low[v])
+						low[v] = index[w];
+					continue;
+				}
+
+				if (low[v]==index[v]) {
+					int w;
+					do {
+						w = stack[--top];
+						this.component[w] = this.components;
+					} while (w!=v);
+					this.components++;
+				}
+				depth--;
+				if (depth>=0 && low[v]<low[calls[depth]]) low[calls[depth]] = low[v];
+			}
+		}
+	}
+}
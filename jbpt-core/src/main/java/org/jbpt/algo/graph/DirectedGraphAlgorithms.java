@@ -1,19 +1,20 @@
 package org.jbpt.algo.graph;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.jbpt.graph.DirectedEdge;
 import org.jbpt.graph.MultiDirectedGraph;
 import org.jbpt.graph.abs.IDirectedEdge;
 import org.jbpt.graph.abs.IDirectedGraph;
+import org.jbpt.hypergraph.abs.AbstractGraphNotifier;
 import org.jbpt.hypergraph.abs.IVertex;
 import org.jbpt.hypergraph.abs.Vertex;
 
@@ -29,6 +30,9 @@ import org.jbpt.hypergraph.abs.Vertex;
  */
 public class DirectedGraphAlgorithms<E extends IDirectedEdge<V>,V extends IVertex> {
 	
+	// reachability indexes of graphs that notify modifications
+	private Map<IDirectedGraph<E,V>,ReachabilityIndex<E,V>> reachabilityIndexes = Collections.synchronizedMap(new WeakHashMap<IDirectedGraph<E,V>,ReachabilityIndex<E,V>>());
+	
 	/**
 	 * Get boundary vertices of a directed graph. 
 	 * A vertex of a directed graph is called a boundary vertex if it neither has direct predecessors, nor direct successors.
@@ -121,7 +125,8 @@ public class DirectedGraphAlgorithms<E extends IDirectedEdge<V>,V extends IVerte
 	/**
 	 * Check if directed graph has a path between the given nodes. 
 	 * 
-	 * TODO: Improve. 
+	 * Queries are answered by a {@link ReachabilityIndex} of the graph. For graphs that notify modifications, 
+	 * the index is kept between calls and rebuilt after the graph is modified; for other graphs, a new index is built on every call.
 	 * 
 	 * @param Directed graph
 	 * @param source node
@@ -129,80 +134,47 @@ public class DirectedGraphAlgorithms<E extends IDirectedEdge<V>,V extends IVerte
 	 * @return true, if there is a path from the source node to the target node in the directed graph
 	 */
 	public boolean hasPath(IDirectedGraph<E, V> g, V from, V to) {
-		TransitiveClosure<E,V> tc = new TransitiveClosure<E,V>(g);
-		return tc.hasPath(from, to);
+		if (!(g instanceof AbstractGraphNotifier)) 
+			return new ReachabilityIndex<E,V>(g).hasPath(from, to);
+		
+		ReachabilityIndex<E,V> index = this.reachabilityIndexes.get(g);
+		if (index==null) {
+			index = new ReachabilityIndex<E,V>(g);
+			this.reachabilityIndexes.put(g, index);
+		}
+		
+		return index.hasPath(from, to);
+	}
+
+	/**
+	 * Get the dominator tree or the post-dominator tree of a directed graph. 
+	 * 
+	 * Time complexity: O(|E| log |V|).
+	 * 
+	 * @param g Directed graph.
+	 * @param postDominators boolean parameter, if set the post-dominator tree instead of the dominator tree is computed
+	 * @return Dominator tree (or post-dominator tree, respectively) of the graph.
+	 */
+	public DominatorTree<E,V> getDominatorTree(IDirectedGraph<E, V> g, boolean postDominators) {
+		return new DominatorTree<E,V>(g, postDominators);
 	}
 
 	/**
-	 * Simple implementation of an algorithm to derive dominators and postdominators of a 
-	 * directed graph. It uses the iterative approach which is simple but not really efficient, 
-	 * it requires polynomial time. Could be done in linear time though.
+	 * Derive dominators and postdominators of a directed graph. 
 	 * 
-	 *  TODO: Replace with an efficient implementation.
+	 * The sets are read from the {@link DominatorTree} of the graph; use {@link #getDominatorTree(IDirectedGraph, boolean)} 
+	 * to query immediate dominators and dominance without materializing all sets.
 	 * 
 	 * @param Directed graph
 	 * @param postDominators boolean parameter, if set the postdominators instead of dominators are computed
 	 * @return A map comprising for each vertex the set of its dominators (or postdominators, respectively).
 	 */
 	public Map<V,Set<V>> getDominators(IDirectedGraph<E, V> g, boolean postDominators) {
-		List<V> vList = new ArrayList<V>(g.getVertices());
+		DominatorTree<E,V> tree = this.getDominatorTree(g, postDominators);
 		
-		Collection<V> initV = postDominators ? this.getSinks(g) : this.getSources(g);
-		
-		int size = vList.size(); 
-		final BitSet[] dom = new BitSet[size];
-		final BitSet ALL = new BitSet(size);
-		
-		for (int i = 0; i < size; i++) ALL.set(i);
-
-		for (int i = 0; i < size; i++) {
-			BitSet curDoms = new BitSet(size);
-			dom[i] = curDoms;
-
-			if (!initV.contains(vList.get(i))) curDoms.or(ALL);
-			else curDoms.set(i);
-		}
-		
-		boolean changed = true;
-	
-		/*
-		 * While we change the dom relation for a node
-		 */
-		while (changed) {
-			changed = false;
-			for (int i = 0; i < size; i++) {
-				if (initV.contains(vList.get(i))) continue;
-				 
-				final BitSet old = dom[i];
-				final BitSet curDoms = new BitSet(size);
-				curDoms.or(old);
-				
-				Collection<V> predecessors = postDominators ? g.getDirectSuccessors(vList.get(i)) : g.getDirectPredecessors(vList.get(i));
-				for (V v : predecessors)
-					curDoms.and(dom[vList.indexOf(v)]);
-				
-				curDoms.set(i);
-				
-				if (!curDoms.equals(old)) {
-					changed = true;
-					dom[i] = curDoms;
-				}
-			}
-		}
-		
-		/*
-		 * Create the data structure that we want to return
-		 * 
-		 * The quadratic time complexity of building up this structure does not hurt
-		 * as the above algorithm requires more time anyways
-		 */
 		Map<V,Set<V>> dominators = new HashMap<V, Set<V>>();
-		for (int i = 0; i < size; i++) {
-			dominators.put(vList.get(i), new HashSet<V>());
-			for (int j = 0; j < size; j++)
-				if (dom[i].get(j))
-					dominators.get(vList.get(i)).add(vList.get(j));
-		}
+		for (V v : g.getVertices())
+			dominators.put(v, tree.getDominators(v));
 		
 		return dominators;
 	}
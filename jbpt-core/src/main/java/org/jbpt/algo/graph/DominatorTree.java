@@ -0,0 +1,331 @@
+package org.jbpt.algo.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.graph.abs.IDirectedEdge;
+import org.jbpt.graph.abs.IDirectedGraph;
+import org.jbpt.hypergraph.abs.IVertex;
+
+/**
+ * Dominator tree (or post-dominator tree) of a directed graph.<br/><br/>
+ *
+ * A vertex v1 dominates a vertex v2 if every path from a source of the graph to v2 contains v1; a vertex v1 post-dominates
+ * a vertex v2 if every path from v2 to a sink of the graph contains v1. Every vertex dominates itself. Vertices that cannot be reached from
+ * a source (cannot reach a sink, respectively) are dominated by all vertices.<br/><br/>
+ *
+ * Immediate dominators are computed by the algorithm of Lengauer and Tarjan with path compression in O(|E| log |V|) time, see:
+ * Thomas Lengauer, Robert E. Tarjan. A Fast Algorithm for Finding Dominators in a Flowgraph. ACM TOPLAS 1(1), 1979.
+ * Sources (sinks, respectively) are children of a virtual root. Vertices of the tree are numbered by a depth-first traversal,
+ * so that immediate dominators and dominance of two vertices are decided in constant time.
+ *
+ * @param <E> template for edge (extends IDirectedEdge)
+ * @param <V> template for vertex (extends IVertex)
+ */
+public class DominatorTree<E extends IDirectedEdge<V>,V extends IVertex> {
+
+	private boolean postDominators = false;
+
+	// vertices and their indexes; the virtual root has index n
+	private List<V> vertices = null;
+	private Map<V,Integer> indexes = null;
+
+	// immediate dominator of every vertex (n for the virtual root, -1 for vertices that are not reachable)
+	private int[] idom = null;
+	// preorder and postorder numbers of vertices in the tree
+	private int[] pre = null;
+	private int[] post = null;
+
+	/**
+	 * Construct the dominator tree or the post-dominator tree of a directed graph.
+	 *
+	 * @param g Directed graph.
+	 * @param postDominators If <tt>true</tt>, the post-dominator tree is constructed; otherwise the dominator tree.
+	 */
+	public DominatorTree(IDirectedGraph<E,V> g, boolean postDominators) {
+		if (g==null) throw new IllegalArgumentException("Directed graph expected but was NULL!");
+		this.postDominators = postDominators;
+
+		this.vertices = new ArrayList<V>(g.getVertices());
+		int n = this.vertices.size();
+		this.indexes = new HashMap<V,Integer>(n*2);
+		for (int i=0; i<n; i++) this.indexes.put(this.vertices.get(i), i);
+
+		// successors and predecessors in direction of the analysis; the virtual root precedes sources
+		Collection<E> edges = g.getEdges();
+		int[] sources = new int[edges.size()];
+		int[] targets = new int[sources.length];
+		int m = 0;
+		for (E e : edges) {
+			Integer s = this.indexes.get(postDominators ? e.getTarget() : e.getSource());
+			Integer t = this.indexes.get(postDominators ? e.getSource() : e.getTarget());
+			if (s==null || t==null) continue;
+			sources[m] = s;
+			targets[m++] = t;
+		}
+		boolean[] entry = new boolean[n];
+		Arrays.fill(entry, true);
+		for (int k=0; k<m; k++) entry[targets[k]] = false;
+		int entries = 0;
+		for (int i=0; i<n; i++) if (entry[i]) entries++;
+
+		int[] sOffsets = new int[n+2];
+		int[] pOffsets = new int[n+2];
+		for (int k=0; k<m; k++) {
+			sOffsets[sources[k]+1]++;
+			pOffsets[targets[k]+1]++;
+		}
+		sOffsets[n+1] = entries;
+		for (int i=0; i<n; i++) if (entry[i]) pOffsets[i+1]++;
+		for (int i=0; i<=n; i++) {
+			sOffsets[i+1] += sOffsets[i];
+			pOffsets[i+1] += pOffsets[i];
+		}
+		int[] successors = new int[m+entries];
+		int[] predecessors = new int[m+entries];
+		int[] sFill = Arrays.copyOf(sOffsets, n+1);
+		int[] pFill = Arrays.copyOf(pOffsets, n+1);
+		for (int k=0; k<m; k++) {
+			successors[sFill[sources[k]]++] = targets[k];
+			predecessors[pFill[targets[k]]++] = sources[k];
+		}
+		for (int i=0; i<n; i++) {
+			if (!entry[i]) continue;
+			successors[sFill[n]++] = i;
+			predecessors[pFill[i]++] = n;
+		}
+
+		this.lengauerTarjan(n, sOffsets, successors, pOffsets, predecessors);
+		this.number(n);
+	}
+
+	/**
+	 * Check if this is a post-dominator tree.
+	 *
+	 * @return <tt>true</tt> if this is a post-dominator tree; <tt>false</tt> if this is a dominator tree.
+	 */
+	public boolean isPostDominatorTree() {
+		return this.postDominators;
+	}
+
+	/**
+	 * Get the immediate dominator (or post-dominator) of a vertex.
+	 *
+	 * @param v Vertex.
+	 * @return Immediate dominator of the vertex; <tt>null</tt> if the vertex is a source (sink, respectively), cannot be reached, or is not in the graph.
+	 */
+	public V getImmediateDominator(V v) {
+		Integer i = this.indexes.get(v);
+		if (i==null || this.idom[i]<0 || this.idom[i]==this.vertices.size()) return null;
+
+		return this.vertices.get(this.idom[i]);
+	}
+
+	/**
+	 * Check if a vertex dominates (or post-dominates) another vertex.
+	 *
+	 * @param v1 Vertex.
+	 * @param v2 Vertex.
+	 * @return <tt>true</tt> if v1 dominates v2; otherwise <tt>false</tt>.
+	 */
+	public boolean dominates(V v1, V v2) {
+		Integer i = this.indexes.get(v1);
+		Integer j = this.indexes.get(v2);
+		if (i==null || j==null) return false;
+		if (this.idom[j]<0) return true;
+		if (this.idom[i]<0) return false;
+
+		return this.pre[i]<=this.pre[j] && this.post[j]<=this.post[i];
+	}
+
+	/**
+	 * Check if a vertex can be reached from a source (or can reach a sink, for post-dominator trees).
+	 *
+	 * @param v Vertex.
+	 * @return <tt>true</tt> if the vertex is part of the tree; otherwise <tt>false</tt>.
+	 */
+	public boolean isReachable(V v) {
+		Integer i = this.indexes.get(v);
+		return i!=null && this.idom[i]>=0;
+	}
+
+	/**
+	 * Get dominators (or post-dominators) of a vertex.
+	 *
+	 * @param v Vertex.
+	 * @return Set of all vertices that dominate the vertex, including the vertex itself.
+	 */
+	public Set<V> getDominators(V v) {
+		Set<V> result = new HashSet<V>();
+		Integer i = this.indexes.get(v);
+		if (i==null) return result;
+		if (this.idom[i]<0) {
+			result.addAll(this.vertices);
+			return result;
+		}
+
+		for (int j=i; j!=this.vertices.size(); j=this.idom[j])
+			result.add(this.vertices.get(j));
+
+		return result;
+	}
+
+	/**
+	 * Get vertices that are immediately dominated (or post-dominated) by a vertex.
+	 *
+	 * @param v Vertex.
+	 * @return Children of the vertex in the tree.
+	 */
+	public Collection<V> getChildren(V v) {
+		Collection<V> result = new ArrayList<V>();
+		Integer i = this.indexes.get(v);
+		if (i==null) return result;
+
+		for (int j=0; j<this.vertices.size(); j++)
+			if (this.idom[j]==i) result.add(this.vertices.get(j));
+
+		return result;
+	}
+
+	/**
+	 * Lengauer-Tarjan algorithm over vertices 0..n, where n is the root; all loops are iterative.
+	 */
+	private void lengauerTarjan(int n, int[] sOffsets, int[] successors, int[] pOffsets, int[] predecessors) {
+		int size = n+1;
+		// depth-first numbers (-1 if not reachable), vertices by number, parents in the depth-first tree
+		int[] number = new int[size];
+		Arrays.fill(number, -1);
+		int[] vertex = new int[size];
+		int[] parent = new int[size];
+		int count = 0;
+
+		int[] calls = new int[size];
+		int[] next = new int[size];
+		int depth = 0;
+		calls[0] = n;
+		next[0] = sOffsets[n];
+		number[n] = count;
+		vertex[count++] = n;
+		parent[n] = -1;
+		while (depth>=0) {
+			int v = calls[depth];
+			if (next[depth]<sOffsets[v+1]) {
+				int w = successors[next[depth]++];
+				if (number[w]>=0) continue;
+				number[w] = count;
+				vertex[count++] = w;
+				parent[w] = v;
+				depth++;
+				calls[depth] = w;
+				next[depth] = sOffsets[w];
+			}
+			else depth--;
+		}
+
+		int[] semi = new int[size];
+		int[] ancestor = new int[size];
+		int[] label = new int[size];
+		this.idom = new int[size];
+		Arrays.fill(this.idom, -1);
+		for (int v=0; v<size; v++) {
+			semi[v] = number[v];
+			ancestor[v] = -1;
+			label[v] = v;
+		}
+		// buckets as linked lists
+		int[] bucket = new int[size];
+		int[] link = new int[size];
+		Arrays.fill(bucket, -1);
+		int[] stack = new int[size];
+
+		for (int k=count-1; k>0; k--) {
+			int w = vertex[k];
+			for (int p=pOffsets[w]; p<pOffsets[w+1]; p++) {
+				int v = predecessors[p];
+				if (number[v]<0) continue;
+				int u = this.eval(v, ancestor, label, semi, stack);
+				if (semi[u]<semi[w]) semi[w] = semi[u];
+			}
+			int s = vertex[semi[w]];
+			link[w] = bucket[s];
+			bucket[s] = w;
+			int pw = parent[w];
+			ancestor[w] = pw;
+
+			for (int v=bucket[pw]; v>=0; v=link[v]) {
+				int u = this.eval(v, ancestor, label, semi, stack);
+				this.idom[v] = semi[u]<semi[v] ? u : pw;
+			}
+			bucket[pw] = -1;
+		}
+
+		for (int k=1; k<count; k++) {
+			int w = vertex[k];
+			if (this.idom[w]!=vertex[semi[w]]) this.idom[w] = this.idom[this.idom[w]];
+		}
+		this.idom[n] = n;
+	}
+
+	private int eval(int v, int[] ancestor, int[] label, int[] semi, int[] stack) {
+		if (ancestor[v]<0) return v;
+
+		// compress the path from v to the root of its tree, starting with the vertex closest to the root
+		int top = 0;
+		int x = v;
+		while (ancestor[ancestor[x]]>=0) {
+			stack[top++] = x;
+			x = ancestor[x];
+		}
+		while (top>0) {
+			x = stack[--top];
+			int a = ancestor[x];
+			if (semi[label[a]]<semi[label[x]]) label[x] = label[a];
+			ancestor[x] = ancestor[a];
+		}
+
+		return label[v];
+	}
+
+	/**
+	 * Assign preorder and postorder numbers to vertices of the tree.
+	 */
+	private void number(int n) {
+		int size = n+1;
+		int[] offsets = new int[size+1];
+		for (int v=0; v<n; v++) if (this.idom[v]>=0) offsets[this.idom[v]+1]++;
+		for (int v=0; v<size; v++) offsets[v+1] += offsets[v];
+		int[] children = new int[offsets[size]];
+		int[] fill = Arrays.copyOf(offsets, size);
+		for (int v=0; v<n; v++) if (this.idom[v]>=0) children[fill[this.idom[v]]++] = v;
+
+		this.pre = new int[size];
+		this.post = new int[size];
+		int[] calls = new int[size];
+		int[] next = new int[size];
+		int preCount = 0, postCount = 0;
+		int depth = 0;
+		calls[0] = n;
+		next[0] = offsets[n];
+		this.pre[n] = preCount++;
+		while (depth>=0) {
+			int v = calls[depth];
+			if (next[depth]<offsets[v+1]) {
+				int w = children[next[depth]++];
+				this.pre[w] = preCount++;
+				depth++;
+				calls[depth] = w;
+				next[depth] = offsets[w];
+			}
+			else {
+				this.post[v] = postCount++;
+				depth--;
+			}
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package org.jbpt.algo.graph;
+
+import java.lang.ref.WeakReference;
+
+import org.jbpt.graph.abs.IDirectedEdge;
+import org.jbpt.graph.abs.IDirectedGraph;
+import org.jbpt.hypergraph.abs.AbstractGraphNotifier;
+import org.jbpt.hypergraph.abs.IVertex;
+
+/**
+ * Reachability index of a directed graph.<br/><br/>
+ *
+ * The index condenses strongly connected components of the graph and labels components of the resulting acyclic graph
+ * with intervals of depth-first traversals (GRAIL labels): if a component reaches another component, the interval of the former
+ * contains the interval of the latter. Two traversals with different orders of successors are used to refute most non-reachable pairs,
+ * while the spanning tree of the first traversal confirms reachability along tree paths. Remaining queries are answered by a
+ * depth-first search that is pruned by the labels. The index is built in O(|V|+|E|) time and takes O(|V|) space.<br/><br/>
+ *
+ * If the graph notifies modifications (see {@link AbstractGraphNotifier#getModificationCount()}), the index is rebuilt on
+ * the first query after a modification; otherwise, the index describes the graph at the time of its construction.
+ *
+ * @param <E> template for edge (extends IDirectedEdge)
+ * @param <V> template for vertex (extends IVertex)
+ */
+public class ReachabilityIndex<E extends IDirectedEdge<V>,V extends IVertex> {
+
+	// number of traversals used for labels
+	private static final int TRAVERSALS = 2;
+
+	// indexed graph (weakly referenced, so that cached indexes do not keep graphs alive) and its number of modifications at the time of indexing
+	private WeakReference<IDirectedGraph<E,V>> graph = null;
+	private int modifications = 0;
+
+	private Condensation<E,V> condensation = null;
+	// post-order ranks and minimal ranks of reachable components per traversal
+	private int[][] rank = null;
+	private int[][] low = null;
+	// first rank in the spanning subtree of every component in the first traversal
+	private int[] treeLow = null;
+
+	// scratch structures of searches
+	private int[] visited = null;
+	private int[] stack = null;
+	private int search = 0;
+
+	/**
+	 * Construct the reachability index of a directed graph.
+	 *
+	 * @param g Directed graph.
+	 */
+	public ReachabilityIndex(IDirectedGraph<E,V> g) {
+		if (g==null) throw new IllegalArgumentException("Directed graph expected but was NULL!");
+		this.graph = new WeakReference<IDirectedGraph<E,V>>(g);
+		this.build(g);
+	}
+
+	/**
+	 * Check if there exists a directed path between two vertices.
+	 *
+	 * @param v1 Vertex.
+	 * @param v2 Vertex.
+	 * @return <code>true</code> if there is a nonempty directed path from v1 to v2, <code>false</code> otherwise.
+	 */
+	public synchronized boolean hasPath(V v1, V v2) {
+		this.update();
+		int i = this.condensation.getIndex(v1);
+		int j = this.condensation.getIndex(v2);
+		if (i<0 || j<0) return false;
+
+		int c1 = this.condensation.component[i];
+		int c2 = this.condensation.component[j];
+		if (c1==c2) return this.condensation.cyclic[c1];
+
+		return this.reaches(c1, c2);
+	}
+
+	/**
+	 * Check if a vertex is part of a loop.
+	 *
+	 * @param v Vertex.
+	 * @return <code>true</code> if the vertex is part of a loop, <code>false</code> otherwise.
+	 */
+	public synchronized boolean isInLoop(V v) {
+		this.update();
+		int i = this.condensation.getIndex(v);
+		return i>=0 && this.condensation.cyclic[this.condensation.component[i]];
+	}
+
+	/**
+	 * Check if the index is up to date, i.e., the graph was not modified since indexing.
+	 *
+	 * @return <tt>true</tt> if the index is up to date or modifications of the graph cannot be detected; otherwise <tt>false</tt>.
+	 */
+	public synchronized boolean isValid() {
+		IDirectedGraph<E,V> g = this.graph.get();
+		return !(g instanceof AbstractGraphNotifier) || ((AbstractGraphNotifier<?,?>) g).getModificationCount()==this.modifications;
+	}
+
+	/**
+	 * Rebuild the index if the graph was modified.
+	 */
+	private void update() {
+		if (this.isValid()) return;
+		IDirectedGraph<E,V> g = this.graph.get();
+		if (g!=null) this.build(g);
+	}
+
+	private void build(IDirectedGraph<E,V> g) {
+		if (g instanceof AbstractGraphNotifier)
+			this.modifications = ((AbstractGraphNotifier<?,?>) g).getModificationCount();
+
+		this.condensation = new Condensation<E,V>(g);
+		int n = this.condensation.components;
+		this.rank = new int[TRAVERSALS][];
+		this.low = new int[TRAVERSALS][];
+		this.treeLow = new int[n];
+		this.visited = new int[n];
+		this.stack = new int[n];
+		this.search = 0;
+
+		for (int k=0; k<TRAVERSALS; k++) {
+			this.rank[k] = new int[n];
+			this.low[k] = new int[n];
+			this.label(k);
+		}
+	}
+
+	/**
+	 * Depth-first traversal of the condensation in topological order of roots that assigns post-order ranks and intervals.
+	 * Even traversals visit successors in stored order, odd traversals in reverse order.
+	 */
+	private void label(int k) {
+		int n = this.condensation.components;
+		int[] offsets = this.condensation.offsets;
+		int[] successors = this.condensation.successors;
+		int[] rank = this.rank[k];
+		int[] low = this.low[k];
+		boolean reverse = k%2==1;
+
+		boolean[] done = new boolean[n];
+		int[] calls = new int[n];
+		int[] next = new int[n];
+		int counter = 0;
+
+		// components with greater numbers come first in topological order
+		for (int root=n-1; root>=0; root--) {
+			if (done[root]) continue;
+			int depth = 0;
+			calls[0] = root;
+			next[0] = 0;
+			done[root] = true;
+			int[] start = k==0 ? this.treeLow : null;
+			if (start!=null) start[root] = counter;
+			low[root] = Integer.MAX_VALUE;
+
+			while (depth>=0) {
+				int c = calls[depth];
+				int degree = offsets[c+1]-offsets[c];
+				if (next[depth]<degree) {
+					int i = next[depth]++;
+					int d = successors[reverse ? offsets[c+1]-1-i : offsets[c]+i];
+					if (!done[d]) {
+						done[d] = true;
+						if (start!=null) start[d] = counter;
+						low[d] = Integer.MAX_VALUE;
+						depth++;
+						calls[depth] = d;
+						next[depth] = 0;
+					}
+					else if (low[d]<low[c]) low[c] = low[d];
+					continue;
+				}
+
+				rank[c] = counter++;
+				if (rank[c]<low[c]) low[c] = rank[c];
+				depth--;
+				if (depth>=0 && low[c]<low[calls[depth]]) low[calls[depth]] = low[c];
+			}
+		}
+	}
+
+	/**
+	 * Check if the interval labels of component c1 contain those of component c2 (necessary for reachability).
+	 */
+	private boolean contains(int c1, int c2) {
+		for (int k=0; k<TRAVERSALS; k++)
+			if (this.low[k][c2]<this.low[k][c1] || this.rank[k][c2]>this.rank[k][c1]) return false;
+
+		return true;
+	}
+
+	/**
+	 * Check if component c2 is a descendant of component c1 in the spanning tree of the first traversal (sufficient for reachability).
+	 */
+	private boolean isTreeDescendant(int c1, int c2) {
+		return this.treeLow[c1]<=this.rank[0][c2] && this.rank[0][c2]<=this.rank[0][c1];
+	}
+
+	/**
+	 * Check if distinct component c1 reaches component c2.
+	 */
+	private boolean reaches(int c1, int c2) {
+		// edges lead from greater to smaller component numbers
+		if (c1<c2 || !this.contains(c1, c2)) return false;
+		if (this.isTreeDescendant(c1, c2)) return true;
+
+		// pruned depth-first search
+		int[] offsets = this.condensation.offsets;
+		int[] successors = this.condensation.successors;
+		if (++this.search==Integer.MAX_VALUE) {
+			java.util.Arrays.fill(this.visited, 0);
+			this.search = 1;
+		}
+		int top = 0;
+		this.stack[top++] = c1;
+		this.visited[c1] = this.search;
+		while (top>0) {
+			int c = this.stack[--top];
+			for (int k=offsets[c]; k<offsets[c+1]; k++) {
+				int d = successors[k];
+				if (d==c2 || (d>c2 && this.isTreeDescendant(d, c2))) return true;
+				if (this.visited[d]==this.search || d<c2 || !this.contains(d, c2)) continue;
+				this.visited[d] = this.search;
+				this.stack[top++] = d;
+			}
+		}
+
+		return false;
+	}
+}
@@ -11,13 +11,7 @@ public class ReflexiveTransitiveClosure<E extends IDirectedEdge<V>,V extends IVe
 	}
 	
 	@Override
-	protected void calculateMatrix() {
-		super.calculateMatrix();
-		
-		for (int i=0; i<this.verticesAsList.size(); i++) {
-			this.matrix[i][i] = true;
-		}
+	protected boolean isReflexive() {
+		return true;
 	}
 }
-
-
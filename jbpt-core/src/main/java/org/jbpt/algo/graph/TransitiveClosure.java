@@ -2,80 +2,246 @@ package org.jbpt.algo.graph;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.jbpt.graph.abs.IDirectedEdge;
 import org.jbpt.graph.abs.IDirectedGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
-
+/**
+ * Transitive closure of a directed graph.<br/><br/>
+ *
+ * Strongly connected components of the graph are condensed first; all vertices of a component reach the same vertices.
+ * The closure is then stored as one row of bits per component, where bit d of the row of component c is set if c reaches component d.
+ * Rows are computed in reverse topological order of components as the bitwise disjunction of the rows of their successors.
+ * Rows of components whose successors are complete can be computed independently, so that rows can be computed in parallel.<br/><br/>
+ *
+ * Migration note: the closure used to be stored in the protected field <code>boolean[][] matrix</code>, which is removed.
+ * Subclasses that read the field can use the deprecated {@link #getMatrix()}; subclasses that wrote the field to make
+ * every vertex reach itself override {@link #isReflexive()} instead, as {@link ReflexiveTransitiveClosure} does.
+ *
+ * @param <E> template for edge (extends IDirectedEdge)
+ * @param <V> template for vertex (extends IVertex)
+ */
 public class TransitiveClosure<E extends IDirectedEdge<V>,V extends IVertex> {
 
+	// minimal number of rows computed by a parallel task
+	private static final int CHUNK = 64;
+
 	protected IDirectedGraph<E, V> g;
 	protected List<V> verticesAsList;
-	protected boolean[][] matrix;
-	
-	
+
+	// condensation of the graph and rows of the closure of components
+	private Condensation<E,V> condensation = null;
+	private long[][] rows = null;
+
+	// number of threads or executor used to compute rows
+	private int threads = 1;
+	private ExecutorService executor = null;
+
 	public TransitiveClosure(IDirectedGraph<E, V> g) {
 		this.g = g;
-		this.matrix = null;
+		this.rows = null;
 		this.verticesAsList = new ArrayList<V>(this.g.getVertices());
 	}
 
+	/**
+	 * Constructor of the transitive closure whose rows are computed by several threads.
+	 *
+	 * @param g Directed graph.
+	 * @param threads Number of threads.
+	 */
+	public TransitiveClosure(IDirectedGraph<E, V> g, int threads) {
+		this(g);
+		this.threads = threads;
+	}
+
+	/**
+	 * Constructor of the transitive closure whose rows are computed by tasks submitted to an executor.
+	 *
+	 * @param g Directed graph.
+	 * @param executor Executor service; it is not shut down.
+	 */
+	public TransitiveClosure(IDirectedGraph<E, V> g, ExecutorService executor) {
+		this(g);
+		this.executor = executor;
+	}
+
 	protected void calculateMatrix() {
-		matrix = new boolean[this.verticesAsList.size()][this.verticesAsList.size()];
-		
-		/*
-		 * Init matrix with edges
-		 */
-		for (E e: this.g.getEdges()) {
-			int source = this.verticesAsList.indexOf(e.getSource());
-			int target = this.verticesAsList.indexOf(e.getTarget());
-			matrix[source][target] = true;
+		this.condensation = new Condensation<E,V>(this.g);
+		this.verticesAsList = this.condensation.vertices;
+		int n = this.condensation.components;
+		this.rows = new long[n][];
+
+		ExecutorService executor = null;
+		boolean shutdown = false;
+		if (this.executor!=null)
+			executor = this.executor;
+		else if (this.threads>1 && n>CHUNK) {
+			executor = new ForkJoinPool(this.threads);
+			shutdown = true;
 		}
-		
+
 		/*
-		 * Compute the transitive closure
+		 * Successors of components have smaller numbers
 		 */
-		for (int i = 0; i < matrix.length; i++) 
-			for (int j = 0; j < matrix.length; j++) 
-				if (matrix[j][i])
-					for (int k = 0; k < matrix.length; k++)
-						matrix[j][k] = matrix[j][k] | matrix[i][k];
+		if (executor==null) {
+			for (int c=0; c<n; c++) this.calculateRow(c);
+			return;
+		}
+
+		try {
+			this.calculateInParallel(executor);
+		}
+		finally {
+			if (shutdown) executor.shutdown();
+		}
+	}
+
+	/**
+	 * Compute rows level by level, where the level of a component is the length of the longest path to a sink component.
+	 * Rows of a level only depend on rows of lower levels and are computed by tasks that run concurrently.
+	 */
+	private void calculateInParallel(ExecutorService executor) {
+		int n = this.condensation.components;
+		int[] offsets = this.condensation.offsets;
+		int[] successors = this.condensation.successors;
+
+		int[] level = new int[n];
+		int levels = 0;
+		for (int c=0; c<n; c++) {
+			for (int k=offsets[c]; k<offsets[c+1]; k++)
+				if (level[successors[k]]+1>level[c]) level[c] = level[successors[k]]+1;
+			if (level[c]+1>levels) levels = level[c]+1;
+		}
+
+		// components by level
+		int[] start = new int[levels+1];
+		for (int c=0; c<n; c++) start[level[c]+1]++;
+		for (int l=0; l<levels; l++) start[l+1] += start[l];
+		int[] order = new int[n];
+		int[] fill = new int[levels];
+		System.arraycopy(start, 0, fill, 0, levels);
+		for (int c=0; c<n; c++) order[fill[level[c]]++] = c;
+
+		for (int l=0; l<levels; l++) {
+			if (start[l+1]-start[l]<=CHUNK) {
+				for (int i=start[l]; i<start[l+1]; i++) this.calculateRow(order[i]);
+				continue;
+			}
+
+			List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+			for (int i=start[l]; i<start[l+1]; i+=CHUNK)
+				tasks.add(new RowTask(order, i, Math.min(start[l+1], i+CHUNK)));
+
+			try {
+				for (Future<Object> future : executor.invokeAll(tasks)) future.get();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Computation of transitive closure was interrupted!", exception);
+			} catch (ExecutionException exception) {
+				if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+				throw new IllegalStateException(exception.getCause());
+			}
+		}
 	}
-	
+
+	/**
+	 * Compute the row of a component from the rows of its successors.
+	 */
+	private void calculateRow(int c) {
+		int[] offsets = this.condensation.offsets;
+		int[] successors = this.condensation.successors;
+		long[] row = new long[(this.condensation.components+63)>>>6];
+
+		for (int k=offsets[c]; k<offsets[c+1]; k++) {
+			int d = successors[k];
+			long[] other = this.rows[d];
+			// successors have smaller numbers, so that only words up to the successor are set
+			for (int w=(d>>>6); w>=0; w--) row[w] |= other[w];
+			row[d>>>6] |= 1L<<d;
+		}
+		if (this.condensation.cyclic[c]) row[c>>>6] |= 1L<<c;
+
+		this.rows[c] = row;
+	}
+
+	private boolean isSet(int i, int j) {
+		int c = this.condensation.component[i];
+		int d = this.condensation.component[j];
+		if (i==j && this.isReflexive()) return true;
+		return (this.rows[c][d>>>6] & (1L<<d))!=0;
+	}
+
+	/**
+	 * Check if this closure is reflexive, i.e., if every vertex has a path to itself.
+	 * Subclasses override this method to obtain a reflexive closure.
+	 *
+	 * @return <code>false</code>.
+	 */
+	protected boolean isReflexive() {
+		return false;
+	}
+
+	/**
+	 * Get the transitive closure as a matrix, where entry [i][j] is <code>true</code> if there is a directed path
+	 * from the i-th to the j-th vertex of {@link #verticesAsList}.
+	 *
+	 * @return Fresh matrix of the transitive closure.
+	 * @deprecated The closure is no longer stored as a matrix, which takes quadratic memory; use {@link #hasPath(IVertex, IVertex)}.
+	 */
+	@Deprecated
+	protected boolean[][] getMatrix() {
+		if (rows == null)
+			calculateMatrix();
+		int n = this.verticesAsList.size();
+		boolean[][] matrix = new boolean[n][n];
+		for (int i=0; i<n; i++)
+			for (int j=0; j<n; j++)
+				matrix[i][j] = this.isSet(i, j);
+
+		return matrix;
+	}
+
 	/**
 	 * Check if there exists a directed path between two vertices
 	 * @param v1 Vertex
 	 * @param v2 Vertex
-	 * @return <code>true</code> if there is a directed path from v1 to v2, <code>false</code> otherwise 
+	 * @return <code>true</code> if there is a directed path from v1 to v2, <code>false</code> otherwise
 	 */
 	public boolean hasPath(V v1, V v2) {
-		if (matrix == null)
+		if (rows == null)
 			calculateMatrix();
-		int i = this.verticesAsList.indexOf(v1);
-		int j = this.verticesAsList.indexOf(v2);
-		return matrix[i][j];
+		int i = this.condensation.getIndex(v1);
+		int j = this.condensation.getIndex(v2);
+		if (i<0 || j<0) return false;
+		return this.isSet(i, j);
 	}
-	
+
 	/**
 	 * Check if vertex is part of a loop
 	 * @param v Vertex
 	 * @return <code>true</code> if vertex is part of a loop, <code>false</code> otherwise
 	 */
 	public boolean isInLoop(V v) {
-		if (matrix == null)
+		if (rows == null)
 			calculateMatrix();
-		int index = this.verticesAsList.indexOf(v);
-		return matrix[index][index];
+		int index = this.condensation.getIndex(v);
+		if (index<0) return false;
+		return this.isReflexive() || this.condensation.cyclic[this.condensation.component[index]];
 	}
-	
+
 	@Override
 	public String toString() {
-		if (matrix == null)
+		if (rows == null)
 			calculateMatrix();
-		
+
 		String result = "";
-		
+
 		result += "==================================================\n";
 		result += " Transitive Closure\n";
 		result += "--------------------------------------------------\n";
@@ -88,7 +254,7 @@ public class TransitiveClosure<E extends IDirectedEdge<V>,V extends IVertex> {
 		for (int i=0; i<verticesAsList.size(); i++) {
 			result += String.format("%-4d", i);
 			for (int j=0; j<verticesAsList.size(); j++) {
-				result += String.format("%-4s",(matrix[i][j] ? "+" : "-"));
+				result += String.format("%-4s",(isSet(i,j) ? "+" : "-"));
 			}
 			result += String.format("%-4d", i);
 			result += "\n";
@@ -97,10 +263,28 @@ public class TransitiveClosure<E extends IDirectedEdge<V>,V extends IVertex> {
 		for (int i=0; i<verticesAsList.size(); i++) result += String.format("%-4d", i);
 		result += "    \n";
 		result += "==================================================";
-		
+
 		return result;
 	}
 
-}
+	/**
+	 * Task that computes rows of components order[from..to-1].
+	 */
+	private class RowTask implements Callable<Object> {
+		private int[] order;
+		private int from;
+		private int to;
 
+		RowTask(int[] order, int from, int to) {
+			this.order = order;
+			this.from = from;
+			this.to = to;
+		}
 
+		@Override
+		public Object call() {
+			for (int i=this.from; i<this.to; i++) calculateRow(this.order[i]);
+			return null;
+		}
+	}
+}
@@ -36,7 +36,8 @@ public class Fragment<E extends IEdge<V>, V extends IVertex> extends HashSet<E>
 	
 	@Override
 	public boolean add(E e) {
-		if (!this.g.getEdges().contains(e)) return false;
+		// hashed look-up first; the scan of all edges also finds edges whose identifiers changed after they were added to the graph
+		if (!this.g.contains(e) && !this.g.getEdges().contains(e)) return false;
 		return super.add(e);
 	}
 
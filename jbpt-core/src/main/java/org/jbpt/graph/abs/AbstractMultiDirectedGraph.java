@@ -67,6 +67,7 @@ public class AbstractMultiDirectedGraph<E extends IDirectedEdge<V>, V extends IV
 				this.removeEdge(i.next());
 			
 			this.vertices.remove(v);
+			this.modified();
 			return v;
 		}
 		
@@ -103,6 +103,7 @@ public class AbstractMultiGraph<E extends IEdge<V>,V extends IVertex>
 				this.removeEdge(i.next());
 			
 			this.vertices.remove(v);
+			this.modified();
 			return v;
 		}
 		
@@ -26,6 +26,9 @@ import org.jbpt.utils.DotSerializer;
 public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDirectedEdge<V>,V> implements ITree<V> {
 	protected V root = null;
 	
+	// index of ancestors and lowest common ancestors, built on demand
+	private volatile TreeIndex<V> index = null;
+	
 	/**
 	 * Empty constructor - for technical purposes.
 	 */
@@ -46,7 +49,7 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 
 	@Override
 	public V reRoot(V v) {
-		if (v == null || !this.getVertices().contains(v)) return this.root;
+		if (v == null || !this.contains(v)) return this.root;
 		if (v.equals(this.root)) return this.root;		
 		this.root = v;
 		
@@ -94,7 +97,7 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 
 	@Override
 	public V addChild(V p, V c) {
-		if (!super.getVertices().contains(p)) return null;
+		if (!super.contains(p)) return null;
 		IDirectedEdge<V> e = super.addEdge(p,c);
 		
 		return (e==null) ? null : c;
@@ -111,60 +114,65 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 		return new DotSerializer().serialize(this,false);
 	}
 
+	/**
+	 * Get the index of vertices reachable from the root; the index is rebuilt if the tree was modified or rerooted since indexing.
+	 * 
+	 * @return Index of the tree, or <tt>null</tt> if the tree has no root.
+	 */
+	private TreeIndex<V> getIndex() {
+		V root = this.root;
+		if (root==null || !this.contains(root)) return null;
+		
+		TreeIndex<V> index = this.index;
+		int modifications = this.getModificationCount();
+		if (index==null || index.modifications!=modifications || !index.root.equals(root)) {
+			index = new TreeIndex<V>(this, root, modifications);
+			this.index = index;
+		}
+		
+		return index;
+	}
+
 	@Override
 	public V getLCA(V v1, V v2) {
 		if (v1==null || v2==null) return null;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return null;
+		if (!this.contains(v1) || !this.contains(v2)) return null;
 		
 		if (v1.equals(v2)) return v1;
 		
-		List<V> path1 = this.getDownwardPath(this.getRoot(),v1);
-		List<V> path2 = this.getDownwardPath(this.getRoot(),v2);
+		TreeIndex<V> index = this.getIndex();
+		if (index==null) return null;
+		int i = index.getIndex(v1);
+		int j = index.getIndex(v2);
+		if (i<0 || j<0) return null;
 		
-		V result = null;
-		for (int i=0; i<path1.size(); i++) {
-			if (i>=path2.size()) break;
-			if (path1.get(i).equals(path2.get(i))) result = path1.get(i);
-			else break;
-		}
-		
-		return result;
+		return index.getVertex(index.getLCA(i,j));
 	}
 	
 	@Override
 	public V getLCA(Collection<V> vertices) {
 		if (vertices.isEmpty()) return null;
-		if (!this.getVertices().containsAll(vertices)) return null;
+		for (V v : vertices)
+			if (!this.contains(v)) return null;
 		
-		Set<List<V>> paths = new HashSet<List<V>>();
-		int shortest = Integer.MAX_VALUE;
+		TreeIndex<V> index = this.getIndex();
+		// vertices that are not reachable from the root only share the root
+		if (index==null || !index.contains(vertices)) return this.getRoot();
+		
+		int result = -1;
 		for (V v : vertices) {
-			List<V> path = this.getDownwardPath(this.getRoot(),v);
-			paths.add(path);
-			shortest = Math.min(shortest, path.size());
+			int i = index.getIndex(v);
+			result = result<0 ? i : index.getLCA(result,i);
 		}
 		
-		V result = this.getRoot();
-		for (int i=0; i<shortest; i++) {
-			Set<V> currentLevel = new HashSet<V>();
-			for (List<V> path : paths) 
-				currentLevel.add(path.get(i));
-				
-			if (currentLevel.size() <= 1)
-				result = paths.iterator().next().get(i);
-			else
-				break;
-		}
-		return result;
+		return index.getVertex(result);
 	}
 
 
 	@Override
 	public boolean isChild(V v1, V v2) {
 		if (v1==null || v2==null) return false;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return false;
+		if (!this.contains(v1) || !this.contains(v2)) return false;
 		
 		if (v1.equals(v2)) return false;
 		
@@ -174,8 +182,7 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 	@Override
 	public boolean isParent(V v1, V v2) {
 		if (v1==null || v2==null) return false;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return false;
+		if (!this.contains(v1) || !this.contains(v2)) return false;
 		
 		if (v1.equals(v2)) return false;
 		
@@ -185,21 +192,31 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 	@Override
 	public boolean isDescendant(V v1, V v2) {
 		if (v1==null || v2==null) return false;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return false;
+		if (!this.contains(v1) || !this.contains(v2)) return false;
 		
 		if (v1.equals(v2)) return false;
-		return this.getDownwardPath(this.getRoot(),v1).contains(v2);
+		return this.isAncestorOrSelf(v2,v1);
 	}
 
 	@Override
 	public boolean isAncestor(V v1, V v2) {
 		if (v1==null || v2==null) return false;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return false;
+		if (!this.contains(v1) || !this.contains(v2)) return false;
 		
 		if (v1.equals(v2)) return false;
-		return this.getDownwardPath(this.getRoot(),v2).contains(v1);
+		return this.isAncestorOrSelf(v1,v2);
+	}
+	
+	/**
+	 * Check if vertex v1 lies on the path from the root to vertex v2.
+	 */
+	private boolean isAncestorOrSelf(V v1, V v2) {
+		TreeIndex<V> index = this.getIndex();
+		if (index==null) return false;
+		int i = index.getIndex(v1);
+		int j = index.getIndex(v2);
+		
+		return i>=0 && j>=0 && index.isAncestorOrSelf(i,j);
 	}
 
 	@Override
@@ -207,17 +224,25 @@ public class AbstractTree<V extends IVertex> extends AbstractDirectedGraph<IDire
 		List<V> result = new ArrayList<V>();
 		
 		if (v1==null || v2==null) return result;
-		if (!this.getVertices().contains(v1) || 
-				!this.getVertices().contains(v2)) return result;
+		if (!this.contains(v1) || !this.contains(v2)) return result;
+		
+		TreeIndex<V> index = this.getIndex();
+		if (index!=null) {
+			int i = index.getIndex(v1);
+			int j = index.getIndex(v2);
+			if (i>=0 && j>=0) 
+				return index.isAncestorOrSelf(i,j) ? index.getDownwardPath(i,j) : result;
+		}
 		
+		// vertices that are not reachable from the root
 		V v = v2;
 		result.add(v);
-		while (!this.getDirectPredecessors(v).isEmpty() && !result.contains(v1)) {
+		while (!v.equals(v1) && !this.getDirectPredecessors(v).isEmpty()) {
 			v = this.getFirstDirectPredecessor(v);
 			result.add(v);
 		}
 		
-		if (!result.contains(v1)) return new ArrayList<V>();
+		if (!v.equals(v1)) return new ArrayList<V>();
 		Collections.reverse(result);
 		return result;
 	}
@@ -0,0 +1,196 @@
+package org.jbpt.graph.abs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpt.hypergraph.abs.IVertex;
+
+/**
+ * Index of the vertices of a tree that are reachable from its root.<br/><br/>
+ *
+ * Vertices are numbered in preorder, so that a vertex is an ancestor of another vertex if the preorder number of the latter
+ * lies within the preorder numbers of the subtree of the former. Lowest common ancestors are looked up in a sparse table
+ * over the depths of an Euler tour of the tree. The index is built in O(n log n) time; queries take constant time.
+ *
+ * @param <V> Vertex template.
+ */
+class TreeIndex<V extends IVertex> {
+
+	// root and number of modifications of the tree at the time of indexing
+	V root = null;
+	int modifications = 0;
+
+	// vertices in preorder and their preorder numbers
+	private List<V> vertices = null;
+	private Map<V,Integer> indexes = null;
+
+	// parent, depth and last preorder number in the subtree of every vertex
+	private int[] parent = null;
+	private int[] depth = null;
+	private int[] last = null;
+
+	// first position of every vertex in the Euler tour and sparse table of vertices with minimal depth in tour intervals of length 2^k
+	private int[] first = null;
+	private int[][] table = null;
+
+	TreeIndex(AbstractTree<V> tree, V root, int modifications) {
+		this.root = root;
+		this.modifications = modifications;
+
+		// children of vertices
+		Map<V,List<V>> children = new HashMap<V,List<V>>();
+		for (IDirectedEdge<V> e : tree.getEdges()) {
+			List<V> cs = children.get(e.getSource());
+			if (cs==null) {
+				cs = new ArrayList<V>();
+				children.put(e.getSource(), cs);
+			}
+			cs.add(e.getTarget());
+		}
+
+		this.vertices = new ArrayList<V>();
+		this.indexes = new HashMap<V,Integer>();
+		List<Integer> parents = new ArrayList<Integer>();
+		List<Integer> depths = new ArrayList<Integer>();
+		int[] tour = new int[16];
+		int length = 0;
+
+		// iterative depth-first traversal; every vertex is appended to the tour when it is entered and after each of its children
+		List<V> stack = new ArrayList<V>();
+		List<Integer> positions = new ArrayList<Integer>();
+		this.enter(root, -1, 0, parents, depths);
+		stack.add(root);
+		positions.add(0);
+		tour[length++] = 0;
+		List<Integer> lasts = new ArrayList<Integer>();
+		lasts.add(0);
+		while (!stack.isEmpty()) {
+			int top = stack.size()-1;
+			V v = stack.get(top);
+			int i = this.indexes.get(v);
+			List<V> cs = children.get(v);
+			int position = positions.get(top);
+			if (cs!=null && position<cs.size()) {
+				positions.set(top, position+1);
+				V c = cs.get(position);
+				if (this.indexes.containsKey(c)) continue;
+				this.enter(c, i, top+1, parents, depths);
+				lasts.add(0);
+				stack.add(c);
+				positions.add(0);
+				if (length==tour.length) tour = Arrays.copyOf(tour, length*2);
+				tour[length++] = this.indexes.get(c);
+				continue;
+			}
+
+			stack.remove(top);
+			positions.remove(top);
+			lasts.set(i, this.vertices.size()-1);
+			if (top>0) {
+				if (length==tour.length) tour = Arrays.copyOf(tour, length*2);
+				tour[length++] = this.indexes.get(stack.get(top-1));
+			}
+		}
+
+		int n = this.vertices.size();
+		this.parent = new int[n];
+		this.depth = new int[n];
+		this.last = new int[n];
+		for (int i=0; i<n; i++) {
+			this.parent[i] = parents.get(i);
+			this.depth[i] = depths.get(i);
+			this.last[i] = lasts.get(i);
+		}
+
+		this.first = new int[n];
+		Arrays.fill(this.first, -1);
+		for (int k=0; k<length; k++)
+			if (this.first[tour[k]]<0) this.first[tour[k]] = k;
+
+		int levels = 1;
+		while ((1<<levels)<=length) levels++;
+		this.table = new int[levels][];
+		this.table[0] = Arrays.copyOf(tour, length);
+		for (int l=1; l<levels; l++) {
+			int[] previous = this.table[l-1];
+			int half = 1<<(l-1);
+			int[] current = new int[length-(1<<l)+1];
+			for (int k=0; k<current.length; k++) {
+				int a = previous[k], b = previous[k+half];
+				current[k] = this.depth[a]<=this.depth[b] ? a : b;
+			}
+			this.table[l] = current;
+		}
+	}
+
+	private void enter(V v, int parent, int depth, List<Integer> parents, List<Integer> depths) {
+		this.indexes.put(v, this.vertices.size());
+		this.vertices.add(v);
+		parents.add(parent);
+		depths.add(depth);
+	}
+
+	/**
+	 * Get preorder number of a vertex.
+	 *
+	 * @param v Vertex.
+	 * @return Preorder number of the vertex, or -1 if the vertex is not reachable from the root.
+	 */
+	int getIndex(Object v) {
+		Integer i = this.indexes.get(v);
+		return i==null ? -1 : i;
+	}
+
+	boolean contains(Collection<V> vs) {
+		for (V v : vs)
+			if (!this.indexes.containsKey(v)) return false;
+
+		return true;
+	}
+
+	V getVertex(int i) {
+		return this.vertices.get(i);
+	}
+
+	int getDepth(int i) {
+		return this.depth[i];
+	}
+
+	/**
+	 * Check if vertex i is an ancestor of vertex j or equal to j.
+	 */
+	boolean isAncestorOrSelf(int i, int j) {
+		return i<=j && j<=this.last[i];
+	}
+
+	/**
+	 * Get the lowest common ancestor of vertices i and j.
+	 */
+	int getLCA(int i, int j) {
+		if (this.isAncestorOrSelf(i, j)) return i;
+		if (this.isAncestorOrSelf(j, i)) return j;
+
+		int from = Math.min(this.first[i], this.first[j]);
+		int to = Math.max(this.first[i], this.first[j]);
+		int l = 31-Integer.numberOfLeadingZeros(to-from+1);
+		int a = this.table[l][from], b = this.table[l][to-(1<<l)+1];
+		return this.depth[a]<=this.depth[b] ? a : b;
+	}
+
+	/**
+	 * Get vertices on the path from ancestor i down to vertex j.
+	 */
+	List<V> getDownwardPath(int i, int j) {
+		int size = this.depth[j]-this.depth[i]+1;
+		List<V> result = new ArrayList<V>(size);
+		for (int k=0; k<size; k++) result.add(null);
+		for (int k=size-1, v=j; k>=0; k--, v=this.parent[v])
+			result.set(k, this.vertices.get(v));
+
+		return result;
+	}
+}
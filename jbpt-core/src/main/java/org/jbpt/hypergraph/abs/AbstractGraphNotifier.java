@@ -20,6 +20,26 @@ public abstract class AbstractGraphNotifier<E extends IHyperEdge<V>, V extends I
 	protected Map<V,Set<E>> vertices = new Hashtable<V, Set<E>>();
 	protected Map<E,Set<V>> edges = new Hashtable<E, Set<V>>();
 	
+	// number of structural modifications of the graph
+	private volatile int modifications = 0;
+	
+	/**
+	 * Get number of structural modifications of the graph, i.e., of additions and removals of vertices and of vertices of edges.
+	 * Use this number to check if data derived from the graph is still up to date.
+	 * 
+	 * @return Number of structural modifications of the graph.
+	 */
+	public int getModificationCount() {
+		return this.modifications;
+	}
+	
+	/**
+	 * Record a structural modification of the graph.
+	 */
+	protected void modified() {
+		this.modifications++;
+	}
+	
 	/**
 	 * Index vertex in the edge
 	 * @param e Edge
@@ -27,6 +47,7 @@ public abstract class AbstractGraphNotifier<E extends IHyperEdge<V>, V extends I
 	 */
 	protected void addIndex(E e, V v) {
 		if (e == null || v == null) return;
+		this.modified();
 		if (!this.edges.containsKey(e))
 			this.edges.put((E) e,new HashSet<V>());
 			
@@ -58,6 +79,7 @@ public abstract class AbstractGraphNotifier<E extends IHyperEdge<V>, V extends I
 	 */
 	protected void removeIndex(E e, V v) {
 		if (e == null || v == null) return;
+		this.modified();
 		if (this.edges.containsKey(e))
 		{
 			this.edges.get(e).remove(v);
@@ -92,6 +114,7 @@ public abstract class AbstractGraphNotifier<E extends IHyperEdge<V>, V extends I
 	 * Reset private and protected members. Needed for clone routines.
 	 */
 	protected void clearMembers() {
+		this.modified();
 		this.vertices = new Hashtable<V, Set<E>>();
 		this.edges = new Hashtable<E, Set<V>>();
 	}
@@ -73,7 +73,8 @@ public class AbstractMultiDirectedHyperGraph <E extends IDirectedHyperEdge<V>,V
 	public Collection<E> getEdgesWithSourceAndTarget(V s, V t) {
 		Collection<E> result = new ArrayList<E>();
 		
-		Collection<E> es = this.getEdges(s);
+		Collection<V> vs = new ArrayList<V>(); vs.add(s); vs.add(t);
+		Collection<E> es = this.getEdges(this.getVertexOfLowestDegree(vs));
 		Iterator<E> i = es.iterator();
 		while (i.hasNext()) {
 			E e = i.next();
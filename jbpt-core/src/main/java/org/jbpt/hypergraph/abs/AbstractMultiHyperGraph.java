@@ -83,6 +83,7 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 		if (v == null) return null;
 		if (this.contains(v)) return null;
 		this.vertices.put(v, new HashSet<E>());
+		this.modified();
 		
 		return v;
 	}
@@ -120,6 +121,7 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 				i.next().removeVertex(v);
 			
 			this.vertices.remove(v);
+			this.modified();
 			return v;
 		}
 		
@@ -179,7 +181,7 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 		if (vs == null || vs.size() == 0) return Collections.<E>emptyList();
 		
 		Collection<E> result = new ArrayList<E>();
-		V v = vs.iterator().next();
+		V v = this.getVertexOfLowestDegree(vs);
 		Collection<E> es = this.getEdges(v);
 		Iterator<E> i = es.iterator();
 		while (i.hasNext()) {
@@ -216,7 +218,7 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 	 * @see de.hpi.bpt.hypergraph.abs.IHyperGraph#contains(de.hpi.bpt.hypergraph.abs.IHyperEdge)
 	 */
 	public boolean contains(E e) {
-		return this.getEdges().contains(e);
+		return e!=null && this.edges.containsKey(e);
 	}
 
 	/*
@@ -224,7 +226,7 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 	 * @see de.hpi.bpt.hypergraph.abs.IHyperGraph#contains(de.hpi.bpt.hypergraph.abs.IVertex)
 	 */
 	public boolean contains(V v) {
-		return this.getVertices().contains(v);
+		return v!=null && this.vertices.containsKey(v);
 	}
 
 	/*
@@ -322,6 +324,26 @@ public class AbstractMultiHyperGraph <E extends IHyperEdge<V>,V extends IVertex>
 		return true;
 	}
 	
+	/**
+	 * Get a vertex that is incident to the fewest edges; edges that connect all given vertices are found among its edges.
+	 * @param vs Non-empty collection of vertices
+	 * @return Vertex of the collection that is incident to the fewest edges
+	 */
+	protected V getVertexOfLowestDegree(Collection<V> vs) {
+		V result = null;
+		int min = Integer.MAX_VALUE;
+		for (V v : vs) {
+			Set<E> es = v==null ? null : this.vertices.get(v);
+			int degree = es==null ? 0 : es.size();
+			if (degree<min) {
+				result = v;
+				min = degree;
+			}
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * Check if edge with collection of vertices exists in the graph 
 	 * @param vs Collection of vertices
@@ -2,8 +2,9 @@ package org.jbpt.algo.tree.bctree;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.jbpt.graph.abs.AbstractTree;
@@ -130,26 +131,9 @@ import org.jbpt.hypergraph.abs.IVertex;
  */
 public class BCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<BCTreeNode<E,V>> {
 
-    protected class NodeAttrs {
-    	boolean visited;
-        boolean cut;
-        V parent;
-        int low;
-        int dis;
-
-        public NodeAttrs() {
-        	visited = false;
-            cut = false;
-            parent = null;
-            low = 0;
-            dis = 0;
-        }
-    }
-    
     private Stack<E> s = new Stack<E>();
     private int time = 0;
     private V startNode = null;
-    protected Hashtable<V,NodeAttrs> attrs = null;
     protected IGraph<E,V> graph;
     
     /**
@@ -158,12 +142,6 @@ public class BCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
      * @param graph Graph. 
      */
     public BCTree(IGraph<E,V> graph) {
-    	this.attrs = new Hashtable<V,NodeAttrs>(graph.getVertices().size());
-    	Iterator<V> nodes = graph.getVertices().iterator();
-    	while (nodes.hasNext()) {
-            prepareNode((V)nodes.next());
-        }
-    	
     	this.graph = graph;
         
         if (this.graph.getVertices().isEmpty()) 
@@ -185,54 +163,86 @@ public class BCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
         this.constructTree();
     }
     
+    /**
+     * Depth-first search from v; the search uses an explicit stack, so that its depth is not limited by the thread stack size.
+     * 
+     * @param v Vertex to start the search from.
+     */
 	protected void process(V v) {
-        NodeAttrs att = this.attrs.get(v);
-        att.visited = true;
-        time++;
-        att.dis = time;
-        att.low = att.dis;
-        V w;
-        
-        Collection<E> edges = new ArrayList<E>();
-        edges.addAll(this.graph.getEdges(v));
-        
-        for (E e : edges) {
-        	w = e.getOtherVertex(v);
-            
-            NodeAttrs watt = this.attrs.get(w);
-            
-            if (!watt.visited) {
-                s.push(e);
-                watt.parent = v;
-                process(w);
-                
-                if (watt.low >= att.dis) {
-                    if (att.dis != 1) {
-                        att.cut = true;
-                        super.addVertex(new BCTreeNode<E,V>(v));
-                    } else if (watt.dis > 2) {
-                        att.cut = true;
-                        super.addVertex(new BCTreeNode<E,V>(v));
-                    }
-                    this.addComponent(e);
-                }
-                if (watt.low < att.low) {
-                    att.low = watt.low;
-                }
-            } else if (!this.compareNodes(att.parent, w) && (watt.dis < att.dis)) { // (att.parent != w)
-                s.push(e);
-                if (watt.dis < att.low) {
-                    att.low = watt.dis;
-                }
-            }
-        }
-        
-        time++;
-    }
-	
-	protected void prepareNode(V node) {
-        NodeAttrs a = new NodeAttrs();
-        attrs.put(node, a);
+		// number vertices and store adjacency lists as consecutive segments of one array
+		List<V> vertices = new ArrayList<V>(this.graph.getVertices());
+		int n = vertices.size();
+		Map<V,Integer> indexes = new HashMap<V,Integer>(n*2);
+		for (int i=0; i<n; i++) indexes.put(vertices.get(i), i);
+		
+		int[] offsets = new int[n+1];
+		List<E> edges = new ArrayList<E>();
+		for (int i=0; i<n; i++) {
+			edges.addAll(this.graph.getEdges(vertices.get(i)));
+			offsets[i+1] = edges.size();
+		}
+		int[] others = new int[edges.size()];
+		for (int i=0; i<n; i++) {
+			for (int k=offsets[i]; k<offsets[i+1]; k++)
+				others[k] = indexes.get(edges.get(k).getOtherVertex(vertices.get(i)));
+		}
+		
+		// discovery times (0 if not visited), low-points and parents of vertices
+		int[] dis = new int[n];
+		int[] low = new int[n];
+		int[] parent = new int[n];
+		// vertices on the current path, next positions in their adjacency lists, and tree edges leading to them
+		int[] calls = new int[n];
+		int[] next = new int[n];
+		int[] arcs = new int[n];
+		
+		int depth = 0;
+		calls[0] = indexes.get(v);
+		next[0] = offsets[calls[0]];
+		parent[calls[0]] = -1;
+		time++;
+		dis[calls[0]] = low[calls[0]] = time;
+		
+		while (depth>=0) {
+			int u = calls[depth];
+			if (next[depth]<offsets[u+1]) {
+				int k = next[depth]++;
+				int w = others[k];
+				
+				if (dis[w]==0) {
+					s.push(edges.get(k));
+					parent[w] = u;
+					depth++;
+					calls[depth] = w;
+					next[depth] = offsets[w];
+					arcs[depth] = k;
+					time++;
+					dis[w] = low[w] = time;
+				} else if (parent[u]!=w && dis[w]<dis[u]) {
+					s.push(edges.get(k));
+					if (dis[w]<low[u]) {
+						low[u] = dis[w];
+					}
+				}
+				continue;
+			}
+			
+			time++;
+			int k = arcs[depth];
+			depth--;
+			if (depth<0) break;
+			
+			int p = calls[depth];
+			if (low[u]>=dis[p]) {
+				if (dis[p]!=1 || dis[u]>2) {
+					super.addVertex(new BCTreeNode<E,V>(vertices.get(p)));
+				}
+				this.addComponent(edges.get(k));
+			}
+			if (low[u]<low[p]) {
+				low[p] = low[u];
+			}
+		}
     }
     
     private void addComponent(E e) {
@@ -277,20 +287,12 @@ public class BCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
     	return result;
     }
     
-    private boolean compareNodes(V i1, V i2) {
-    	if (i1==null && i2==null) return true;
-    	if (i1!=null) return i1.equals(i2);
-    	if (i2!=null) return false;
-    	
-    	return true;
-    }
-    
     /**
-     * TODO: can this be optimized?
+     * Connect every biconnected component with the articulation points of its vertices.
      */
     protected void constructTree() {
     	if (super.getVertices().isEmpty()) return;
-    	Collection<BCTreeNode<E,V>> artPoints = this.getArticulationPoints();
+    	List<BCTreeNode<E,V>> artPoints = new ArrayList<BCTreeNode<E,V>>(this.getArticulationPoints());
     	Collection<BCTreeNode<E,V>> biComps = this.getBiconnectedComponents();
     	
     	if (artPoints.isEmpty()) {
@@ -298,15 +300,43 @@ public class BCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
     		return;
     	}
     	else {
+    		// positions of articulation points of every vertex in the list of articulation points
+    		Map<V,List<Integer>> positions = new HashMap<V,List<Integer>>();
+    		for (int i=0; i<artPoints.size(); i++) {
+    			V v = artPoints.get(i).getArticulatioPoint();
+    			List<Integer> ps = positions.get(v);
+    			if (ps==null) {
+    				ps = new ArrayList<Integer>();
+    				positions.put(v, ps);
+    			}
+    			ps.add(i);
+    		}
+    		
+    		// edges are added in the order of edges of components and positions of articulation points
+    		boolean[] connected = new boolean[artPoints.size()];
+    		List<Integer> touched = new ArrayList<Integer>();
     		for (BCTreeNode<E,V> biComp : biComps) {
     			for (E e : biComp.getBiconnectedComponent()) {
-    				for (BCTreeNode<E,V> artPoint : artPoints)
-    					if (e.getVertices().contains(artPoint.getArticulatioPoint()))
-    						super.addEdge(biComp,artPoint);
+    				List<Integer> ps1 = positions.get(e.getV1());
+    				List<Integer> ps2 = e.getV1().equals(e.getV2()) ? null : positions.get(e.getV2());
+    				int i1 = 0, i2 = 0;
+    				int size1 = ps1==null ? 0 : ps1.size(), size2 = ps2==null ? 0 : ps2.size();
+    				while (i1<size1 || i2<size2) {
+    					int i;
+    					if (i2>=size2 || (i1<size1 && ps1.get(i1)<ps2.get(i2))) i = ps1.get(i1++);
+    					else i = ps2.get(i2++);
+    					
+    					if (connected[i]) continue;
+    					connected[i] = true;
+    					touched.add(i);
+    					super.addEdge(biComp,artPoints.get(i));
+    				}
     			}
+    			for (int i : touched) connected[i] = false;
+    			touched.clear();
     		}
         	
-        	super.reRoot(artPoints.iterator().next());
+        	super.reRoot(artPoints.get(0));
     	}
     }
 }
@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.jbpt.algo.tree.tctree.TCTree;
 import org.jbpt.algo.tree.tctree.TCTreeNode;
@@ -35,7 +36,10 @@ import org.jbpt.hypergraph.abs.Vertex;
  * Artem Polyvyanyy, Jussi Vanhatalo, and Hagen Voelzer. 
  * Simplified Computation and Generalization of the Refined Process Structure Tree. 
  * Proceedings of the 7th International Workshop on Web Services and Formal Methods (WS-FM). 
- * Hoboken, NJ, US, September 2010.
+ * Hoboken, NJ, US, September 2010.<br/><br/>
+ * 
+ * The triconnected components of the parts of the normalized graph that are in sequence can be computed by several threads, 
+ * see {@link TCTree}.
  * 
  * @see {@link DirectedGraphAlgorithm.isMultiTerminal} for checking if a graph is multi-terminal.
  * 
@@ -65,6 +69,30 @@ public class RPST<E extends IDirectedEdge<V>, V extends IVertex> extends Abstrac
 	 * @param graph A graph to build RPST for.
 	 */
 	public RPST(IDirectedGraph<E,V> graph) {
+		this(graph,1,null);
+	}
+	
+	/**
+	 * Constructor of the RPST whose triconnected components are computed by several threads.
+	 * 
+	 * @param graph A graph to build RPST for.
+	 * @param threads Number of threads.
+	 */
+	public RPST(IDirectedGraph<E,V> graph, int threads) {
+		this(graph,threads,null);
+	}
+	
+	/**
+	 * Constructor of the RPST whose triconnected components are computed by tasks submitted to an executor.
+	 * 
+	 * @param graph A graph to build RPST for.
+	 * @param executor Executor service; it is not shut down.
+	 */
+	public RPST(IDirectedGraph<E,V> graph, ExecutorService executor) {
+		this(graph,1,executor);
+	}
+	
+	private RPST(IDirectedGraph<E,V> graph, int threads, ExecutorService executor) {
 		if (graph==null) return;
 		if (graph.getEdges().isEmpty()) return;	
 		
@@ -75,7 +103,10 @@ public class RPST<E extends IDirectedEdge<V>, V extends IVertex> extends Abstrac
 		
 		this.normalizeGraph();
 		
-		this.tctree = new TCTree<DirectedEdge,Vertex>(this.normalizedGraph,this.backEdge);
+		if (executor!=null)
+			this.tctree = new TCTree<DirectedEdge,Vertex>(this.normalizedGraph,this.backEdge,executor);
+		else
+			this.tctree = new TCTree<DirectedEdge,Vertex>(this.normalizedGraph,this.backEdge,threads);
 		
 		this.constructRPST();
 	}
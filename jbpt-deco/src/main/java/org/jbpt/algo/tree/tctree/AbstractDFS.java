@@ -1,20 +1,24 @@
 package org.jbpt.algo.tree.tctree;
 
+import java.util.Arrays;
+
 import org.jbpt.graph.abs.IEdge;
-import org.jbpt.graph.abs.IGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
 /**
  * A standard Depth-first-search (DFS) implementation. 
  * It implements the same dummy-methods as the DFS algorithm in {@link y.algo.Dfs}, 
  * but operates on a given adjacency structure to determine the order in which paths are generated.
+ * <br><br>
+ * Vertices and edges are identified by their numbers in an {@link IndexedGraph}; the search uses an 
+ * explicit stack instead of recursion, so that its depth is not limited by the stack size of the thread.
  * 
  * @author Martin Mader
  * @author Christian Wiggert
  */
-public class AbstractDFS<E extends IEdge<V>, V extends IVertex> {
-	protected final V INVALID_NODE = null;
-	protected final E INVALID_EDGE = null;
+class AbstractDFS<E extends IEdge<V>, V extends IVertex> {
+	// Number of an invalid vertex or edge
+	protected static final int INVALID = -1;
 	
 	//Vertex not yet visited
 	public static final int WHITE = 0;
@@ -27,142 +31,123 @@ public class AbstractDFS<E extends IEdge<V>, V extends IVertex> {
 	public static final int TREE_EDGE = 1;
 	// Back edge
 	public static final int BACK_EDGE = 2;
-	// Adjacency Map
-	protected NodeMap<V> adj;
+	// Adjacency lists: for every vertex the edges in the order in which they are traversed
+	protected int[][] adj;
 	// The graph to operate on
-	protected IGraph<E, V> g;
-	// The MetaInfoContainer for the additional maps related to the graph
-	protected MetaInfoContainer meta;
-	// NodeMap storing DFS-Numbers
-	protected NodeMap<V> dfsNumMap;
-	// NodeMap storing Completion Numbers
-	protected NodeMap<V> complNumMap;
-	// NodeMap storing current vertex status: WHITE, GRAY, or BLACK
-	protected NodeMap<V> nodeStateMap;
-	// EdgeMap storing current edge type: EDGE_NOT_VISITED, TREE_EDGE or BACK_EDGE
-	protected EdgeMap<E, V> edgeTypeMap;
-	private int dfsNum = 0;
-	private int complNum = 0;
+	protected IndexedGraph<E,V> g;
+	// DFS-Numbers of vertices
+	protected int[] dfsNum;
+	// Completion Numbers of vertices
+	protected int[] complNum;
+	// current vertex status: WHITE, GRAY, or BLACK
+	protected int[] nodeState;
+	// current edge type: EDGE_NOT_VISITED, TREE_EDGE or BACK_EDGE
+	protected int[] edgeType;
+	private int dfsNumber = 0;
+	private int complNumber = 0;
 	
 	/**
 	 * Creates an instance of DFS which operates on the given graph and adjacency structure.
 	 * 
 	 * @param graph The graph on which to perform DFS.
-	 * @param adjMap The adjacency structure to be used.
-	 * 					in each entry must be contained an 
-	 * 					{@link y.base.EdgeList} 
-	 * 					of adjacent neighbors. DFS traverses edges 
-	 * 					the according order.				
+	 * @param adjLists The adjacency structure to be used: for every vertex the numbers of 
+	 * 					its edges; DFS traverses edges in this order.
 	 */
-	public AbstractDFS(IGraph<E, V> graph, MetaInfoContainer container, NodeMap<V> adjMap) {
+	AbstractDFS(IndexedGraph<E,V> graph, int[][] adjLists) {
 		g = graph;
-		adj = adjMap;
-		meta = container;
-		nodeStateMap = this.createNodeMap(g);
-		dfsNumMap = this.createNodeMap(g);
-		complNumMap = this.createNodeMap(g);
-		for (V node:g.getVertices()){
-			nodeStateMap.put(node, WHITE);
-			dfsNumMap.put(node, -1);
-			complNumMap.put(node, -1);
-		}
-		edgeTypeMap = this.createEdgeMap(g);
-		for (E edge:g.getEdges()){
-			edgeTypeMap.put(edge, EDGE_NOT_VISITED);
-		}
-		// add data provider
-		meta.setMetaInfo(MetaInfo.DFS_NUM, dfsNumMap);
-		meta.setMetaInfo(MetaInfo.DFS_COMPL_NUM, complNumMap);
-		meta.setMetaInfo(MetaInfo.DFS_NODE_STATE, nodeStateMap);
-		meta.setMetaInfo(MetaInfo.DFS_EDGE_TYPE, edgeTypeMap);
+		adj = adjLists;
+		int n = g.countVertices();
+		nodeState = new int[n];
+		dfsNum = new int[n];
+		complNum = new int[n];
+		Arrays.fill(nodeState, WHITE);
+		Arrays.fill(dfsNum, -1);
+		Arrays.fill(complNum, -1);
+		edgeType = new int[g.countEdges()];
+		Arrays.fill(edgeType, EDGE_NOT_VISITED);
 	}
 	
 	/**
 	 * starts a depth-first-search (DFS) beginning at the given 
 	 *  
-	 * @param root the root node of the DFS
+	 * @param root the number of the root node of the DFS
 	 */
-	public void start(V root) {
-		dfsNum = 0;
-		complNum = 0;
-		dfs(root);
-	}
-	
-	@SuppressWarnings("unchecked")
-	protected void dfs(V v){
-		dfsNum++;
-		dfsNumMap.put(v, dfsNum);
-		nodeStateMap.put(v, GRAY);
-		EdgeList<E, V> adjV = (EdgeList<E, V>) adj.get(v);
+	public void start(int root) {
+		dfsNumber = 0;
+		complNumber = 0;
 		
-		//System.out.println(v + ": " + adjV);
-		preVisit(v, (Integer) dfsNumMap.get(v));
+		// vertices on the current path, next positions in their adjacency lists, and tree edges leading to them
+		int n = g.countVertices();
+		int[] calls = new int[n];
+		int[] next = new int[n];
+		int[] arcs = new int[n];
+		int depth = 0;
+		calls[0] = root;
+		arcs[0] = INVALID;
+		this.enter(root);
 		
-		for (E e:adjV){
-			// traverse only not yet visited edges
-			//System.out.println("Visit: " + e);
-			if ((Integer) edgeTypeMap.get(e) == EDGE_NOT_VISITED) {
+		while (depth>=0) {
+			int v = calls[depth];
+			int[] adjV = adj[v];
+			if (next[depth]<adjV.length) {
+				int e = adjV[next[depth]++];
+				// traverse only not yet visited edges
+				if (edgeType[e]!=EDGE_NOT_VISITED) continue;
 				
-				V w = e.getOtherVertex(v);
+				int w = g.getOtherVertex(e, v);
 				// re-orient edge
-				e.setVertices(v,w);
+				g.setVertices(e, v, w);
 				
-				if ((Integer) nodeStateMap.get(w) == WHITE) {
+				if (nodeState[w]==WHITE) {
 					// tree edge found -> traverse edge
-					edgeTypeMap.put(e, TREE_EDGE);
-
+					edgeType[e] = TREE_EDGE;
+					
 					preTraverse(e, w, true);
-
-					dfs(w);
-
-					postTraverse(e, w);
-
+					
+					depth++;
+					calls[depth] = w;
+					next[depth] = 0;
+					arcs[depth] = e;
+					this.enter(w);
 				} else {
 					// back edge found
-					edgeTypeMap.put(e, BACK_EDGE);
-
+					edgeType[e] = BACK_EDGE;
+					
 					preTraverse(e, w, false);
 				}
+				continue;
 			}
 			
+			// backtrack
+			nodeState[v] = BLACK;
+			complNumber++;
+			complNum[v] = complNumber;
+			
+			postVisit(v, dfsNum[v], complNum[v]);
+			
+			int e = arcs[depth];
+			depth--;
+			if (depth>=0) postTraverse(e, v);
 		}
+	}
+	
+	private void enter(int v) {
+		dfsNumber++;
+		dfsNum[v] = dfsNumber;
+		nodeState[v] = GRAY;
 		
-		// backtrack
-		nodeStateMap.put(v, BLACK);
-		complNum++;
-		complNumMap.put(v, complNum);
-		
-		postVisit(v, (Integer) dfsNumMap.get(v), (Integer) complNumMap.get(v));
-		
-		
+		preVisit(v, dfsNum[v]);
 	}
 	
-	protected void preVisit(V v, int dfsNumber) {}
+	protected void preVisit(int v, int dfsNumber) {}
 	
-	protected  void preTraverse(E e, V w, boolean treeEdge) {}
+	protected void preTraverse(int e, int w, boolean treeEdge) {}
 	
-	protected  void postTraverse(E e, V w) {}
+	protected void postTraverse(int e, int w) {}
 	
-	protected  void postVisit(V v, int dfsNumber, int complNumber) {}
+	protected void postVisit(int v, int dfsNumber, int complNumber) {}
 
-	public EdgeMap<E, V> getEdgeTypeMap() {
-		return edgeTypeMap;
-	}
-	
-	protected EdgeMap<E, V> createEdgeMap(IGraph<E,V> g) {
-		EdgeMap<E, V> map = new EdgeMap<E, V>();
-		for (E e:g.getEdges()) {
-			map.put(e, null);
-		}
-		return map;
-	}
-	
-	protected NodeMap<V> createNodeMap(IGraph<E, V> g) {
-		NodeMap<V> map = new NodeMap<V>();
-		for (V v:g.getVertices()) {
-			map.put(v, null);
-		}
-		return map;
+	public int[] getEdgeTypes() {
+		return edgeType;
 	}
-
 }
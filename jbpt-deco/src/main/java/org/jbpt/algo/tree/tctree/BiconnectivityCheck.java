@@ -2,8 +2,9 @@ package org.jbpt.algo.tree.tctree;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.jbpt.graph.abs.IEdge;
@@ -13,25 +14,7 @@ import org.jbpt.hypergraph.abs.IVertex;
 
 public class BiconnectivityCheck<E extends IEdge<V>, V extends IVertex> {
 	
-	protected class NodeAttrs {
-		boolean visited;
-        boolean cut;
-        V parent;
-        int low;
-        int dis;
-
-        public NodeAttrs() {
-            visited = false;
-            cut = false;
-            parent = null;
-            low = 0;
-            dis = 0;
-        }
-    }
-	
 	private IGraph<E,V> graph;
-	private Iterator<V> nodes = null;
-    private Hashtable<V,NodeAttrs> attrs = null;
     
     private Collection<EdgeList<E,V>> components = new ArrayList<EdgeList<E,V>>();
     private Stack<E> s = new Stack<E>();
@@ -41,12 +24,7 @@ public class BiconnectivityCheck<E extends IEdge<V>, V extends IVertex> {
     private boolean isBiconnected;
 	
 	public BiconnectivityCheck(IGraph<E,V> graph) {
-		this.nodes = graph.getVertices().iterator();
-        this.attrs = new Hashtable<V,NodeAttrs>(graph.getVertices().size());
 		this.graph = graph;
-		while (nodes.hasNext()) {
-            prepareNode(nodes.next());
-        }
 		
 		startNode = graph.getVertices().iterator().next();
 		
@@ -63,48 +41,84 @@ public class BiconnectivityCheck<E extends IEdge<V>, V extends IVertex> {
 		return this.isBiconnected;
 	}
 	
+	/**
+	 * Depth-first search from v; the search uses an explicit stack, so that its depth is not limited by the thread stack size.
+	 */
 	private void process(V v) {
-		NodeAttrs att = (NodeAttrs)attrs.get(v);
-        att.visited = true;
-        time++;
-        att.dis = time;
-        att.low = att.dis;
-        V w;
-        
-        Collection<E> edges = new ArrayList<E>();
-        edges.addAll(this.graph.getEdges(v));
-        
-        for (E e : edges) {
-            if (v.equals(e.getV1())) w = e.getV2();
-            else w = e.getV1();
-            
-            NodeAttrs watt = (NodeAttrs)attrs.get(w);
-            
-            if (!watt.visited) {
-                s.push(e);
-                watt.parent = v;
-                process(w);
-                
-                if (watt.low >= att.dis) {
-                    if (att.dis != 1) {
-                        att.cut = true;
-                    } else if (watt.dis > 2) {
-                        att.cut = true;
-                    }
-                    addComponent(e);
-                }
-                if (watt.low < att.low) {
-                    att.low = watt.low;
-                }
-            } else if (!compareInts(att.parent, w) && (watt.dis < att.dis)) { // (att.parent != w)
-                s.push(e);
-                if (watt.dis < att.low) {
-                    att.low = watt.dis;
-                }
-            }
-        }
-        
-        time++;
+		// number vertices and store adjacency lists as consecutive segments of one array
+		List<V> vertices = new ArrayList<V>(this.graph.getVertices());
+		int n = vertices.size();
+		Map<V,Integer> indexes = new HashMap<V,Integer>(n*2);
+		for (int i=0; i<n; i++) indexes.put(vertices.get(i), i);
+		
+		int[] offsets = new int[n+1];
+		List<E> edges = new ArrayList<E>();
+		for (int i=0; i<n; i++) {
+			edges.addAll(this.graph.getEdges(vertices.get(i)));
+			offsets[i+1] = edges.size();
+		}
+		int[] others = new int[edges.size()];
+		for (int i=0; i<n; i++) {
+			V u = vertices.get(i);
+			for (int k=offsets[i]; k<offsets[i+1]; k++) {
+				E e = edges.get(k);
+				others[k] = indexes.get(u.equals(e.getV1()) ? e.getV2() : e.getV1());
+			}
+		}
+		
+		// discovery times (0 if not visited), low-points and parents of vertices
+		int[] dis = new int[n];
+		int[] low = new int[n];
+		int[] parent = new int[n];
+		// vertices on the current path, next positions in their adjacency lists, and tree edges leading to them
+		int[] calls = new int[n];
+		int[] next = new int[n];
+		int[] arcs = new int[n];
+		
+		int depth = 0;
+		calls[0] = indexes.get(v);
+		next[0] = offsets[calls[0]];
+		parent[calls[0]] = -1;
+		time++;
+		dis[calls[0]] = low[calls[0]] = time;
+		
+		while (depth>=0) {
+			int u = calls[depth];
+			if (next[depth]<offsets[u+1]) {
+				int k = next[depth]++;
+				int w = others[k];
+				
+				if (dis[w]==0) {
+					s.push(edges.get(k));
+					parent[w] = u;
+					depth++;
+					calls[depth] = w;
+					next[depth] = offsets[w];
+					arcs[depth] = k;
+					time++;
+					dis[w] = low[w] = time;
+				} else if (parent[u]!=w && dis[w]<dis[u]) {
+					s.push(edges.get(k));
+					if (dis[w]<low[u]) {
+						low[u] = dis[w];
+					}
+				}
+				continue;
+			}
+			
+			time++;
+			int k = arcs[depth];
+			depth--;
+			if (depth<0) break;
+			
+			int p = calls[depth];
+			if (low[u]>=dis[p]) {
+				addComponent(edges.get(k));
+			}
+			if (low[u]<low[p]) {
+				low[p] = low[u];
+			}
+		}
 	}
 
 	private void addComponent(E e) {
@@ -118,21 +132,4 @@ public class BiconnectivityCheck<E extends IEdge<V>, V extends IVertex> {
         
         components.add(comp);
     }
-
-    private boolean compareInts(V i1, V i2) {
-    	if (i1==null && i2==null) return true;
-    	if (i1!=null) return i1.equals(i2);
-    	if (i2!=null) return false;
-    	
-    	return true;
-    }
-    
-	private void prepareNode(V node) {
-        attrs.put(node, new NodeAttrs());
-    }
-    
-    @SuppressWarnings("unused")
-	private boolean visited(V node) {
-        return ((NodeAttrs)attrs.get(node)).visited;
-    }
 }
@@ -0,0 +1,160 @@
+package org.jbpt.algo.tree.tctree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpt.graph.abs.IEdge;
+import org.jbpt.hypergraph.abs.IVertex;
+
+/**
+ * Numbering of the vertices and edges of a skeleton that is decomposed into triconnected components.<br/><br/>
+ * 
+ * Vertices are numbered 0..n-1, edges are numbered in the order in which they are registered; virtual edges 
+ * that are created during the decomposition get new numbers. End-points and flags of edges are stored in 
+ * arrays indexed by these numbers, so that the depth-first searches of the decomposition do not look up maps.
+ * 
+ * @param <E> Edge template.
+ * @param <V> Vertex template.
+ */
+class IndexedGraph<E extends IEdge<V>, V extends IVertex> {
+	// skeleton to decompose
+	TCSkeleton<E,V> skeleton = null;
+	
+	// vertices and edges by number, and numbers of vertices and edges
+	private List<V> vertices = null;
+	private Map<V,Integer> vertexIds = null;
+	private List<E> edges = null;
+	private Map<E,Integer> edgeIds = null;
+	
+	// end-points of edges
+	int[] v1 = null;
+	int[] v2 = null;
+	// flags of edges: virtual edge, and hidden edge, i.e., edge that is removed from the skeleton
+	boolean[] virtual = null;
+	boolean[] hidden = null;
+	// virtual edge of the split component to which each edge is assigned (-1 if none)
+	int[] assigned = null;
+	// entry of each back edge in the list of high-points of its target (-1 if none)
+	int[] high = null;
+	
+	IndexedGraph(TCSkeleton<E,V> skeleton) {
+		this.skeleton = skeleton;
+		
+		this.vertices = new ArrayList<V>(skeleton.getVertices());
+		this.vertexIds = new HashMap<V,Integer>(this.vertices.size()*2);
+		for (int i=0; i<this.vertices.size(); i++) 
+			this.vertexIds.put(this.vertices.get(i), i);
+		
+		int m = skeleton.countEdges();
+		this.edges = new ArrayList<E>(m);
+		this.edgeIds = new HashMap<E,Integer>(m*2);
+		this.v1 = new int[Math.max(m, 4)];
+		this.v2 = new int[this.v1.length];
+		this.virtual = new boolean[this.v1.length];
+		this.hidden = new boolean[this.v1.length];
+		this.assigned = new int[this.v1.length];
+		this.high = new int[this.v1.length];
+		for (E e : skeleton.getEdges()) {
+			if (skeleton.isVirtual(e))
+				this.addVirtualEdge(e);
+			else
+				this.addEdge(e);
+		}
+	}
+	
+	int countVertices() {
+		return this.vertices.size();
+	}
+	
+	int countEdges() {
+		return this.edges.size();
+	}
+	
+	V getVertex(int v) {
+		return this.vertices.get(v);
+	}
+	
+	E getEdge(int e) {
+		return this.edges.get(e);
+	}
+	
+	/**
+	 * @return Number of the vertex, or -1 if the vertex is not numbered.
+	 */
+	int getVertexId(V v) {
+		Integer i = this.vertexIds.get(v);
+		return i==null ? -1 : i;
+	}
+	
+	/**
+	 * @return Number of the edge, or -1 if the edge is not numbered.
+	 */
+	int getEdgeId(E e) {
+		Integer i = this.edgeIds.get(e);
+		return i==null ? -1 : i;
+	}
+	
+	/**
+	 * Number an edge of the skeleton.
+	 * 
+	 * @param e Edge.
+	 * @return Number of the edge.
+	 */
+	int addEdge(E e) {
+		int id = this.edges.size();
+		if (id==this.v1.length) {
+			int length = id*2;
+			this.v1 = Arrays.copyOf(this.v1, length);
+			this.v2 = Arrays.copyOf(this.v2, length);
+			this.virtual = Arrays.copyOf(this.virtual, length);
+			this.hidden = Arrays.copyOf(this.hidden, length);
+			this.assigned = Arrays.copyOf(this.assigned, length);
+			this.high = Arrays.copyOf(this.high, length);
+		}
+		
+		this.edges.add(e);
+		this.edgeIds.put(e, id);
+		this.v1[id] = this.getVertexId(e.getV1());
+		this.v2[id] = this.getVertexId(e.getV2());
+		this.assigned[id] = -1;
+		this.high[id] = -1;
+		return id;
+	}
+	
+	/**
+	 * Number a virtual edge of the skeleton.
+	 * 
+	 * @param e Virtual edge.
+	 * @return Number of the edge.
+	 */
+	int addVirtualEdge(E e) {
+		int id = this.addEdge(e);
+		this.virtual[id] = true;
+		return id;
+	}
+	
+	/**
+	 * Get the end-point of an edge that is opposite to a given end-point.
+	 * 
+	 * @return Number of the other end-point, or -1 if v is not an end-point of the edge.
+	 */
+	int getOtherVertex(int e, int v) {
+		if (this.v1[e]==v) return this.v2[e];
+		if (this.v2[e]==v) return this.v1[e];
+		
+		return -1;
+	}
+	
+	/**
+	 * Re-orient an edge from v to w. As for the edge object, edges that are removed from the skeleton keep their orientation.
+	 */
+	void setVertices(int e, int v, int w) {
+		E edge = this.edges.get(e);
+		edge.setVertices(this.vertices.get(v), this.vertices.get(w));
+		this.v1[e] = this.getVertexId(edge.getV1());
+		this.v2[e] = this.getVertexId(edge.getV2());
+	}
+}
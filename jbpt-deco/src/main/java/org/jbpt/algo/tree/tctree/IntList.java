@@ -0,0 +1,77 @@
+package org.jbpt.algo.tree.tctree;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of int values, used for lists and stacks of edge numbers during the decomposition.
+ * Stack operations work on the end of the list.
+ */
+class IntList {
+	
+	private int[] values = new int[4];
+	private int size = 0;
+	
+	int size() {
+		return this.size;
+	}
+	
+	boolean isEmpty() {
+		return this.size==0;
+	}
+	
+	int get(int index) {
+		return this.values[index];
+	}
+	
+	void add(int value) {
+		if (this.size==this.values.length) this.values = Arrays.copyOf(this.values, this.size*2);
+		this.values[this.size++] = value;
+	}
+	
+	void add(int index, int value) {
+		this.add(value);
+		System.arraycopy(this.values, index, this.values, index+1, this.size-index-1);
+		this.values[index] = value;
+	}
+	
+	void addAll(IntList list) {
+		for (int i=0; i<list.size; i++) this.add(list.values[i]);
+	}
+	
+	/**
+	 * Remove the first occurrence of a value.
+	 * 
+	 * @return <tt>true</tt> if the value was contained in the list; otherwise <tt>false</tt>.
+	 */
+	boolean removeValue(int value) {
+		for (int i=0; i<this.size; i++) {
+			if (this.values[i]!=value) continue;
+			System.arraycopy(this.values, i+1, this.values, i, this.size-i-1);
+			this.size--;
+			return true;
+		}
+		
+		return false;
+	}
+	
+	void push(int value) {
+		this.add(value);
+	}
+	
+	int peek() {
+		return this.values[this.size-1];
+	}
+	
+	int pop() {
+		return this.values[--this.size];
+	}
+	
+	int[] toArray() {
+		return Arrays.copyOf(this.values, this.size);
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(this.toArray());
+	}
+}
@@ -1,7 +1,8 @@
 package org.jbpt.algo.tree.tctree;
 
+import java.util.Arrays;
+
 import org.jbpt.graph.abs.IEdge;
-import org.jbpt.graph.abs.IGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
 /**
@@ -18,93 +19,83 @@ import org.jbpt.hypergraph.abs.IVertex;
  * @author Christian Wiggert
  *
  */
-public class LowAndDescDFS<E extends IEdge<V>, V extends IVertex> extends ParentAndPathDFS<E, V> {
+class LowAndDescDFS<E extends IEdge<V>, V extends IVertex> extends ParentAndPathDFS<E, V> {
 	
 	/**
-	 * NodeMap storing the low-point 1 number of each vertex
+	 * the low-point 1 number of each vertex
 	 */
-	protected NodeMap<V> lowpt1NumMap;
+	protected int[] lowpt1Num;
 	/**
-	 * NodeMap storing the low-point 2 number of each vertex
+	 * the low-point 2 number of each vertex
 	 */
-	protected NodeMap<V> lowpt2NumMap;
+	protected int[] lowpt2Num;
 	/**
-	 * NodeMap storing vertex corresponding to the low-point 1 number of each vertex
+	 * vertex corresponding to the low-point 1 number of each vertex
 	 */
-	protected NodeMap<V> lowpt1VertexMap;
+	protected int[] lowpt1Vertex;
 	/**
-	 * NodeMap storing vertex corresponding to the low-point 2 number of each vertex
+	 * vertex corresponding to the low-point 2 number of each vertex
 	 */
-	protected NodeMap<V> lowpt2VertexMap;
+	protected int[] lowpt2Vertex;
 	/**
-	 * NodeMap storing for each vertex its number of descendants
+	 * for each vertex its number of descendants
 	 */
-	protected NodeMap<V> numDescMap;
+	protected int[] numDesc;
 	
 
-	public LowAndDescDFS(IGraph<E, V> graph, MetaInfoContainer container, NodeMap<V> adjMap) {
-		super(graph, container, adjMap);
-		lowpt1NumMap = this.createNodeMap(g);
-		lowpt2NumMap = this.createNodeMap(g);
-		lowpt1VertexMap = this.createNodeMap(g);
-		lowpt2VertexMap = this.createNodeMap(g);
-		numDescMap = this.createNodeMap(g);
-		
-		
-		for (V node:g.getVertices()){
-			lowpt1NumMap.put(node, -1);
-			lowpt2NumMap.put(node, -1);
-			lowpt1VertexMap.put(node, INVALID_NODE);
-			lowpt2VertexMap.put(node, INVALID_NODE);
-			numDescMap.put(node, -1);
-		}
-		
-		// add data provider
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT1_NUM, lowpt1NumMap);
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT2_NUM, lowpt2NumMap);
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT1_VERTEX, lowpt1VertexMap);
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT2_VERTEX, lowpt2VertexMap);
-		meta.setMetaInfo(MetaInfo.DFS_NUM_DESC, numDescMap);
+	LowAndDescDFS(IndexedGraph<E,V> graph, int[][] adjLists) {
+		super(graph, adjLists);
+		int n = g.countVertices();
+		lowpt1Num = new int[n];
+		lowpt2Num = new int[n];
+		lowpt1Vertex = new int[n];
+		lowpt2Vertex = new int[n];
+		numDesc = new int[n];
 		
+		Arrays.fill(lowpt1Num, -1);
+		Arrays.fill(lowpt2Num, -1);
+		Arrays.fill(lowpt1Vertex, INVALID);
+		Arrays.fill(lowpt2Vertex, INVALID);
+		Arrays.fill(numDesc, -1);
 	}
 
 
 
 	@Override
-	protected void preVisit(V v, int dfsNumber) {
+	protected void preVisit(int v, int dfsNumber) {
 		super.preVisit(v, dfsNumber);
 		// initialize low-point numbers with dfs number
-		lowpt1NumMap.put(v, dfsNumber);
-		lowpt2NumMap.put(v, dfsNumber);
-		lowpt1VertexMap.put(v, v);
-		lowpt2VertexMap.put(v, v);
+		lowpt1Num[v] = dfsNumber;
+		lowpt2Num[v] = dfsNumber;
+		lowpt1Vertex[v] = v;
+		lowpt2Vertex[v] = v;
 		// initialize number of descendants
-		numDescMap.put(v, 1);
+		numDesc[v] = 1;
 	}
 
 
 
 	@Override
-	protected void preTraverse(E e, V w, boolean treeEdge) {
+	protected void preTraverse(int e, int w, boolean treeEdge) {
 		super.preTraverse(e, w, treeEdge);
 		
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		if (!treeEdge){
 			// update low-point numbers for v
-			if ((Integer) dfsNumMap.get(w) < (Integer) lowpt1NumMap.get(v)){
+			if (dfsNum[w] < lowpt1Num[v]){
 				// the found back edge reaches lower than current low1(v)
 				// -> low2(v) gets low1(v)
-				lowpt2NumMap.put(v, (Integer) lowpt1NumMap.get(v));
-				lowpt2VertexMap.put(v, lowpt1VertexMap.get(v));
+				lowpt2Num[v] = lowpt1Num[v];
+				lowpt2Vertex[v] = lowpt1Vertex[v];
 				// -> low1(v) gets target of found back edge
-				lowpt1NumMap.put(v, (Integer) dfsNumMap.get(w));
-				lowpt1VertexMap.put(v,w);
-			}else if ((Integer) dfsNumMap.get(w) > (Integer) lowpt1NumMap.get(v)) {
+				lowpt1Num[v] = dfsNum[w];
+				lowpt1Vertex[v] = w;
+			}else if (dfsNum[w] > lowpt1Num[v]) {
 				// low1(v) needs not to be changed
 				// low2(v) possibly gets the target of the found back edge
-				if ((Integer) dfsNumMap.get(w) < (Integer) lowpt2NumMap.get(v)){
-					lowpt2NumMap.put(v, (Integer) dfsNumMap.get(w));
-					lowpt2VertexMap.put(v,w);
+				if (dfsNum[w] < lowpt2Num[v]){
+					lowpt2Num[v] = dfsNum[w];
+					lowpt2Vertex[v] = w;
 				}
 			}
 			
@@ -112,41 +103,41 @@ public class LowAndDescDFS<E extends IEdge<V>, V extends IVertex> extends Parent
 	}
 
 	@Override
-	protected void postTraverse(E e, V w) {
+	protected void postTraverse(int e, int w) {
 		super.postTraverse(e, w);
 		
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		// update low-point numbers for v
-		if ((Integer) lowpt1NumMap.get(w) < (Integer) lowpt1NumMap.get(v)) {
+		if (lowpt1Num[w] < lowpt1Num[v]) {
 			// low1(v) gets low1(w)
 			// low2(v) either gets low1(v) or low2(w)
-			int min = Math.min((Integer) lowpt1NumMap.get(v), (Integer) lowpt2NumMap.get(w));
-			lowpt2NumMap.put(v, min);
-			if (min == (Integer) lowpt1NumMap.get(v)) {
-				lowpt2VertexMap.put(v, lowpt1VertexMap.get(v));
+			int min = Math.min(lowpt1Num[v], lowpt2Num[w]);
+			lowpt2Num[v] = min;
+			if (min == lowpt1Num[v]) {
+				lowpt2Vertex[v] = lowpt1Vertex[v];
 			} else {
-				lowpt2VertexMap.put(v, lowpt2VertexMap.get(w));
+				lowpt2Vertex[v] = lowpt2Vertex[w];
 			}
-			lowpt1NumMap.put(v, (Integer) lowpt1NumMap.get(w));
-			lowpt1VertexMap.put(v, lowpt1VertexMap.get(w));
-		} else if ((Integer) lowpt1NumMap.get(w) == (Integer) lowpt1NumMap.get(v)) {
+			lowpt1Num[v] = lowpt1Num[w];
+			lowpt1Vertex[v] = lowpt1Vertex[w];
+		} else if (lowpt1Num[w] == lowpt1Num[v]) {
 			// low1(v) needs not to be changed
 			// low2(v) possibly gets low2(w)
-			if ((Integer) lowpt2NumMap.get(w) < (Integer) lowpt2NumMap.get(v)) {
-				lowpt2NumMap.put(v, (Integer) lowpt2NumMap.get(w));
-				lowpt2VertexMap.put(v, lowpt2VertexMap.get(w));
+			if (lowpt2Num[w] < lowpt2Num[v]) {
+				lowpt2Num[v] = lowpt2Num[w];
+				lowpt2Vertex[v] = lowpt2Vertex[w];
 			}
 		} else {
 			// low1(v) is lower than low1(w)
 			// -> low1(v) needs not to be changed
 			// low2(v) gets low1(w) if low1(w) is lower
-			if ((Integer) lowpt1NumMap.get(w) < (Integer) lowpt2NumMap.get(v)) {
-				lowpt2NumMap.put(v, (Integer) lowpt1NumMap.get(w));
-				lowpt2VertexMap.put(v, lowpt1VertexMap.get(w));
+			if (lowpt1Num[w] < lowpt2Num[v]) {
+				lowpt2Num[v] = lowpt1Num[w];
+				lowpt2Vertex[v] = lowpt1Vertex[w];
 			}
 		}
 		// update number of descendants
-		numDescMap.put(v, (Integer) numDescMap.get(v) + (Integer) numDescMap.get(w));
+		numDesc[v] = numDesc[v] + numDesc[w];
 	}
 
 	
@@ -3,7 +3,10 @@ package org.jbpt.algo.tree.tctree;
  * @author Martin Mader
  * @author Christian Wiggert
  *
+ * @deprecated Not used anymore. The depth-first searches of {@link TCTree} are internal to this package and
+ * keep their data in arrays indexed by vertex and edge numbers. This type is kept for compatibility only.
  */
+@Deprecated
 public enum MetaInfo {
 	HIDDEN_EDGES,
 	ASSIGNED_VIRTUAL_EDGES,
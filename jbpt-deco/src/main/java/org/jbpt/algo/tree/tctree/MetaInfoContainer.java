@@ -8,7 +8,10 @@ import java.util.HashMap;
  * 
  * @author Christian Wiggert
  *
+ * @deprecated Not used anymore. The depth-first searches of {@link TCTree} are internal to this package and
+ * keep their data in arrays indexed by vertex and edge numbers. This type is kept for compatibility only.
  */
+@Deprecated
 public class MetaInfoContainer {
 	
 	private HashMap<MetaInfo, Object> map;
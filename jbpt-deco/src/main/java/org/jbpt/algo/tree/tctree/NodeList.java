@@ -11,7 +11,10 @@ import org.jbpt.hypergraph.abs.IVertex;
  * @author Christian Wiggert
  *
  * @param Implementation of IVertex
+ * @deprecated Not used anymore. The depth-first searches of {@link TCTree} are internal to this package and
+ * keep their data in arrays indexed by vertex and edge numbers. This type is kept for compatibility only.
  */
+@Deprecated
 public class NodeList<V extends IVertex> extends ArrayList<V> {
 
 	/**
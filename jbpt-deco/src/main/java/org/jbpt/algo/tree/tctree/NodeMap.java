@@ -10,7 +10,10 @@ import org.jbpt.hypergraph.abs.IVertex;
  * 
  * @author Christian Wiggert
  *
+ * @deprecated Not used anymore. The depth-first searches of {@link TCTree} are internal to this package and
+ * keep their data in arrays indexed by vertex and edge numbers. This type is kept for compatibility only.
  */
+@Deprecated
 public class NodeMap<V extends IVertex> extends HashMap<V, Object> {
 
 	/**
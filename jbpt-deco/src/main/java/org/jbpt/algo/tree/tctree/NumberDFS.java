@@ -1,13 +1,14 @@
 package org.jbpt.algo.tree.tctree;
 
+import java.util.Arrays;
+
 import org.jbpt.graph.abs.IEdge;
-import org.jbpt.graph.abs.IGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
 /**
  * This class corresponds to the second execution of DFS during the
  * triconnectivity algorithm of Hopcroft and Tarjan. It determines 
- * the final numbering of vertices and the list of high-points used 
+ * the final numbering of vertices and the high-points used 
  * in the last stage of the triconnectivity algorithm. To correctly 
  * do this, an instance of {@link LowAndDescDFS} must have already 
  * been run on the given graph and the given adjacency structure must 
@@ -23,32 +24,37 @@ import org.jbpt.hypergraph.abs.IVertex;
  * 					been run on the given graph.
  *
  */
-public class NumberDFS<E extends IEdge<V>, V extends IVertex> extends ParentAndPathDFS<E, V> {
+class NumberDFS<E extends IEdge<V>, V extends IVertex> extends ParentAndPathDFS<E, V> {
 	
 	/**
-	 * NodeMap storing for each vertex its list of high-points
+	 * the first DFS, which provides low-point vertices and numbers of descendants
+	 */
+	protected LowAndDescDFS<E,V> first;
+	/**
+	 * for each vertex the back edges that end at the vertex in the order 
+	 * in which they are visited; the source of the first one is the high-point
 	 */
-	protected NodeMap<V> highptMap;
+	protected IntList[] highpt;
 	/**
-	 * NodeMap storing the new number of each vertex 
+	 * the new number of each vertex 
 	 * (according to inverse post-order numbering)
 	 */
-	protected NodeMap<V> numVMap;
+	protected int[] numV;
 	/**
-	 * NodeMap storing foe each vertex its number of leaving 
+	 * for each vertex its number of leaving 
 	 * tree edges
 	 */
-	protected NodeMap<V> numTreeEdgesMap;
+	protected int[] numTreeEdges;
 	/**
-	 * NodeMap storing for each vertex its low-point 1 number 
+	 * for each vertex its low-point 1 number 
 	 * according to the inverse post-order numbering
 	 */
-	protected NodeMap<V> lowpt1NumMap;
+	protected int[] lowpt1Num;
 	/**
-	 * NodeMap storing for each vertex its low-point 2 number 
+	 * for each vertex its low-point 2 number 
 	 * according to the inverse post-order numbering
 	 */
-	protected NodeMap<V> lowpt2NumMap;
+	protected int[] lowpt2Num;
 	private int m = -1;
 	
 	/**
@@ -56,76 +62,63 @@ public class NumberDFS<E extends IEdge<V>, V extends IVertex> extends ParentAndP
 	 * and adjacency structure.
 	 * 
 	 * @param graph 	the graph on which to perform DFS
-	 * @param adjMap	the adjacency structure to be used.
-	 * 					in each entry must be contained an 
-	 * 					{@link y.base.EdgeList} 
-	 * 					of adjacent neighbors. DFS traverses edges 
-	 * 					the according order.				
+	 * @param adjLists	the adjacency structure to be used: for every 
+	 * 					vertex the numbers of its edges; DFS traverses 
+	 * 					edges in this order.
+	 * @param first		the first DFS that has been run on the graph
 	 */
-	public NumberDFS(IGraph<E, V> graph, MetaInfoContainer container, NodeMap<V> adjMap) {
-		super(graph, container, adjMap);
+	NumberDFS(IndexedGraph<E,V> graph, int[][] adjLists, LowAndDescDFS<E,V> first) {
+		super(graph, adjLists);
+		this.first = first;
 		
-		highptMap = this.createNodeMap(g);
-		numVMap = this.createNodeMap(g);
-		numTreeEdgesMap = this.createNodeMap(g);
-		lowpt1NumMap = this.createNodeMap(g);
-		lowpt2NumMap = this.createNodeMap(g);
+		int n = g.countVertices();
+		highpt = new IntList[n];
+		numV = new int[n];
+		numTreeEdges = new int[n];
+		lowpt1Num = new int[n];
+		lowpt2Num = new int[n];
 		
-		for (V node:g.getVertices()){
-			highptMap.put(node, new NodeList<V>());
-			numVMap.put(node, -1);
-			numTreeEdgesMap.put(node, -1);
-		}
+		for (int v=0; v<n; v++) highpt[v] = new IntList();
+		Arrays.fill(numV, -1);
+		Arrays.fill(numTreeEdges, -1);
 		
-		m = g.countVertices();
-		
-		
-		// add data provider
-		meta.setMetaInfo(MetaInfo.DFS_HIGHPT_LISTS, highptMap);
-		meta.setMetaInfo(MetaInfo.DFS_NUM_V, numVMap);
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT1_NUM, lowpt1NumMap);
-		meta.setMetaInfo(MetaInfo.DFS_LOWPT2_NUM, lowpt2NumMap);
-		meta.setMetaInfo(MetaInfo.DFS_NUM_TREE_EDGES, numTreeEdgesMap);
+		m = n;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	protected void preVisit(V v, int dfsNumber) {
+	protected void preVisit(int v, int dfsNumber) {
 		super.preVisit(v, dfsNumber);
-		numVMap.put(v, m - ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM_DESC)).getInt(v) + 1);
-		numTreeEdgesMap.put(v, 0);
+		numV[v] = m - first.numDesc[v] + 1;
+		numTreeEdges[v] = 0;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	protected void preTraverse(E e, V w, boolean treeEdge) {
+	protected void preTraverse(int e, int w, boolean treeEdge) {
 		super.preTraverse(e, w, treeEdge);
-		// if back edge add high-point to w
+		// if back edge add it to the list of high-points of w
 		if (!treeEdge){
-			((NodeList<V>) highptMap.get(w)).add(e.getOtherVertex(w));
+			highpt[w].add(e);
 		}
 	}
 
 	@Override
-	protected void postTraverse(E e, V w) {
+	protected void postTraverse(int e, int w) {
 		super.postTraverse(e, w);
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		m--;
-		numTreeEdgesMap.put(v, (Integer) numTreeEdgesMap.get(v) + 1);
+		numTreeEdges[v] = numTreeEdges[v] + 1;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	protected void postVisit(V v, int dfsNumber, int complNumber) {
+	protected void postVisit(int v, int dfsNumber, int complNumber) {
 		super.postVisit(v, dfsNumber, complNumber);
 		// adjust low point numbers to new numbering
-		lowpt1NumMap.put(v, (Integer) numVMap.get(((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_VERTEX)).get(v)));
-		lowpt2NumMap.put(v, (Integer) numVMap.get(((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT2_VERTEX)).get(v)));	
+		lowpt1Num[v] = numV[first.lowpt1Vertex[v]];
+		lowpt2Num[v] = numV[first.lowpt2Vertex[v]];	
 	}
 
-	public NodeMap<V> getHighptMap() {
-		return highptMap;
+	public IntList[] getHighpts() {
+		return highpt;
 	}
 
 }
-
@@ -1,91 +1,80 @@
 package org.jbpt.algo.tree.tctree;
 
+import java.util.Arrays;
+
 import org.jbpt.graph.abs.IEdge;
-import org.jbpt.graph.abs.IGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
 /**
- * This class computes the tree structure during the DFS, stored in a 
- * {@link NodeMap} containing for each vertex its parent node 
- * within the DFS palm tree, accessible through the MetaInfo 
- * {@link MetaInfo.DFS_PARENT}. 
- * It also assigns each edge the number of the path on which it occurs 
- * ({@link MetaInfo.DFS_PATH_NUMBER}), and a flag whether it is a first 
- * edge on some path or not ({@link MetaInfo.DFS_STARTS_NEW_PATH}).
+ * This class computes the tree structure during the DFS, stored in an 
+ * array containing for each vertex its parent node 
+ * within the DFS palm tree. 
+ * It also assigns each edge the number of the path on which it occurs, 
+ * and a flag whether it is a first edge on some path or not.
  *
  * @author Martin Mader
  * @author Christian Wiggert
  *
  */
-public class ParentAndPathDFS<E extends IEdge<V>, V extends IVertex> extends AbstractDFS<E, V> {
+class ParentAndPathDFS<E extends IEdge<V>, V extends IVertex> extends AbstractDFS<E, V> {
 	
 	/**
-	 * NodeMap storing for each vertex its parent vertex
+	 * for each vertex its parent vertex
 	 */
-	protected NodeMap<V> parentMap;
+	protected int[] parent;
 	/**
-	 * NodeMap storing for each vertex the tree edge entering the vertex 
+	 * for each vertex the tree edge entering the vertex 
 	 */
-	protected NodeMap<V> treeArcMap;
+	protected int[] treeArc;
 	/**
-	 * EdgeMap storing for each edge whether it starts a new path
+	 * for each edge whether it starts a new path
 	 */
-	protected EdgeMap<E, V> startsNewPathMap;
+	protected boolean[] startsNewPath;
 	/**
-	 * EdgeMap storing for each edge the number of the path on which it lies
+	 * for each edge the number of the path on which it lies
 	 */
-	protected EdgeMap<E, V> pathNumMap;
+	protected int[] pathNum;
 	
 	private boolean isNewPath = true;
 	private int pathNumber = 1;
 
 	/**
 	 * @param graph 	the graph on which DFS is to be executed on
-	 * @param adjMap	the adjaceny map of graph
+	 * @param adjLists	the adjacency lists of graph
 	 */
-	public ParentAndPathDFS(IGraph<E, V> graph, MetaInfoContainer container, NodeMap<V> adjMap) {
-		super(graph, container, adjMap);
-		parentMap = this.createNodeMap(g);
-		treeArcMap = this.createNodeMap(g);
-		startsNewPathMap = this.createEdgeMap(g);
-		pathNumMap = this.createEdgeMap(g);
+	ParentAndPathDFS(IndexedGraph<E,V> graph, int[][] adjLists) {
+		super(graph, adjLists);
+		parent = new int[g.countVertices()];
+		treeArc = new int[g.countVertices()];
+		startsNewPath = new boolean[g.countEdges()];
+		pathNum = new int[g.countEdges()];
 		
-		for (V node:g.getVertices()){
-			parentMap.put(node, INVALID_NODE);
-			treeArcMap.put(node, INVALID_EDGE);
-		}
-		for (E edge:g.getEdges()){
-			pathNumMap.put(edge, -1);
-			startsNewPathMap.put(edge, false);
-		}
-		
-		// add data provider
-		meta.setMetaInfo(MetaInfo.DFS_PARENT, parentMap);
-		meta.setMetaInfo(MetaInfo.DFS_PATH_NUMBER, pathNumMap);
-		meta.setMetaInfo(MetaInfo.DFS_STARTS_NEW_PATH, startsNewPathMap);
+		Arrays.fill(parent, INVALID);
+		Arrays.fill(treeArc, INVALID);
+		Arrays.fill(pathNum, -1);
 	}
 	
 	@Override
-	protected void preTraverse(E e, V w, boolean treeEdge) {
+	protected void preTraverse(int e, int w, boolean treeEdge) {
 		super.preTraverse(e, w, treeEdge);
 		
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		if (treeEdge) {
 			// set parent of w
-			parentMap.put(w, v);
+			parent[w] = v;
 			// set tree arc leading to w
-			treeArcMap.put(w, e);
+			treeArc[w] = e;
 			// update path information
-			pathNumMap.put(e, pathNumber);
+			pathNum[e] = pathNumber;
 			if (isNewPath) {
-				startsNewPathMap.put(e, true);
+				startsNewPath[e] = true;
 				isNewPath = false;
 			}
 		} else {
 			// update path information
-			pathNumMap.put(e, pathNumber);
+			pathNum[e] = pathNumber;
 			if (isNewPath) {
-				startsNewPathMap.put(e, true);
+				startsNewPath[e] = true;
 			}
 			pathNumber++;
 			isNewPath = true;
@@ -93,28 +82,27 @@ public class ParentAndPathDFS<E extends IEdge<V>, V extends IVertex> extends Abs
 	}
 
 	/**
-	 * returns the NodeMap storing parent information
-	 * @return	parentMap
+	 * returns parent information
+	 * @return	for each vertex its parent vertex
 	 */
-	public NodeMap<V> getParentMap() {
-		return parentMap;
+	public int[] getParents() {
+		return parent;
 	}
 
 	/**
-	 * returns the NodeMap storing the entering tree edges
-	 * @return 	treeArcMap
+	 * returns the entering tree edges
+	 * @return 	for each vertex the tree edge entering the vertex
 	 */
-	public NodeMap<V> getTreeArcMap() {
-		return treeArcMap;
+	public int[] getTreeArcs() {
+		return treeArc;
 	}
 
 	/**
-	 * returns the EdgeMap with information whether an edge starts a new path
-	 * @return	startsNewPathMap
+	 * returns the information whether an edge starts a new path
+	 * @return	for each edge whether it starts a new path
 	 */
-	public EdgeMap<E, V> getStartsNewPathMap() {
-		return startsNewPathMap;
+	public boolean[] getStartsNewPath() {
+		return startsNewPath;
 	}
 
 }
-
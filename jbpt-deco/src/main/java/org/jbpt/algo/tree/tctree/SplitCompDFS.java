@@ -1,11 +1,11 @@
 package org.jbpt.algo.tree.tctree;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Stack;
 import java.util.UUID;
-import java.util.Vector;
 
 import org.jbpt.graph.abs.IEdge;
-import org.jbpt.graph.abs.IGraph;
 import org.jbpt.hypergraph.abs.IVertex;
 
 
@@ -20,6 +20,10 @@ import org.jbpt.hypergraph.abs.IVertex;
  * For further details on the algorithm have a look at:<br>
  * [PGD08] - http://kops.ub.uni-konstanz.de/volltexte/2009/8739/<br>
  * chapter 3.4
+ * <br><br>
+ * As corrected by Gutwenger and Mutzel, the high-point of a vertex is the source of the first visited 
+ * back edge that ends at the vertex and is not yet removed from the graph; hence, lists of high-points 
+ * are updated while split components are removed.
  * 
  * @author Martin Mader
  * @author Christian Wiggert
@@ -27,90 +31,79 @@ import org.jbpt.hypergraph.abs.IVertex;
  * 					been run on the given graph.
  *
  */
-@SuppressWarnings("unchecked")
-public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends AbstractDFS<E, V> {
+class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends AbstractDFS<E, V> {
 	
-	private boolean showDebugInformation = false;
 	private final TSItem EOS = new TSItem();
-	private V dfsRoot = null;
-	private EdgeList<E, V> eStack = new EdgeList<E, V>();
+	private int dfsRoot = INVALID;
+	private IntList eStack = new IntList();
 	private Stack<TSItem> tStack = new Stack<TSItem>();
-	private Vector<EdgeList<E, V>> comp;
-	// boolean: true if edge is virtual edge
-	private EdgeMap<E, V> virtEdge; 
-	// edge: the virtual edge identifying the split component 
-	// to which each edge belongs
-	private EdgeMap<E, V> assignedVirtEdge; 	
-	private EdgeMap<E, V> edgeType;
-	private EdgeMap<E, V> isHidden;
-	private NodeMap<V> parent;
-	private NodeMap<V> treeArc;
-	private NodeMap<V> highpt;
-	private NodeMap<V> numNotVisitedTreeEdges;
+	private List<IntList> comp;
+	// ordered adjacency lists of vertices, updated while split components are removed
+	private IntList[] orderedAdj;
+	// number of edges of each vertex that are not yet removed from the graph
+	private int[] edgeCount;
+	private int[] parent;
+	private int[] treeArc;
+	// lists of high-points: for every vertex its first entry, for every entry the vertex whose list it belongs to, 
+	// the source of its back edge, and the next and previous entries; the entry of a back edge is kept by the graph
+	private int[] highFirst;
+	private int[] entryTarget = new int[4];
+	private int[] entrySource = new int[4];
+	private int[] entryNext = new int[4];
+	private int[] entryPrev = new int[4];
+	private int entries = 0;
+	private int[] numNotVisitedTreeEdges;
+	private boolean[] startsNewPath;
+	private int[] numV;
+	private int[] lowpt1Num;
+	private int[] lowpt2Num;
+	private int[] lowpt1Vertex;
+	private int[] numDesc;
 
 	/**
 	 * Constructor for SplitCompDFS.
 	 * initializes basic data structures
 	 * 
 	 * @param graph						the graph to execute dfs on
-	 * @param container					container used to store additional maps for the graph
-	 * @param adjMap					map containing the ordered adjacency lists
-	 * @param compVec					the vector in which to store split components
-	 * @param parentMap					a NodeMap containing for each vertex its parent in the palm tree
-	 * @param treeArcMap				an EdgeMap containing for each vertex the tree edge entering in the palm tree 
-	 * @param highptMap					a NodeMap containing for each vertex the list of high-points
-	 * @param edgeTypeMap				an EdgeMap containing for each edge its dfs-type
-	 * @param virtualEdgeMap			a boolean EdgeMap to store for each edge, whether the edge is a virtual edge
-	 * @param assignedVirtualEdgeMap	an EdgeMap to store for each edge the corresponding virtual edge of its component
-	 * @param isHiddenMap				a boolean EdgeMap to store if an edge is hidden			
+	 * @param adjLists					the ordered adjacency lists used for the traversal
+	 * @param orderedAdjLists			the ordered adjacency lists, which are updated during the traversal
+	 * @param compList					the list in which to store split components
+	 * @param first						the first DFS, which provides low-point vertices and numbers of descendants
+	 * @param second					the second DFS, which provides the palm tree, the final numbering and high-points
+	 * @param edgeCounts				for each vertex its number of edges in the graph
 	 */
-	public SplitCompDFS(IGraph<E, V> graph, MetaInfoContainer container, 
-			NodeMap<V> adjMap, Vector<EdgeList<E, V>> compVec, 
-			NodeMap<V> parentMap, NodeMap<V> treeArcMap, 
-			NodeMap<V> highptMap,
-			EdgeMap<E, V> edgeTypeMap, EdgeMap<E, V> virtualEdgeMap,
-			EdgeMap<E, V> assignedVirtualEdgeMap, EdgeMap<E, V> isHiddenMap) {
-		super(graph, container, adjMap);
-		comp = compVec;
-		virtEdge = virtualEdgeMap;
-		edgeType = edgeTypeMap;
-		parent = parentMap;
-		treeArc = treeArcMap;
-		highpt = highptMap;
-		isHidden = isHiddenMap;
-		assignedVirtEdge = assignedVirtualEdgeMap;
-		
-		numNotVisitedTreeEdges = this.createNodeMap(g);
-		
-		for (V node:g.getVertices()) {
-			numNotVisitedTreeEdges.put(node, 
-					 ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM_TREE_EDGES)).getInt(node));
-			parent.put(node, ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_PARENT)).get(node));
-			((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ADJ_LISTS)).get(node)).retainAll((EdgeList<E, V>) adjMap.get(node));
+	SplitCompDFS(IndexedGraph<E,V> graph, int[][] adjLists, IntList[] orderedAdjLists, 
+			List<IntList> compList, LowAndDescDFS<E,V> first, NumberDFS<E,V> second, int[] edgeCounts) {
+		super(graph, adjLists);
+		comp = compList;
+		orderedAdj = orderedAdjLists;
+		edgeCount = edgeCounts;
+		parent = second.parent;
+		treeArc = second.treeArc;
+		highFirst = new int[g.countVertices()];
+		Arrays.fill(highFirst, INVALID);
+		for (int v=0; v<highFirst.length; v++) {
+			IntList backEdges = second.highpt[v];
+			for (int i=backEdges.size()-1; i>=0; i--) {
+				int e = backEdges.get(i);
+				addHighpt(e, v, g.getOtherVertex(e, v));
+			}
 		}
-		
-		
+		numNotVisitedTreeEdges = second.numTreeEdges.clone();
+		startsNewPath = second.startsNewPath;
+		numV = second.numV;
+		lowpt1Num = second.lowpt1Num;
+		lowpt2Num = second.lowpt2Num;
+		lowpt1Vertex = first.lowpt1Vertex;
+		numDesc = first.numDesc;
 	}
 	
-	/**
-	 * set displaying of debug information on or off.  
-	 * 
-	 * @param b	true for displaying debug information
-	 */
-	public void doShowDebugInformation(boolean b){
-		showDebugInformation = b;
-	}
-	
-	
-	
-	
 	@Override
-	public void start(V root) {
+	public void start(int root) {
 		dfsRoot = root;
 		tStack.push(EOS);
 		super.start(root);
 		
-		if (showDebugInformation) System.out.println("Splitting off last component...");
 		if(!eStack.isEmpty()){
 			newComponent(eStack);
 		}
@@ -118,31 +111,27 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	
 	
 	@Override
-	protected void preTraverse(E e, V w, boolean treeEdge) {
+	protected void preTraverse(int e, int w, boolean treeEdge) {
 		super.preTraverse(e, w, treeEdge);
-		if (showDebugInformation) System.out.println("preTraverse: " + e + " is tree edge: " + treeEdge + " startsPath: " + ((EdgeMap<E, V>) meta.getMetaInfo(MetaInfo.DFS_STARTS_NEW_PATH)).getBool(e));
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		// decrease number of not yet visited tree edges counter
-		numNotVisitedTreeEdges.put(v, numNotVisitedTreeEdges.getInt(v)-1);
+		numNotVisitedTreeEdges[v]--;
 		
 		// if edge starts a new path update TSTACK
-		if (((EdgeMap<E, V>) meta.getMetaInfo(MetaInfo.DFS_STARTS_NEW_PATH)).getBool(e)){
-			if (showDebugInformation) System.out.println("Traversing first edge "+e+". Tree edge: "+treeEdge);
+		if (startsNewPath[e]){
 			updateTStack(v, w, treeEdge);
 		}
 		
 		// if e is a back edge check for possible multiple edges
 		if (!treeEdge) {
-			if(w == parent.get(v)) {
-				EdgeList<E, V> el = new EdgeList<E, V>();
+			if(w == parent[v]) {
+				IntList el = new IntList();
 				el.add(e);
-				el.add((E) treeArc.get(v));
-				EdgeList<E, V> C = newComponent(el);
-				E virtE = newVirtualEdge(C, w, v);
+				el.add(treeArc[v]);
+				IntList C = newComponent(el);
+				int virtE = newVirtualEdge(C, w, v);
 				// assign proper virtual edge
-				for(E edge:C) {
-					assignedVirtEdge.put(edge, virtE);
-				}
+				assignVirtualEdge(C, virtE);
 				makeTreeEdge(virtE, w, v);
 			} else {
 				eStack.push(e);
@@ -152,66 +141,51 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 
 
 	@Override
-	protected void postTraverse(E e, V w) {
+	protected void postTraverse(int e, int w) {
 		super.postTraverse(e, w);
-		V v = e.getOtherVertex(w);
+		int v = g.getOtherVertex(e, w);
 		
 		// on backtracking the edge could already be hidden by multiple
 		// edge case for type1 pairs
-		if (isHidden.getBool(e)) {
-			E eToPush = (E) assignedVirtEdge.get(e);
+		if (g.hidden[e]) {
+			int eToPush = g.assigned[e];
 			// if assigned virtual edge is also already hidden (must be multiple edge case), 
 			// use its assigned virtual edge, and so on
-			while(isHidden.getBool(eToPush))
-				eToPush = (E) assignedVirtEdge.get(eToPush);
-			if (showDebugInformation) System.out.println("Edge ("+e+") was removed previously... pushing virtual edge ("+eToPush+") on EStack instead");
+			while(g.hidden[eToPush])
+				eToPush = g.assigned[eToPush];
 			eStack.push(eToPush);
 		} else {
 			eStack.push(e);
 		}
 		
-		
 		// check for separation pairs
-		if (showDebugInformation) {
-			System.out.println("\n");
-			printEStack();
-		}
 		checkType2(e, v, w);
 		checkType1(e, v, w);
 		
 		// if edge starts a path remove all triples on TSTACK 
 		// down to an including EOS
-		if (((EdgeMap<E, V>) meta.getMetaInfo(MetaInfo.DFS_STARTS_NEW_PATH)).getBool(e)) {
+		if (startsNewPath[e]) {
 			while ((!tStack.isEmpty()) && (EOS != tStack.peek())) {
-				TSItem removedItem = (TSItem)tStack.pop();
-				if (showDebugInformation) System.out.println("removed item ("+removedItem.numH+
-						","+removedItem.numA+","+removedItem.numB+
-						") from TSTACK (segment finished)");
+				tStack.pop();
 			}
 			if (!tStack.isEmpty()) {
 				// remove EOS
 				tStack.pop();
-				if (showDebugInformation) System.out.println("removed EOS from TSTACK");
 			}
-			
 		}
 		
 		if (!tStack.isEmpty()) {
 			// check high point condition
-			TSItem i = (TSItem) tStack.peek();
+			TSItem i = tStack.peek();
 			int highV = getHNum(v);
 			while ((i != EOS) && (i.a != v) && (i.b != v) && (highV > i.numH)) {
-				if (showDebugInformation) System.out.println("removed item ("+i.numH+
-						","+i.numA+","+i.numB+") from TSTACK (high-point condition at "+getNum(v)+")");
 				tStack.pop();
-				i = (TSItem) tStack.peek();
+				i = tStack.peek();
 			}
 		}
 	}
 
 
-
-
 	/**
 	 * updates the TSTACK during execution of dfs
 	 * <br><br>
@@ -221,58 +195,43 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param w				the target vertex of the currently traversed edge
 	 * @param isTreeEdge	true if the currently traversed edge is a tree edge, false otherwise
 	 */
-	protected void updateTStack(V v, V w, boolean isTreeEdge) {
+	protected void updateTStack(int v, int w, boolean isTreeEdge) {
 		TSItem lastRemoved = null;
 		TSItem itemToPush;
 		int y = -1;
 		// tree edge
 		if (isTreeEdge) {
 			while ((!tStack.isEmpty()) && (tStack.peek() != EOS) &&
-					(((TSItem) tStack.peek()).numA > getL1Num(w))
+					(tStack.peek().numA > lowpt1Num[w])
 			) {
-				lastRemoved = (TSItem) tStack.pop();
-				if (showDebugInformation) System.out.println("removed item ("+lastRemoved.numH+
-						","+lastRemoved.numA+","+lastRemoved.numB+") from TSTACK");
+				lastRemoved = tStack.pop();
 				if (lastRemoved.numH > y) {
 					y = lastRemoved.numH;
 				}
 			}
 			if (lastRemoved == null) {
-				itemToPush = new TSItem(
-						getNum(w)+ getNumDesc(w)-1,
-						(V) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_VERTEX)).get(w),
-						v);
+				itemToPush = new TSItem(numV[w] + numDesc[w]-1, lowpt1Vertex[w], v);
 			} else {
-				itemToPush = new TSItem(
-						Math.max(y, getNum(w) + getNumDesc(w)-1),
-								(V) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_VERTEX)).get(w),
-								lastRemoved.b);
+				itemToPush = new TSItem(Math.max(y, numV[w] + numDesc[w]-1), lowpt1Vertex[w], lastRemoved.b);
 			}
 			tStack.push(itemToPush);
-			if (showDebugInformation) System.out.println("pushed item ("+itemToPush.numH+
-					","+itemToPush.numA+","+itemToPush.numB+") on TSTACK");
 			tStack.push(EOS);
-			if (showDebugInformation) System.out.println("pushed EOS on TSTACK");
 		// back edge
 		} else {
 			while ((!tStack.isEmpty()) && (tStack.peek() != EOS) &&
-					(((TSItem) tStack.peek()).numA > getNum(w))
+					(tStack.peek().numA > numV[w])
 			) {
-				lastRemoved = (TSItem) tStack.pop();
-				if (showDebugInformation) System.out.println("removed item ("+lastRemoved.numH+
-						","+lastRemoved.numA+","+lastRemoved.numB+") from TSTACK");
+				lastRemoved = tStack.pop();
 				if (lastRemoved.numH > y) {
 					y = lastRemoved.numH;
 				}
 			}
 			if (lastRemoved == null) {
-				itemToPush = new TSItem(getNum(v),w,v);
+				itemToPush = new TSItem(numV[v],w,v);
 			} else {
 				itemToPush = new TSItem(y,w,lastRemoved.b);
 			}
 			tStack.push(itemToPush);
-			if (showDebugInformation) System.out.println("pushed item ("+itemToPush.numH+
-					","+itemToPush.numA+","+itemToPush.numB+") on TSTACK");
 		}
 	}
 	
@@ -287,104 +246,86 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param v				the source vertex of eBacktrack
 	 * @param w				the target vertex of eBacktrack
 	 */
-	protected void checkType1(E eBacktrack, V v, V w) {
-		if (showDebugInformation) {
-			System.out.println("checkType1 " + eBacktrack + ": " + v + ", " + w);
-			System.out.println(v + ": " + getNum(v) + ", " + getL1Num(v) + ", " + getL2Num(v) + ", " + parent.get(v));
-			System.out.println(w + ": " + getNum(w) + ", " + getL1Num(w) + ", " + getL2Num(w) + ", " + parent.get(w));
-			System.out.println("numNotVisitedTreeEdges of " + v + ": " + numNotVisitedTreeEdges.getInt(v));
-		}
-		if ((getL2Num(w) >= getNum(v))
-			&& (getL1Num(w) < getNum(v))
-			&& ((parent.get(v) != dfsRoot)
-				|| (numNotVisitedTreeEdges.getInt(v) > 0))
+	protected void checkType1(int eBacktrack, int v, int w) {
+		if ((lowpt2Num[w] >= numV[v])
+			&& (lowpt1Num[w] < numV[v])
+			&& ((parent[v] != dfsRoot)
+				|| (numNotVisitedTreeEdges[v] > 0))
 		) {
 			// (v,lowpt1(w)) is a type-1 separation pair
-			V lowpt1W = (V) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_VERTEX)).get(w);
-			if (showDebugInformation) System.out.println("backtracking over edge "+eBacktrack+
-					", found type-1 separation pair: ("+v+","+lowpt1W+") ");
+			int lowpt1W = lowpt1Vertex[w];
 			
-			EdgeList<E, V> C = newComponent(new EdgeList<E, V>());
-			E virtualEdge = null;
-			int numW = getNum(w);
+			IntList C = newComponent(new IntList());
+			int virtualEdge = INVALID;
+			int numW = numV[w];
 			//highest number in the component
-			int h = numW + getNumDesc(w) - 1;
+			int h = numW + numDesc[w] - 1;
 			
-			if (showDebugInformation) System.out.println("removing edges with endpoints between "
-					+numW+" and "+h);
-			E e = null;
+			int e = INVALID;
 			if(!eStack.isEmpty()){
-				e = (E) eStack.peek();
+				e = eStack.peek();
 			}
 			while ((!eStack.isEmpty()) &&
 					(
-						((numW <= getNum(e.getV1()))
-							&& (getNum(e.getV1()) <= h))
+						((numW <= numV[g.v1[e]])
+							&& (numV[g.v1[e]] <= h))
 						||
-						(((numW	<= getNum(e.getV2()))
-							&& (getNum(e.getV2()) <= h)))
+						(((numW	<= numV[g.v2[e]])
+							&& (numV[g.v2[e]] <= h)))
 					)) {
 				
 				// add edge to component
-				e = (E) eStack.pop();
-				if (isHidden.getBool(e)) {
-					if (showDebugInformation) System.out.println(e+" is hidden!");
-				}
-				C = addToComponent(new EdgeList<E, V>(e), C);
+				e = eStack.pop();
+				C = addToComponent(singleton(e), C);
 				if(!eStack.isEmpty()){
-					e = (E) eStack.peek();
+					e = eStack.peek();
 				}
 			}
 			
-			if (showDebugInformation) System.out.println("...Split component removed");
-			
 			// add virtual edge
 			virtualEdge = newVirtualEdge(C, v, lowpt1W);
 			// assign virtual edge
-			for(E edge:C) {
-				assignedVirtEdge.put(edge, virtualEdge);
-			}
+			assignVirtualEdge(C, virtualEdge);
 			
 			// handle possible multiple edge
 			if(!eStack.isEmpty()) {
-				e = (E) eStack.peek();
+				e = eStack.peek();
 				if (isSameEdge(e, v, lowpt1W)) {
-
-					if (showDebugInformation) System.out.println("Multiple edge discovered at "+e);
-					e = (E) eStack.pop();
-					EdgeList<E, V> el = new EdgeList<E, V>(e);
+					e = eStack.pop();
+					// the new virtual edge takes the place of the multiple edge in the list of high-points
+					int entry = g.high[e];
+					g.high[e] = INVALID;
+					IntList el = singleton(e);
 					el.add(virtualEdge);
 					C = newComponent(el);
 					virtualEdge = newVirtualEdge(C, v, lowpt1W);
+					g.high[virtualEdge] = entry;
 					// assign virtual edge
-					for(E edge:C) {
-						assignedVirtEdge.put(edge, virtualEdge);
-					}
+					assignVirtualEdge(C, virtualEdge);
 				}	
 			}
 			
-			if (lowpt1W != parent.get(v)) {
+			if (lowpt1W != parent[v]) {
 				eStack.push(virtualEdge);
+				// the virtual edge is a back edge from v to lowpt1(w)
+				if (g.high[virtualEdge] == INVALID && getHNum(lowpt1W) < numV[v]) {
+					addHighpt(virtualEdge, lowpt1W, v);
+				}
 			} else {
 				// handle another multiple edge
-				if (showDebugInformation) System.out.println("Another multiple edge discovered at "+virtualEdge);
-				E treeArcOfV = (E) treeArc.get(v);
-				if (showDebugInformation && isHidden.getBool(treeArcOfV)) System.out.println("Tree Edge "+treeArcOfV+" is hidden!");
-				EdgeList<E, V> el = new EdgeList<E, V>(treeArcOfV);
+				int treeArcOfV = treeArc[v];
+				IntList el = singleton(treeArcOfV);
 				el.add(virtualEdge);
 				C = newComponent(el);
 				virtualEdge = newVirtualEdge(C, lowpt1W, v);
 				// assign virtual edge
-				for(E edge:C) {
-					assignedVirtEdge.put(edge, virtualEdge);
-				}
+				assignVirtualEdge(C, virtualEdge);
 				// update tree arc information
-				treeArc.put(v, virtualEdge);
+				treeArc[v] = virtualEdge;
 			}
 			
-			((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(v)).add(virtualEdge);//DFS_ADJ_LISTS
+			orderedAdj[v].add(virtualEdge);
 			makeTreeEdge(virtualEdge, lowpt1W, v);
-			if (showDebugInformation) printEStack();
 		}
 		
 	}
@@ -400,154 +341,119 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param v				the source vertex of eBacktrack
 	 * @param w				the target vertex of eBacktrack
 	 */
-	protected void checkType2(E eBacktrack, V v, V w){
+	protected void checkType2(int eBacktrack, int v, int w){
 		TSItem topTriple = null;
 		if (!tStack.isEmpty()) {
-			topTriple = (TSItem) tStack.peek();
+			topTriple = tStack.peek();
 		}
-		EdgeList<E, V> adjOfW = ((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(w));//DFS_ADJ_LISTS
-		V firstChildOfW = null;
+		IntList adjOfW = orderedAdj[w];
+		int firstChildOfW = INVALID;
 		if (!adjOfW.isEmpty()) {
-			firstChildOfW = (V) ((E) adjOfW.peek()).getOtherVertex(w);
-		}
-		int edgeCountOfW = ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_EDGE_COUNT)).getInt(w);
-		if (showDebugInformation) {
-			System.out.println("checkType2 " + eBacktrack + ": " + v + ", " + w);
-			System.out.println("firstChildOfW: " + firstChildOfW);
-			System.out.println("top triple: " + topTriple);
-			System.out.println("edges of " + w + ": " + edgeCountOfW);//g.getEdges(w).size());
-			//System.out.println("edges of " + w + ": " + g.getEdges(w));
-			System.out.println("meta adj: " + ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(w).toString());//DFS_ADJ_LISTS
+			firstChildOfW = g.getOtherVertex(adjOfW.get(0), w);
 		}
+		int edgeCountOfW = edgeCount[w];
 		while ((v != dfsRoot) &&
 				(
 						((topTriple != null) && (topTriple.a == v))
 						||
-						((edgeCountOfW == 2) && (firstChildOfW != null)//g.getEdges(w).size()
-								&& (getNum(firstChildOfW) > getNum(w)))				
+						((edgeCountOfW == 2) && (firstChildOfW != INVALID)
+								&& (numV[firstChildOfW] > numV[w]))				
 				)) {
 			
-			if (showDebugInformation) printTStack();
-			
-			EdgeList<E, V> eAB = new EdgeList<E, V>();
+			IntList eAB = new IntList();
 			
 			if ((topTriple.a == v) 
-					&& parent.get(topTriple.b) == topTriple.a) {
+					&& topTriple.b != INVALID && parent[topTriple.b] == topTriple.a) {
 				// (a,b) is no type 2 pair <- no inner vertex !!
-				if (showDebugInformation) System.out.println("("+topTriple.a+","+topTriple.b+") has no inner vertices");
 				tStack.pop();
 				if (!tStack.isEmpty()) {
-					topTriple = (TSItem) tStack.peek();
+					topTriple = tStack.peek();
 				} else {
 					topTriple = null;
 				}
 			} else {
-				EdgeList<E, V> C = newComponent(new EdgeList<E, V>());
-				E virtEdge = null;
+				IntList C = newComponent(new IntList());
+				int virtEdge = INVALID;
 				
-				if ((edgeCountOfW == 2) && (firstChildOfW != null) 
-						&& (getNum(firstChildOfW) > getNum(w)))	{
+				if ((edgeCountOfW == 2) && (firstChildOfW != INVALID) 
+						&& (numV[firstChildOfW] > numV[w]))	{
 					// simple case
-					if (showDebugInformation) System.out.println("backtracking over edge "+eBacktrack+
-							", found type-2 separation pair: ("+v+","+firstChildOfW+") (simple case)");
-					
-					E e = (E) eStack.pop();
-					EdgeList<E, V> el = new EdgeList<E, V>(e);
-					e = (E) eStack.pop();
+					int e = eStack.pop();
+					IntList el = singleton(e);
+					e = eStack.pop();
 					el.add(e);
 					addToComponent(el, C);
 					virtEdge = newVirtualEdge(C, v, firstChildOfW);
 					// assign virtual edge
-					for(E edge:C) {
-						assignedVirtEdge.put(edge, virtEdge);
-					}
+					assignVirtualEdge(C, virtEdge);
 					// check for possible multiple edge
 					if (!eStack.isEmpty()) {
-						e = (E) eStack.peek();
-						// added for special case of nested p, in some cases multiple edges were stored on the stack -->
-						/*V b = null;
-						if (topTriple.b != INVALID_NODE)
-							b = topTriple.b;
-						else
-							b = firstChildOfW;*/
-						// <--
-						if (isSameEdge(e, v, topTriple.b) || isSameEdge(e, v, firstChildOfW)) {//topTriple.b
-							eAB.add((E) eStack.pop());
+						e = eStack.peek();
+						if (isSameEdge(e, v, topTriple.b) || isSameEdge(e, v, firstChildOfW)) {
+							eAB.add(eStack.pop());
 						}
 					}
 					
 				} else {
 					// complex case, (h,a,b) represents type 2 pair
-					if (showDebugInformation) System.out.println("backtracking over edge "+eBacktrack+
-							", found type-2 separation pair: ("+v+","+topTriple.b+")");
-					topTriple = (TSItem)tStack.pop();
-					E e = null;
+					topTriple = tStack.pop();
+					int e = INVALID;
 					if (!eStack.isEmpty()) {
-						e = (E) eStack.peek();
+						e = eStack.peek();
 					}
-					if (showDebugInformation) System.out.println("removing edges with endpoints between "
-					+topTriple.numA+" and "+topTriple.numH);
-					while ((e != null) && 
-							(topTriple.numA <= getNum(e.getV1())) 
-							&& (topTriple.numA <= getNum(e.getV2()))
-							&& (getNum(e.getV1()) <= topTriple.numH)
-							&& (getNum(e.getV2()) <= topTriple.numH)) {
+					while ((e != INVALID) && 
+							(topTriple.numA <= numV[g.v1[e]]) 
+							&& (topTriple.numA <= numV[g.v2[e]])
+							&& (numV[g.v1[e]] <= topTriple.numH)
+							&& (numV[g.v2[e]] <= topTriple.numH)) {
 						
-						e = (E) eStack.pop();
+						e = eStack.pop();
 						if (isSameEdge(e, topTriple.a, topTriple.b)) {
 							eAB.add(e);
 						} else {
-							C = addToComponent(new EdgeList<E, V>(e), C);
+							C = addToComponent(singleton(e), C);
 						}
 						
 						if (!eStack.isEmpty()) {
-							e = (E) eStack.peek();
+							e = eStack.peek();
 						} else {
-							e = null;
+							e = INVALID;
 						}
 					}
-					if (showDebugInformation) System.out.println("...Split component removed");
 					virtEdge = newVirtualEdge(C, topTriple.a, topTriple.b);
 					// assign virtual edge
-					for(E edge:C) {
-						assignedVirtEdge.put(edge, virtEdge);
-					}
+					assignVirtualEdge(C, virtEdge);
 				}
 				// handle possible multiple edge
 				if (!eAB.isEmpty()){
-					if (showDebugInformation) System.out.println("multiple edges found at "+virtEdge);
 					eAB.add(virtEdge);
 					C = newComponent(eAB);
-					V b = null;
+					int b = INVALID;
 					// additional workaround, because in some cases multiple edges were stored on the stack
-					if (topTriple.b == INVALID_NODE || (firstChildOfW != null && isSameEdge(eAB.peek(), v, firstChildOfW)))
+					if (topTriple.b == INVALID || (firstChildOfW != INVALID && isSameEdge(eAB.get(0), v, firstChildOfW)))
 						b = firstChildOfW;
 					else
 						b = topTriple.b;
-					virtEdge = newVirtualEdge(C, v, b);//topTriple.b
-					if (showDebugInformation) System.out.println("multiple edges found at "+virtEdge);
+					virtEdge = newVirtualEdge(C, v, b);
 					// assign virtual edge
-					for(E edge:C) {
-						assignedVirtEdge.put(edge, virtEdge);
-					}
+					assignVirtualEdge(C, virtEdge);
 				}
 				
 				eStack.push(virtEdge);
-				makeTreeEdge(virtEdge, v, virtEdge.getOtherVertex(v));
-				w = virtEdge.getOtherVertex(v);
-				parent.put(w, v);
-				if (showDebugInformation) System.out.println("continuing checking ("+v+","+w+")");
+				makeTreeEdge(virtEdge, v, g.getOtherVertex(virtEdge, v));
+				w = g.getOtherVertex(virtEdge, v);
+				parent[w] = v;
 				
 				if (!tStack.isEmpty()) {
-					topTriple = (TSItem) tStack.peek();
+					topTriple = tStack.peek();
 				} else {
 					topTriple = null;
 				}
-				adjOfW = ((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(w));//DFS_ADJ_LISTS
+				adjOfW = orderedAdj[w];
 				if (!adjOfW.isEmpty()) {
-					firstChildOfW = (V) ((E) adjOfW.peek()).getOtherVertex(w);
+					firstChildOfW = g.getOtherVertex(adjOfW.get(0), w);
 				}
-				edgeCountOfW = ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_EDGE_COUNT)).getInt(w);
+				edgeCountOfW = edgeCount[w];
 			}
 			
 			
@@ -558,11 +464,11 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	/**
 	 * creates a new component based on the given edges and 
 	 * edges are removed from the graph. 
-	 * The component is added to the component vector.
+	 * The component is added to the component list.
 	 * 
-	 * @param compEdges	an EdgeList of the edges for the new component
+	 * @param compEdges	a list of the edges for the new component
 	 */
-	protected EdgeList<E, V> newComponent(EdgeList<E, V> compEdges){
+	protected IntList newComponent(IntList compEdges){
 		
 		removeEdges(compEdges);
 		comp.add(compEdges);
@@ -577,7 +483,7 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param component the component to which the edges are added
 	 * @return 			the updated component
 	 */
-	protected EdgeList<E, V> addToComponent(EdgeList<E, V> compEdges, EdgeList<E, V> component){
+	protected IntList addToComponent(IntList compEdges, IntList component){
 		removeEdges(compEdges);
 		component.addAll(compEdges);
 		return component;
@@ -590,25 +496,66 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * 
 	 * @param edges
 	 */
-	protected void removeEdges(EdgeList<E, V> edges){
-		for (E e : edges){
+	protected void removeEdges(IntList edges){
+		for (int i=0; i<edges.size(); i++){
+			int e = edges.get(i);
 			// remove edge from adjacency list
 			// should be last element by imposed ordering
-			EdgeList<E, V> adj = ((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(((E) e).getV1()));//DFS_ADJ_LISTS
+			IntList adj = orderedAdj[g.v1[e]];
 			if (!adj.isEmpty()) {
-				if (showDebugInformation) System.out.println("Remove edge adjList of " + e.getV1() +": " + adj);
-				boolean e2 = adj.remove(e);//adj.remove(adj.size() - 1); //popLast();
-				if (showDebugInformation) System.out.println("Remove edge " + e + " from " + e.getV1() + " : removed edge " + e2);
-			}
-			try {
-				g.removeEdge((E) e);
-				updateEdgeCount(e.getV1(), -1);
-				updateEdgeCount(e.getV2(), -1);
-				isHidden.put(e, true);
-			} catch (Exception ex) {
-				ex.printStackTrace();
+				adj.removeValue(e);
 			}
+			g.skeleton.removeEdge(g.getEdge(e));
+			edgeCount[g.v1[e]]--;
+			edgeCount[g.v2[e]]--;
+			g.hidden[e] = true;
+			removeHighpt(e);
+		}
+	}
+	
+	/**
+	 * adds a back edge as the first entry to the list of high-points of a vertex.
+	 * 
+	 * @param e			the back edge
+	 * @param target	the vertex the back edge ends at
+	 * @param source	the vertex the back edge starts from
+	 */
+	private void addHighpt(int e, int target, int source) {
+		if (entries == entryTarget.length) {
+			int length = entries*2;
+			entryTarget = Arrays.copyOf(entryTarget, length);
+			entrySource = Arrays.copyOf(entrySource, length);
+			entryNext = Arrays.copyOf(entryNext, length);
+			entryPrev = Arrays.copyOf(entryPrev, length);
+		}
+		int entry = entries++;
+		entryTarget[entry] = target;
+		entrySource[entry] = source;
+		entryPrev[entry] = INVALID;
+		entryNext[entry] = highFirst[target];
+		if (highFirst[target] != INVALID) {
+			entryPrev[highFirst[target]] = entry;
+		}
+		highFirst[target] = entry;
+		g.high[e] = entry;
+	}
+	
+	/**
+	 * removes a back edge from the list of high-points it belongs to, if any.
+	 */
+	private void removeHighpt(int e) {
+		int entry = g.high[e];
+		if (entry == INVALID) return;
+		
+		if (entryPrev[entry] != INVALID) {
+			entryNext[entryPrev[entry]] = entryNext[entry];
+		} else {
+			highFirst[entryTarget[entry]] = entryNext[entry];
 		}
+		if (entryNext[entry] != INVALID) {
+			entryPrev[entryNext[entry]] = entryPrev[entry];
+		}
+		g.high[e] = INVALID;
 	}
 	
 	/**
@@ -620,24 +567,27 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param w		the target node of the virtual edge
 	 * @return		the virtual edge
 	 */
-	protected E newVirtualEdge(EdgeList<E, V> component, V v, V w) {
+	protected int newVirtualEdge(IntList component, int v, int w) {
 		// create virtual edge and add edges to component
-		E virtualEdge = (E) ((TCSkeleton<E,V>) g).addVirtualEdge(v, w);
-		updateEdgeCount(v, 1);
-		updateEdgeCount(w, 1);
+		E virtualEdge = g.skeleton.addVirtualEdge(g.getVertex(v), g.getVertex(w));
+		edgeCount[v]++;
+		edgeCount[w]++;
 		virtualEdge.setId(UUID.randomUUID().toString());
-		if (showDebugInformation) System.out.println("newVirtualEdge " + v + "; " + w + ": " + virtualEdge);
-		virtEdge.put(virtualEdge, true);
-		component.add(0, virtualEdge);  
+		int e = g.addVirtualEdge(virtualEdge);
+		component.add(0, e);
 		// update adjacency list
-		if (showDebugInformation) System.out.println(((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(v)));//DFS_ADJ_LISTS
-		((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(v)).add(virtualEdge);//DFS_ADJ_LISTS
-		if (showDebugInformation) {
-			System.out.println(((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(v)));//DFS_ADJ_LISTS
-			System.out.println(((EdgeList<E, V>) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS)).get(v)).peek());//DFS_ADJ_LISTS
-		}
+		orderedAdj[v].add(e);
 		
-		return virtualEdge;
+		return e;
+	}
+	
+	/**
+	 * assigns the given virtual edge to all edges of the given component.
+	 */
+	private void assignVirtualEdge(IntList component, int virtualEdge) {
+		for (int i=0; i<component.size(); i++) {
+			g.assigned[component.get(i)] = virtualEdge;
+		}
 	}
 	
 	/**
@@ -648,51 +598,8 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param v	the source node of the tree edge
 	 * @param w the target node of the tree edge
 	 */
-	protected void makeTreeEdge(E e, V v, V w){
-		if (showDebugInformation) System.out.println("makeTreeEdge: " + e + "; " + v + "; " + w);
-		e.setVertices(v, w);
-		edgeType.put(e, TREE_EDGE);
-	}
-	
-	private void updateEdgeCount(V node, int i) {
-		((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_EDGE_COUNT)).put(node, 
-				((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_EDGE_COUNT)).getInt(node) + i);
-	}
-	
-	/**
-	 * returns the number of a given vertex
-	 * @param node
-	 * @return
-	 */
-	private int getNum(V node){
-		return ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM_V)).getInt(node);
-	}
-	
-	/**
-	 * returns the number of the given vertex' low-point 1.
-	 * @param node
-	 * @return
-	 */
-	private int getL1Num(V node){
-		return (Integer) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_NUM)).get(node);
-	}
-	
-	/**
-	 * returns the number of the given vertex' low-point 2.
-	 * @param node
-	 * @return
-	 */
-	private int getL2Num(V node){
-		return (Integer) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT2_NUM)).get(node);
-	}
-	
-	/**
-	 * returns the number of descendants of the given vertex
-	 * @param node
-	 * @return
-	 */
-	private int getNumDesc(V node){
-		return (Integer) ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM_DESC)).get(node);
+	protected void makeTreeEdge(int e, int v, int w){
+		g.setVertices(e, v, w);
 	}
 	
 	/**
@@ -700,9 +607,9 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param node
 	 * @return
 	 */
-	private int getHNum(V node){
-		if (!((NodeList<V>) highpt.get(node)).isEmpty()) {
-			return getNum(((NodeList<V>) highpt.get(node)).get(0));
+	private int getHNum(int node){
+		if (highFirst[node] != INVALID) {
+			return numV[entrySource[highFirst[node]]];
 		} else {
 			return 0;
 		}
@@ -716,41 +623,16 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 * @param w
 	 * @return
 	 */
-	private boolean isSameEdge(E e, V v, V w){
-		if (
-				((e.getV1() == v) && (e.getV2() == w))
+	private boolean isSameEdge(int e, int v, int w){
+		return ((g.v1[e] == v) && (g.v2[e] == w))
 				||
-				((e.getV1() == w) && (e.getV2() == v))	
-		) {
-			return true;
-		}
-		return false;
+				((g.v1[e] == w) && (g.v2[e] == v));
 	}
 	
-	/**
-	 * prints the content of TSTACK
-	 */
-	private void printTStack() {
-		System.out.print("TStack contains: ");
-		TSItem t = null;
-		for(Object o : tStack) {
-			t = (TSItem) o;
-			System.out.print(t+" ");
-		}
-		System.out.print("\n");
-	}
-	
-	/**
-	 * prints the content of ESTACK
-	 */
-	private void printEStack() {
-		System.out.print("EStack contains: ");
-		E e = null;
-		for(Object o : eStack) {
-			e = (E) o;
-			System.out.print("("+e+") ");
-		}
-		System.out.print("\n");
+	private static IntList singleton(int e) {
+		IntList list = new IntList();
+		list.add(e);
+		return list;
 	}
 	
 	
@@ -764,8 +646,8 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	 *
 	 */
 	protected class TSItem{
-		private V a = (V) INVALID_NODE;
-		private V b = (V) INVALID_NODE;
+		private int a = INVALID;
+		private int b = INVALID;
 		private int numH = -1;
 		private int numA = -1;
 		private int numB = -1;
@@ -774,12 +656,12 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 			
 		}
 		
-		private TSItem(int numH, V a, V b){
+		private TSItem(int numH, int a, int b){
 			this.a = a;
 			this.b = b;
 			this.numH = numH;
-			numA = getNum(a);
-			numB = getNum(b);
+			numA = numV[a];
+			numB = numV[b];
 		}
 		
 		public String toString(){
@@ -791,4 +673,3 @@ public class SplitCompDFS<E extends IEdge<V>, V extends IVertex> extends Abstrac
 	
 
 }
-
@@ -5,10 +5,18 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import org.jbpt.algo.tree.bctree.BCTree;
+import org.jbpt.algo.tree.bctree.BCTreeNode;
+import org.jbpt.graph.Fragment;
 import org.jbpt.graph.abs.AbstractTree;
 import org.jbpt.graph.abs.IEdge;
 import org.jbpt.graph.abs.IGraph;
@@ -25,7 +33,11 @@ import org.jbpt.hypergraph.abs.IVertex;
  * The general process of this decomposition is described in his master's thesis.<br/><br/>
  * 
  * For more information on the algorithm please refer to: 
- * Carsten Gutwenger and Petra Mutzel: A Linear Time Implementation of SPQR-Trees. Graph Drawing 2000: 77-90.
+ * Carsten Gutwenger and Petra Mutzel: A Linear Time Implementation of SPQR-Trees. Graph Drawing 2000: 77-90.<br/><br/>
+ * 
+ * If several threads or an executor are given, the biconnected components of the graph without the back edge, which 
+ * form a chain between the end-points of the back edge, are decomposed by concurrent tasks; their trees are joined by the 
+ * polygon that contains the back edge.
  * 
  * @see {@link BiconnectivityCheck} for testing graph biconnectivity.
  * @see {@link TCType} provides enumeration for types of triconnected components.
@@ -47,6 +59,10 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	// Maps internal edges used for technical purpose to original graph edges
 	private Map<E,E> e2o = new HashMap<E,E>();
 	
+	// number of threads or executor used to decompose biconnected components of the graph without the back edge
+	private int threads = 1;
+	private ExecutorService executor = null;
+	
 	/**
 	 * Constructor.
 	 * 
@@ -79,40 +95,58 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	}
 	
 	/**
-	 * Constructs the tree of the triconnected components.
+	 * Constructor of the tree whose biconnected components of the graph without the back edge are decomposed by several threads.
+	 * 
+	 * @param graph A graph to decompose.
+	 * @param backEdge An edge of the graph to use as a back edge. A triconnected component that contains the edge will become the root of the tree.
+	 * @param threads Number of threads.
 	 */
-	protected void construct() {
-		Vector<EdgeList<E,V>> components = new Vector<EdgeList<E,V>>();
+	public TCTree(IGraph<E,V> graph, E backEdge, int threads) {
+		if (graph==null) return;
+		if (!graph.contains(backEdge)) return;
 		
-		EdgeMap<E,V> virtualEdgeMap = this.createEdgeMap(this.graph); 
-		virtualEdgeMap.initialiseWithFalse();
-		virtualEdgeMap.put(backEdge,true);
-		EdgeMap<E,V> assignedVirtEdgeMap = this.createEdgeMap(this.graph);
-		EdgeMap<E,V> isHiddenMap = this.createEdgeMap(this.graph);
-		isHiddenMap.initialiseWithFalse();
+		this.graph = graph;
+		this.backEdge = backEdge;
+		this.threads = threads;
 		
-		MetaInfoContainer meta = new MetaInfoContainer();
-		meta.setMetaInfo(MetaInfo.VIRTUAL_EDGES, virtualEdgeMap);
-		meta.setMetaInfo(MetaInfo.ASSIGNED_VIRTUAL_EDGES, assignedVirtEdgeMap);
-		meta.setMetaInfo(MetaInfo.HIDDEN_EDGES, isHiddenMap);
+		this.construct();
+	}
+	
+	/**
+	 * Constructor of the tree whose biconnected components of the graph without the back edge are decomposed by tasks submitted to an executor.
+	 * 
+	 * @param graph A graph to decompose.
+	 * @param backEdge An edge of the graph to use as a back edge. A triconnected component that contains the edge will become the root of the tree.
+	 * @param executor Executor service; it is not shut down.
+	 */
+	public TCTree(IGraph<E,V> graph, E backEdge, ExecutorService executor) {
+		if (graph==null) return;
+		if (!graph.contains(backEdge)) return;
 		
-		// discover triconnected components		
-		TCSkeleton<E,V> mainSkeleton = new TCSkeleton<E,V>(this.graph,this.e2o);
-		this.splitOffInitialMultipleEdges(mainSkeleton,components,virtualEdgeMap,assignedVirtEdgeMap,isHiddenMap);
-		this.findSplitComponents(mainSkeleton,components,virtualEdgeMap,assignedVirtEdgeMap,isHiddenMap,meta,backEdge.getV1());
+		this.graph = graph;
+		this.backEdge = backEdge;
+		this.executor = executor;
 		
-		// construct TCTreeNodes and TCSkeletons from components
-		for (EdgeList<E,V> el : components) {
-			if (components.size()<=1) continue;
-			TCTreeNode<E,V> node = new TCTreeNode<E,V>();
-			for (E edge : el) {
-				if (virtualEdgeMap.getBool(edge))
-					node.skeleton.addVirtualEdge(edge.getV1(),edge.getV2(),edge.getId());
-				else
-					node.skeleton.addEdge(edge.getV1(),edge.getV2(),this.e2o.get(edge));
-			}
-			this.addVertex(node);
+		this.construct();
+	}
+	
+	/**
+	 * Constructs the tree of the triconnected components.
+	 */
+	protected void construct() {
+		List<TCTreeNode<E,V>> nodes = null;
+		if (this.executor!=null || this.threads>1)
+			nodes = this.decomposeInParallel();
+		
+		if (nodes==null) {
+			// discover triconnected components
+			TCSkeleton<E,V> mainSkeleton = new TCSkeleton<E,V>(this.graph,this.e2o);
+			nodes = this.decompose(mainSkeleton,this.backEdge.getV1());
+			if (nodes.size()<=1) nodes.clear();
 		}
+		
+		for (TCTreeNode<E,V> node : nodes)
+			this.addVertex(node);
 
 		// classify triconnected components into polygons, bonds, and rigids
 		this.classifyComponents();
@@ -131,6 +165,148 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 		this.constructTree(ve2nodes);
 	}
 
+	/**
+	 * Discover the triconnected components of a skeleton.
+	 * 
+	 * @param skeleton Skeleton to decompose.
+	 * @param root Vertex to start the depth-first searches from.
+	 * @return Nodes of the tree whose skeletons are the triconnected components.
+	 */
+	private List<TCTreeNode<E,V>> decompose(TCSkeleton<E,V> skeleton, V root) {
+		List<IntList> components = new ArrayList<IntList>();
+		
+		IndexedGraph<E,V> indexedSkeleton = new IndexedGraph<E,V>(skeleton);
+		this.splitOffInitialMultipleEdges(indexedSkeleton,components);
+		this.findSplitComponents(indexedSkeleton,components,indexedSkeleton.getVertexId(root));
+		
+		// construct TCTreeNodes and TCSkeletons from components
+		List<TCTreeNode<E,V>> nodes = new ArrayList<TCTreeNode<E,V>>(components.size());
+		for (IntList component : components) {
+			TCTreeNode<E,V> node = new TCTreeNode<E,V>();
+			for (int i=0; i<component.size(); i++) {
+				E edge = indexedSkeleton.getEdge(component.get(i));
+				if (indexedSkeleton.virtual[component.get(i)])
+					node.skeleton.addVirtualEdge(edge.getV1(),edge.getV2(),edge.getId());
+				else
+					node.skeleton.addEdge(edge.getV1(),edge.getV2(),this.e2o.get(edge));
+			}
+			nodes.add(node);
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * Discover the triconnected components by concurrent tasks.<br/><br/>
+	 * 
+	 * The biconnected components of a biconnected graph without the back edge form a chain from one end-point of the back edge 
+	 * to the other. The back edge, the components that consist of single edges, and a virtual edge between the end-points of every 
+	 * other component in the chain form a polygon. Every other component together with its virtual edge is decomposed by a separate task.
+	 * 
+	 * @return Nodes of the tree whose skeletons are the triconnected components; <tt>null</tt> if the graph does not split into a chain 
+	 * of at least two biconnected components of which one consists of several edges.
+	 */
+	private List<TCTreeNode<E,V>> decomposeInParallel() {
+		V s = this.backEdge.getV1();
+		V t = this.backEdge.getV2();
+		if (s.equals(t)) return null;
+		
+		// biconnected components of the graph without the back edge
+		Map<E,E> e2o = new HashMap<E,E>();
+		TCSkeleton<E,V> skeleton = new TCSkeleton<E,V>(this.graph,e2o);
+		for (Map.Entry<E,E> entry : e2o.entrySet()) {
+			if (entry.getValue().equals(this.backEdge)) {
+				skeleton.removeEdge(entry.getKey());
+				break;
+			}
+		}
+		BCTree<E,V> bctree = new BCTree<E,V>(skeleton);
+		Collection<BCTreeNode<E,V>> blocks = bctree.getBiconnectedComponents();
+		if (blocks.size()<2) return null;
+		
+		Set<V> cutVertices = new HashSet<V>();
+		for (BCTreeNode<E,V> node : bctree.getArticulationPoints())
+			cutVertices.add(node.getArticulatioPoint());
+		
+		// end-points of every component in the chain
+		List<Fragment<E,V>> fragments = new ArrayList<Fragment<E,V>>();
+		List<V> ends = new ArrayList<V>();
+		int edges = 0;
+		boolean split = false;
+		for (BCTreeNode<E,V> block : blocks) {
+			Fragment<E,V> fragment = block.getBiconnectedComponent();
+			edges += fragment.size();
+			
+			Set<V> vertices = new HashSet<V>();
+			for (E e : fragment) {
+				vertices.add(e.getV1());
+				vertices.add(e.getV2());
+			}
+			int count = 0;
+			for (V v : vertices) {
+				if (!v.equals(s) && !v.equals(t) && !cutVertices.contains(v)) continue;
+				ends.add(v);
+				count++;
+			}
+			if (count!=2) return null;
+			
+			fragments.add(fragment);
+			if (fragment.size()>1) split = true;
+		}
+		if (!split || edges!=skeleton.countEdges()) return null;
+		
+		List<TCTreeNode<E,V>> nodes = new ArrayList<TCTreeNode<E,V>>();
+		TCTreeNode<E,V> polygon = new TCTreeNode<E,V>();
+		polygon.skeleton.addEdge(s,t,this.backEdge);
+		nodes.add(polygon);
+		List<Callable<List<TCTreeNode<E,V>>>> tasks = new ArrayList<Callable<List<TCTreeNode<E,V>>>>();
+		for (int i=0; i<fragments.size(); i++) {
+			Fragment<E,V> fragment = fragments.get(i);
+			if (fragment.size()==1) {
+				E edge = fragment.iterator().next();
+				polygon.skeleton.addEdge(edge.getV1(),edge.getV2(),e2o.get(edge));
+				continue;
+			}
+			
+			TCSkeleton<E,V> blockSkeleton = new TCSkeleton<E,V>();
+			for (E edge : fragment)
+				this.e2o.put(blockSkeleton.addEdge(edge.getV1(),edge.getV2()),e2o.get(edge));
+			E virtualEdge = blockSkeleton.addVirtualEdge(ends.get(2*i),ends.get(2*i+1));
+			polygon.skeleton.addVirtualEdge(virtualEdge.getV1(),virtualEdge.getV2(),virtualEdge.getId());
+			
+			// multiple edges between the end-points form a bond
+			if (blockSkeleton.countVertices()==2) {
+				TCTreeNode<E,V> bond = new TCTreeNode<E,V>();
+				for (E edge : blockSkeleton.getEdges()) {
+					if (blockSkeleton.isVirtual(edge))
+						bond.skeleton.addVirtualEdge(edge.getV1(),edge.getV2(),edge.getId());
+					else
+						bond.skeleton.addEdge(edge.getV1(),edge.getV2(),this.e2o.get(edge));
+				}
+				nodes.add(bond);
+			}
+			else
+				tasks.add(new DecompositionTask(blockSkeleton,ends.get(2*i)));
+		}
+		
+		ExecutorService executor = this.executor!=null ? this.executor : new ForkJoinPool(this.threads);
+		try {
+			for (Future<List<TCTreeNode<E,V>>> future : executor.invokeAll(tasks))
+				nodes.addAll(future.get());
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Decomposition into triconnected components was interrupted!", exception);
+		} catch (ExecutionException exception) {
+			if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+			throw new IllegalStateException(exception.getCause());
+		}
+		finally {
+			if (executor!=this.executor) executor.shutdown();
+		}
+		
+		return nodes;
+	}
+	
 	/**
 	 * Assign names to components.
 	 */
@@ -194,12 +370,17 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 					v1.skeleton.removeEdge(ve);
 			}
 						
-			for (Map.Entry<Object,Set<TCTreeNode<E,V>>> entryB : ve2nodes.entrySet()) {
-				if (entryB.getValue().contains(v2)) {
-					entryB.getValue().remove(v2);
-					entryB.getValue().add(v1);
-					if (entryB.getValue().size()==1)
-						toRemove.add(entryB.getKey());
+			// v2 is indexed by the tags of its virtual edges
+			Set<Object> tags = new HashSet<Object>();
+			for (E e : v2.skeleton.getVirtualEdges())
+				tags.add(e.getTag());
+			for (Object tag : tags) {
+				Set<TCTreeNode<E,V>> nodes = ve2nodes.get(tag);
+				if (nodes.contains(v2)) {
+					nodes.remove(v2);
+					nodes.add(v1);
+					if (nodes.size()==1)
+						toRemove.add(tag);
 				}
 			}
 			
@@ -288,103 +469,101 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	}
 	
 	/**
-	 * Runs the different DFS algorithms and creates the triconnected components based on the given graph and maps.
+	 * Runs the different DFS algorithms and creates the triconnected components based on the given graph.
 	 */
-	@SuppressWarnings("unchecked")
-	private void findSplitComponents(TCSkeleton<E,V> graph,
-			Vector<EdgeList<E,V>> components, EdgeMap<E,V> virtEdgeMap,
-			EdgeMap<E,V> assignedVirtEdgeMap, EdgeMap<E,V> isHiddenMap,
-			MetaInfoContainer meta, V root) {
-		// initial adjacency map
-		NodeMap<V> adjMap = this.createNodeMap(graph);
-		for (V v:graph.getVertices()){
-			EdgeList<E,V> adj = new EdgeList<E,V>();
-			for (E e:graph.getEdges(v)){
-				adj.add(e);
+	private void findSplitComponents(IndexedGraph<E,V> graph, List<IntList> components, int root) {
+		TCSkeleton<E,V> skeleton = graph.skeleton;
+		int n = graph.countVertices();
+		
+		// initial adjacency lists
+		int[][] adj = new int[n][0];
+		for (V v:skeleton.getVertices()){
+			Collection<E> edges = skeleton.getEdges(v);
+			int[] adjV = new int[edges.size()];
+			int i = 0;
+			for (E e:edges){
+				adjV[i++] = graph.getEdgeId(e);
 			}
-			adjMap.put(v, adj);
+			adj[graph.getVertexId(v)] = adjV;
 		}
-		meta.setMetaInfo(MetaInfo.DFS_ADJ_LISTS, adjMap);
 		// first DFS -- calculate lowpoint information
-		LowAndDescDFS<E,V> dfs1 = new LowAndDescDFS<E,V>(graph, meta, adjMap);
+		LowAndDescDFS<E,V> dfs1 = new LowAndDescDFS<E,V>(graph, adj);
 		dfs1.start(root);
 		
 		// order adjacency lists according to low-point values
-		NodeMap<V> orderedAdjMap = orderAdjLists(graph, meta);
+		IntList[] orderedAdj = orderAdjLists(graph, dfs1);
 		
-		NodeMap<V> copiedOrderedAdjMap = new NodeMap<V>();
-		for (V node:orderedAdjMap.keySet()) {
-			copiedOrderedAdjMap.put(node, ((EdgeList<E,V>) orderedAdjMap.get(node)).clone());
+		int[][] copiedOrderedAdj = new int[n][];
+		for (int v=0; v<n; v++) {
+			copiedOrderedAdj[v] = orderedAdj[v].toArray();
 		}
 		// second DFS -- renumber the vertices
-		NumberDFS<E,V> dfs2 = new NumberDFS<E,V>(graph, meta, copiedOrderedAdjMap);
+		NumberDFS<E,V> dfs2 = new NumberDFS<E,V>(graph, copiedOrderedAdj, dfs1);
 		dfs2.start(root);
 		
 		// workaround to circumvent a problem in the JBPT framework
 		// which leads to not properly removed virtual edges in the TCTreeSkeleton
 		// therefore this count is used to store the current state during dfs3
-		NodeMap<V> edgeCount = new NodeMap<V>();
-		for (V node:graph.getVertices()) {
-			edgeCount.put(node, graph.getEdges(node).size());
+		int[] edgeCount = new int[n];
+		for (V node:skeleton.getVertices()) {
+			edgeCount[graph.getVertexId(node)] = skeleton.getEdges(node).size();
 		}
-		meta.setMetaInfo(MetaInfo.DFS_EDGE_COUNT, edgeCount);
 		// third DFS -- find the actual split components
-		SplitCompDFS<E,V> dfs3 = new SplitCompDFS<E,V>(graph, meta, copiedOrderedAdjMap, components, dfs2
-				.getParentMap(), dfs2.getTreeArcMap(), dfs2.getHighptMap(),
-				dfs2.getEdgeTypeMap(), virtEdgeMap, assignedVirtEdgeMap, 
-				isHiddenMap);
+		SplitCompDFS<E,V> dfs3 = new SplitCompDFS<E,V>(graph, copiedOrderedAdj, orderedAdj, components, dfs1, dfs2, edgeCount);
 		dfs3.start(root);
 	}
 
-	@SuppressWarnings("unchecked")
-	private NodeMap<V> orderAdjLists(IGraph<E,V> graph, MetaInfoContainer meta) {
-		Collection<E> edges = graph.getEdges();
-		ArrayList<EdgeList<E,V>> bucket = new ArrayList<EdgeList<E,V>>();
+	/**
+	 * Orders adjacency lists of vertices according to low-point values by a bucket sort of the edges.
+	 */
+	private IntList[] orderAdjLists(IndexedGraph<E,V> graph, LowAndDescDFS<E,V> dfs) {
+		Collection<E> edges = graph.skeleton.getEdges();
 		int bucketSize = 3 * (graph.countVertices()) + 2;
-		for (int i=0; i< bucketSize; i++){
-			bucket.add(new EdgeList<E,V>());
-		}
-		int phi;
-		for (E e:edges) {
-
-			phi = -1;
+		int[] ids = new int[edges.size()];
+		int[] phis = new int[ids.length];
+		int[] bucketStart = new int[bucketSize+1];
+		int k = 0;
+		for (E edge:edges) {
+			int e = graph.getEdgeId(edge);
+			int phi = -1;
 			// assign each edge its potential phi
-			if (((EdgeMap<E,V>) meta.getMetaInfo(MetaInfo.DFS_EDGE_TYPE)).getInt(e) == AbstractDFS.TREE_EDGE){
+			if (dfs.edgeType[e] == AbstractDFS.TREE_EDGE){
 				// e is tree edge
-				if (((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT2_NUM)).getInt(e.getV2()) 
-						< ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM)).getInt(e.getV1())){
+				if (dfs.lowpt2Num[graph.v2[e]] < dfs.dfsNum[graph.v1[e]]){
 					// low2(w) < v
-					phi = 3 * ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_NUM)).getInt(e.getV2());
+					phi = 3 * dfs.lowpt1Num[graph.v2[e]];
 				} else {
 					// low2(w) >= v
-					phi = 3 * ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_LOWPT1_NUM)).getInt(e.getV2()) + 2;
+					phi = 3 * dfs.lowpt1Num[graph.v2[e]] + 2;
 				}
 			} else {
 				// e is back edge
-				phi = 3 * ((NodeMap<V>) meta.getMetaInfo(MetaInfo.DFS_NUM)).getInt(e.getV2()) + 1;
+				phi = 3 * dfs.dfsNum[graph.v2[e]] + 1;
 			}
 			
 			// put edge into bucket according to phi
 			// ! bucket's index start with 0
-			(bucket.get(phi-1)).add(e);
+			ids[k] = e;
+			phis[k++] = phi-1;
+			bucketStart[phi]++;
 		}
-		
-		// create a new node map for the ordered adj list
-		NodeMap<V> orderedAdjMap = this.createNodeMap(graph);
-		for (V node:graph.getVertices()) {
-			EdgeList<E,V> adj = new EdgeList<E,V>();
-			orderedAdjMap.put(node, adj);
+		for (int i=0; i<bucketSize; i++) {
+			bucketStart[i+1] += bucketStart[i];
+		}
+		int[] sorted = new int[ids.length];
+		for (int i=0; i<ids.length; i++) {
+			sorted[bucketStart[phis[i]]++] = ids[i];
 		}
-		meta.setMetaInfo(MetaInfo.DFS_ORDERED_ADJ_LISTS, orderedAdjMap);
 		
 		// put edges into adj list according to order in buckets
-		for (EdgeList<E,V> el : bucket){
-			while (!el.isEmpty()){
-				E e = el.pop();
-				((EdgeList<E ,V>) orderedAdjMap.get(e.getV1())).add(e);
-			}
+		IntList[] orderedAdj = new IntList[graph.countVertices()];
+		for (int v=0; v<orderedAdj.length; v++) {
+			orderedAdj[v] = new IntList();
+		}
+		for (int e : sorted) {
+			orderedAdj[graph.v1[e]].add(e);
 		}
-		return orderedAdjMap;
+		return orderedAdj;
 	}
 
 	/**
@@ -392,22 +571,17 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	 * The edges are sorted in a manner, so that multiple edges
 	 * are positioned consecutively in the returned EdgeList.
 	 */
-	@SuppressWarnings("unchecked") 
-	private EdgeList<E,V> sortConsecutiveMultipleEdges(IGraph<E,V> g){
-		NodeMap<V> indices = new NodeMap<V>();
-		int count = 0;
-		for (V vertex:g.getVertices()) {
-			indices.put(vertex, count++);
-		}
+	private EdgeList<E,V> sortConsecutiveMultipleEdges(IndexedGraph<E,V> indices){
+		TCSkeleton<E,V> g = indices.skeleton;
 		// bucketSort edges such that multiple edges come after each other
-		ArrayList<E> edges = (ArrayList<E>) g.getEdges();
+		Collection<E> edges = g.getEdges();
 		ArrayList<EdgeList<E,V>> bucket = new ArrayList<EdgeList<E,V>>();
 		// place edges into buckets according to vertex with smaller index
-		for (int i = 0; i < g.getVertices().size(); i++) {//edges.size(); i++) {
+		for (int i = 0; i < indices.countVertices(); i++) {//edges.size(); i++) {
 			bucket.add(new EdgeList<E,V>());
 		}
 		for (E e:edges) {
-			int i = Math.min((Integer) indices.get( e.getV1()), (Integer) indices.get(e.getV2()));
+			int i = Math.min(indices.getVertexId(e.getV1()), indices.getVertexId(e.getV2()));
 			bucket.get(i).add(e);
 		}
 		
@@ -415,18 +589,18 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 		EdgeList<E,V> sortedEdges = new EdgeList<E,V>();
 		for  (EdgeList<E,V> l : bucket){
 			HashMap<Integer, EdgeList<E,V>> map = new HashMap<Integer, EdgeList<E,V>>();
-			for (Object e : l){
+			for (E e : l){
 				// add up indices of enDP_NAMESoints
-				Integer i = (Integer) indices.get(((E)e).getV1()) + (Integer) indices.get(((E)e).getV2());
+				Integer i = indices.getVertexId(e.getV1()) + indices.getVertexId(e.getV2());
 				// take this as key for the map
 				EdgeList<E,V> el = map.get(i);
 				// and add the edge to the corresponding edge list
 				if (el == null) {
 					el = new EdgeList<E,V>();
-					el.add((E) e);
+					el.add(e);
 					map.put(i, el);
 				} else {
-					el.add((E) e);
+					el.add(e);
 				}
 			}
 			// put edges into output list
@@ -445,11 +619,7 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	/**
 	 * Simply deletes found multiple edges in the given graph.
 	 */
-	private void splitOffInitialMultipleEdges(TCSkeleton<E,V> skeleton, 
-			Vector<EdgeList<E,V>> components, 
-			EdgeMap<E,V> virtEdgeMap, 
-			EdgeMap<E,V> assignedVirtEdgeMap, 
-			EdgeMap<E,V> isHiddenMap) {
+	private void splitOffInitialMultipleEdges(IndexedGraph<E,V> skeleton, List<IntList> components) {
 		
 		// sort edges such that multiple edges are consecutive
 		EdgeList<E,V> edges = this.sortConsecutiveMultipleEdges(skeleton);
@@ -480,9 +650,7 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 						// add lastEdge to component
 						tempComp.add(lastEdge);
 						// finish component, i.e. add virtual edge and store the component
-						this.newComponent(skeleton, components, tempComp, virtEdgeMap, 
-								assignedVirtEdgeMap, isHiddenMap,
-								lastEdge.getV1(), lastEdge.getV2());
+						this.newComponent(skeleton, components, tempComp, lastEdge.getV1(), lastEdge.getV2());
 						// look for new multiple edges next time
 						tempComp = new EdgeList<E,V>();
 						tempCompSize=0;
@@ -496,64 +664,37 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 			// add lastEdge to component
 			tempComp.add(lastEdge);
 			// finish component, i.e. add virtual edge and store the component
-			this.newComponent(skeleton, components, tempComp, virtEdgeMap, 
-					assignedVirtEdgeMap, isHiddenMap,
-					lastEdge.getV1(), lastEdge.getV2());
+			this.newComponent(skeleton, components, tempComp, lastEdge.getV1(), lastEdge.getV2());
 		}
 	}
 
 	/**
 	 * Creates a new component based on the given list of contained edges.
 	 */
-	private void newComponent(TCSkeleton<E,V> skeleton,
-			Vector<EdgeList<E,V>> components, 
+	private void newComponent(IndexedGraph<E,V> skeleton,
+			List<IntList> components, 
 			EdgeList<E,V> tempComp,
-			EdgeMap<E,V> virtEdgeMap, 
-			EdgeMap<E,V> assignedVirtEdgeMap,
-			EdgeMap<E,V> isHiddenMap, V v1, V v2) {
+			V v1, V v2) {
+		IntList component = new IntList();
 		
 		// remove edges from graph
 		for (E e : tempComp) {
-			skeleton.removeEdge(e);
-			isHiddenMap.put(e, true);
+			int id = skeleton.getEdgeId(e);
+			skeleton.skeleton.removeEdge(e);
+			skeleton.hidden[id] = true;
+			component.add(id);
 		}
 		
 		// create virtual edge and add edges to component
-		E virtualEdge = skeleton.addVirtualEdge(v1,v2);
-		virtEdgeMap.put(virtualEdge, true);
-		tempComp.add(0, virtualEdge);
+		int virtualEdge = skeleton.addVirtualEdge(skeleton.skeleton.addVirtualEdge(v1,v2));
+		component.add(0, virtualEdge);
 		// assign virtual edge
 		
-		for(E e:tempComp) {
-			assignedVirtEdgeMap.put(e, virtualEdge);
+		for (int i=0; i<component.size(); i++) {
+			skeleton.assigned[component.get(i)] = virtualEdge;
 		}
 		
-		components.add(tempComp);
-	}
-
-	/**
-	 * Creates an edgeMap for the given graph containing all edges of the graph.
-	 * @param g Graph.
-	 */
-	private EdgeMap<E,V> createEdgeMap(IGraph<E,V> g) {
-		EdgeMap<E,V> map = new EdgeMap<E,V>();
-		for (E e:g.getEdges()) {
-			map.put(e, null);
-		}
-		return map;
-	}
-	
-	/**
-	 * Creates a NodeMap for the given graph containing all nodes of the graph.
-	 * @param g Graph.
-	 * @return NodeMap.
-	 */
-	private NodeMap<V> createNodeMap(IGraph<E,V> g) {
-		NodeMap<V> map = new NodeMap<V>();
-		for (V v:g.getVertices()) {
-			map.put(v, null);
-		}
-		return map;
+		components.add(component);
 	}
 	
 	/**
@@ -585,4 +726,22 @@ public class TCTree<E extends IEdge<V>, V extends IVertex> extends AbstractTree<
 	public Collection<TCTreeNode<E,V>> getTCTreeNodes() {
 		return this.getVertices();
 	}
+	
+	/**
+	 * Task that decomposes the skeleton of a biconnected component of the graph without the back edge.
+	 */
+	private class DecompositionTask implements Callable<List<TCTreeNode<E,V>>> {
+		private TCSkeleton<E,V> skeleton;
+		private V root;
+		
+		DecompositionTask(TCSkeleton<E,V> skeleton, V root) {
+			this.skeleton = skeleton;
+			this.root = root;
+		}
+		
+		@Override
+		public List<TCTreeNode<E,V>> call() {
+			return decompose(this.skeleton,this.root);
+		}
+	}
 }
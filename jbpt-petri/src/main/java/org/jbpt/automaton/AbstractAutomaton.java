@@ -85,7 +85,9 @@ public class AbstractAutomaton<ST extends IStateTransition<S,F,N,P,T,M>, S exten
 			return;
 		}
 		
-		S ini = this.createState(this.sys.getMarking());
+		@SuppressWarnings("unchecked")
+		M iM = (M) this.sys.getMarking().clone();
+		S ini = this.createState(iM);
 		this.addVertex(ini);
 		
 		this.startState = ini;
@@ -93,7 +95,7 @@ public class AbstractAutomaton<ST extends IStateTransition<S,F,N,P,T,M>, S exten
 		Queue<S> queue = new ConcurrentLinkedQueue<S>();
 		queue.add(ini);
 		
-		m2s.put(this.sys.getMarking(),ini);
+		m2s.put(iM,ini);
 		
 		while (!queue.isEmpty()) {
 			S v = queue.poll();
@@ -101,9 +103,7 @@ public class AbstractAutomaton<ST extends IStateTransition<S,F,N,P,T,M>, S exten
 			Set<T> enabled = this.sys.getEnabledTransitionsAtMarking(v.getMarking());
 			
 			for (T t : enabled) {
-				@SuppressWarnings("unchecked")
-				M freshMarking = (M) v.getMarking().clone();
-				freshMarking.fire(t);
+				M freshMarking = this.sys.fire(v.getMarking(), t);
 				
 				if (m2s.containsKey(freshMarking)) {
 					ST edge = this.addEdge(v,m2s.get(freshMarking));
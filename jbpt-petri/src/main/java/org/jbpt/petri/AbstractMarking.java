@@ -37,7 +37,7 @@ public abstract class AbstractMarking<F extends IFlow<N>, N extends INode, P ext
 	@Override
 	public Integer put(P p, Integer tokens) {
 		if (p==null) return 0;
-		if (!this.net.getPlaces().contains(p)) throw new IllegalArgumentException("Proposed place is not part of the associated net!");
+		if (!this.isPlace(p)) throw new IllegalArgumentException("Proposed place is not part of the associated net!");
 		
 		Integer result = null;
 		if (tokens==null) result = super.remove(p);
@@ -77,7 +77,7 @@ public abstract class AbstractMarking<F extends IFlow<N>, N extends INode, P ext
 		this.clear();
 		
 		for (P p : places) {
-			if (!this.net.getPlaces().contains(p)) continue;
+			if (!this.isPlace(p)) continue;
 			
 			Integer tokens = this.get(p);
 			if (tokens==null)
@@ -189,8 +189,9 @@ public abstract class AbstractMarking<F extends IFlow<N>, N extends INode, P ext
 		
 		result -= this.net.hashCode();
 		
-		for (P p : this.net.getPlaces())
-			result += 17 * p.hashCode() * this.get(p);
+		// unmarked places do not contribute to the hash code
+		for (Map.Entry<P,Integer> entry : this.entrySet())
+			result += 17 * entry.getKey().hashCode() * entry.getValue();
 		
 		return result;
 	}
@@ -216,19 +217,49 @@ public abstract class AbstractMarking<F extends IFlow<N>, N extends INode, P ext
 		this.net = net;
 	}
 	
+	@SuppressWarnings("unchecked")
 	@Override
 	public boolean fire(T transition) {
-		if (!this.net.getTransitions().contains(transition)) return false;
+		CompiledPetriNet<F,N,P,T> net = this.net.getCompiled();
+		if (net==null) {
+			// the net was modified since its last compilation
+			if (!this.net.contains((N)transition)) return false;
+			
+			for (P p : this.net.getPreset(transition)) {
+				if (this.get(p)==0) return false;
+			}
+			
+			for (P p : this.net.getPreset(transition))
+				this.put(p, this.get(p)-1);
+			
+			for (P p : this.net.getPostset(transition))
+				this.put(p, this.get(p)+1);
+			
+			return true;
+		}
+		
+		if (!net.containsTransition(transition)) return false;
+		int t = net.getIndex(transition);
 		
-		for (P p : this.net.getPreset(transition)) {
-			if (this.get(p)==0) return false;
+		int[] offsets = net.getPresetOffsets();
+		int[] places = net.getPresetPlaces();
+		int[] weights = net.getPresetWeights();
+		for (int i=offsets[t]; i<offsets[t+1]; i++) {
+			if (this.get(net.getPlace(places[i]))<weights[i]) return false;
 		}
 		
-		for (P p : this.net.getPreset(transition))
-			this.put(p, this.get(p)-1);
+		for (int i=offsets[t]; i<offsets[t+1]; i++) {
+			P p = net.getPlace(places[i]);
+			this.put(p, this.get(p)-weights[i]);
+		}
 		
-		for (P p : this.net.getPostset(transition))
-			this.put(p, this.get(p)+1);
+		offsets = net.getPostsetOffsets();
+		places = net.getPostsetPlaces();
+		weights = net.getPostsetWeights();
+		for (int i=offsets[t]; i<offsets[t+1]; i++) {
+			P p = net.getPlace(places[i]);
+			this.put(p, this.get(p)+weights[i]);
+		}
 		
 		return true;
 	}
@@ -241,6 +272,17 @@ public abstract class AbstractMarking<F extends IFlow<N>, N extends INode, P ext
 		return cloneMarking;
 	}
 	
+	/*
+	 * Check if a place is part of the associated net without compiling the net.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean isPlace(P p) {
+		CompiledPetriNet<F,N,P,T> net = this.net.getCompiled();
+		if (net!=null) return net.containsPlace(p);
+		
+		return this.net.contains((N)p);
+	}
+	
 	@Override
 	public boolean isBounded(int n) {
 		for (Map.Entry<P,Integer> entry : this.entrySet()) {
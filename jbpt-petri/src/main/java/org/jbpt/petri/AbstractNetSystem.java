@@ -83,24 +83,22 @@ public abstract class AbstractNetSystem<F extends IFlow<N>, N extends INode, P e
 
 	@Override
 	public Set<T> getEnabledTransitions() {
-		Set<T> result = new HashSet<T>();
-		
-		for (T t : this.getTransitions()) {
-			if (this.getMarkedPlaces().containsAll(this.getPreset(t)))
-				result.add(t);
-		}
-		
-		return result;
+		return this.getEnabledTransitionsAtMarking(this.marking);
 	}
 	
 	@Override
 	public Set<T> getEnabledTransitions(Set<T> lastEnabled, T lastFired) {
+		return this.getEnabledTransitionsAtMarking(this.marking, lastEnabled, lastFired);
+	}
+	
+	@Override
+	public Set<T> getEnabledTransitionsAtMarking(M marking, Set<T> lastEnabled, T lastFired) {
 		Set<T> enabled = new HashSet<T>(lastEnabled);
 		/*
 		 * Old disabled?
 		 */
 		for (T t : lastEnabled) {
-			if (!this.getMarkedPlaces().containsAll(this.getPreset(t)))
+			if (!this.isEnabled(marking,t))
 				enabled.remove(t);
 				
 		}
@@ -108,9 +106,17 @@ public abstract class AbstractNetSystem<F extends IFlow<N>, N extends INode, P e
 		/*
 		 * New enabled?
 		 */
-		for (P p : this.getPostset(lastFired)) {
-			for (T t : this.getPostset(p)) {
-				if (this.getMarkedPlaces().containsAll(this.getPreset(t)))
+		CompiledPetriNet<F,N,P,T> net = this.compile();
+		int f = net.getIndex(lastFired);
+		if (f<0) return enabled;
+		int[] offsets = net.getPostsetOffsets();
+		int[] places = net.getPostsetPlaces();
+		int[] pOffsets = net.getPlacePostsetOffsets();
+		int[] pTransitions = net.getPlacePostsetTransitions();
+		for (int i=offsets[f]; i<offsets[f+1]; i++) {
+			for (int j=pOffsets[places[i]]; j<pOffsets[places[i]+1]; j++) {
+				T t = net.getTransition(pTransitions[j]);
+				if (this.isEnabled(marking,t))
 					enabled.add(t);
 			}
 		}
@@ -121,17 +127,20 @@ public abstract class AbstractNetSystem<F extends IFlow<N>, N extends INode, P e
 	public Set<T> getEnabledTransitionsAtMarking(M marking) {
 		Set<T> result = new HashSet<T>();
 		
-		for (T t : this.getTransitions()) {
+		CompiledPetriNet<F,N,P,T> net = this.compile();
+		int[] offsets = net.getPresetOffsets();
+		int[] places = net.getPresetPlaces();
+		for (int t=0; t<net.countTransitions(); t++) {
 			boolean flag = true;
-			for (P p : this.getPreset(t)) {
-				if (!marking.isMarked(p)) {
+			for (int i=offsets[t]; i<offsets[t+1]; i++) {
+				if (!marking.isMarked(net.getPlace(places[i]))) {
 					flag = false;
 					break;
 				}
 			}
 			
 			if (flag) 
-				result.add(t);
+				result.add(net.getTransition(t));
 		}
 		
 		return result;
@@ -140,10 +149,19 @@ public abstract class AbstractNetSystem<F extends IFlow<N>, N extends INode, P e
 
 	@Override
 	public boolean isEnabled(T t) {
-		if (!this.getTransitions().contains(t)) return false;
+		return this.isEnabled(this.marking, t);
+	}
+	
+	@Override
+	public boolean isEnabled(M marking, T t) {
+		CompiledPetriNet<F,N,P,T> net = this.compile();
+		if (!net.containsTransition(t)) return false;
 		
-		for (P p : this.getPreset(t))
-			if (!this.isMarked(p))
+		int[] offsets = net.getPresetOffsets();
+		int[] places = net.getPresetPlaces();
+		int i = net.getIndex(t);
+		for (int j=offsets[i]; j<offsets[i+1]; j++)
+			if (!marking.isMarked(net.getPlace(places[j])))
 				return false;
 			
 		return true;
@@ -158,6 +176,15 @@ public abstract class AbstractNetSystem<F extends IFlow<N>, N extends INode, P e
 	public boolean fire(T transition) {
 		return this.marking.fire(transition);
 	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public M fire(M marking, T transition) {
+		if (!this.isEnabled(marking, transition)) return null;
+		
+		M result = (M) marking.clone();
+		return result.fire(transition) ? result : null;
+	}
 
 	@Override
 	public String toDOT() {
@@ -0,0 +1,510 @@
+package org.jbpt.petri;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Implementation of a Petri net marking backed by a packed array of token counts.<br/><br/>
+ *
+ * Token counts are stored in a fixed number of bits per place: one bit for safe nets, a byte for nets bounded by 255,
+ * or a short for nets bounded by 65535. Hash code is maintained incrementally, firing of a transition touches only words
+ * that hold places in its preset and postset, and equality of two packed markings of the same net is checked on the packed arrays.<br/><br/>
+ *
+ * Packed markings are equal to and have the same hash codes as instances of {@link AbstractMarking} that mark the same places with the same numbers of tokens.
+ * Attempts to put more tokens at a place than the bound of this marking result in exceptions.
+ */
+public abstract class AbstractPackedMarking<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition>
+	extends AbstractMap<P,Integer>
+	implements IMarking<F,N,P,T>, Cloneable {
+
+	// associated net
+	private IPetriNet<F,N,P,T> net = null;
+	// number of bits per place (1, 8, or 16)
+	private int bits = 1;
+	// encoding of places and transitions of the associated net
+	private Encoding<F,N,P,T> encoding = null;
+
+	// packed token counts
+	private long[] words = null;
+	// sum of hash code contributions of marked places
+	private int hash = 0;
+	// number of marked places
+	private int size = 0;
+
+	public AbstractPackedMarking() {}
+
+	/**
+	 * Construct a marking of a safe net and associate it with a given net.
+	 *
+	 * @param net A net to associate marking with.
+	 * @throws IllegalArgumentException if a given net is set to <tt>null</tt>.
+	 */
+	public AbstractPackedMarking(IPetriNet<F,N,P,T> net) {
+		this(net, 1);
+	}
+
+	/**
+	 * Construct a marking of a bounded net and associate it with a given net.
+	 *
+	 * @param net A net to associate marking with.
+	 * @param bound Maximal number of tokens at a place (at most 65535).
+	 * @throws IllegalArgumentException if a given net is set to <tt>null</tt> or the bound is not supported.
+	 */
+	public AbstractPackedMarking(IPetriNet<F,N,P,T> net, int bound) {
+		if (net==null) throw new IllegalArgumentException("PetriNet object expected but was NULL!");
+		if (bound<1 || bound>65535) throw new IllegalArgumentException("Bound must be between 1 and 65535!");
+		this.bits = bound==1 ? 1 : (bound<=255 ? 8 : 16);
+		this.setPetriNet(net);
+	}
+
+	/**
+	 * Get maximal number of tokens at a place of this marking.
+	 *
+	 * @return Maximal number of tokens at a place.
+	 */
+	public int getBound() {
+		return (int) this.mask();
+	}
+
+	@Override
+	public Integer put(P p, Integer tokens) {
+		if (p==null) return 0;
+		Encoding<F,N,P,T> encoding = this.encoding();
+		if (!encoding.net.containsPlace(p)) throw new IllegalArgumentException("Proposed place is not part of the associated net!");
+
+		int value = tokens==null || tokens<=0 ? 0 : tokens;
+		if (value>this.mask()) throw new IllegalArgumentException("Number of tokens exceeds the bound of the marking!");
+
+		return this.set(encoding.net.getIndex(p), value);
+	}
+
+	@Override
+	public IPetriNet<F,N,P,T> getPetriNet() {
+		return this.net;
+	}
+
+	@Override
+	public boolean isMarked(P place) {
+		return this.get(place) > 0;
+	}
+
+	@Override
+	public Collection<P> toMultiSet() {
+		Collection<P> result = new ArrayList<P>();
+
+		for (Map.Entry<P,Integer> entry : this.entrySet()) {
+			for (int i = 0; i < entry.getValue(); i++) {
+				result.add(entry.getKey());
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public void fromMultiSet(Collection<P> places) {
+		this.clear();
+
+		for (P p : places) {
+			if (!this.encoding().net.containsPlace(p)) continue;
+			this.put(p,this.get(p)+1);
+		}
+	}
+
+	@Override
+	public void clear() {
+		if (this.words!=null) Arrays.fill(this.words, 0L);
+		this.hash = 0;
+		this.size = 0;
+	}
+
+	@Override
+	public Integer remove(P place) {
+		return this.remove((Object) place);
+	}
+
+	/**
+	 * Removes all tokens from a given place of the associated net.
+	 *
+	 * @param place Place of the associated net.
+	 * @return The number of tokens previously contained in the given place, or <tt>null</tt> there was no token at the given place.
+	 */
+	@Override
+	public Integer remove(Object place) {
+		int i = this.encoding().net.containsPlace(place) ? this.encoding.net.getIndex(place) : -1;
+		if (i<0) return null;
+
+		int result = this.set(i, 0);
+		return result==0 ? null : result;
+	}
+
+	@Override
+	public Integer get(P place) {
+		return this.get((Object) place);
+	}
+
+	/**
+	 * Get number of tokens at a place.
+	 *
+	 * @param p Place of the associated net.
+	 * @return Number of tokens at the place.
+	 */
+	@Override
+	public Integer get(Object p) {
+		if (this.encoding==null || !this.encoding().net.containsPlace(p)) return 0;
+		return this.slot(this.encoding.net.getIndex(p));
+	}
+
+	@Override
+	public boolean containsKey(Object p) {
+		return this.get(p)>0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size==0;
+	}
+
+	/**
+	 * Returns the number of marked places in the associated net.
+	 *
+	 * @return The number of marked places in the associated net.
+	 */
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns set of pairs where every pair specifies a marked place of the associated net and the number of tokens at the place.
+	 *
+	 * @return The set of pairs where every pair specifies a marked place of the associated net and the number of tokens at the place.
+	 */
+	@Override
+	public Set<Map.Entry<P,Integer>> entrySet() {
+		return new AbstractSet<Map.Entry<P,Integer>>() {
+			@Override
+			public Iterator<Map.Entry<P,Integer>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return AbstractPackedMarking.this.size;
+			}
+		};
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) return true;
+		if (o == null) return false;
+		if (o instanceof AbstractPackedMarking) {
+			AbstractPackedMarking<?,?,?,?> that = (AbstractPackedMarking<?,?,?,?>) o;
+			if (that.encoding==this.encoding || (that.net==this.net && that.bits==this.bits && that.encoding().net==this.encoding().net))
+				return this.hash==that.hash && Arrays.equals(this.words, that.words);
+		}
+		if (!(o instanceof IMarking)) return false;
+		@SuppressWarnings("unchecked")
+		IMarking<F,N,P,T> that = (IMarking<F,N,P,T>) o;
+		if (this.size()!=that.size()) return false;
+
+		for (Map.Entry<P,Integer> i : this.entrySet()) {
+			Integer value = that.get(i.getKey());
+			if (value == null) return false;
+			if (!i.getValue().equals(value)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Hash code of this marking, same as the one of {@link AbstractMarking}.
+	 */
+	@Override
+	public int hashCode() {
+		return this.hash - (this.net==null ? 0 : this.encoding().netHash);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public IMarking<F,N,P,T> createMarking(IPetriNet<F,N,P,T> net) {
+		AbstractPackedMarking<F,N,P,T> m = null;
+		try {
+			m = (AbstractPackedMarking<F,N,P,T>) this.getClass().newInstance();
+			m.bits = this.bits;
+			m.setPetriNet(net);
+			return m;
+		} catch (IllegalAccessException exception) {
+			return m;
+		} catch (InstantiationException exception) {
+			return m;
+		}
+	}
+
+	@Override
+	public void setPetriNet(IPetriNet<F,N,P,T> net) {
+		this.net = net;
+		this.encoding = net==null ? null : new Encoding<F,N,P,T>(net.compile(), this.bits);
+		this.words = this.encoding==null ? null : new long[this.encoding.words];
+		this.clear();
+	}
+
+	@Override
+	public boolean fire(T transition) {
+		Encoding<F,N,P,T> encoding = this.encoding();
+		if (!encoding.net.containsTransition(transition)) return false;
+		int t = encoding.net.getIndex(transition);
+
+		if (this.bits==1) {
+			int[] preWord = encoding.preWord[t], postWord = encoding.postWord[t];
+			long[] preMask = encoding.preMask[t], postMask = encoding.postMask[t];
+			for (int i=0; i<preWord.length; i++)
+				if ((this.words[preWord[i]] & preMask[i])!=preMask[i]) return false;
+
+			for (int i=0; i<preWord.length; i++)
+				this.words[preWord[i]] &= ~preMask[i];
+			for (int i=0; i<postWord.length; i++) {
+				if ((this.words[postWord[i]] & postMask[i])!=0) {
+					for (int j=0; j<preWord.length; j++) this.words[preWord[j]] |= preMask[j];
+					throw new IllegalStateException("Number of tokens exceeds the bound of the marking!");
+				}
+			}
+			for (int i=0; i<postWord.length; i++)
+				this.words[postWord[i]] |= postMask[i];
+
+			this.size += encoding.sizeDelta[t];
+			this.hash += encoding.hashDelta[t];
+			return true;
+		}
+
+		int[] offsets = encoding.net.getPresetOffsets();
+		int[] places = encoding.net.getPresetPlaces();
+		int[] weights = encoding.net.getPresetWeights();
+		for (int i=offsets[t]; i<offsets[t+1]; i++)
+			if (this.slot(places[i])<weights[i]) return false;
+
+		for (int i=offsets[t]; i<offsets[t+1]; i++)
+			this.set(places[i], this.slot(places[i])-weights[i]);
+
+		int[] postOffsets = encoding.net.getPostsetOffsets();
+		int[] postPlaces = encoding.net.getPostsetPlaces();
+		int[] postWeights = encoding.net.getPostsetWeights();
+		for (int i=postOffsets[t]; i<postOffsets[t+1]; i++) {
+			if (this.slot(postPlaces[i])+postWeights[i]>this.mask()) {
+				for (int j=offsets[t]; j<offsets[t+1]; j++) this.set(places[j], this.slot(places[j])+weights[j]);
+				throw new IllegalStateException("Number of tokens exceeds the bound of the marking!");
+			}
+		}
+		for (int i=postOffsets[t]; i<postOffsets[t+1]; i++)
+			this.set(postPlaces[i], this.slot(postPlaces[i])+postWeights[i]);
+
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public IMarking<F,N,P,T> clone() {
+		try {
+			AbstractPackedMarking<F,N,P,T> clone = (AbstractPackedMarking<F,N,P,T>) super.clone();
+			clone.words = this.words==null ? null : this.words.clone();
+			return clone;
+		} catch (CloneNotSupportedException exception) {
+			return null;
+		}
+	}
+
+	@Override
+	public boolean isBounded(int n) {
+		if (n>=this.mask()) return true;
+
+		for (Map.Entry<P,Integer> entry : this.entrySet()) {
+			if (entry.getValue()>n)
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isSafe() {
+		return this.isBounded(1);
+	}
+
+	private long mask() {
+		return (1L<<this.bits)-1;
+	}
+
+	/**
+	 * Get encoding of the associated net; re-encodes this marking if the net was modified.
+	 */
+	private Encoding<F,N,P,T> encoding() {
+		if (this.encoding.net.isValid()) return this.encoding;
+
+		Encoding<F,N,P,T> old = this.encoding;
+		long[] oldWords = this.words;
+		this.encoding = new Encoding<F,N,P,T>(this.net.compile(), this.bits);
+		this.words = new long[this.encoding.words];
+		this.clear();
+		for (int i=0; i<old.net.countPlaces(); i++) {
+			int tokens = (int) ((oldWords[i/old.perWord] >>> old.shift(i)) & this.mask());
+			if (tokens>0 && this.encoding.net.containsPlace(old.net.getPlace(i)))
+				this.set(this.encoding.net.getIndex(old.net.getPlace(i)), tokens);
+		}
+
+		return this.encoding;
+	}
+
+	private int slot(int i) {
+		return (int) ((this.words[i/this.encoding.perWord] >>> this.encoding.shift(i)) & this.mask());
+	}
+
+	/**
+	 * Set number of tokens at the place with a given index and update hash code and size.
+	 *
+	 * @return Previous number of tokens at the place.
+	 */
+	private int set(int i, int tokens) {
+		int w = i/this.encoding.perWord, shift = this.encoding.shift(i);
+		long mask = this.mask();
+		int old = (int) ((this.words[w] >>> shift) & mask);
+		this.words[w] = (this.words[w] & ~(mask << shift)) | ((long) tokens << shift);
+
+		this.hash += this.encoding.placeHash[i] * (tokens-old);
+		if (old==0 && tokens>0) this.size++;
+		else if (old>0 && tokens==0) this.size--;
+
+		return old;
+	}
+
+	/**
+	 * Iterator over marked places.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<P,Integer>> {
+		private int next = -1;
+		private int last = -1;
+
+		EntryIterator() {
+			this.advance();
+		}
+
+		private void advance() {
+			int n = encoding.net.countPlaces();
+			for (this.next++; this.next<n; this.next++) {
+				// skip unmarked words
+				if (this.next%encoding.perWord==0)
+					while (this.next<n && words[this.next/encoding.perWord]==0L) this.next += encoding.perWord;
+				if (this.next>=n || slot(this.next)>0) break;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next<encoding.net.countPlaces();
+		}
+
+		@Override
+		public Map.Entry<P,Integer> next() {
+			if (!this.hasNext()) throw new NoSuchElementException();
+			this.last = this.next;
+			this.advance();
+			return new AbstractMap.SimpleImmutableEntry<P,Integer>(encoding.net.getPlace(this.last), slot(this.last));
+		}
+
+		@Override
+		public void remove() {
+			if (this.last<0) throw new IllegalStateException();
+			set(this.last, 0);
+			this.last = -1;
+		}
+	}
+
+	/**
+	 * Layout of packed markings of a compiled net and precomputed effects of transitions.
+	 */
+	private static class Encoding<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition> {
+		CompiledPetriNet<F,N,P,T> net = null;
+		int bits = 0;
+		// number of places per word
+		int perWord = 0;
+		// number of words
+		int words = 0;
+		// hash code of the net
+		int netHash = 0;
+		// place -> contribution of a token at the place to the hash code
+		int[] placeHash = null;
+		// transition -> change of the hash code/number of marked places caused by its occurrence
+		int[] hashDelta = null;
+		int[] sizeDelta = null;
+		// transition -> words and masks of its preset/postset (safe markings only)
+		int[][] preWord = null;
+		long[][] preMask = null;
+		int[][] postWord = null;
+		long[][] postMask = null;
+
+		Encoding(CompiledPetriNet<F,N,P,T> net, int bits) {
+			this.net = net;
+			this.bits = bits;
+			this.perWord = 64/bits;
+			this.words = (net.countPlaces()+this.perWord-1)/this.perWord;
+			this.netHash = net.getPetriNet().hashCode();
+
+			this.placeHash = new int[net.countPlaces()];
+			for (int i=0; i<this.placeHash.length; i++)
+				this.placeHash[i] = 17 * net.getPlace(i).hashCode();
+
+			int nt = net.countTransitions();
+			this.hashDelta = new int[nt];
+			this.sizeDelta = new int[nt];
+			for (int t=0; t<nt; t++) {
+				for (int i=net.getPresetOffsets()[t]; i<net.getPresetOffsets()[t+1]; i++) {
+					this.hashDelta[t] -= this.placeHash[net.getPresetPlaces()[i]] * net.getPresetWeights()[i];
+					this.sizeDelta[t]--;
+				}
+				for (int i=net.getPostsetOffsets()[t]; i<net.getPostsetOffsets()[t+1]; i++) {
+					this.hashDelta[t] += this.placeHash[net.getPostsetPlaces()[i]] * net.getPostsetWeights()[i];
+					this.sizeDelta[t]++;
+				}
+			}
+
+			if (bits!=1) return;
+
+			this.preWord = new int[nt][];
+			this.preMask = new long[nt][];
+			this.postWord = new int[nt][];
+			this.postMask = new long[nt][];
+			for (int t=0; t<nt; t++) {
+				Object[] pre = masks(net.getPresetOffsets(), net.getPresetPlaces(), t);
+				this.preWord[t] = (int[]) pre[0];
+				this.preMask[t] = (long[]) pre[1];
+				Object[] post = masks(net.getPostsetOffsets(), net.getPostsetPlaces(), t);
+				this.postWord[t] = (int[]) post[0];
+				this.postMask[t] = (long[]) post[1];
+			}
+		}
+
+		int shift(int i) {
+			return (i%this.perWord)*this.bits;
+		}
+
+		// places in rows of the compiled net are sorted, hence places of a word are consecutive
+		private static Object[] masks(int[] offsets, int[] places, int t) {
+			int[] word = new int[offsets[t+1]-offsets[t]];
+			long[] mask = new long[word.length];
+			int n = 0;
+			for (int i=offsets[t]; i<offsets[t+1]; i++) {
+				int w = places[i]/64;
+				if (n==0 || word[n-1]!=w) word[n++] = w;
+				mask[n-1] |= 1L << (places[i]%64);
+			}
+
+			return new Object[] {Arrays.copyOf(word, n), Arrays.copyOf(mask, n)};
+		}
+	}
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +22,15 @@ import org.jbpt.graph.abs.AbstractDirectedGraph;
 public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition> 
 	extends AbstractDirectedGraph<F,N> implements IPetriNet<F,N,P,T> {
 	
+	// compiled view of this net
+	private volatile CompiledPetriNet<F,N,P,T> compiled = null;
+	// nodes of this net in the order of their addition
+	private Set<N> nodes = new LinkedHashSet<N>();
+	// nodes added since the last compilation in the order of their addition
+	private Set<N> added = new LinkedHashSet<N>();
+	// nodes removed or with changed flows since the last compilation
+	private Set<N> changed = new HashSet<N>();
+	
 	/**
 	 * Empty constructor.
 	 */
@@ -157,10 +167,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<P> getPlaces() {
-		Set<P> result = new HashSet<P>();
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) return new LinkedHashSet<P>(compiled.getPlaces());
 		
-		for (N node : this.getVertices())
-			if (node instanceof IPlace)
+		Set<P> result = new LinkedHashSet<P>();
+		for (N node : this.nodes)
+			if (node instanceof IPlace && this.contains(node))
 				result.add((P)node);
 		
 		return result;
@@ -169,10 +181,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<T> getTransitions() {
-		Set<T> result = new HashSet<T>();
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) return new LinkedHashSet<T>(compiled.getTransitions());
 		
-		for (N node : this.getVertices())
-			if (node instanceof ITransition)
+		Set<T> result = new LinkedHashSet<T>();
+		for (N node : this.nodes)
+			if (node instanceof ITransition && this.contains(node))
 				result.add((T)node);
 		
 		return result;
@@ -211,6 +225,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<P> getPostset(T transition) {
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) {
+			if (!compiled.containsTransition(transition)) return new HashSet<P>();
+			return this.getPlaces(compiled, compiled.getPostsetOffsets(), compiled.getPostsetPlaces(), compiled.getIndex(transition));
+		}
+		
 		Set<P> result = new HashSet<P>();
 		for (N node : this.getDirectSuccessors((N)transition))
 			if (node instanceof IPlace)
@@ -235,6 +255,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<T> getPostset(P place) {
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) {
+			if (!compiled.containsPlace(place)) return new HashSet<T>();
+			return this.getTransitions(compiled, compiled.getPlacePostsetOffsets(), compiled.getPlacePostsetTransitions(), compiled.getIndex(place));
+		}
+		
 		Set<T> result = new HashSet<T>();
 		
 		for (N node : this.getDirectSuccessors((N)place)) {
@@ -273,6 +299,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<P> getPreset(T transition) {
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) {
+			if (!compiled.containsTransition(transition)) return new HashSet<P>();
+			return this.getPlaces(compiled, compiled.getPresetOffsets(), compiled.getPresetPlaces(), compiled.getIndex(transition));
+		}
+		
 		Set<P> result = new HashSet<P>();
 		
 		for (N node : this.getDirectPredecessors((N)transition))
@@ -298,6 +330,12 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 	@SuppressWarnings("unchecked")
 	@Override
 	public Set<T> getPreset(P place) {
+		CompiledPetriNet<F,N,P,T> compiled = this.getCompiled();
+		if (compiled!=null) {
+			if (!compiled.containsPlace(place)) return new HashSet<T>();
+			return this.getTransitions(compiled, compiled.getPlacePresetOffsets(), compiled.getPlacePresetTransitions(), compiled.getIndex(place));
+		}
+		
 		Set<T> result = new HashSet<T>();
 		
 		for (N node : this.getDirectPredecessors((N)place))
@@ -410,6 +448,113 @@ public abstract class AbstractPetriNet<F extends IFlow<N>, N extends INode, P ex
 		return result;
 	}
 	
+	@Override
+	public CompiledPetriNet<F,N,P,T> getCompiled() {
+		CompiledPetriNet<F,N,P,T> result = this.compiled;
+		return result!=null && result.getPetriNet()==this && result.isValid() ? result : null;
+	}
+	
+	private Set<P> getPlaces(CompiledPetriNet<F,N,P,T> compiled, int[] offsets, int[] places, int transition) {
+		Set<P> result = new HashSet<P>();
+		for (int i=offsets[transition]; i<offsets[transition+1]; i++)
+			result.add(compiled.getPlace(places[i]));
+		
+		return result;
+	}
+	
+	private Set<T> getTransitions(CompiledPetriNet<F,N,P,T> compiled, int[] offsets, int[] transitions, int place) {
+		Set<T> result = new HashSet<T>();
+		for (int i=offsets[place]; i<offsets[place+1]; i++)
+			result.add(compiled.getTransition(transitions[i]));
+		
+		return result;
+	}
+	
+	@Override
+	public CompiledPetriNet<F,N,P,T> compile() {
+		CompiledPetriNet<F,N,P,T> result = this.getCompiled();
+		return result!=null ? result : this.recompile();
+	}
+	
+	/*
+	 * Update the compiled view by the nodes that were added, removed, or whose flows changed since the last compilation.
+	 */
+	private synchronized CompiledPetriNet<F,N,P,T> recompile() {
+		CompiledPetriNet<F,N,P,T> result = this.getCompiled();
+		if (result!=null) return result;
+		
+		CompiledPetriNet<F,N,P,T> previous = this.compiled;
+		if (previous!=null && previous.getPetriNet()==this)
+			result = new CompiledPetriNet<F,N,P,T>(this, previous, this.added, this.changed);
+		// vertices that were added to the graph bypassing this net are only caught by compilation from scratch
+		if (result==null || result.countPlaces()+result.countTransitions()!=this.countVertices())
+			result = new CompiledPetriNet<F,N,P,T>(this, null, this.getNodeOrder(), null);
+		
+		this.added = new LinkedHashSet<N>();
+		this.changed = new HashSet<N>();
+		this.compiled = result;
+		return result;
+	}
+	
+	/**
+	 * @return Nodes of this net in the order of their addition.
+	 */
+	Set<N> getNodeOrder() {
+		Set<N> result = new LinkedHashSet<N>();
+		for (N node : this.nodes)
+			if (this.contains(node))
+				result.add(node);
+		
+		return result;
+	}
+	
+	@Override
+	public N addVertex(N v) {
+		N result = super.addVertex(v);
+		// vertices of removed flows are removed and added back by the graph, they keep their position
+		if (result!=null && this.nodes.add(v)) {
+			this.added.add(v);
+			this.changed.add(v);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	public N removeVertex(N v) {
+		N result = super.removeVertex(v);
+		if (result!=null) {
+			this.nodes.remove(v);
+			this.added.remove(v);
+			this.changed.add(v);
+		}
+		
+		return result;
+	}
+	
+	@Override
+	protected void addIndex(F e, N v) {
+		super.addIndex(e, v);
+		if (v==null) return;
+		if (this.nodes.add(v)) this.added.add(v);
+		this.changed.add(v);
+	}
+	
+	@Override
+	protected void removeIndex(F e, N v) {
+		super.removeIndex(e, v);
+		if (v!=null) this.changed.add(v);
+	}
+	
+	@Override
+	protected void clearMembers() {
+		super.clearMembers();
+		this.compiled = null;
+		this.nodes = new LinkedHashSet<N>();
+		this.added = new LinkedHashSet<N>();
+		this.changed = new HashSet<N>();
+	}
+	
 	@Override
 	public IPetriNet<F,N,P,T> clone() {
 		return this.clone(new HashMap<N,N>());
@@ -42,7 +42,8 @@ public class AbstractRun<F extends IFlow<N>, N extends INode, P extends IPlace,
 	@Override
 	public boolean append(T transition) {
 		if (this.possibleExtensions.contains(transition)) {
-			IStep<F,N,P,T,M> step = this.createStep(this.sys,this.currentMarking,transition);
+			M marking = this.sys.fire(this.currentMarking,transition);
+			IStep<F,N,P,T,M> step = this.createStep(this.sys,this.currentMarking,transition,marking);
 			this.currentMarking = step.getOutputMarking();
 			this.possibleExtensions.clear();
 			this.possibleExtensions.addAll(this.sys.getEnabledTransitionsAtMarking(this.currentMarking));
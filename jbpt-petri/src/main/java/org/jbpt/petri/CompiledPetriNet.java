@@ -0,0 +1,452 @@
+package org.jbpt.petri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.hypergraph.abs.AbstractGraphNotifier;
+
+/**
+ * Compiled (read-only) view of a Petri net.<br/><br/>
+ *
+ * Places and transitions of the net are numbered 0..n-1. Presets and postsets of places and transitions are stored
+ * in compressed sparse row (CSR) layout, i.e., the preset of the transition with index <tt>t</tt> comprises places with indexes
+ * <tt>getPresetPlaces()[i]</tt>, where <tt>getPresetOffsets()[t] &lt;= i &lt; getPresetOffsets()[t+1]</tt>, and each such place
+ * contributes <tt>getPresetWeights()[i]</tt> tokens (the number of flows from the place to the transition).<br/><br/>
+ *
+ * Arrays returned by this view are shared and must not be modified.
+ * A view gets invalid once the structure of the net is modified, see {@link #isValid()}; use {@link IPetriNet#compile()} to get a valid view.
+ */
+public class CompiledPetriNet<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition> {
+
+	// compiled net
+	private IPetriNet<F,N,P,T> net = null;
+	// number of modifications of the net at the time of compilation
+	private int modifications = 0;
+
+	private List<P> places = null;
+	private List<T> transitions = null;
+	private Map<N,Integer> node2index = null;
+
+	// presets and postsets of transitions (indexes of places)
+	private int[] tPreOffset = null;
+	private int[] tPre = null;
+	private int[] tPreWeight = null;
+	private int[] tPostOffset = null;
+	private int[] tPost = null;
+	private int[] tPostWeight = null;
+
+	// presets and postsets of places (indexes of transitions)
+	private int[] pPreOffset = null;
+	private int[] pPre = null;
+	private int[] pPostOffset = null;
+	private int[] pPost = null;
+
+	/**
+	 * Compile a Petri net.<br/><br/>
+	 *
+	 * Places and transitions are indexed in the order in which they were added to the net if the net is an {@link AbstractPetriNet},
+	 * and in the order of {@link IPetriNet#getVertices()} otherwise.
+	 *
+	 * @param net Petri net.
+	 */
+	public CompiledPetriNet(IPetriNet<F,N,P,T> net) {
+		this(net, null, order(net), null);
+	}
+
+	/**
+	 * Compile a Petri net by updating a previous compilation of the net.<br/><br/>
+	 *
+	 * Places and transitions of the previous compilation keep their order and are followed by the added nodes.
+	 * Presets and postsets are read from the net only for added transitions and transitions whose flows changed;
+	 * those of other transitions are copied from the previous compilation.
+	 *
+	 * @param net Petri net.
+	 * @param previous Previous compilation of the net, or <tt>null</tt> to compile the net from scratch.
+	 * @param added Nodes added to the net since the previous compilation in the order of their addition (all nodes if there is no previous compilation).
+	 * @param changed Nodes that were removed or whose flows changed since the previous compilation (ignored if there is no previous compilation).
+	 */
+	@SuppressWarnings("unchecked")
+	CompiledPetriNet(IPetriNet<F,N,P,T> net, CompiledPetriNet<F,N,P,T> previous, Set<N> added, Set<N> changed) {
+		if (net==null) throw new IllegalArgumentException("PetriNet object expected but was NULL!");
+		this.net = net;
+		this.modifications = getModificationCount(net);
+
+		this.places = new ArrayList<P>();
+		this.transitions = new ArrayList<T>();
+		// indexes of the previous compilation -> indexes of this compilation (-1 if removed)
+		int[] pRemap = new int[0];
+		int[] tRemap = new int[0];
+		boolean removed = false;
+		if (previous!=null) {
+			pRemap = new int[previous.countPlaces()];
+			for (int i=0; i<pRemap.length; i++) {
+				P p = previous.getPlace(i);
+				pRemap[i] = net.contains((N) p) && !added.contains(p) ? this.places.size() : -1;
+				if (pRemap[i]<0) removed = true;
+				else this.places.add(p);
+			}
+			tRemap = new int[previous.countTransitions()];
+			for (int i=0; i<tRemap.length; i++) {
+				T t = previous.getTransition(i);
+				tRemap[i] = net.contains((N) t) && !added.contains(t) ? this.transitions.size() : -1;
+				if (tRemap[i]<0) removed = true;
+				else this.transitions.add(t);
+			}
+		}
+		int np0 = this.places.size();
+		int nt0 = this.transitions.size();
+		for (N n : added) {
+			if (!net.contains(n)) continue;
+			if (n instanceof IPlace) this.places.add((P) n);
+			else if (n instanceof ITransition) this.transitions.add((T) n);
+		}
+
+		if (previous!=null && !removed) {
+			this.node2index = new HashMap<N,Integer>(previous.node2index);
+			for (int i=np0; i<this.places.size(); i++) this.node2index.put((N) this.places.get(i), i);
+			for (int i=nt0; i<this.transitions.size(); i++) this.node2index.put((N) this.transitions.get(i), i);
+		}
+		else {
+			this.node2index = new HashMap<N,Integer>();
+			for (int i=0; i<this.places.size(); i++) this.node2index.put((N) this.places.get(i), i);
+			for (int i=0; i<this.transitions.size(); i++) this.node2index.put((N) this.transitions.get(i), i);
+		}
+		this.places = Collections.unmodifiableList(this.places);
+		this.transitions = Collections.unmodifiableList(this.transitions);
+
+		// transitions -> indexes in the previous compilation (-1 if their presets and postsets must be read from the net)
+		int nt = this.transitions.size();
+		int np = this.places.size();
+		int[] old = new int[nt];
+		Arrays.fill(old, -1);
+		for (int i=0; i<tRemap.length; i++)
+			if (tRemap[i]>=0 && !changed.contains(previous.getTransition(i)))
+				old[tRemap[i]] = i;
+
+		this.tPreOffset = new int[nt+1];
+		this.tPostOffset = new int[nt+1];
+		int[][] tPreCSR = previous==null ? this.csr(true, this.tPreOffset, old, null, null, null, pRemap) :
+			this.csr(true, this.tPreOffset, old, previous.tPreOffset, previous.tPre, previous.tPreWeight, pRemap);
+		this.tPre = tPreCSR[0];
+		this.tPreWeight = tPreCSR[1];
+		int[][] tPostCSR = previous==null ? this.csr(false, this.tPostOffset, old, null, null, null, pRemap) :
+			this.csr(false, this.tPostOffset, old, previous.tPostOffset, previous.tPost, previous.tPostWeight, pRemap);
+		this.tPost = tPostCSR[0];
+		this.tPostWeight = tPostCSR[1];
+
+		// places: transposed relations
+		this.pPreOffset = new int[np+1];
+		this.pPostOffset = new int[np+1];
+		this.pPost = transpose(this.tPreOffset, this.tPre, np, this.pPostOffset);
+		this.pPre = transpose(this.tPostOffset, this.tPost, np, this.pPreOffset);
+	}
+
+	/**
+	 * Check if this view is still valid, i.e., the structure of the net was not modified since compilation.
+	 *
+	 * @return <tt>true</tt> if this view is valid; otherwise <tt>false</tt>.
+	 */
+	public boolean isValid() {
+		return this.modifications==getModificationCount(this.net);
+	}
+
+	/**
+	 * @return Compiled Petri net.
+	 */
+	public IPetriNet<F,N,P,T> getPetriNet() {
+		return this.net;
+	}
+
+	/**
+	 * @return Number of places.
+	 */
+	public int countPlaces() {
+		return this.places.size();
+	}
+
+	/**
+	 * @return Number of transitions.
+	 */
+	public int countTransitions() {
+		return this.transitions.size();
+	}
+
+	/**
+	 * @return Places ordered by their indexes.
+	 */
+	public List<P> getPlaces() {
+		return this.places;
+	}
+
+	/**
+	 * @return Transitions ordered by their indexes.
+	 */
+	public List<T> getTransitions() {
+		return this.transitions;
+	}
+
+	/**
+	 * @param index Index of a place.
+	 * @return Place with the given index.
+	 */
+	public P getPlace(int index) {
+		return this.places.get(index);
+	}
+
+	/**
+	 * @param index Index of a transition.
+	 * @return Transition with the given index.
+	 */
+	public T getTransition(int index) {
+		return this.transitions.get(index);
+	}
+
+	/**
+	 * Get index of a place or a transition.
+	 *
+	 * @param node Place or transition.
+	 * @return Index of the given node among places or transitions, respectively; -1 if the node is not part of the net.
+	 */
+	public int getIndex(Object node) {
+		Integer result = this.node2index.get(node);
+		return result==null ? -1 : result;
+	}
+
+	/**
+	 * Check if a place is part of the net.
+	 *
+	 * @param place Place.
+	 * @return <tt>true</tt> if the given place is part of the net; otherwise <tt>false</tt>.
+	 */
+	public boolean containsPlace(Object place) {
+		return place instanceof IPlace && this.node2index.containsKey(place);
+	}
+
+	/**
+	 * Check if a transition is part of the net.
+	 *
+	 * @param transition Transition.
+	 * @return <tt>true</tt> if the given transition is part of the net; otherwise <tt>false</tt>.
+	 */
+	public boolean containsTransition(Object transition) {
+		return transition instanceof ITransition && this.node2index.containsKey(transition);
+	}
+
+	/**
+	 * @return Offsets of presets of transitions (of length |T|+1).
+	 */
+	public int[] getPresetOffsets() {
+		return this.tPreOffset;
+	}
+
+	/**
+	 * @return Indexes of places in presets of transitions.
+	 */
+	public int[] getPresetPlaces() {
+		return this.tPre;
+	}
+
+	/**
+	 * @return Weights of flows from places in presets of transitions.
+	 */
+	public int[] getPresetWeights() {
+		return this.tPreWeight;
+	}
+
+	/**
+	 * @return Offsets of postsets of transitions (of length |T|+1).
+	 */
+	public int[] getPostsetOffsets() {
+		return this.tPostOffset;
+	}
+
+	/**
+	 * @return Indexes of places in postsets of transitions.
+	 */
+	public int[] getPostsetPlaces() {
+		return this.tPost;
+	}
+
+	/**
+	 * @return Weights of flows to places in postsets of transitions.
+	 */
+	public int[] getPostsetWeights() {
+		return this.tPostWeight;
+	}
+
+	/**
+	 * @return Offsets of presets of places (of length |P|+1).
+	 */
+	public int[] getPlacePresetOffsets() {
+		return this.pPreOffset;
+	}
+
+	/**
+	 * @return Indexes of transitions in presets of places.
+	 */
+	public int[] getPlacePresetTransitions() {
+		return this.pPre;
+	}
+
+	/**
+	 * @return Offsets of postsets of places (of length |P|+1).
+	 */
+	public int[] getPlacePostsetOffsets() {
+		return this.pPostOffset;
+	}
+
+	/**
+	 * @return Indexes of transitions in postsets of places.
+	 */
+	public int[] getPlacePostsetTransitions() {
+		return this.pPost;
+	}
+
+	/**
+	 * Convert a marking to an array of tokens indexed by places.
+	 *
+	 * @param marking Marking of the net.
+	 * @return Number of tokens per place.
+	 */
+	public int[] toArray(Map<P,Integer> marking) {
+		int[] result = new int[this.places.size()];
+		for (Map.Entry<P,Integer> entry : marking.entrySet()) {
+			int i = this.getIndex(entry.getKey());
+			if (i>=0 && entry.getValue()!=null) result[i] = entry.getValue();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Check if a transition is enabled at a marking.
+	 *
+	 * @param transition Index of a transition.
+	 * @param marking Number of tokens per place.
+	 * @return <tt>true</tt> if the transition is enabled; otherwise <tt>false</tt>.
+	 */
+	public boolean isEnabled(int transition, int[] marking) {
+		for (int i=this.tPreOffset[transition]; i<this.tPreOffset[transition+1]; i++)
+			if (marking[this.tPre[i]]<this.tPreWeight[i])
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Fire a transition at a marking (the marking gets updated).
+	 *
+	 * @param transition Index of a transition.
+	 * @param marking Number of tokens per place.
+	 * @return <tt>true</tt> if the transition was enabled and fired; otherwise <tt>false</tt>.
+	 */
+	public boolean fire(int transition, int[] marking) {
+		if (!this.isEnabled(transition, marking)) return false;
+
+		for (int i=this.tPreOffset[transition]; i<this.tPreOffset[transition+1]; i++)
+			marking[this.tPre[i]] -= this.tPreWeight[i];
+		for (int i=this.tPostOffset[transition]; i<this.tPostOffset[transition+1]; i++)
+			marking[this.tPost[i]] += this.tPostWeight[i];
+
+		return true;
+	}
+
+	private static int getModificationCount(IPetriNet<?,?,?,?> net) {
+		// nets that do not track modifications are assumed to be not modified
+		return net instanceof AbstractGraphNotifier ? ((AbstractGraphNotifier<?,?>) net).getModificationCount() : 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition> Set<N> order(IPetriNet<F,N,P,T> net) {
+		if (net instanceof AbstractPetriNet) return ((AbstractPetriNet<F,N,P,T>) net).getNodeOrder();
+
+		return new LinkedHashSet<N>(net.getVertices());
+	}
+
+	/*
+	 * Presets (postsets) of transitions in CSR layout; rows of transitions with an index in the previous compilation are copied
+	 * from the previous compilation, where indexes of places get remapped, other rows are read from the net.
+	 */
+	@SuppressWarnings("unchecked")
+	private int[][] csr(boolean preset, int[] offsets, int[] old, int[] oldOffsets, int[] oldIndex, int[] oldWeight, int[] pRemap) {
+		int nt = this.transitions.size();
+		int[][][] rows = new int[nt][][];
+		for (int t=0; t<nt; t++) {
+			if (old[t]>=0) {
+				offsets[t+1] = offsets[t] + oldOffsets[old[t]+1] - oldOffsets[old[t]];
+				continue;
+			}
+
+			N n = (N) this.transitions.get(t);
+			rows[t] = this.row(preset ? this.net.getIncomingEdges(n) : this.net.getOutgoingEdges(n), preset);
+			offsets[t+1] = offsets[t] + rows[t][0].length;
+		}
+
+		int[] index = new int[offsets[nt]];
+		int[] weight = new int[index.length];
+		for (int t=0; t<nt; t++) {
+			if (rows[t]==null) {
+				// the remapping preserves the order of places
+				for (int i=oldOffsets[old[t]], j=offsets[t]; i<oldOffsets[old[t]+1]; i++, j++) {
+					index[j] = pRemap[oldIndex[i]];
+					weight[j] = oldWeight[i];
+				}
+			}
+			else {
+				System.arraycopy(rows[t][0], 0, index, offsets[t], rows[t][0].length);
+				System.arraycopy(rows[t][1], 0, weight, offsets[t], rows[t][1].length);
+			}
+		}
+
+		return new int[][] {index, weight};
+	}
+
+	/*
+	 * Sorted indexes of places at flows and numbers of flows per place.
+	 */
+	private int[][] row(Collection<F> flows, boolean sources) {
+		int[] index = new int[flows.size()];
+		int n = 0;
+		for (F f : flows) {
+			N node = sources ? f.getSource() : f.getTarget();
+			Integer i = node instanceof IPlace ? this.node2index.get(node) : null;
+			if (i!=null) index[n++] = i;
+		}
+		Arrays.sort(index, 0, n);
+
+		int[] places = new int[n];
+		int[] weights = new int[n];
+		int k = 0;
+		for (int i=0; i<n; i++) {
+			if (k>0 && places[k-1]==index[i]) weights[k-1]++;
+			else {
+				places[k] = index[i];
+				weights[k++] = 1;
+			}
+		}
+
+		return new int[][] {Arrays.copyOf(places, k), Arrays.copyOf(weights, k)};
+	}
+
+	private static int[] transpose(int[] offsets, int[] index, int n, int[] result) {
+		for (int i : index)
+			result[i+1]++;
+		for (int i=0; i<n; i++)
+			result[i+1] += result[i];
+
+		int[] next = result.clone();
+		int[] transposed = new int[index.length];
+		for (int r=0; r<offsets.length-1; r++)
+			for (int i=offsets[r]; i<offsets[r+1]; i++)
+				transposed[next[index[i]]++] = r;
+
+		return transposed;
+	}
+}
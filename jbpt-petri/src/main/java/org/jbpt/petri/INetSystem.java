@@ -53,6 +53,18 @@ public interface INetSystem<F extends IFlow<N>, N extends INode, P extends IPlac
 	 * @return Enabled transitions of this net system at the given marking.
 	 */
 	public Set<T> getEnabledTransitionsAtMarking(M marking);
+	
+	/**
+	 * Get enabled transitions of this net system at a given marking more efficiently by providing
+	 * details on last step in terms of previously enabled transitions and the one last fired.
+	 * The marking of this net system is not affected.
+	 * 
+	 * @param marking Marking of this net system reached by firing the last fired transition.
+	 * @param lastEnabled Transitions enabled before firing the last fired transition.
+	 * @param lastFired Transition last fired.
+	 * @return Enabled transitions of this net system at the given marking.
+	 */
+	public Set<T> getEnabledTransitionsAtMarking(M marking, Set<T> lastEnabled, T lastFired);
 
 	/**
 	 * Check if a given transition is enabled.
@@ -61,6 +73,16 @@ public interface INetSystem<F extends IFlow<N>, N extends INode, P extends IPlac
 	 * @return <tt>true</tt> if transition is enabled; otherwise <tt>false</tt>.
 	 */
 	public boolean isEnabled(T transition);
+	
+	/**
+	 * Check if a given transition is enabled at a given marking. 
+	 * The marking of this net system is not affected.
+	 * 
+	 * @param marking Marking of this net system.
+	 * @param transition Transition.
+	 * @return <tt>true</tt> if transition is enabled at the given marking; otherwise <tt>false</tt>.
+	 */
+	public boolean isEnabled(M marking, T transition);
 
 	/**
 	 * Fire a transition in this net system. 
@@ -71,6 +93,18 @@ public interface INetSystem<F extends IFlow<N>, N extends INode, P extends IPlac
 	 * @return <tt>true</tt> if firing took place; otherwise <tt>false</tt>.
 	 */
 	public boolean fire(T transition);
+	
+	/**
+	 * Fire a transition at a given marking. 
+	 * Neither the given marking nor the marking of this net system are changed, hence 
+	 * this method can be used by several threads that explore behavior of this net system concurrently 
+	 * (as long as this net system is not modified).  
+	 * 
+	 * @param marking Marking of this net system.
+	 * @param transition Transition to fire.
+	 * @return Fresh marking reached by firing the transition at the given marking; <tt>null</tt> if the transition is not enabled at the given marking.
+	 */
+	public M fire(M marking, T transition);
 
 	/**
 	 * Put tokens at a given place.
@@ -373,6 +373,21 @@ public interface IPetriNet<F extends IFlow<N>, N extends INode, P extends IPlace
 	 */
 	public void clear();
 	
+	/**
+	 * Get compiled (read-only) view of this net, where places and transitions are numbered in the order of their addition and presets 
+	 * and postsets are stored as arrays. The view is updated once this net is structurally modified.
+	 * 
+	 * @return Compiled view of this net.
+	 */
+	public CompiledPetriNet<F,N,P,T> compile();
+	
+	/**
+	 * Get compiled view of this net if it is up to date; this net does not get compiled.
+	 * 
+	 * @return Compiled view of this net, or <tt>null</tt> if this net was not compiled since its last modification.
+	 */
+	public CompiledPetriNet<F,N,P,T> getCompiled();
+	
 	/**
 	 * Clone this  Petri net.
 	 */
@@ -0,0 +1,16 @@
+package org.jbpt.petri;
+
+public class PackedMarking extends AbstractPackedMarking<Flow,Node,Place,Transition> {
+
+	public PackedMarking() {
+	}
+
+	public PackedMarking(IPetriNet<Flow,Node,Place,Transition> net) {
+		super(net);
+	}
+
+	public PackedMarking(IPetriNet<Flow,Node,Place,Transition> net, int bound) {
+		super(net, bound);
+	}
+
+}
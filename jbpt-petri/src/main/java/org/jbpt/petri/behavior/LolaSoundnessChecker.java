@@ -14,8 +14,12 @@ import org.jbpt.petri.PetriNet;
 import org.jbpt.petri.io.PNMLSerializer;
 import org.jbpt.throwable.SerializationException;
 
-
-
+/**
+ * Soundness checker that calls the LoLA web service.
+ *
+ * @deprecated The remote service may be unavailable; use {@link SoundnessChecker}, which analyzes nets in-process.
+ */
+@Deprecated
 public class LolaSoundnessChecker {
 	private static final String LOLA_URI = "http://esla.informatik.uni-rostock.de/service-tech/.lola/lola.php";
 	private static int TIMEOUT = 180000;
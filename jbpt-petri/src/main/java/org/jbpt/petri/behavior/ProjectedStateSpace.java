@@ -27,8 +27,21 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 	protected boolean[][] stepMatrix = null;
 	
 	protected Map<T,Integer> projectionSetForStepMatrix = null;
+	
+	// stubborn sets with the projection set as visible transitions, or null if the full state space is created
+	protected StubbornSets<F,N,P,T,M> stubbornSets = null;
 
 	public ProjectedStateSpace(INetSystem<F, N, P, T, M> netSystem, Set<T> projectionSet) {
+		this(netSystem, projectionSet, false);
+	}
+	
+	/**
+	 * @param netSystem Net system.
+	 * @param projectionSet Transitions to project on.
+	 * @param reduce If <tt>true</tt>, only transitions of stubborn sets are fired at each marking, where transitions of the projection set are visible;
+	 * the reduced state space yields the same steps between transitions of the projection set, but not necessarily all reachable markings.
+	 */
+	public ProjectedStateSpace(INetSystem<F, N, P, T, M> netSystem, Set<T> projectionSet, boolean reduce) {
 		super();
 		this.netSystem = netSystem;
 		this.enabled = new HashMap<M, Set<T>>();
@@ -57,6 +70,9 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 				this.stepMatrix[j][i] = false;
 			}
 		}
+		
+		if (reduce)
+			this.stubbornSets = new StubbornSets<F,N,P,T,M>(netSystem, projectionSet);
 	}
 	
 	public void create() {
@@ -66,20 +82,20 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 	public void createUpToNumberOfMarkings(int numberOfMarkings) {
 		
 		/*
-		 * Clone initial marking for storing it as part of the SimpleStateSpace and for 
-		 * being able to reset the net system at the end
+		 * Clone initial marking for storing it as part of the ProjectedStateSpace; 
+		 * the marking of the net system is never changed
 		 */
 		@SuppressWarnings("unchecked")
 		M iM = (M) this.netSystem.getMarking().clone();
 		
-		Set<T> iEnabled = new HashSet<T>(this.netSystem.getEnabledTransitions());
+		Set<T> iEnabled = new HashSet<T>(this.netSystem.getEnabledTransitionsAtMarking(iM));
 		
 		this.enabled.put(iM, iEnabled);
 		
 		for (T t : this.netSystem.getTransitions()) 
 			this.vTxM.put(t, new HashSet<M>());
 
-		for (T t : iEnabled) {
+		for (T t : this.getTransitionsToFire(null, iM)) {
 			M nM = fireTransition(iM, iEnabled, t);
 			addToVisit(t,nM);
 		}
@@ -96,7 +112,7 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 			txM.get(t).remove(m);
 			vTxM.get(t).add(m);
 
-			for (T te : this.enabled.get(m)) {
+			for (T te : this.getTransitionsToFire(t, m)) {
 
 				M nM = fireTransition(m, 
 						this.enabled.get(m), te);
@@ -114,11 +130,40 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 				}
 			}
 		}
+	}
+	
+	/**
+	 * Get transitions to fire at a marking reached by the given last transition, i.e., all enabled transitions or, 
+	 * if the state space is reduced, the enabled transitions of a stubborn set.<br/><br/>
+	 * 
+	 * Cycle proviso: all enabled transitions are fired if a successor of the reduced search has been visited or is to be visited already.
+	 * Hence, every cycle of the reduced state space contains a marking at which all enabled transitions are fired. 
+	 * The proviso is skipped for nets without cycles, as their state spaces have no cycles.
+	 */
+	protected Set<T> getTransitionsToFire(T last, M m) {
+		Set<T> mEnabled = this.enabled.get(m);
+		if (this.stubbornSets==null) 
+			return mEnabled;
 		
-		/*
-		 * Reset initial marking 
-		 */
-		this.netSystem.loadMarking(iM);
+		Set<T> result = this.stubbornSets.getStubbornSet(m, mEnabled);
+		if (last==null || result.size()==mEnabled.size() || this.stubbornSets.isCycleFree()) 
+			return result;
+		
+		for (T te : result) {
+			M nM = this.netSystem.fire(m, te);
+			T nT = this.projectionSetForStepMatrix.containsKey(te) ? te : last;
+			if (this.visited(nT,nM) || (this.txM.containsKey(nT) && this.txM.get(nT).contains(nM)))
+				return mEnabled;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return <tt>true</tt> if the state space is reduced using stubborn sets; otherwise <tt>false</tt>.
+	 */
+	public boolean isReduced() {
+		return this.stubbornSets!=null;
 	}
 	
 	protected void addToVisit(T t, M m) {
@@ -137,13 +182,10 @@ public class ProjectedStateSpace<F extends IFlow<N>, N extends INode, P extends
 		
 //		System.out.println("FIRE: " + t.getId() + " ( " + t.getLabel() + " )");
 		
-		this.netSystem.loadMarking(from);
-		this.netSystem.fire(t);
-		@SuppressWarnings("unchecked")
-		M nM = (M) this.netSystem.getMarking().clone(); 
+		M nM = this.netSystem.fire(from, t);
 		
 		if (!this.enabled.containsKey(nM)) {
-			Set<T> nEnabled = this.netSystem.getEnabledTransitions(enabled, t);
+			Set<T> nEnabled = this.netSystem.getEnabledTransitionsAtMarking(nM, enabled, t);
 			this.enabled.put(nM, nEnabled);
 		}
 		
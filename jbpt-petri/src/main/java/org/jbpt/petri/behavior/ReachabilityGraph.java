@@ -0,0 +1,925 @@
+package org.jbpt.petri.behavior;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Explicit-state reachability graph of a net system.<br/><br/>
+ *
+ * States (reachable markings) are numbered in the order of their discovery starting with the initial marking (state 0).
+ * Markings are packed into arrays of longs using {@link ReachabilityGraphSetup#MAX_BOUND} bits per place and interned in an
+ * open addressing hash table; edges are stored as arrays of indexes of transitions and target states. The net system itself
+ * is never modified, see {@link INetSystem#fire(IMarking, ITransition)}.<br/><br/>
+ *
+ * Besides the graph, the construction reports deadlocks, markings that exceed the bound, and transitions that never occur.
+ * Home markings are computed from strongly connected components of the graph.
+ * Results of the analyses refer to the complete state space only if {@link #isComplete()} holds.
+ */
+public class ReachabilityGraph<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	// explored net system
+	protected INetSystem<F,N,P,T,M> sys = null;
+	// setup of the construction
+	protected ReachabilityGraphSetup setup = null;
+	// compiled net of the net system
+	protected CompiledPetriNet<F,N,P,T> net = null;
+
+	// number of bits per place, places per word, and words per state
+	private int bits = 0;
+	private int perWord = 0;
+	private int width = 0;
+	private long mask = 0L;
+	// place -> word and shift of its token count
+	private int[] placeWord = null;
+	private int[] placeShift = null;
+	// presets and postsets of transitions
+	private int[] preOffsets = null;
+	private int[] prePlaces = null;
+	private int[] preWeights = null;
+	private int[] postOffsets = null;
+	private int[] postPlaces = null;
+	private int[] postWeights = null;
+
+	// packed markings of states (width words per state)
+	private long[] states = null;
+	// state -> hash code of its marking
+	private int[] hashes = null;
+	// number of states
+	private int count = 0;
+	// open addressing hash table (state index + 1, or 0 for an empty slot)
+	private int[] table = null;
+
+	// state -> first edge and number of edges
+	private int[] edgeStart = null;
+	private int[] edgeCount = null;
+	// edge -> index of transition and target state
+	private int[] edgeTransition = null;
+	private int[] edgeTarget = null;
+	// number of edges
+	private int edges = 0;
+
+	// states without enabled transitions
+	private int[] deadlocks = new int[16];
+	private int deadlockCount = 0;
+	// transition -> true if the transition occurs in some explored marking
+	private boolean[] occurs = null;
+
+	private boolean complete = true;
+	private boolean boundExceeded = false;
+	// state -> strongly connected component, and terminal components (computed on demand)
+	private int[] component = null;
+	private boolean[] terminal = null;
+
+	/**
+	 * Constructor with default setup.
+	 *
+	 * @param sys Net system.
+	 */
+	public ReachabilityGraph(INetSystem<F,N,P,T,M> sys) {
+		this(sys, new ReachabilityGraphSetup());
+	}
+
+	/**
+	 * Constructor with specified setup.
+	 *
+	 * @param sys Net system.
+	 * @param setup Setup to use when constructing the reachability graph.
+	 * @throws IllegalArgumentException if the initial marking of the net system exceeds the bound of the setup.
+	 */
+	public ReachabilityGraph(INetSystem<F,N,P,T,M> sys, ReachabilityGraphSetup setup) {
+		this(sys, sys==null ? null : sys.getMarking(), setup);
+	}
+
+	/**
+	 * Constructor with specified initial marking and setup; the marking of the net system is not used.
+	 *
+	 * @param sys Net system.
+	 * @param marking Initial marking of the reachability graph.
+	 * @param setup Setup to use when constructing the reachability graph.
+	 * @throws IllegalArgumentException if the initial marking exceeds the bound of the setup.
+	 */
+	public ReachabilityGraph(INetSystem<F,N,P,T,M> sys, M marking, ReachabilityGraphSetup setup) {
+		if (sys==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		if (setup.MAX_BOUND<1) throw new IllegalArgumentException("Bound must be positive!");
+
+		this.sys = sys;
+		this.setup = setup;
+		this.net = sys.compile();
+		this.occurs = new boolean[this.net.countTransitions()];
+
+		this.bits = 32-Integer.numberOfLeadingZeros(setup.MAX_BOUND);
+		this.perWord = 64/this.bits;
+		this.mask = (1L<<this.bits)-1;
+		this.width = Math.max(1, (this.net.countPlaces()+this.perWord-1)/this.perWord);
+		this.placeWord = new int[this.net.countPlaces()];
+		this.placeShift = new int[this.net.countPlaces()];
+		for (int p=0; p<this.placeWord.length; p++) {
+			this.placeWord[p] = p/this.perWord;
+			this.placeShift[p] = (p%this.perWord)*this.bits;
+		}
+		this.preOffsets = this.net.getPresetOffsets();
+		this.prePlaces = this.net.getPresetPlaces();
+		this.preWeights = this.net.getPresetWeights();
+		this.postOffsets = this.net.getPostsetOffsets();
+		this.postPlaces = this.net.getPostsetPlaces();
+		this.postWeights = this.net.getPostsetWeights();
+
+		int capacity = 1024;
+		this.states = new long[capacity*this.width];
+		this.hashes = new int[capacity];
+		this.table = new int[capacity*2];
+		if (setup.STORE_EDGES) {
+			this.edgeStart = new int[capacity];
+			this.edgeCount = new int[capacity];
+			this.edgeTransition = new int[capacity*2];
+			this.edgeTarget = new int[capacity*2];
+		}
+
+		long[] initial = new long[this.width];
+		int[] tokens = this.net.toArray(marking);
+		for (int p=0; p<tokens.length; p++) {
+			if (tokens[p]>setup.MAX_BOUND) throw new IllegalArgumentException("Initial marking exceeds the bound!");
+			initial[this.placeWord[p]] |= ((long) tokens[p]) << this.placeShift[p];
+		}
+		this.intern(initial, hash(initial, 0, this.width));
+
+		this.construct();
+	}
+
+	/**
+	 * Explore reachable markings in the order prescribed by the setup.
+	 */
+	protected void construct() {
+		if (this.setup.SEARCH_ORDER==SearchOrderType.DEPTH_FIRST) {
+			long[] current = new long[this.width];
+			long[] next = new long[this.width];
+			int[] stack = new int[16];
+			int top = 0;
+			stack[top++] = 0;
+			while (top>0) {
+				int s = stack[--top];
+				int before = this.count;
+				this.expand(s, current, next);
+				// push discovered states in reverse order, so that the first discovered state is explored first
+				for (int i=this.count-1; i>=before; i--) {
+					if (top==stack.length) stack = Arrays.copyOf(stack, stack.length*2);
+					stack[top++] = i;
+				}
+			}
+			return;
+		}
+
+		ExecutorService executor = null;
+		boolean shutdown = false;
+		if (this.setup.EXECUTOR!=null)
+			executor = this.setup.EXECUTOR;
+		else if (this.setup.THREADS>1) {
+			executor = new ForkJoinPool(this.setup.THREADS);
+			shutdown = true;
+		}
+
+		if (executor==null) {
+			long[] current = new long[this.width];
+			long[] next = new long[this.width];
+			// states are discovered in breadth-first order
+			for (int s=0; s<this.count; s++)
+				this.expand(s, current, next);
+			return;
+		}
+
+		try {
+			this.constructInParallel(executor);
+		}
+		finally {
+			if (shutdown) executor.shutdown();
+		}
+	}
+
+	/**
+	 * Compute successors of a state.
+	 */
+	private void expand(int s, long[] current, long[] next) {
+		System.arraycopy(this.states, s*this.width, current, 0, this.width);
+		if (this.setup.STORE_EDGES) this.edgeStart[s] = this.edges;
+
+		boolean deadlock = true;
+		for (int t=0; t<this.occurs.length; t++) {
+			if (!this.isEnabled(current, t)) continue;
+			deadlock = false;
+			this.occurs[t] = true;
+
+			if (!this.fire(current, next, t)) {
+				this.boundExceeded = true;
+				this.complete = false;
+				continue;
+			}
+
+			int target = this.intern(next, hash(next, 0, this.width));
+			if (target<0) {
+				this.complete = false;
+				continue;
+			}
+
+			if (this.setup.STORE_EDGES) this.addEdge(t, target);
+		}
+
+		if (this.setup.STORE_EDGES) this.edgeCount[s] = this.edges-this.edgeStart[s];
+		if (deadlock) this.addDeadlock(s);
+	}
+
+	/**
+	 * Breadth-first exploration, level by level. Successors of states of a level are computed by tasks that run concurrently and
+	 * look up known states in the (then read-only) hash table, while new states are collected in a striped set. Afterwards,
+	 * new states are numbered by visiting the successors in the order of the sequential exploration, which results in the same graph.
+	 */
+	private void constructInParallel(ExecutorService executor) {
+		int threads = this.setup.EXECUTOR!=null ? Runtime.getRuntime().availableProcessors() : this.setup.THREADS;
+		int start = 0;
+		while (start<this.count) {
+			int end = this.count;
+			int chunk = Math.max(16, (end-start)/(threads*8));
+			CandidateSet candidates = new CandidateSet(this.width, threads);
+
+			List<Expansion> tasks = new ArrayList<Expansion>();
+			for (int s=start; s<end; s+=chunk)
+				tasks.add(new Expansion(s, Math.min(end, s+chunk), candidates));
+
+			try {
+				for (Future<Expansion> future : executor.invokeAll(tasks)) future.get();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Construction of reachability graph was interrupted!", exception);
+			} catch (ExecutionException exception) {
+				if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+				throw new IllegalStateException(exception.getCause());
+			}
+
+			// number new states in the order of their discovery by the sequential exploration
+			int[] id2state = new int[candidates.size()];
+			Arrays.fill(id2state, -2);
+			long[] marking = new long[this.width];
+			for (Expansion task : tasks) {
+				if (task.exceeded) {
+					this.boundExceeded = true;
+					this.complete = false;
+				}
+				for (int t=0; t<this.occurs.length; t++)
+					this.occurs[t] |= task.occurs[t];
+
+				int e = 0;
+				for (int s=task.from; s<task.to; s++) {
+					if (this.setup.STORE_EDGES) this.edgeStart[s] = this.edges;
+					for (int i=0; i<task.successors[s-task.from]; i++, e++) {
+						int target = task.targets[e];
+						if (target<0) {
+							int id = -target-1;
+							if (id2state[id]==-2) {
+								int hash = candidates.get(id, marking);
+								id2state[id] = this.intern(marking, hash);
+							}
+							target = id2state[id];
+						}
+						if (target<0) {
+							this.complete = false;
+							continue;
+						}
+						if (this.setup.STORE_EDGES) this.addEdge(task.transitions[e], target);
+					}
+					if (this.setup.STORE_EDGES) this.edgeCount[s] = this.edges-this.edgeStart[s];
+					if (task.deadlocks[s-task.from]) this.addDeadlock(s);
+				}
+			}
+
+			start = end;
+		}
+	}
+
+	private boolean isEnabled(long[] marking, int t) {
+		for (int i=this.preOffsets[t]; i<this.preOffsets[t+1]; i++) {
+			int p = this.prePlaces[i];
+			if (((marking[this.placeWord[p]] >>> this.placeShift[p]) & this.mask) < this.preWeights[i]) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Compute marking reached by firing an enabled transition.
+	 *
+	 * @return <tt>false</tt> if the reached marking exceeds the bound; otherwise <tt>true</tt>.
+	 */
+	private boolean fire(long[] current, long[] next, int t) {
+		System.arraycopy(current, 0, next, 0, this.width);
+		for (int i=this.preOffsets[t]; i<this.preOffsets[t+1]; i++) {
+			int p = this.prePlaces[i];
+			next[this.placeWord[p]] -= ((long) this.preWeights[i]) << this.placeShift[p];
+		}
+		for (int i=this.postOffsets[t]; i<this.postOffsets[t+1]; i++) {
+			int p = this.postPlaces[i];
+			if (((next[this.placeWord[p]] >>> this.placeShift[p]) & this.mask) + this.postWeights[i] > this.setup.MAX_BOUND)
+				return false;
+			next[this.placeWord[p]] += ((long) this.postWeights[i]) << this.placeShift[p];
+		}
+
+		return true;
+	}
+
+	private void addDeadlock(int s) {
+		if (this.deadlockCount==this.deadlocks.length) this.deadlocks = Arrays.copyOf(this.deadlocks, this.deadlocks.length*2);
+		this.deadlocks[this.deadlockCount++] = s;
+	}
+
+	/**
+	 * Get index of a state with a given packed marking without modifying this graph.
+	 *
+	 * @return Index of the state, or -1 if there is no such state.
+	 */
+	private int find(long[] marking, int hash) {
+		int m = this.table.length-1;
+		for (int slot = hash & m; this.table[slot]!=0; slot = (slot+1) & m) {
+			int s = this.table[slot]-1;
+			if (this.hashes[s]==hash && this.equals(s, marking)) return s;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Get index of a state with a given packed marking; adds a new state if there is no such state.
+	 *
+	 * @return Index of the state, or -1 if the state is new and the limit on the number of states is reached.
+	 */
+	private int intern(long[] marking, int hash) {
+		int m = this.table.length-1;
+		int slot = hash & m;
+		while (this.table[slot]!=0) {
+			int s = this.table[slot]-1;
+			if (this.hashes[s]==hash && this.equals(s, marking)) return s;
+			slot = (slot+1) & m;
+		}
+
+		if (this.count>=this.setup.MAX_STATES) return -1;
+
+		if (this.count==this.hashes.length) {
+			this.grow();
+			return this.intern(marking, hash);
+		}
+
+		int s = this.count++;
+		System.arraycopy(marking, 0, this.states, s*this.width, this.width);
+		this.hashes[s] = hash;
+		this.table[slot] = s+1;
+		return s;
+	}
+
+	private boolean equals(int s, long[] marking) {
+		int offset = s*this.width;
+		for (int i=0; i<this.width; i++)
+			if (this.states[offset+i]!=marking[i]) return false;
+
+		return true;
+	}
+
+	private void grow() {
+		int capacity = this.hashes.length*2;
+		this.states = Arrays.copyOf(this.states, capacity*this.width);
+		this.hashes = Arrays.copyOf(this.hashes, capacity);
+		if (this.setup.STORE_EDGES) {
+			this.edgeStart = Arrays.copyOf(this.edgeStart, capacity);
+			this.edgeCount = Arrays.copyOf(this.edgeCount, capacity);
+		}
+
+		// rehash
+		this.table = new int[capacity*2];
+		int m = this.table.length-1;
+		for (int s=0; s<this.count; s++) {
+			int slot = this.hashes[s] & m;
+			while (this.table[slot]!=0) slot = (slot+1) & m;
+			this.table[slot] = s+1;
+		}
+	}
+
+	private void addEdge(int t, int target) {
+		if (this.edges==this.edgeTarget.length) {
+			this.edgeTransition = Arrays.copyOf(this.edgeTransition, this.edges*2);
+			this.edgeTarget = Arrays.copyOf(this.edgeTarget, this.edges*2);
+		}
+
+		this.edgeTransition[this.edges] = t;
+		this.edgeTarget[this.edges++] = target;
+	}
+
+	/**
+	 * Hash code of a packed marking.
+	 */
+	protected static int hash(long[] words, int offset, int length) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (int i=offset; i<offset+length; i++) {
+			h ^= words[i];
+			h *= 0xBF58476D1CE4E5B9L;
+			h ^= h >>> 31;
+		}
+		h *= 0x94D049BB133111EBL;
+		h ^= h >>> 29;
+
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * @return Explored net system.
+	 */
+	public INetSystem<F,N,P,T,M> getNetSystem() {
+		return this.sys;
+	}
+
+	/**
+	 * @return Compiled net of the explored net system; indexes of transitions refer to this net.
+	 */
+	public CompiledPetriNet<F,N,P,T> getCompiledNet() {
+		return this.net;
+	}
+
+	/**
+	 * Check if all reachable markings were explored, i.e., neither the limit on the number of states was reached nor the bound was exceeded.
+	 *
+	 * @return <tt>true</tt> if this graph is the complete reachability graph of the net system; otherwise <tt>false</tt>.
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * Check if some explored marking enables a transition whose occurrence puts more than {@link ReachabilityGraphSetup#MAX_BOUND} tokens at some place.
+	 *
+	 * @return <tt>true</tt> if the net system is not MAX_BOUND-bounded; <tt>false</tt> if no such marking was found.
+	 */
+	public boolean isBoundExceeded() {
+		return this.boundExceeded;
+	}
+
+	/**
+	 * @return Number of states.
+	 */
+	public int countStates() {
+		return this.count;
+	}
+
+	/**
+	 * @return Number of edges (zero if edges are not stored).
+	 */
+	public int countEdges() {
+		return this.edges;
+	}
+
+	/**
+	 * @return Index of the initial state.
+	 */
+	public int getInitialState() {
+		return 0;
+	}
+
+	/**
+	 * Get marking of a state.
+	 *
+	 * @param state Index of a state.
+	 * @return Fresh marking of the net system.
+	 */
+	@SuppressWarnings("unchecked")
+	public M getMarking(int state) {
+		M result = (M) this.sys.createMarking();
+		int offset = state*this.width;
+		for (int p=0; p<this.placeWord.length; p++) {
+			int tokens = (int) ((this.states[offset+this.placeWord[p]] >>> this.placeShift[p]) & this.mask);
+			if (tokens>0) result.put(this.net.getPlace(p), tokens);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get number of tokens at a place in a state.
+	 *
+	 * @param state Index of a state.
+	 * @param place Place of the net system.
+	 * @return Number of tokens at the place in the state, or 0 if the place is not part of the net system.
+	 */
+	public int getTokens(int state, P place) {
+		if (!this.net.containsPlace(place)) return 0;
+		int p = this.net.getIndex(place);
+
+		return (int) ((this.states[state*this.width+this.placeWord[p]] >>> this.placeShift[p]) & this.mask);
+	}
+
+	/**
+	 * Get state of a marking.
+	 *
+	 * @param marking Marking of the net system.
+	 * @return Index of the state with the given marking, or -1 if there is no such state.
+	 */
+	public int getState(M marking) {
+		long[] words = new long[this.width];
+		int[] tokens = this.net.toArray(marking);
+		for (int p=0; p<tokens.length; p++) {
+			if (tokens[p]>this.setup.MAX_BOUND) return -1;
+			words[this.placeWord[p]] |= ((long) tokens[p]) << this.placeShift[p];
+		}
+
+		return this.find(words, hash(words, 0, this.width));
+	}
+
+	/**
+	 * @param state Index of a state.
+	 * @return Number of outgoing edges of the state.
+	 */
+	public int countSuccessors(int state) {
+		this.checkEdges();
+		return state<this.count ? this.edgeCount[state] : 0;
+	}
+
+	/**
+	 * @param state Index of a state.
+	 * @param i Index of an outgoing edge of the state.
+	 * @return Index of the target state of the edge.
+	 */
+	public int getSuccessor(int state, int i) {
+		this.checkEdges();
+		return this.edgeTarget[this.edgeStart[state]+i];
+	}
+
+	/**
+	 * @param state Index of a state.
+	 * @param i Index of an outgoing edge of the state.
+	 * @return Transition that labels the edge.
+	 */
+	public T getSuccessorTransition(int state, int i) {
+		this.checkEdges();
+		return this.net.getTransition(this.edgeTransition[this.edgeStart[state]+i]);
+	}
+
+	/**
+	 * @return Indexes of states in which no transition is enabled.
+	 */
+	public int[] getDeadlocks() {
+		return Arrays.copyOf(this.deadlocks, this.deadlockCount);
+	}
+
+	/**
+	 * @return <tt>true</tt> if some explored state is a deadlock; otherwise <tt>false</tt>.
+	 */
+	public boolean hasDeadlock() {
+		return this.deadlockCount>0;
+	}
+
+	/**
+	 * @return Transitions that are not enabled in any explored state.
+	 */
+	public Set<T> getDeadTransitions() {
+		Set<T> result = new HashSet<T>();
+		for (int t=0; t<this.occurs.length; t++)
+			if (!this.occurs[t])
+				result.add(this.net.getTransition(t));
+
+		return result;
+	}
+
+	/**
+	 * Get home states, i.e., states that are reachable from every state.
+	 * Home states exist if and only if the graph has exactly one terminal strongly connected component, which then comprises all home states.
+	 *
+	 * @return Indexes of home states.
+	 * @throws IllegalStateException if edges are not stored.
+	 */
+	public int[] getHomeStates() {
+		this.computeComponents();
+
+		int home = -1;
+		for (int c=0; c<this.terminal.length; c++) {
+			if (!this.terminal[c]) continue;
+			if (home>=0) return new int[0];
+			home = c;
+		}
+
+		int size = 0;
+		for (int v=0; v<this.count; v++) if (this.component[v]==home) size++;
+		int[] result = new int[size];
+		int i = 0;
+		for (int v=0; v<this.count; v++) if (this.component[v]==home) result[i++] = v;
+
+		return result;
+	}
+
+	/**
+	 * Get live transitions, i.e., transitions that can be enabled again from every state.
+	 * These are the transitions that occur in every terminal strongly connected component of the graph.
+	 *
+	 * @return Live transitions.
+	 * @throws IllegalStateException if edges are not stored.
+	 */
+	public Set<T> getLiveTransitions() {
+		this.computeComponents();
+
+		// terminal component -> transitions that occur in it
+		int components = this.terminal.length;
+		boolean[][] occurring = new boolean[components][];
+		for (int v=0; v<this.count; v++) {
+			int c = this.component[v];
+			if (!this.terminal[c]) continue;
+			if (occurring[c]==null) occurring[c] = new boolean[this.occurs.length];
+			for (int e=this.edgeStart[v]; e<this.edgeStart[v]+this.edgeCount[v]; e++)
+				occurring[c][this.edgeTransition[e]] = true;
+		}
+
+		Set<T> result = new HashSet<T>();
+		for (int t=0; t<this.occurs.length; t++) {
+			boolean live = true;
+			for (int c=0; c<components && live; c++)
+				if (this.terminal[c] && !occurring[c][t]) live = false;
+			if (live) result.add(this.net.getTransition(t));
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return <tt>true</tt> if the initial marking is a home marking; otherwise <tt>false</tt>.
+	 */
+	public boolean isReversible() {
+		int[] home = this.getHomeStates();
+		return home.length>0 && home[0]==0;
+	}
+
+	private void checkEdges() {
+		if (!this.setup.STORE_EDGES) throw new IllegalStateException("Edges of the reachability graph are not stored!");
+	}
+
+	/**
+	 * Strongly connected components are computed by an iterative version of Tarjan's algorithm.
+	 */
+	private void computeComponents() {
+		this.checkEdges();
+		if (this.component!=null) return;
+
+		int n = this.count;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] component = new int[n];
+		Arrays.fill(index, -1);
+		int[] stack = new int[n];
+		int top = 0;
+		boolean[] onStack = new boolean[n];
+		// call stack of states and positions of next edges to visit
+		int[] callState = new int[n];
+		int[] callEdge = new int[n];
+		int depth = 0;
+		int counter = 0, components = 0;
+
+		for (int root=0; root<n; root++) {
+			if (index[root]>=0) continue;
+			callState[depth] = root;
+			callEdge[depth++] = 0;
+			index[root] = low[root] = counter++;
+			stack[top++] = root;
+			onStack[root] = true;
+
+			while (depth>0) {
+				int v = callState[depth-1];
+				int e = callEdge[depth-1];
+				if (e<this.edgeCount[v]) {
+					callEdge[depth-1]++;
+					int w = this.edgeTarget[this.edgeStart[v]+e];
+					if (index[w]<0) {
+						index[w] = low[w] = counter++;
+						stack[top++] = w;
+						onStack[w] = true;
+						callState[depth] = w;
+						callEdge[depth++] = 0;
+					}
+					else if (onStack[w] && index[w]<low[v]) low[v] = index[w];
+					continue;
+				}
+
+				if (low[v]==index[v]) {
+					int w;
+					do {
+						w = stack[--top];
+						onStack[w] = false;
+						component[w] = components;
+					} while (w!=v);
+					components++;
+				}
+				depth--;
+				if (depth>0) {
+					int u = callState[depth-1];
+					if (low[v]<low[u]) low[u] = low[v];
+				}
+			}
+		}
+
+		// terminal components have no outgoing edges to other components
+		boolean[] terminal = new boolean[components];
+		Arrays.fill(terminal, true);
+		for (int v=0; v<n; v++)
+			for (int e=this.edgeStart[v]; e<this.edgeStart[v]+this.edgeCount[v]; e++)
+				if (component[this.edgeTarget[e]]!=component[v])
+					terminal[component[v]] = false;
+
+		this.terminal = terminal;
+		this.component = component;
+	}
+
+	/**
+	 * Task that computes successors of a range of states.
+	 */
+	private class Expansion implements Callable<Expansion> {
+		// range of states
+		private int from = 0;
+		private int to = 0;
+		// set of new states of the current level
+		private CandidateSet candidates = null;
+
+		// state -> number of successors and true if no transition is enabled
+		private int[] successors = null;
+		private boolean[] deadlocks = null;
+		// successor -> transition and target state (known state, or -(id+1) for a new state with the given identifier)
+		private int[] transitions = new int[64];
+		private int[] targets = new int[64];
+		private boolean[] occurs = null;
+		private boolean exceeded = false;
+
+		Expansion(int from, int to, CandidateSet candidates) {
+			this.from = from;
+			this.to = to;
+			this.candidates = candidates;
+		}
+
+		@Override
+		public Expansion call() {
+			this.successors = new int[this.to-this.from];
+			this.deadlocks = new boolean[this.to-this.from];
+			this.occurs = new boolean[ReachabilityGraph.this.occurs.length];
+			long[] current = new long[width];
+			long[] next = new long[width];
+
+			int n = 0;
+			for (int s=this.from; s<this.to; s++) {
+				System.arraycopy(states, s*width, current, 0, width);
+				boolean deadlock = true;
+				for (int t=0; t<this.occurs.length; t++) {
+					if (!isEnabled(current, t)) continue;
+					deadlock = false;
+					this.occurs[t] = true;
+
+					if (!fire(current, next, t)) {
+						this.exceeded = true;
+						continue;
+					}
+
+					int hash = hash(next, 0, width);
+					int target = find(next, hash);
+					if (target<0) target = -this.candidates.add(next, hash)-1;
+
+					if (n==this.targets.length) {
+						this.transitions = Arrays.copyOf(this.transitions, n*2);
+						this.targets = Arrays.copyOf(this.targets, n*2);
+					}
+					this.transitions[n] = t;
+					this.targets[n++] = target;
+					this.successors[s-this.from]++;
+				}
+				this.deadlocks[s-this.from] = deadlock;
+			}
+
+			return this;
+		}
+	}
+
+	/**
+	 * Concurrent set of packed markings striped by hash codes; every marking gets a unique identifier.
+	 */
+	private static class CandidateSet {
+		private Stripe[] stripes = null;
+		private AtomicInteger ids = new AtomicInteger();
+		// identifier -> stripe and position in the stripe
+		private int[] idStripe = null;
+		private int[] idPosition = null;
+
+		CandidateSet(int width, int threads) {
+			this.stripes = new Stripe[Math.max(64, Integer.highestOneBit(threads)*16)];
+			for (int i=0; i<this.stripes.length; i++)
+				this.stripes[i] = new Stripe(width);
+		}
+
+		/**
+		 * @return Identifier of the given marking.
+		 */
+		int add(long[] marking, int hash) {
+			Stripe stripe = this.stripes[(hash >>> 16) & (this.stripes.length-1)];
+			synchronized (stripe) {
+				return stripe.add(marking, hash, this.ids);
+			}
+		}
+
+		int size() {
+			return this.ids.get();
+		}
+
+		/**
+		 * Copy marking with a given identifier (must not be called concurrently with adding markings).
+		 *
+		 * @return Hash code of the marking.
+		 */
+		int get(int id, long[] marking) {
+			if (this.idStripe==null) {
+				this.idStripe = new int[this.size()];
+				this.idPosition = new int[this.size()];
+				for (int i=0; i<this.stripes.length; i++)
+					for (int j=0; j<this.stripes[i].size; j++) {
+						this.idStripe[this.stripes[i].ids[j]] = i;
+						this.idPosition[this.stripes[i].ids[j]] = j;
+					}
+			}
+
+			Stripe stripe = this.stripes[this.idStripe[id]];
+			int position = this.idPosition[id];
+			System.arraycopy(stripe.words, position*stripe.width, marking, 0, stripe.width);
+			return stripe.hashes[position];
+		}
+	}
+
+	/**
+	 * Open addressing hash set of packed markings.
+	 */
+	private static class Stripe {
+		private int width = 0;
+		private long[] words = null;
+		private int[] hashes = new int[8];
+		private int[] ids = new int[8];
+		private int size = 0;
+		// position + 1, or 0 for an empty slot
+		private int[] table = new int[16];
+
+		Stripe(int width) {
+			this.width = width;
+			this.words = new long[8*width];
+		}
+
+		int add(long[] marking, int hash, AtomicInteger ids) {
+			int m = this.table.length-1;
+			int slot = hash & m;
+			for (; this.table[slot]!=0; slot = (slot+1) & m) {
+				int i = this.table[slot]-1;
+				if (this.hashes[i]==hash && this.equals(i, marking)) return this.ids[i];
+			}
+
+			if (this.size==this.hashes.length) {
+				this.grow();
+				return this.add(marking, hash, ids);
+			}
+
+			int i = this.size++;
+			System.arraycopy(marking, 0, this.words, i*this.width, this.width);
+			this.hashes[i] = hash;
+			this.ids[i] = ids.getAndIncrement();
+			this.table[slot] = i+1;
+			return this.ids[i];
+		}
+
+		private boolean equals(int i, long[] marking) {
+			for (int j=0; j<this.width; j++)
+				if (this.words[i*this.width+j]!=marking[j]) return false;
+
+			return true;
+		}
+
+		private void grow() {
+			int capacity = this.hashes.length*2;
+			this.words = Arrays.copyOf(this.words, capacity*this.width);
+			this.hashes = Arrays.copyOf(this.hashes, capacity);
+			this.ids = Arrays.copyOf(this.ids, capacity);
+			this.table = new int[capacity*2];
+			int m = this.table.length-1;
+			for (int i=0; i<this.size; i++) {
+				int slot = this.hashes[i] & m;
+				while (this.table[slot]!=0) slot = (slot+1) & m;
+				this.table[slot] = i+1;
+			}
+		}
+	}
+}
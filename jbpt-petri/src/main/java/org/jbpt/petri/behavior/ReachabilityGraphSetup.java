@@ -0,0 +1,49 @@
+package org.jbpt.petri.behavior;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Setup for construction of a reachability graph of a net system.
+ */
+public class ReachabilityGraphSetup {
+	
+	/**
+	 * Explore reachable markings in this order.
+	 */
+	public SearchOrderType SEARCH_ORDER = SearchOrderType.BREADTH_FIRST;
+	
+	/**
+	 * Do not store more than MAX_STATES markings.
+	 */
+	public int MAX_STATES = Integer.MAX_VALUE;
+	
+	/**
+	 * Store at most MAX_BOUND tokens per place; markings that put more tokens at some place are reported and not explored.
+	 * 
+	 * Markings are stored using as few bits per place as needed to represent MAX_BOUND, e.g., one bit per place if MAX_BOUND is 1. 
+	 */
+	public int MAX_BOUND = 1;
+	
+	/**
+	 * Store edges of the reachability graph; edges are required to compute home markings.
+	 * 
+	 * If set to <tt>false</tt>, only markings are stored.
+	 */
+	public boolean STORE_EDGES = true;
+	
+	/**
+	 * Use THREADS threads to construct the reachability graph (construction is sequential if set to 1).
+	 * 
+	 * Successors of states are computed concurrently, level by level of the breadth-first search, 
+	 * while states are numbered as in the sequential construction. Hence, the resulting graph does not depend on THREADS.
+	 * Depth-first search is always sequential.
+	 */
+	public int THREADS = 1;
+	
+	/**
+	 * Use this executor to construct the reachability graph in parallel (takes precedence over THREADS).
+	 * 
+	 * If set to <tt>null</tt> and THREADS is greater than 1, a work-stealing pool is created for and shut down after the construction.
+	 */
+	public ExecutorService EXECUTOR = null;
+}
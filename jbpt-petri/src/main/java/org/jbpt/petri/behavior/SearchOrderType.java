@@ -0,0 +1,9 @@
+package org.jbpt.petri.behavior;
+
+/**
+ * Orders in which reachable markings of a net system get explored.
+ */
+public enum SearchOrderType {
+	BREADTH_FIRST,
+	DEPTH_FIRST
+}
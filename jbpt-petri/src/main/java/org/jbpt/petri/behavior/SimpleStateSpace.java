@@ -24,12 +24,26 @@ public class SimpleStateSpace<F extends IFlow<N>, N extends INode, P extends IPl
 	
 	protected Map<M, Map<T, M>> stateTransitions = null;
 	
+	// stubborn sets used to reduce the state space, or null if the full state space is created
+	protected StubbornSets<F,N,P,T,M> stubbornSets = null;
+	
 	public SimpleStateSpace(INetSystem<F, N, P, T, M> netSystem) {
+		this(netSystem, false);
+	}
+	
+	/**
+	 * @param netSystem Net system.
+	 * @param reduce If <tt>true</tt>, only transitions of stubborn sets are fired at each marking; 
+	 * the reduced state space contains all reachable deadlocks, but not necessarily all reachable markings.
+	 */
+	public SimpleStateSpace(INetSystem<F, N, P, T, M> netSystem, boolean reduce) {
 		super();
 		this.netSystem = netSystem;
 		this.enabled = new HashMap<M, Set<T>>();
 		this.toVisit = new HashMap<M, Set<T>>();
 		this.stateTransitions = new HashMap<M, Map<T, M>>();
+		if (reduce)
+			this.stubbornSets = new StubbornSets<F,N,P,T,M>(netSystem);
 	}
 	
 	public void create() {
@@ -39,14 +53,14 @@ public class SimpleStateSpace<F extends IFlow<N>, N extends INode, P extends IPl
 	public void createUpToNumberOfMarkings(int numberOfMarkings) {
 		
 		/*
-		 * Clone initial marking for storing it as part of the SimpleStateSpace and for 
-		 * being able to reset the net system at the end
+		 * Clone initial marking for storing it as part of the SimpleStateSpace; 
+		 * the marking of the net system is never changed
 		 */
 		@SuppressWarnings("unchecked")
 		M iM = (M) this.netSystem.getMarking().clone();
 		
-		this.enabled.put(iM, this.netSystem.getEnabledTransitions());
-		this.toVisit.put(iM, this.netSystem.getEnabledTransitions());
+		this.enabled.put(iM, this.netSystem.getEnabledTransitionsAtMarking(iM));
+		this.toVisit.put(iM, this.getTransitionsToFire(iM, this.enabled.get(iM)));
 		
 		while (!this.toVisit.isEmpty() && this.getNumberOfMarkings() < numberOfMarkings) {
 			// select marking
@@ -62,11 +76,8 @@ public class SimpleStateSpace<F extends IFlow<N>, N extends INode, P extends IPl
 			T t = this.toVisit.get(m).iterator().next();
 			
 			// fire transition
-			this.netSystem.loadMarking(m);
-			this.netSystem.fire(t);
+			M nM = this.netSystem.fire(m, t);
 			this.toVisit.get(m).remove(t);
-			@SuppressWarnings("unchecked")
-			M nM = (M) this.netSystem.getMarking().clone(); 
 			
 			// record transition
 			if (!this.stateTransitions.containsKey(m))
@@ -77,11 +88,11 @@ public class SimpleStateSpace<F extends IFlow<N>, N extends INode, P extends IPl
 //			System.out.println(m.toString() + "  " + t.getId() + "  " + nM.toString());
 
 			// get new enabled
-			Set<T> nEnabled = this.netSystem.getEnabledTransitions(this.enabled.get(m), t);
+			Set<T> nEnabled = this.netSystem.getEnabledTransitionsAtMarking(nM, this.enabled.get(m), t);
 			this.enabled.put(nM, nEnabled);
 			
 			// check whether transitions have to be checked
-			Set<T> stillToCheck = new HashSet<T>(nEnabled);
+			Set<T> stillToCheck = this.getTransitionsToFire(nM, nEnabled);
 			if (this.stateTransitions.containsKey(nM))
 				stillToCheck.removeAll(this.stateTransitions.get(nM).keySet());
 			
@@ -89,11 +100,37 @@ public class SimpleStateSpace<F extends IFlow<N>, N extends INode, P extends IPl
 				this.toVisit.put(nM, stillToCheck);
 			
 		}
+	}
+
+	/**
+	 * Get transitions to fire at a marking, i.e., all enabled transitions or, if the state space is reduced, the enabled transitions of a stubborn set.
+	 */
+	protected Set<T> getTransitionsToFire(M marking, Set<T> enabled) {
+		if (this.stubbornSets==null) 
+			return new HashSet<T>(enabled);
 		
-		/*
-		 * Reset initial marking 
-		 */
-		this.netSystem.loadMarking(iM);
+		return this.stubbornSets.getStubbornSet(marking, enabled);
+	}
+	
+	/**
+	 * @return <tt>true</tt> if the state space is reduced using stubborn sets; otherwise <tt>false</tt>.
+	 */
+	public boolean isReduced() {
+		return this.stubbornSets!=null;
+	}
+	
+	/**
+	 * Get reachable deadlocks, i.e., markings without enabled transitions.
+	 * 
+	 * @return Deadlocks of the net system (all reachable deadlocks, if the state space is complete).
+	 */
+	public Set<M> getDeadlocks() {
+		Set<M> result = new HashSet<M>();
+		for (Entry<M,Set<T>> entry : this.enabled.entrySet())
+			if (entry.getValue().isEmpty())
+				result.add(entry.getKey());
+		
+		return result;
 	}
 
 	public void clear() {
@@ -0,0 +1,393 @@
+package org.jbpt.petri.behavior;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.PetriNet;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.structure.PetriNetInvariants;
+
+/**
+ * In-process soundness checker for workflow nets (WF-nets).<br/><br/>
+ *
+ * A WF-net is analyzed with one token at its source place i; the final marking puts one token at its sink place o.
+ * The marking of the given net system is neither used nor changed. The checker reports:
+ * <ul>
+ * <li>boundedness and unbounded places, decided by a coverability graph if the net is not safe,</li>
+ * <li>dead transitions and quasi-liveness,</li>
+ * <li>weak soundness: the final marking is reachable from every reachable marking (option to complete),
+ * and every reachable marking that marks o is the final marking (proper completion),</li>
+ * <li>classical soundness: weak soundness and no dead transitions,</li>
+ * <li>relaxed soundness and transition cover: every transition occurs in some firing sequence that leads to the final marking
+ * (uncovered transitions do not),</li>
+ * <li>liveness of the short-circuited net, i.e., the net with an additional transition from o to i.</li>
+ * </ul>
+ * Relaxed soundness and liveness are decided for bounded nets (bounded short-circuited nets, respectively) and are reported as not given otherwise.<br/><br/>
+ *
+ * Results are reported in the format of {@link LolaSoundnessChecker}, which calls a remote service instead.
+ */
+public class SoundnessChecker {
+
+	/**
+	 * Analysis fails once a state space exceeds this number of markings.
+	 */
+	public static final int MAX_STATES = 5000000;
+
+	// marker of an unbounded number of tokens in coverability graphs
+	private static final int OMEGA = Integer.MAX_VALUE;
+
+	/**
+	 * Check soundness of a WF-net.
+	 *
+	 * @param net WF-net.
+	 * @return Result of the analysis.
+	 * @throws IllegalArgumentException if the net is not a WF-net.
+	 * @throws IllegalStateException if a state space exceeds {@link #MAX_STATES} markings.
+	 */
+	public static LolaSoundnessCheckerResult analyzeSoundness(NetSystem net) {
+		if (net==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		if (net.getSourcePlaces().size()!=1 || net.getSinkPlaces().size()!=1 || !PetriNet.STRUCTURAL_CHECKS.isWorkflowNet(net))
+			throw new IllegalArgumentException("Net must be a WF-net!");
+
+		Place i = net.getSourcePlaces().iterator().next();
+		Place o = net.getSinkPlaces().iterator().next();
+		Marking initial = new Marking(net);
+		initial.put(i, 1);
+		Marking fin = new Marking(net);
+		fin.put(o, 1);
+
+		LolaSoundnessCheckerResult result = new LolaSoundnessCheckerResult();
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = explore(net, initial);
+		if (graph==null) {
+			// unbounded net: boundedness and quasi-liveness are decided by the coverability graph
+			Coverability cover = new Coverability(net.compile(), net.compile().toArray(initial));
+			result.setBoundedness(false);
+			result.setUnboundedPlaces(cover.getUnboundedPlaces());
+			result.setDeadTransitions(cover.getDeadTransitions());
+			result.setQuasiLiveness(result.getDeadTransitions().isEmpty());
+			result.setUncoveredTransitions(new ArrayList<Transition>());
+			return result;
+		}
+
+		int n = graph.countStates();
+		int last = graph.getState(fin);
+
+		// states from which the final marking is reachable
+		boolean[] completes = new boolean[n];
+		if (last>=0) {
+			int[] predecessorCount = new int[n+1];
+			for (int s=0; s<n; s++)
+				for (int k=0; k<graph.countSuccessors(s); k++)
+					predecessorCount[graph.getSuccessor(s,k)+1]++;
+			for (int s=0; s<n; s++) predecessorCount[s+1] += predecessorCount[s];
+			int[] predecessors = new int[predecessorCount[n]];
+			int[] fill = Arrays.copyOf(predecessorCount, n);
+			for (int s=0; s<n; s++)
+				for (int k=0; k<graph.countSuccessors(s); k++)
+					predecessors[fill[graph.getSuccessor(s,k)]++] = s;
+
+			int[] queue = new int[n];
+			int head = 0, tail = 0;
+			completes[last] = true;
+			queue[tail++] = last;
+			while (head<tail) {
+				int s = queue[head++];
+				for (int k=predecessorCount[s]; k<predecessorCount[s+1]; k++)
+					if (!completes[predecessors[k]]) {
+						completes[predecessors[k]] = true;
+						queue[tail++] = predecessors[k];
+					}
+			}
+		}
+
+		boolean optionToComplete = true;
+		boolean properCompletion = true;
+		Set<Transition> covered = new HashSet<Transition>();
+		for (int s=0; s<n; s++) {
+			if (!completes[s]) optionToComplete = false;
+			if (s!=last && graph.getTokens(s,o)>0) properCompletion = false;
+			for (int k=0; k<graph.countSuccessors(s); k++)
+				if (completes[graph.getSuccessor(s,k)])
+					covered.add(graph.getSuccessorTransition(s,k));
+		}
+
+		Collection<Transition> uncovered = new ArrayList<Transition>();
+		for (Transition t : net.getTransitions())
+			if (!covered.contains(t)) uncovered.add(t);
+
+		result.setBoundedness(true);
+		result.setDeadTransitions(new ArrayList<Transition>(graph.getDeadTransitions()));
+		result.setQuasiLiveness(result.getDeadTransitions().isEmpty());
+		result.setUncoveredTransitions(uncovered);
+		result.setTransitioncover(uncovered.isEmpty());
+		result.setRelaxedSoundness(uncovered.isEmpty());
+		result.setWeakSoundness(optionToComplete && properCompletion);
+		result.setClassicalSoundness(result.isWeakSound() && result.hasQuasiLiveness());
+
+		/*
+		 * If the net is weakly sound, the short-circuited net adds an edge from the final to the initial marking.
+		 * Hence, it is live iff the net is classically sound. Otherwise, the short-circuited net is explored.
+		 */
+		if (result.isWeakSound())
+			result.setLiveness(result.isClassicalSound());
+		else
+			result.setLiveness(isShortCircuitedNetLive(net, i, o));
+
+		return result;
+	}
+
+	/**
+	 * Check soundness of WF-nets in parallel.
+	 *
+	 * @param nets WF-nets.
+	 * @param threads Number of threads to use.
+	 * @return Results of the analyses in the order of the given nets.
+	 */
+	public static List<LolaSoundnessCheckerResult> analyzeSoundness(List<NetSystem> nets, int threads) {
+		ExecutorService executor = new ForkJoinPool(Math.max(1, threads));
+		try {
+			return analyzeSoundness(nets, executor);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Check soundness of WF-nets in parallel.
+	 *
+	 * @param nets WF-nets; every net is analyzed by one task.
+	 * @param executor Executor to run the analyses.
+	 * @return Results of the analyses in the order of the given nets.
+	 */
+	public static List<LolaSoundnessCheckerResult> analyzeSoundness(List<NetSystem> nets, ExecutorService executor) {
+		List<Callable<LolaSoundnessCheckerResult>> tasks = new ArrayList<Callable<LolaSoundnessCheckerResult>>(nets.size());
+		for (final NetSystem net : nets)
+			tasks.add(new Callable<LolaSoundnessCheckerResult>() {
+				@Override
+				public LolaSoundnessCheckerResult call() {
+					return analyzeSoundness(net);
+				}
+			});
+
+		List<LolaSoundnessCheckerResult> result = new ArrayList<LolaSoundnessCheckerResult>(nets.size());
+		try {
+			for (Future<LolaSoundnessCheckerResult> future : executor.invokeAll(tasks))
+				result.add(future.get());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Soundness analysis was interrupted!");
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Construct the reachability graph of a net system.
+	 *
+	 * @return Complete reachability graph, or <tt>null</tt> if the net system is unbounded.
+	 */
+	private static ReachabilityGraph<Flow,Node,Place,Transition,Marking> explore(NetSystem net, Marking initial) {
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.MAX_STATES = MAX_STATES;
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(net, initial, setup);
+
+		if (graph.isBoundExceeded()) {
+			// the net is not safe, use the bound implied by P-invariants or, if they do not cover the net, by the coverability graph
+			int bound = getInvariantBound(net, initial);
+			if (bound<0) {
+				Coverability cover = new Coverability(net.compile(), net.compile().toArray(initial));
+				if (!cover.isBounded()) return null;
+				bound = cover.getBound();
+			}
+			setup.MAX_BOUND = bound;
+			graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(net, initial, setup);
+		}
+		if (!graph.isComplete()) throw new IllegalStateException("State space exceeds " + MAX_STATES + " markings!");
+
+		return graph;
+	}
+
+	/**
+	 * Get the maximal bound of places implied by P-invariants.
+	 *
+	 * @return Bound of all places, or -1 if the net is not covered by P-invariants.
+	 */
+	private static int getInvariantBound(NetSystem net, Marking initial) {
+		PetriNetInvariants<Flow,Node,Place,Transition> invariants = new PetriNetInvariants<Flow,Node,Place,Transition>(net);
+		if (!invariants.isCoveredByPlaceInvariants()) return -1;
+
+		int result = 1;
+		for (Place p : net.getPlaces())
+			result = Math.max(result, invariants.getBound(p, initial));
+
+		return result;
+	}
+
+	private static boolean isShortCircuitedNetLive(NetSystem net, Place i, Place o) {
+		Map<Node,Node> map = new HashMap<Node,Node>();
+		NetSystem shortCircuited = (NetSystem) net.clone(map);
+		Transition t = new Transition("short-circuit");
+		shortCircuited.addFlow((Place) map.get(o), t);
+		shortCircuited.addFlow(t, (Place) map.get(i));
+
+		Marking initial = new Marking(shortCircuited);
+		initial.put((Place) map.get(i), 1);
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = explore(shortCircuited, initial);
+		if (graph==null) return false;
+
+		return graph.getLiveTransitions().size()==shortCircuited.getTransitions().size();
+	}
+
+	/**
+	 * Coverability graph (Karp-Miller construction with shared nodes) over markings with unbounded places.
+	 */
+	private static class Coverability {
+		private CompiledPetriNet<Flow,Node,Place,Transition> net = null;
+		private boolean[] unbounded = null;
+		private boolean[] occurs = null;
+		private int bound = 0;
+
+		private Coverability(CompiledPetriNet<Flow,Node,Place,Transition> net, int[] initial) {
+			this.net = net;
+			int np = net.countPlaces();
+			int nt = net.countTransitions();
+			this.unbounded = new boolean[np];
+			this.occurs = new boolean[nt];
+			int[] preOffsets = net.getPresetOffsets();
+			int[] prePlaces = net.getPresetPlaces();
+			int[] preWeights = net.getPresetWeights();
+			int[] postOffsets = net.getPostsetOffsets();
+			int[] postPlaces = net.getPostsetPlaces();
+			int[] postWeights = net.getPostsetWeights();
+
+			List<int[]> markings = new ArrayList<int[]>();
+			List<Integer> parents = new ArrayList<Integer>();
+			Map<MarkingKey,Integer> known = new HashMap<MarkingKey,Integer>();
+			ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+			markings.add(initial.clone());
+			parents.add(-1);
+			known.put(new MarkingKey(initial), 0);
+			queue.add(0);
+			this.update(initial);
+
+			while (!queue.isEmpty()) {
+				int x = queue.poll();
+				int[] m = markings.get(x);
+				for (int t=0; t<nt; t++) {
+					boolean enabled = true;
+					for (int k=preOffsets[t]; k<preOffsets[t+1] && enabled; k++)
+						if (m[prePlaces[k]]<preWeights[k]) enabled = false;
+					if (!enabled) continue;
+					this.occurs[t] = true;
+
+					int[] next = m.clone();
+					for (int k=preOffsets[t]; k<preOffsets[t+1]; k++)
+						if (next[prePlaces[k]]!=OMEGA) next[prePlaces[k]] -= preWeights[k];
+					for (int k=postOffsets[t]; k<postOffsets[t+1]; k++)
+						if (next[postPlaces[k]]!=OMEGA) next[postPlaces[k]] += postWeights[k];
+
+					// accelerate: places that grow on a path from a covered ancestor are unbounded
+					for (int y=x; y>=0; y=parents.get(y)) {
+						int[] ancestor = markings.get(y);
+						boolean covers = true, strict = false;
+						for (int p=0; p<np && covers; p++) {
+							if (ancestor[p]>next[p]) covers = false;
+							else if (ancestor[p]<next[p]) strict = true;
+						}
+						if (!covers || !strict) continue;
+						for (int p=0; p<np; p++)
+							if (ancestor[p]<next[p]) next[p] = OMEGA;
+					}
+
+					MarkingKey key = new MarkingKey(next);
+					if (known.containsKey(key)) continue;
+					if (markings.size()>=MAX_STATES) throw new IllegalStateException("Coverability graph exceeds " + MAX_STATES + " markings!");
+					known.put(key, markings.size());
+					markings.add(next);
+					parents.add(x);
+					queue.add(markings.size()-1);
+					this.update(next);
+				}
+			}
+		}
+
+		private void update(int[] marking) {
+			for (int p=0; p<marking.length; p++) {
+				if (marking[p]==OMEGA) this.unbounded[p] = true;
+				else if (marking[p]>this.bound) this.bound = marking[p];
+			}
+		}
+
+		private boolean isBounded() {
+			for (boolean u : this.unbounded) if (u) return false;
+			return true;
+		}
+
+		private int getBound() {
+			return Math.max(1, this.bound);
+		}
+
+		private Collection<Place> getUnboundedPlaces() {
+			Collection<Place> result = new ArrayList<Place>();
+			for (int p=0; p<this.unbounded.length; p++)
+				if (this.unbounded[p]) result.add(this.net.getPlace(p));
+
+			return result;
+		}
+
+		private Collection<Transition> getDeadTransitions() {
+			Collection<Transition> result = new ArrayList<Transition>();
+			for (int t=0; t<this.occurs.length; t++)
+				if (!this.occurs[t]) result.add(this.net.getTransition(t));
+
+			return result;
+		}
+	}
+
+	/**
+	 * Marking as a hash key.
+	 */
+	private static class MarkingKey {
+		private int[] tokens = null;
+		private int hash = 0;
+
+		private MarkingKey(int[] tokens) {
+			this.tokens = tokens;
+			this.hash = Arrays.hashCode(tokens);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof MarkingKey && Arrays.equals(this.tokens, ((MarkingKey) obj).tokens);
+		}
+	}
+}
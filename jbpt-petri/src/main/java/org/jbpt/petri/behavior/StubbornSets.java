@@ -0,0 +1,259 @@
+package org.jbpt.petri.behavior;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Structural stubborn sets of a net system for partial-order reduction of state spaces.<br/><br/>
+ *
+ * A stubborn set at a marking is closed under the following rules, which are derived from presets and postsets of the net:
+ * <ul>
+ * <li>an enabled transition brings all transitions that share a place in their presets with it (conflicting transitions),</li>
+ * <li>a disabled transition brings all transitions in the preset of one of its insufficiently marked input places,</li>
+ * <li>if visible transitions are given, an enabled visible transition brings all visible transitions.</li>
+ * </ul>
+ * Firing only enabled transitions from stubborn sets preserves all reachable deadlocks. If visible transitions are given,
+ * the reduction also preserves sequences of visible transitions, provided every cycle of the reduced state space contains
+ * a marking at which all enabled transitions are fired (the cycle proviso that has to be ensured by the search).
+ */
+public class StubbornSets<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	protected INetSystem<F,N,P,T,M> netSystem = null;
+	// visible transitions, or null if only deadlocks must be preserved
+	protected Set<T> visible = null;
+
+	// compiled net and its derived structures
+	protected CompiledPetriNet<F,N,P,T> compiled = null;
+	protected boolean[] isVisible = null;
+	protected int[] visibleIndexes = null;
+	// the net has no cycles and no transitions with empty presets
+	protected boolean cycleFree = false;
+
+	// scratch structures of the closure
+	private boolean[] inSet = null;
+	private int[] stack = null;
+
+	/**
+	 * Stubborn sets that preserve deadlocks.
+	 *
+	 * @param netSystem Net system.
+	 */
+	public StubbornSets(INetSystem<F,N,P,T,M> netSystem) {
+		this(netSystem, null);
+	}
+
+	/**
+	 * Stubborn sets that preserve deadlocks and sequences of visible transitions.
+	 *
+	 * @param netSystem Net system.
+	 * @param visible Visible transitions; if <tt>null</tt>, only deadlocks are preserved.
+	 */
+	public StubbornSets(INetSystem<F,N,P,T,M> netSystem, Collection<T> visible) {
+		if (netSystem==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		this.netSystem = netSystem;
+		this.visible = visible==null ? null : new HashSet<T>(visible);
+	}
+
+	/**
+	 * Get enabled transitions of a stubborn set at a marking; the set is chosen to contain as few enabled transitions as possible.
+	 *
+	 * @param marking Marking of the net system.
+	 * @param enabled Transitions enabled at the marking.
+	 * @return Nonempty subset of the enabled transitions that have to be fired at the marking; empty set if no transition is enabled.
+	 */
+	public Set<T> getStubbornSet(M marking, Set<T> enabled) {
+		if (enabled.size()<=1) return new HashSet<T>(enabled);
+		this.compile();
+
+		int[] tokens = this.compiled.toArray(marking);
+		int[] seeds = new int[enabled.size()];
+		int k = 0;
+		for (T t : enabled) seeds[k++] = this.compiled.getIndex(t);
+		Arrays.sort(seeds);
+
+		// try every enabled transition as a seed and keep the smallest set
+		boolean[] best = null;
+		int bestSize = Integer.MAX_VALUE;
+		for (int seed : seeds) {
+			int size = this.closure(seed, tokens, bestSize);
+			if (size<bestSize) {
+				bestSize = size;
+				best = this.inSet.clone();
+				if (size==1) break;
+			}
+		}
+
+		Set<T> result = new HashSet<T>();
+		for (int t : seeds)
+			if (best[t]) result.add(this.compiled.getTransition(t));
+
+		return result;
+	}
+
+	/**
+	 * @return Visible transitions, or <tt>null</tt> if only deadlocks are preserved.
+	 */
+	public Set<T> getVisibleTransitions() {
+		return this.visible;
+	}
+
+	/**
+	 * Check if state spaces of the net system have no cycles. This is the case if the net has no directed cycles and no transitions
+	 * with empty presets, as the transitions of a firing sequence that reproduces a marking always include a transition on a cycle of the net.
+	 * For such nets, the cycle proviso holds trivially.
+	 *
+	 * @return <tt>true</tt> if state spaces of the net system have no cycles; otherwise <tt>false</tt>.
+	 */
+	public boolean isCycleFree() {
+		this.compile();
+		return this.cycleFree;
+	}
+
+	/**
+	 * Compute the stubborn set that contains a seed transition.
+	 *
+	 * @param seed Index of an enabled transition.
+	 * @param tokens Marking.
+	 * @param limit Stop once this number of enabled transitions is reached.
+	 * @return Number of enabled transitions in the stubborn set (at least limit if the closure was stopped).
+	 */
+	private int closure(int seed, int[] tokens, int limit) {
+		int[] preOffsets = this.compiled.getPresetOffsets();
+		int[] prePlaces = this.compiled.getPresetPlaces();
+		int[] preWeights = this.compiled.getPresetWeights();
+		int[] placePreOffsets = this.compiled.getPlacePresetOffsets();
+		int[] placePre = this.compiled.getPlacePresetTransitions();
+		int[] placePostOffsets = this.compiled.getPlacePostsetOffsets();
+		int[] placePost = this.compiled.getPlacePostsetTransitions();
+
+		Arrays.fill(this.inSet, false);
+		int top = 0;
+		int enabled = 0;
+		boolean visibleAdded = false;
+		this.inSet[seed] = true;
+		this.stack[top++] = seed;
+
+		while (top>0) {
+			int t = this.stack[--top];
+			if (this.compiled.isEnabled(t, tokens)) {
+				if (++enabled>=limit) return enabled;
+
+				// conflicting transitions
+				for (int i=preOffsets[t]; i<preOffsets[t+1]; i++) {
+					int p = prePlaces[i];
+					for (int j=placePostOffsets[p]; j<placePostOffsets[p+1]; j++)
+						if (!this.inSet[placePost[j]]) {
+							this.inSet[placePost[j]] = true;
+							this.stack[top++] = placePost[j];
+						}
+				}
+
+				// all visible transitions
+				if (!visibleAdded && this.isVisible!=null && this.isVisible[t]) {
+					visibleAdded = true;
+					for (int u : this.visibleIndexes)
+						if (!this.inSet[u]) {
+							this.inSet[u] = true;
+							this.stack[top++] = u;
+						}
+				}
+			}
+			else {
+				// transitions that put tokens to an insufficiently marked input place with the fewest producers
+				int scapegoat = -1;
+				for (int i=preOffsets[t]; i<preOffsets[t+1]; i++) {
+					int p = prePlaces[i];
+					if (tokens[p]>=preWeights[i]) continue;
+					if (scapegoat<0 || placePreOffsets[p+1]-placePreOffsets[p] < placePreOffsets[scapegoat+1]-placePreOffsets[scapegoat])
+						scapegoat = p;
+				}
+				for (int j=placePreOffsets[scapegoat]; j<placePreOffsets[scapegoat+1]; j++)
+					if (!this.inSet[placePre[j]]) {
+						this.inSet[placePre[j]] = true;
+						this.stack[top++] = placePre[j];
+					}
+			}
+		}
+
+		return enabled;
+	}
+
+	private void compile() {
+		if (this.compiled!=null && this.compiled.isValid()) return;
+
+		this.compiled = this.netSystem.compile();
+		int n = this.compiled.countTransitions();
+		this.inSet = new boolean[n];
+		this.stack = new int[n];
+		this.isVisible = null;
+		this.visibleIndexes = null;
+		this.cycleFree = this.checkCycleFree();
+		if (this.visible==null) return;
+
+		this.isVisible = new boolean[n];
+		int count = 0;
+		for (T t : this.visible) {
+			int i = this.compiled.getIndex(t);
+			if (i<0) continue;
+			this.isVisible[i] = true;
+			count++;
+		}
+		this.visibleIndexes = new int[count];
+		count = 0;
+		for (int i=0; i<n; i++)
+			if (this.isVisible[i]) this.visibleIndexes[count++] = i;
+	}
+
+	/**
+	 * Topologically sort transitions, where a transition precedes the transitions in the postset of its postset.
+	 */
+	private boolean checkCycleFree() {
+		int[] preOffsets = this.compiled.getPresetOffsets();
+		int[] postOffsets = this.compiled.getPostsetOffsets();
+		int[] postPlaces = this.compiled.getPostsetPlaces();
+		int[] placePostOffsets = this.compiled.getPlacePostsetOffsets();
+		int[] placePost = this.compiled.getPlacePostsetTransitions();
+		int[] placePreOffsets = this.compiled.getPlacePresetOffsets();
+		int nt = this.compiled.countTransitions();
+		int np = this.compiled.countPlaces();
+
+		// number of unsorted transitions in presets of places, number of unsorted places in presets of transitions
+		int[] placeIn = new int[np];
+		int[] transitionIn = new int[nt];
+		for (int p=0; p<np; p++) placeIn[p] = placePreOffsets[p+1]-placePreOffsets[p];
+
+		int[] queue = new int[nt];
+		int head = 0, tail = 0;
+		for (int t=0; t<nt; t++) {
+			transitionIn[t] = preOffsets[t+1]-preOffsets[t];
+			if (transitionIn[t]==0) return false;
+		}
+		for (int p=0; p<np; p++) {
+			if (placeIn[p]>0) continue;
+			for (int j=placePostOffsets[p]; j<placePostOffsets[p+1]; j++)
+				if (--transitionIn[placePost[j]]==0) queue[tail++] = placePost[j];
+		}
+
+		while (head<tail) {
+			int t = queue[head++];
+			for (int i=postOffsets[t]; i<postOffsets[t+1]; i++) {
+				int p = postPlaces[i];
+				if (--placeIn[p]>0) continue;
+				for (int j=placePostOffsets[p]; j<placePostOffsets[p+1]; j++)
+					if (--transitionIn[placePost[j]]==0) queue[tail++] = placePost[j];
+			}
+		}
+
+		return tail==nt;
+	}
+}
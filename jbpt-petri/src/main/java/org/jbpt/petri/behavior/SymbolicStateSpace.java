@@ -0,0 +1,387 @@
+package org.jbpt.petri.behavior;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jbpt.algo.bdd.BDD;
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Symbolic state space of a safe net system.<br/><br/>
+ *
+ * Reachable markings are represented by a binary decision diagram with one variable per place, where places are ordered by a depth-first
+ * search of the net starting at the initially marked places. The image of a set of markings is computed per transition: markings that enable
+ * the transition are selected, variables of the places changed by the transition are quantified, and the new values are conjoined. The fixpoint
+ * is computed in the style of saturation, i.e., transitions are grouped by the topmost variable they affect and groups at lower levels are fired
+ * to a local fixpoint before transitions at higher levels are fired again.<br/><br/>
+ *
+ * The construction detects markings that put more than one token at a place; in this case, {@link #isSafe()} does not hold and the queries are not available.
+ */
+public class SymbolicStateSpace<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	// explored net system
+	protected INetSystem<F,N,P,T,M> netSystem = null;
+	// compiled net of the net system
+	protected CompiledPetriNet<F,N,P,T> net = null;
+	// BDD manager
+	protected BDD bdd = null;
+
+	// place -> variable
+	protected int[] placeVar = null;
+	// transition -> markings that enable it, quantified variables, new values of quantified variables, and markings at which firing it is unsafe
+	private int[] enable = null;
+	private int[] changed = null;
+	private int[] effect = null;
+	private int[] unsafe = null;
+	// transitions grouped by the topmost variable they affect, from the bottom to the top of the diagram
+	private int[][] groups = null;
+
+	// reachable markings
+	private int reachable = BDD.ZERO;
+	private boolean safe = true;
+	// number of image computations
+	private int images = 0;
+
+	/**
+	 * Compute the symbolic state space of a net system.
+	 *
+	 * @param netSystem Net system with a safe initial marking.
+	 */
+	public SymbolicStateSpace(INetSystem<F,N,P,T,M> netSystem) {
+		if (netSystem==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		this.netSystem = netSystem;
+		this.net = netSystem.compile();
+		this.bdd = new BDD(this.net.countPlaces());
+
+		this.orderPlaces();
+		this.encodeTransitions();
+
+		int[] tokens = this.net.toArray(netSystem.getMarking());
+		boolean[] values = new boolean[this.net.countPlaces()];
+		for (int p=0; p<tokens.length; p++) {
+			if (tokens[p]>1) throw new IllegalArgumentException("Initial marking is not safe!");
+			values[this.placeVar[p]] = tokens[p]==1;
+		}
+		this.reachable = this.bdd.ref(this.bdd.minterm(values));
+
+		this.saturate();
+		this.checkSafe();
+	}
+
+	/**
+	 * @return <tt>true</tt> if no reachable marking puts more than one token at a place; otherwise <tt>false</tt>.
+	 */
+	public boolean isSafe() {
+		return this.safe;
+	}
+
+	/**
+	 * @return Number of reachable markings.
+	 */
+	public double countMarkings() {
+		this.checkQuery();
+		return this.bdd.satCount(this.reachable);
+	}
+
+	/**
+	 * @return Number of nodes of the binary decision diagram of reachable markings.
+	 */
+	public int countNodes() {
+		return this.bdd.nodeCount(this.reachable);
+	}
+
+	/**
+	 * @return Number of image computations performed to construct this state space.
+	 */
+	public int countImages() {
+		return this.images;
+	}
+
+	/**
+	 * Check if no reachable marking is a deadlock.
+	 *
+	 * @return <tt>true</tt> if every reachable marking enables some transition; otherwise <tt>false</tt>.
+	 */
+	public boolean isDeadlockFree() {
+		return this.getDeadlock()==null;
+	}
+
+	/**
+	 * @return Some reachable marking that enables no transition, or <tt>null</tt> if there is no such marking.
+	 */
+	public M getDeadlock() {
+		this.checkQuery();
+		int deadlocks = this.bdd.ref(this.reachable);
+		for (int t=0; t<this.enable.length && deadlocks!=BDD.ZERO; t++) {
+			int next = this.bdd.ref(this.bdd.diff(deadlocks, this.enable[t]));
+			this.bdd.deref(deadlocks);
+			deadlocks = next;
+		}
+
+		M result = this.toMarking(this.bdd.satOne(deadlocks));
+		this.bdd.deref(deadlocks);
+		return result;
+	}
+
+	/**
+	 * Check if a marking is reachable.
+	 *
+	 * @param marking Marking of the net system.
+	 * @return <tt>true</tt> if the marking is reachable; otherwise <tt>false</tt>.
+	 */
+	public boolean isReachable(M marking) {
+		this.checkQuery();
+		int[] tokens = this.net.toArray(marking);
+		boolean[] values = new boolean[tokens.length];
+		for (int p=0; p<tokens.length; p++) {
+			if (tokens[p]>1) return false;
+			values[this.placeVar[p]] = tokens[p]==1;
+		}
+
+		return this.bdd.and(this.reachable, this.bdd.minterm(values))!=BDD.ZERO;
+	}
+
+	/**
+	 * Check if a marking that puts tokens at all the given places is reachable.
+	 *
+	 * @param places Places of the net system.
+	 * @return <tt>true</tt> if some reachable marking marks all the given places; otherwise <tt>false</tt>.
+	 */
+	public boolean isCoverable(Collection<P> places) {
+		this.checkQuery();
+		int[] vars = new int[places.size()];
+		int i = 0;
+		for (P p : places) {
+			int index = this.net.getIndex(p);
+			if (index<0) throw new IllegalArgumentException("Place " + p + " is not part of the net system!");
+			vars[i++] = this.placeVar[index];
+		}
+
+		return this.bdd.and(this.reachable, this.bdd.cube(vars))!=BDD.ZERO;
+	}
+
+	/**
+	 * @return Transitions that are not enabled at any reachable marking.
+	 */
+	public Set<T> getDeadTransitions() {
+		this.checkQuery();
+		Set<T> result = new HashSet<T>();
+		for (int t=0; t<this.enable.length; t++)
+			if (this.bdd.and(this.reachable, this.enable[t])==BDD.ZERO)
+				result.add(this.net.getTransition(t));
+
+		return result;
+	}
+
+	/**
+	 * @return Explored net system.
+	 */
+	public INetSystem<F,N,P,T,M> getNetSystem() {
+		return this.netSystem;
+	}
+
+	/**
+	 * @return BDD manager of this state space.
+	 */
+	public BDD getBDD() {
+		return this.bdd;
+	}
+
+	/**
+	 * @return Binary decision diagram of reachable markings (referenced).
+	 */
+	public int getReachableMarkings() {
+		return this.reachable;
+	}
+
+	/**
+	 * @param place Place of the net system.
+	 * @return Variable that encodes the place, or -1 if the place is not part of the net system.
+	 */
+	public int getVariable(P place) {
+		int index = this.net.getIndex(place);
+		return index<0 ? -1 : this.placeVar[index];
+	}
+
+	/**
+	 * Order places by a depth-first search over the net, such that places of sequences are encoded by neighbouring variables.
+	 */
+	private void orderPlaces() {
+		int np = this.net.countPlaces();
+		int[] postOffsets = this.net.getPostsetOffsets();
+		int[] postPlaces = this.net.getPostsetPlaces();
+		int[] placePostOffsets = this.net.getPlacePostsetOffsets();
+		int[] placePost = this.net.getPlacePostsetTransitions();
+
+		this.placeVar = new int[np];
+		Arrays.fill(this.placeVar, -1);
+		int[] tokens = this.net.toArray(this.netSystem.getMarking());
+		List<Integer> roots = new ArrayList<Integer>();
+		for (int p=0; p<np; p++) if (tokens[p]>0) roots.add(p);
+		for (int p=0; p<np; p++) if (tokens[p]==0) roots.add(p);
+
+		boolean[] visitedTransition = new boolean[this.net.countTransitions()];
+		int[] stack = new int[postPlaces.length+1];
+		int next = 0;
+		for (int root : roots) {
+			if (this.placeVar[root]>=0) continue;
+			int size = 0;
+			stack[size++] = root;
+			while (size>0) {
+				int p = stack[--size];
+				if (this.placeVar[p]>=0) continue;
+				this.placeVar[p] = next++;
+				for (int i=placePostOffsets[p+1]-1; i>=placePostOffsets[p]; i--) {
+					int t = placePost[i];
+					if (visitedTransition[t]) continue;
+					visitedTransition[t] = true;
+					for (int j=postOffsets[t+1]-1; j>=postOffsets[t]; j--)
+						if (this.placeVar[postPlaces[j]]<0) stack[size++] = postPlaces[j];
+				}
+			}
+		}
+	}
+
+	private void encodeTransitions() {
+		int nt = this.net.countTransitions();
+		int[] preOffsets = this.net.getPresetOffsets();
+		int[] prePlaces = this.net.getPresetPlaces();
+		int[] postOffsets = this.net.getPostsetOffsets();
+		int[] postPlaces = this.net.getPostsetPlaces();
+
+		this.enable = new int[nt];
+		this.changed = new int[nt];
+		this.effect = new int[nt];
+		this.unsafe = new int[nt];
+		int[] top = new int[nt];
+		boolean[] inPre = new boolean[this.net.countPlaces()];
+
+		for (int t=0; t<nt; t++) {
+			top[t] = this.bdd.getVariableCount();
+			int[] pre = new int[preOffsets[t+1]-preOffsets[t]];
+			for (int i=preOffsets[t]; i<preOffsets[t+1]; i++) {
+				inPre[prePlaces[i]] = true;
+				pre[i-preOffsets[t]] = this.placeVar[prePlaces[i]];
+				top[t] = Math.min(top[t], pre[i-preOffsets[t]]);
+			}
+
+			// places that get marked (not in the preset) and places that get unmarked (not in the postset)
+			List<Integer> marked = new ArrayList<Integer>();
+			List<Integer> unmarked = new ArrayList<Integer>();
+			for (int i=postOffsets[t]; i<postOffsets[t+1]; i++) {
+				int p = postPlaces[i];
+				if (inPre[p]) inPre[p] = false;
+				else marked.add(this.placeVar[p]);
+			}
+			for (int i=preOffsets[t]; i<preOffsets[t+1]; i++) {
+				int p = prePlaces[i];
+				if (inPre[p]) unmarked.add(this.placeVar[p]);
+				inPre[p] = false;
+			}
+
+			int[] vars = new int[marked.size()+unmarked.size()];
+			boolean[] values = new boolean[vars.length];
+			for (int i=0; i<marked.size(); i++) {
+				vars[i] = marked.get(i);
+				values[i] = true;
+				top[t] = Math.min(top[t], vars[i]);
+			}
+			for (int i=0; i<unmarked.size(); i++)
+				vars[marked.size()+i] = unmarked.get(i);
+
+			this.enable[t] = this.bdd.ref(this.bdd.cube(pre));
+			this.effect[t] = this.bdd.ref(this.bdd.cube(vars, values));
+			this.changed[t] = this.bdd.ref(this.bdd.cube(vars));
+
+			// some place that gets marked is marked already
+			int[] markedVars = Arrays.copyOf(vars, marked.size());
+			int free = this.bdd.ref(this.bdd.cube(markedVars, new boolean[markedVars.length]));
+			this.unsafe[t] = this.bdd.ref(this.bdd.diff(this.enable[t], free));
+			this.bdd.deref(free);
+		}
+
+		// group transitions by their topmost variable, starting with the bottommost group
+		Integer[] order = new Integer[nt];
+		for (int t=0; t<nt; t++) order[t] = t;
+		final int[] tops = top;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer t1, Integer t2) {
+				return tops[t2]-tops[t1];
+			}
+		});
+		List<int[]> groups = new ArrayList<int[]>();
+		for (int i=0; i<nt; ) {
+			int j = i;
+			while (j<nt && top[order[j]]==top[order[i]]) j++;
+			int[] group = new int[j-i];
+			for (int k=i; k<j; k++) group[k-i] = order[k];
+			groups.add(group);
+			i = j;
+		}
+		this.groups = groups.toArray(new int[groups.size()][]);
+	}
+
+	/**
+	 * Fire groups of transitions to a fixpoint, starting again with the bottommost group whenever a group adds markings.
+	 */
+	private void saturate() {
+		int g = 0;
+		while (g<this.groups.length) {
+			boolean grown = false;
+			boolean changedInRound = true;
+			while (changedInRound) {
+				changedInRound = false;
+				for (int t : this.groups[g]) {
+					int image = this.bdd.and(this.effect[t], this.bdd.relProd(this.reachable, this.enable[t], this.changed[t]));
+					this.images++;
+					int next = this.bdd.or(this.reachable, image);
+					if (next!=this.reachable) {
+						this.bdd.ref(next);
+						this.bdd.deref(this.reachable);
+						this.reachable = next;
+						changedInRound = true;
+						grown = true;
+					}
+				}
+			}
+
+			g = grown && g>0 ? 0 : g+1;
+		}
+	}
+
+	private void checkSafe() {
+		for (int t=0; t<this.unsafe.length; t++)
+			if (this.bdd.and(this.reachable, this.unsafe[t])!=BDD.ZERO) {
+				this.safe = false;
+				return;
+			}
+	}
+
+	private void checkQuery() {
+		if (!this.safe) throw new IllegalStateException("Net system is not safe!");
+	}
+
+	@SuppressWarnings("unchecked")
+	private M toMarking(int[] values) {
+		if (values==null) return null;
+
+		M result = (M) this.netSystem.createMarking();
+		for (int p=0; p<this.placeVar.length; p++)
+			if (values[this.placeVar[p]]==1)
+				result.put(this.net.getPlace(p), 1);
+
+		return result;
+	}
+}
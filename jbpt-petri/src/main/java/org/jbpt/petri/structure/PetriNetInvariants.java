@@ -0,0 +1,545 @@
+package org.jbpt.petri.structure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPetriNet;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Place and transition invariants of a Petri net.<br/><br/>
+ *
+ * A P-invariant is a vector y over places with yC=0, where C is the incidence matrix of the net; the weighted token sum y·m is
+ * the same in all reachable markings m. A T-invariant is a vector x over transitions with Cx=0; firing a sequence with Parikh vector x
+ * reproduces the marking it started from. Invariants are computed as minimal semi-positive generators using the Farkas algorithm
+ * over a sparse incidence matrix, i.e., every semi-positive invariant is a nonnegative rational combination of the computed ones.
+ * The number of generators is exponential in the worst case, but small for nets of business process models.<br/><br/>
+ *
+ * Invariants are computed once and recomputed if the net is structurally modified.
+ *
+ * @param <F> Flow template.
+ * @param <N> Node template.
+ * @param <P> Place template.
+ * @param <T> Transition template.
+ */
+public class PetriNetInvariants<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition> {
+
+	private IPetriNet<F,N,P,T> net = null;
+
+	// compiled net and its invariants
+	private CompiledPetriNet<F,N,P,T> compiled = null;
+	private List<Vector> placeInvariants = null;
+	private List<Vector> transitionInvariants = null;
+
+	/**
+	 * Invariants of a Petri net.
+	 *
+	 * @param net Petri net.
+	 */
+	public PetriNetInvariants(IPetriNet<F,N,P,T> net) {
+		if (net==null) throw new IllegalArgumentException("PetriNet object expected but was NULL!");
+		this.net = net;
+	}
+
+	/**
+	 * Get minimal semi-positive P-invariants of the net.
+	 *
+	 * @return List of P-invariants, each given as a map from places in its support to their (positive) coefficients.
+	 * @throws ArithmeticException if coefficients exceed 64 bits during the computation.
+	 */
+	public List<Map<P,Integer>> getPlaceInvariants() {
+		this.compile();
+		List<Map<P,Integer>> result = new ArrayList<Map<P,Integer>>(this.getPlaceVectors().size());
+		for (Vector y : this.getPlaceVectors()) {
+			Map<P,Integer> invariant = new HashMap<P,Integer>();
+			for (int k=0; k<y.support.length; k++)
+				invariant.put(this.compiled.getPlace(y.support[k]), toInt(y.coefficients[k]));
+			result.add(invariant);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get minimal semi-positive T-invariants of the net.
+	 *
+	 * @return List of T-invariants, each given as a map from transitions in its support to their (positive) coefficients.
+	 * @throws ArithmeticException if coefficients exceed 64 bits during the computation.
+	 */
+	public List<Map<T,Integer>> getTransitionInvariants() {
+		this.compile();
+		List<Map<T,Integer>> result = new ArrayList<Map<T,Integer>>(this.getTransitionVectors().size());
+		for (Vector x : this.getTransitionVectors()) {
+			Map<T,Integer> invariant = new HashMap<T,Integer>();
+			for (int k=0; k<x.support.length; k++)
+				invariant.put(this.compiled.getTransition(x.support[k]), toInt(x.coefficients[k]));
+			result.add(invariant);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get places that are in the support of some semi-positive P-invariant; such places are bounded for every initial marking.
+	 *
+	 * @return Places covered by P-invariants.
+	 */
+	public Set<P> getCoveredPlaces() {
+		this.compile();
+		Set<P> result = new HashSet<P>();
+		for (Vector y : this.getPlaceVectors())
+			for (int p : y.support)
+				result.add(this.compiled.getPlace(p));
+
+		return result;
+	}
+
+	/**
+	 * Check if the net is covered by P-invariants, i.e., has a positive P-invariant.
+	 * A net covered by P-invariants is structurally bounded, i.e., bounded for every initial marking.
+	 *
+	 * @return <tt>true</tt> if every place is in the support of some P-invariant; otherwise <tt>false</tt>.
+	 */
+	public boolean isCoveredByPlaceInvariants() {
+		return this.getCoveredPlaces().size()==this.net.getPlaces().size();
+	}
+
+	/**
+	 * Check if the net is covered by T-invariants, i.e., has a positive T-invariant.
+	 * Being covered by T-invariants is necessary for a net to be live and bounded.
+	 *
+	 * @return <tt>true</tt> if every transition is in the support of some T-invariant; otherwise <tt>false</tt>.
+	 */
+	public boolean isCoveredByTransitionInvariants() {
+		this.compile();
+		boolean[] covered = new boolean[this.compiled.countTransitions()];
+		int count = 0;
+		for (Vector x : this.getTransitionVectors())
+			for (int t : x.support)
+				if (!covered[t]) {
+					covered[t] = true;
+					count++;
+				}
+
+		return count==covered.length;
+	}
+
+	/**
+	 * Get a bound of a place that is implied by P-invariants, i.e., the minimum of floor(y·m/y(p)) over all P-invariants y with p in their support.
+	 *
+	 * @param place Place of the net.
+	 * @param marking Initial marking.
+	 * @return Upper bound on the number of tokens at the place in markings reachable from the initial marking, or -1 if the place is not covered by P-invariants.
+	 */
+	public int getBound(P place, Map<P,Integer> marking) {
+		this.compile();
+		int p = this.compiled.getIndex(place);
+		if (p<0 || !this.compiled.containsPlace(place)) return -1;
+		int[] tokens = this.compiled.toArray(marking);
+
+		long result = -1;
+		for (Vector y : this.getPlaceVectors()) {
+			long weight = y.get(p);
+			if (weight==0) continue;
+			long bound = y.dot(tokens) / weight;
+			if (result<0 || bound<result) result = bound;
+		}
+
+		return (int) Math.min(result, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Check if two places are mutually exclusive due to a P-invariant, i.e., there exists a P-invariant y such that y·m is
+	 * smaller than y(p1)+y(p2); in this case, no reachable marking puts tokens at both places.
+	 *
+	 * @param p1 Place of the net.
+	 * @param p2 Place of the net.
+	 * @param marking Initial marking.
+	 * @return <tt>true</tt> if the places are proven to be mutually exclusive; otherwise <tt>false</tt>.
+	 */
+	public boolean areMutuallyExclusive(P p1, P p2, Map<P,Integer> marking) {
+		this.compile();
+		if (!this.compiled.containsPlace(p1) || !this.compiled.containsPlace(p2)) return false;
+		int i1 = this.compiled.getIndex(p1);
+		int i2 = this.compiled.getIndex(p2);
+		int[] tokens = this.compiled.toArray(marking);
+
+		for (Vector y : this.getPlaceVectors()) {
+			long w1 = y.get(i1);
+			long w2 = y.get(i2);
+			if (w1==0 || w2==0) continue;
+			// a single place is exclusive with itself if it cannot hold two tokens
+			if (y.dot(tokens) < (i1==i2 ? 2*w1 : w1+w2)) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Check if the marking equation m' = m + Cx has a solution x over the nonnegative rational numbers.
+	 * If there is no solution, marking m' is not reachable from marking m. The check is done by computing T-invariants of the net
+	 * extended with a virtual transition that consumes m'-m; the equation has a solution iff some invariant includes the virtual transition.
+	 *
+	 * @param from Marking m.
+	 * @param to Marking m'.
+	 * @return <tt>true</tt> if the marking equation has a solution; otherwise <tt>false</tt>.
+	 * @throws ArithmeticException if coefficients exceed 64 bits during the computation.
+	 */
+	public boolean isMarkingEquationSatisfiable(Map<P,Integer> from, Map<P,Integer> to) {
+		this.compile();
+		int[] m1 = this.compiled.toArray(from);
+		int[] m2 = this.compiled.toArray(to);
+		int np = this.compiled.countPlaces();
+		int nt = this.compiled.countTransitions();
+
+		int count = 0;
+		for (int p=0; p<np; p++) if (m1[p]!=m2[p]) count++;
+		if (count==0) return true;
+
+		int[][] columns = new int[nt+1][];
+		long[][] values = new long[nt+1][];
+		this.incidence(false, columns, values);
+		columns[nt] = new int[count];
+		values[nt] = new long[count];
+		count = 0;
+		for (int p=0; p<np; p++)
+			if (m1[p]!=m2[p]) {
+				columns[nt][count] = p;
+				values[nt][count++] = (long) m1[p]-m2[p];
+			}
+
+		for (Vector x : farkas(nt+1, np, columns, values))
+			if (x.get(nt)>0) return true;
+
+		return false;
+	}
+
+	private List<Vector> getPlaceVectors() {
+		if (this.placeInvariants==null) {
+			int np = this.compiled.countPlaces();
+			int[][] columns = new int[np][];
+			long[][] values = new long[np][];
+			this.incidence(true, columns, values);
+			this.placeInvariants = farkas(np, this.compiled.countTransitions(), columns, values);
+		}
+
+		return this.placeInvariants;
+	}
+
+	private List<Vector> getTransitionVectors() {
+		if (this.transitionInvariants==null) {
+			int nt = this.compiled.countTransitions();
+			int[][] columns = new int[nt][];
+			long[][] values = new long[nt][];
+			this.incidence(false, columns, values);
+			this.transitionInvariants = farkas(nt, this.compiled.countPlaces(), columns, values);
+		}
+
+		return this.transitionInvariants;
+	}
+
+	private void compile() {
+		if (this.compiled!=null && this.compiled.isValid()) return;
+
+		this.compiled = this.net.compile();
+		this.placeInvariants = null;
+		this.transitionInvariants = null;
+	}
+
+	/**
+	 * Get rows of the sparse incidence matrix (or of its transpose) with sorted column indexes.
+	 *
+	 * @param byPlace If <tt>true</tt>, rows are places and columns are transitions; otherwise, rows are transitions and columns are places.
+	 * @param columns Filled with column indexes of nonzero entries per row.
+	 * @param values Filled with nonzero entries per row.
+	 */
+	private void incidence(boolean byPlace, int[][] columns, long[][] values) {
+		int nt = this.compiled.countTransitions();
+		int np = this.compiled.countPlaces();
+		int[] preOffsets = this.compiled.getPresetOffsets();
+		int[] prePlaces = this.compiled.getPresetPlaces();
+		int[] preWeights = this.compiled.getPresetWeights();
+		int[] postOffsets = this.compiled.getPostsetOffsets();
+		int[] postPlaces = this.compiled.getPostsetPlaces();
+		int[] postWeights = this.compiled.getPostsetWeights();
+
+		// entries (place, transition, value) before merging
+		int rows = byPlace ? np : nt;
+		int[] count = new int[rows+1];
+		for (int t=0; t<nt; t++) {
+			for (int k=preOffsets[t]; k<preOffsets[t+1]; k++) count[(byPlace ? prePlaces[k] : t)+1]++;
+			for (int k=postOffsets[t]; k<postOffsets[t+1]; k++) count[(byPlace ? postPlaces[k] : t)+1]++;
+		}
+		for (int r=0; r<rows; r++) count[r+1] += count[r];
+		long[] entries = new long[count[rows]];
+		int[] fill = Arrays.copyOf(count, rows);
+		for (int t=0; t<nt; t++) {
+			for (int k=preOffsets[t]; k<preOffsets[t+1]; k++)
+				entries[fill[byPlace ? prePlaces[k] : t]++] = entry(byPlace ? t : prePlaces[k], -preWeights[k]);
+			for (int k=postOffsets[t]; k<postOffsets[t+1]; k++)
+				entries[fill[byPlace ? postPlaces[k] : t]++] = entry(byPlace ? t : postPlaces[k], postWeights[k]);
+		}
+
+		// sort entries by column and merge entries of the same column
+		for (int r=0; r<rows; r++) {
+			Arrays.sort(entries, count[r], count[r+1]);
+			int[] c = new int[count[r+1]-count[r]];
+			long[] v = new long[c.length];
+			int n = 0;
+			for (int k=count[r]; k<count[r+1]; k++) {
+				int column = (int) (entries[k] >>> 32);
+				long value = (int) entries[k];
+				if (n>0 && c[n-1]==column) v[n-1] += value;
+				else {
+					c[n] = column;
+					v[n++] = value;
+				}
+			}
+			int m = 0;
+			for (int k=0; k<n; k++)
+				if (v[k]!=0) {
+					c[m] = c[k];
+					v[m++] = v[k];
+				}
+			columns[r] = Arrays.copyOf(c, m);
+			values[r] = Arrays.copyOf(v, m);
+		}
+	}
+
+	// entry of an incidence row that sorts by column
+	private static long entry(int column, int value) {
+		return ((long) column << 32) | (value & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Farkas algorithm: compute minimal semi-positive vectors y with yA=0.
+	 * Columns of A are eliminated one by one, choosing the column that produces the fewest new rows. Rows with a positive and a negative
+	 * entry in the eliminated column are combined if no other row has a support contained in the union of their supports;
+	 * this ensures that only vectors with minimal supports are generated. Rows are indexed by columns and by support elements,
+	 * so that every step only touches rows that are affected by it.
+	 *
+	 * @param rows Number of rows of A.
+	 * @param width Number of columns of A.
+	 * @param columns Sorted column indexes of nonzero entries per row.
+	 * @param values Nonzero entries per row.
+	 * @return Minimal semi-positive vectors y, one per minimal support.
+	 */
+	private static List<Vector> farkas(int rows, int width, int[][] columns, long[][] values) {
+		Set<Vector> current = new LinkedHashSet<Vector>();
+		// rows with a nonzero entry per column, rows with an element in their support per element
+		List<Set<Vector>> byColumn = new ArrayList<Set<Vector>>(width);
+		List<Set<Vector>> bySupport = new ArrayList<Set<Vector>>(rows);
+		for (int c=0; c<width; c++) byColumn.add(new LinkedHashSet<Vector>());
+		for (int r=0; r<rows; r++) bySupport.add(new HashSet<Vector>());
+		int[] positive = new int[width];
+		int[] negative = new int[width];
+
+		for (int r=0; r<rows; r++)
+			add(new Vector(new int[] {r}, new long[] {1}, columns[r], values[r]), current, byColumn, bySupport, positive, negative);
+
+		boolean[] eliminated = new boolean[width];
+		BitSet union = new BitSet(rows);
+		while (true) {
+			// choose the column to eliminate
+			int column = -1;
+			long best = Long.MAX_VALUE;
+			for (int c=0; c<width; c++) {
+				if (eliminated[c] || positive[c]+negative[c]==0) continue;
+				long growth = (long) positive[c]*negative[c] - positive[c] - negative[c];
+				if (growth<best) {
+					best = growth;
+					column = c;
+				}
+			}
+			if (column<0) break;
+			eliminated[column] = true;
+
+			List<Vector> pos = new ArrayList<Vector>();
+			List<Vector> neg = new ArrayList<Vector>();
+			for (Vector v : byColumn.get(column)) {
+				if (v.getValue(column)>0) pos.add(v);
+				else neg.add(v);
+			}
+
+			List<Vector> combined = new ArrayList<Vector>();
+			for (Vector a : pos) {
+				for (Vector b : neg) {
+					union.clear();
+					for (int i : a.support) union.set(i);
+					for (int i : b.support) union.set(i);
+					if (isMinimal(a, b, union, bySupport))
+						combined.add(Vector.combine(a, -b.getValue(column), b, a.getValue(column)));
+				}
+			}
+
+			for (Vector v : pos) remove(v, current, byColumn, bySupport, positive, negative);
+			for (Vector v : neg) remove(v, current, byColumn, bySupport, positive, negative);
+			for (Vector v : combined) add(v, current, byColumn, bySupport, positive, negative);
+		}
+
+		return Collections.unmodifiableList(new ArrayList<Vector>(current));
+	}
+
+	/**
+	 * Adjacency test: check that no row other than a and b has a support within the given union of their supports.
+	 * Every row with a support within the union is found via the smallest element of its support.
+	 */
+	private static boolean isMinimal(Vector a, Vector b, BitSet union, List<Set<Vector>> bySupport) {
+		for (int i=union.nextSetBit(0); i>=0; i=union.nextSetBit(i+1)) {
+			for (Vector c : bySupport.get(i)) {
+				if (c==a || c==b || c.support[0]!=i) continue;
+				boolean contained = true;
+				for (int k=1; k<c.support.length && contained; k++)
+					contained = union.get(c.support[k]);
+				if (contained) return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static void add(Vector v, Set<Vector> current, List<Set<Vector>> byColumn, List<Set<Vector>> bySupport, int[] positive, int[] negative) {
+		current.add(v);
+		for (int k=0; k<v.columns.length; k++) {
+			byColumn.get(v.columns[k]).add(v);
+			if (v.values[k]>0) positive[v.columns[k]]++;
+			else negative[v.columns[k]]++;
+		}
+		for (int i : v.support) bySupport.get(i).add(v);
+	}
+
+	private static void remove(Vector v, Set<Vector> current, List<Set<Vector>> byColumn, List<Set<Vector>> bySupport, int[] positive, int[] negative) {
+		current.remove(v);
+		for (int k=0; k<v.columns.length; k++) {
+			byColumn.get(v.columns[k]).remove(v);
+			if (v.values[k]>0) positive[v.columns[k]]--;
+			else negative[v.columns[k]]--;
+		}
+		for (int i : v.support) bySupport.get(i).remove(v);
+	}
+
+	private static int toInt(long value) {
+		if (value>Integer.MAX_VALUE) throw new ArithmeticException("Coefficient of an invariant exceeds integer range!");
+		return (int) value;
+	}
+
+	private static long multiply(long a, long b) {
+		long result = a*b;
+		if (a!=0 && (result/a!=b || (a==-1 && b==Long.MIN_VALUE)))
+			throw new ArithmeticException("Coefficients of invariants exceed 64 bits!");
+		return result;
+	}
+
+	private static long add(long a, long b) {
+		long result = a+b;
+		if (((a^result) & (b^result))<0) throw new ArithmeticException("Coefficients of invariants exceed 64 bits!");
+		return result;
+	}
+
+	private static long gcd(long a, long b) {
+		while (b!=0) {
+			long r = a % b;
+			a = b;
+			b = r;
+		}
+
+		return Math.abs(a);
+	}
+
+	/**
+	 * Row of the Farkas algorithm: semi-positive combination y of rows of A (support and coefficients)
+	 * and the corresponding row yA restricted to columns that are not yet eliminated.
+	 */
+	private static class Vector {
+		private int[] support = null;
+		private long[] coefficients = null;
+		private int[] columns = null;
+		private long[] values = null;
+
+		private Vector(int[] support, long[] coefficients, int[] columns, long[] values) {
+			this.support = support;
+			this.coefficients = coefficients;
+			this.columns = columns;
+			this.values = values;
+		}
+
+		private long get(int index) {
+			int k = Arrays.binarySearch(this.support, index);
+			return k<0 ? 0 : this.coefficients[k];
+		}
+
+		private long getValue(int column) {
+			int k = Arrays.binarySearch(this.columns, column);
+			return k<0 ? 0 : this.values[k];
+		}
+
+		private long dot(int[] tokens) {
+			long result = 0;
+			for (int k=0; k<this.support.length; k++)
+				result = add(result, multiply(this.coefficients[k], tokens[this.support[k]]));
+
+			return result;
+		}
+
+		/**
+		 * Compute fa*a + fb*b, where fa and fb are positive, and divide it by the greatest common divisor of its entries.
+		 */
+		private static Vector combine(Vector a, long fa, Vector b, long fb) {
+			int[] support = new int[a.support.length+b.support.length];
+			long[] coefficients = new long[support.length];
+			int ns = merge(a.support, a.coefficients, fa, b.support, b.coefficients, fb, support, coefficients);
+			int[] columns = new int[a.columns.length+b.columns.length];
+			long[] values = new long[columns.length];
+			int nc = merge(a.columns, a.values, fa, b.columns, b.values, fb, columns, values);
+
+			long g = 0;
+			for (int k=0; k<ns && g!=1; k++) g = gcd(g, coefficients[k]);
+			for (int k=0; k<nc && g!=1; k++) g = gcd(g, values[k]);
+			if (g>1) {
+				for (int k=0; k<ns; k++) coefficients[k] /= g;
+				for (int k=0; k<nc; k++) values[k] /= g;
+			}
+
+			return new Vector(Arrays.copyOf(support, ns), Arrays.copyOf(coefficients, ns), Arrays.copyOf(columns, nc), Arrays.copyOf(values, nc));
+		}
+
+		// merge sorted sparse vectors, dropping zero entries
+		private static int merge(int[] ai, long[] av, long fa, int[] bi, long[] bv, long fb, int[] ri, long[] rv) {
+			int i = 0, j = 0, n = 0;
+			while (i<ai.length || j<bi.length) {
+				int index;
+				long value;
+				if (j>=bi.length || (i<ai.length && ai[i]<bi[j])) {
+					index = ai[i];
+					value = multiply(fa, av[i++]);
+				}
+				else if (i>=ai.length || bi[j]<ai[i]) {
+					index = bi[j];
+					value = multiply(fb, bv[j++]);
+				}
+				else {
+					index = ai[i];
+					value = add(multiply(fa, av[i++]), multiply(fb, bv[j++]));
+				}
+				if (value!=0) {
+					ri[n] = index;
+					rv[n++] = value;
+				}
+			}
+
+			return n;
+		}
+	}
+}
@@ -1,6 +1,12 @@
 package org.jbpt.petri.structure;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jbpt.petri.IFlow;
@@ -82,51 +88,43 @@ public class PetriNetProjector<F extends IFlow<N>, N extends INode, P extends IP
 			}
 		}
 		
-		//Rule d)
+		//Rule d) places with equal (preset, postset) signatures are found by hashing; the first place of every signature is kept
 		Set<P> pToRemove = new HashSet<P>();
-		for (P p1 : pn.getPlaces()) {
-			if (pToRemove.contains(p1))
+		Map<List<Set<T>>,P> placeSignatures = new HashMap<List<Set<T>>,P>();
+		for (P p : pn.getPlaces()) {
+			Set<T> preset = pn.getPreset(p);
+			Set<T> postset = pn.getPostset(p);
+			if (preset.size() != 1 || postset.size() != 1)
 				continue;
-			for (P p2 : pn.getPlaces()) {
-				if (p1.equals(p2))
-					continue;
-				
-				Set<T> preset = pn.getPreset(p1);
-				Set<T> postset = pn.getPostset(p1);
-				Set<T> preset2 = pn.getPreset(p2);
-				Set<T> postset2 = pn.getPostset(p2);
-				
-				if(preset.size() == 1 && postset.size() == 1
-						&& preset2.size() == 1 && postset2.size() == 1) {
-					if (preset.equals(preset2) && postset.equals(postset2)) {
-							pToRemove.add(p2); 
-					}
-				}
-			}
+			
+			List<Set<T>> signature = Arrays.asList(preset, postset);
+			if (placeSignatures.containsKey(signature))
+				pToRemove.add(p);
+			else
+				placeSignatures.put(signature, p);
 		}
 		pn.removePlaces(pToRemove);
 		
-		//Rule e)
+		//Rule e) transitions with equal signatures are grouped by hashing; transitions not in the projection set are removed,
+		//unless all transitions of a group are not in the projection set, in which case the first one is kept
 		Set<T> tToRemove = new HashSet<T>();
-		for (T t1 : pn.getTransitions()) {
-			if (tToRemove.contains(t1))
+		Map<List<Set<P>>,List<T>> transitionSignatures = new LinkedHashMap<List<Set<P>>,List<T>>();
+		for (T t : pn.getTransitions()) {
+			Set<P> preset = pn.getPreset(t);
+			Set<P> postset = pn.getPostset(t);
+			if (preset.size() != 1 || postset.size() != 1)
 				continue;
-			for (T t2 : notInProjectionSet) {
-				if (t1.equals(t2))
-					continue;
-				
-				Set<P> preset = pn.getPreset(t1);
-				Set<P> postset = pn.getPostset(t1);
-				Set<P> preset2 = pn.getPreset(t2);
-				Set<P> postset2 = pn.getPostset(t2);
-				
-				if(preset.size() == 1 && postset.size() == 1
-						&& preset2.size() == 1 && postset2.size() == 1) {
-					if (preset.equals(preset2) && postset.equals(postset2)) {
-							tToRemove.add(t2); 
-					}
-				}
-			}
+			
+			List<Set<P>> signature = Arrays.asList(preset, postset);
+			if (!transitionSignatures.containsKey(signature))
+				transitionSignatures.put(signature, new ArrayList<T>());
+			transitionSignatures.get(signature).add(t);
+		}
+		for (List<T> group : transitionSignatures.values()) {
+			boolean projected = !notInProjectionSet.containsAll(group);
+			for (int i = 0; i < group.size(); i++)
+				if ((projected || i > 0) && notInProjectionSet.contains(group.get(i)))
+					tToRemove.add(group.get(i));
 		}
 		pn.removeTransitions(tToRemove);
 		
@@ -0,0 +1,345 @@
+package org.jbpt.petri.structure;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Reduces a net system using the behaviour-preserving reduction rules of Murata, see:
+ * Tadao Murata. Petri Nets: Properties, Analysis and Applications. Proceedings of the IEEE 77(4), 1989.
+ * <ul>
+ * <li>fusion of series places: a transition with a single input place p1 and a single output place p2, where t is the only output of p1, is removed and p1 is merged into p2,</li>
+ * <li>fusion of series transitions: an unmarked place p with a single input transition t1 and a single output transition t2, where p is the only input of t2, is removed and t2 is merged into t1,</li>
+ * <li>fusion of parallel places: places with the same presets, postsets and tokens are merged,</li>
+ * <li>fusion of parallel transitions: transitions with the same presets and postsets are merged,</li>
+ * <li>elimination of self-loop places: a marked place whose preset equals its postset is removed,</li>
+ * <li>elimination of self-loop transitions: a transition whose preset and postset consist of the same single place is removed.</li>
+ * </ul>
+ * The rules preserve liveness, safeness and boundedness. Protected transitions are never removed or merged into other transitions;
+ * by default, these are the observable transitions of the net. Rules are applied with a worklist until no rule applies.
+ * Parallel places and transitions are found by hashing their (preset, postset) signatures.<br/><br/>
+ *
+ * Presets and postsets are maintained by the reducer while rules get applied, so that the costs of a rule application do not depend
+ * on the size of the net; the net is compiled once the reduction is done, see {@link INetSystem#compile()}.<br/><br/>
+ *
+ * Rules that would lead to parallel flows between two nodes are not applied, as such flows are not supported by nets.
+ *
+ * @param <F> Flow template.
+ * @param <N> Node template.
+ * @param <P> Place template.
+ * @param <T> Transition template.
+ * @param <M> Marking template.
+ */
+public class PetriNetReducer<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	// reduced net system and its protected transitions
+	private INetSystem<F,N,P,T,M> sys = null;
+	private Set<T> protectedTransitions = null;
+
+	// removed nodes: node merged into another node, or eliminated (mapped to itself)
+	private Map<N,N> merged = null;
+	// nodes to check and their signature tables
+	private ArrayDeque<N> worklist = null;
+	private Set<N> queued = null;
+	private Map<List<Object>,P> placeSignatures = null;
+	private Map<List<Object>,T> transitionSignatures = null;
+	// presets and postsets of nodes, kept up to date while the net gets reduced
+	private Map<N,Set<N>> preset = null;
+	private Map<N,Set<N>> postset = null;
+
+	/**
+	 * Reduce a net system; observable transitions are protected.
+	 *
+	 * @param sys Net system to reduce in place.
+	 * @return Map from nodes of the original net to nodes of the reduced net that represent them; eliminated nodes are not mapped.
+	 */
+	public Map<N,N> reduce(INetSystem<F,N,P,T,M> sys) {
+		if (sys==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		return this.reduce(sys, sys.getObservableTransitions());
+	}
+
+	/**
+	 * Reduce a net system.
+	 *
+	 * @param sys Net system to reduce in place.
+	 * @param protectedTransitions Transitions that must be preserved.
+	 * @return Map from nodes of the original net to nodes of the reduced net that represent them; eliminated nodes are not mapped.
+	 */
+	public Map<N,N> reduce(INetSystem<F,N,P,T,M> sys, Collection<T> protectedTransitions) {
+		if (sys==null) throw new IllegalArgumentException("NetSystem object expected but was NULL!");
+		this.sys = sys;
+		this.protectedTransitions = protectedTransitions==null ? new HashSet<T>() : new HashSet<T>(protectedTransitions);
+		this.merged = new HashMap<N,N>();
+		this.worklist = new ArrayDeque<N>();
+		this.queued = new HashSet<N>();
+		this.placeSignatures = new HashMap<List<Object>,P>();
+		this.transitionSignatures = new HashMap<List<Object>,T>();
+		this.preset = new HashMap<N,Set<N>>();
+		this.postset = new HashMap<N,Set<N>>();
+
+		Set<N> original = new LinkedHashSet<N>(sys.getNodes());
+		for (N n : original) {
+			this.preset.put(n, new LinkedHashSet<N>(sys.getDirectPredecessors(n)));
+			this.postset.put(n, new LinkedHashSet<N>(sys.getDirectSuccessors(n)));
+		}
+		for (N n : original) this.enqueue(n);
+
+		while (!this.worklist.isEmpty()) {
+			N n = this.worklist.poll();
+			this.queued.remove(n);
+			if (!this.merged.containsKey(n)) this.check(n);
+		}
+
+		Map<N,N> result = new LinkedHashMap<N,N>();
+		for (N n : original) {
+			N representative = this.resolve(n);
+			if (representative!=null) result.put(n, representative);
+		}
+
+		this.worklist = null;
+		this.queued = null;
+		this.placeSignatures = null;
+		this.transitionSignatures = null;
+		this.preset = null;
+		this.postset = null;
+		this.merged = null;
+		sys.compile();
+		return result;
+	}
+
+	/**
+	 * Apply the first applicable rule that involves a node.
+	 */
+	@SuppressWarnings("unchecked")
+	private void check(N n) {
+		if (n instanceof IPlace) {
+			P p = (P) n;
+			if (this.eliminateSelfLoopPlace(p)) return;
+			if (this.fuseSeriesPlaces(p)) return;
+			if (this.fuseSeriesTransitions(p)) return;
+			this.fuseParallelPlaces(p);
+		}
+		else {
+			T t = (T) n;
+			if (this.eliminateSelfLoopTransition(t)) return;
+			this.fuseParallelTransitions(t);
+		}
+	}
+
+	/**
+	 * p1 -> t -> p2, where t is the only output of p1 and has no other inputs and outputs: remove t and merge p1 into p2.
+	 */
+	private boolean fuseSeriesPlaces(P p1) {
+		Set<T> post = this.getPostset(p1);
+		if (post.size()!=1) return false;
+		T t = post.iterator().next();
+		if (this.protectedTransitions.contains(t)) return false;
+		Set<P> tPre = this.getPreset(t);
+		Set<P> tPost = this.getPostset(t);
+		if (tPre.size()!=1 || tPost.size()!=1) return false;
+		P p2 = tPost.iterator().next();
+		if (p2.equals(p1)) return false;
+
+		Set<T> pre = this.getPreset(p1);
+		Set<T> p2Pre = this.getPreset(p2);
+		for (T u : pre) if (p2Pre.contains(u)) return false;
+
+		int tokens = this.sys.getTokens(p1);
+		this.remove(t);
+		this.remove(p1);
+		for (T u : pre) this.addFlow(u, p2);
+		if (tokens>0) this.sys.putTokens(p2, this.sys.getTokens(p2)+tokens);
+
+		this.merge(t, p2);
+		this.merge(p1, p2);
+		this.changed(p2);
+		for (T u : pre) this.changed(u);
+		return true;
+	}
+
+	/**
+	 * t1 -> p -> t2, where p is unmarked, has no other inputs and outputs, and is the only input of t2: remove p and merge t2 into t1.
+	 */
+	private boolean fuseSeriesTransitions(P p) {
+		if (this.sys.getTokens(p)>0) return false;
+		Set<T> pre = this.getPreset(p);
+		Set<T> post = this.getPostset(p);
+		if (pre.size()!=1 || post.size()!=1) return false;
+		T t1 = pre.iterator().next();
+		T t2 = post.iterator().next();
+		if (t1.equals(t2) || this.protectedTransitions.contains(t2)) return false;
+		if (this.getPreset(t2).size()!=1) return false;
+
+		Set<P> t1Post = this.getPostset(t1);
+		Set<P> t2Post = this.getPostset(t2);
+		for (P q : t2Post) if (t1Post.contains(q)) return false;
+
+		this.remove(p);
+		this.remove(t2);
+		for (P q : t2Post) this.addFlow(t1, q);
+
+		this.merge(p, t1);
+		this.merge(t2, t1);
+		this.changed(t1);
+		for (P q : t2Post) this.changed(q);
+		return true;
+	}
+
+	/**
+	 * Places with the same preset, postset and tokens: merge p into the place registered with its signature.
+	 */
+	private boolean fuseParallelPlaces(P p) {
+		List<Object> signature = this.getSignature(p);
+		P other = this.placeSignatures.get(signature);
+		if (other==null || other.equals(p) || this.merged.containsKey(other) || !this.getSignature(other).equals(signature)) {
+			this.placeSignatures.put(signature, p);
+			return false;
+		}
+
+		Set<INode> neighbours = new HashSet<INode>(this.<T>getPreset(p));
+		neighbours.addAll(this.<T>getPostset(p));
+		this.remove(p);
+
+		this.merge(p, other);
+		for (INode n : neighbours) this.changed(n);
+		return true;
+	}
+
+	/**
+	 * Unprotected transitions with the same preset and postset: merge t into the transition registered with its signature.
+	 */
+	private boolean fuseParallelTransitions(T t) {
+		if (this.protectedTransitions.contains(t)) return false;
+		List<Object> signature = this.getSignature(t);
+		T other = this.transitionSignatures.get(signature);
+		if (other==null || other.equals(t) || this.merged.containsKey(other) || !this.getSignature(other).equals(signature)) {
+			this.transitionSignatures.put(signature, t);
+			return false;
+		}
+
+		Set<INode> neighbours = new HashSet<INode>(this.<P>getPreset(t));
+		neighbours.addAll(this.<P>getPostset(t));
+		this.remove(t);
+
+		this.merge(t, other);
+		for (INode n : neighbours) this.changed(n);
+		return true;
+	}
+
+	/**
+	 * Marked place whose preset equals its postset: the place never disables a transition and is removed.
+	 */
+	private boolean eliminateSelfLoopPlace(P p) {
+		if (this.sys.getTokens(p)<1) return false;
+		Set<T> pre = this.getPreset(p);
+		if (pre.isEmpty() || !pre.equals(this.getPostset(p))) return false;
+
+		this.remove(p);
+
+		this.merge(p, p);
+		for (T t : pre) this.changed(t);
+		return true;
+	}
+
+	/**
+	 * Unprotected transition whose preset and postset consist of the same single place: the transition does not change markings 
+	 * and is enabled whenever the place is marked, so it is removed. The rule does not apply to several places, as these may 
+	 * never be marked together.
+	 */
+	private boolean eliminateSelfLoopTransition(T t) {
+		if (this.protectedTransitions.contains(t)) return false;
+		Set<P> pre = this.getPreset(t);
+		if (pre.size()!=1 || !pre.equals(this.getPostset(t))) return false;
+
+		this.remove(t);
+
+		this.merge(t, t);
+		for (P p : pre) this.changed(p);
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Object> getSignature(INode n) {
+		// signatures are copies, as presets and postsets change during the reduction
+		if (n instanceof IPlace)
+			return Arrays.<Object>asList(new HashSet<T>(this.<T>getPreset(n)), new HashSet<T>(this.<T>getPostset(n)), this.sys.getTokens((P) n));
+
+		return Arrays.<Object>asList(new HashSet<P>(this.<P>getPreset(n)), new HashSet<P>(this.<P>getPostset(n)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <X> Set<X> getPreset(INode n) {
+		return (Set<X>) this.preset.get(n);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <X> Set<X> getPostset(INode n) {
+		return (Set<X>) this.postset.get(n);
+	}
+
+	/**
+	 * Remove a node from the net and from the presets and postsets of its neighbours.
+	 */
+	@SuppressWarnings("unchecked")
+	private void remove(INode n) {
+		for (N m : this.preset.remove(n)) this.postset.get(m).remove(n);
+		for (N m : this.postset.remove(n)) this.preset.get(m).remove(n);
+
+		if (n instanceof IPlace) this.sys.removePlace((P) n);
+		else this.sys.removeTransition((T) n);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addFlow(T t, P p) {
+		this.sys.addFlow(t, p);
+		this.postset.get(t).add((N) p);
+		this.preset.get(p).add((N) t);
+	}
+
+	/**
+	 * Record that a node was merged into another node; a node merged into itself is eliminated.
+	 */
+	@SuppressWarnings("unchecked")
+	private void merge(INode from, INode to) {
+		this.merged.put((N) from, (N) to);
+	}
+
+	private N resolve(N n) {
+		N current = n;
+		while (this.merged.containsKey(current)) {
+			N next = this.merged.get(current);
+			if (next.equals(current)) return null;
+			current = next;
+		}
+
+		return current;
+	}
+
+	/**
+	 * Schedule a node whose preset or postset changed, and its neighbours, whose rules depend on these sets.
+	 */
+	@SuppressWarnings("unchecked")
+	private void changed(INode n) {
+		this.enqueue((N) n);
+		for (N m : this.<N>getPreset(n)) this.enqueue(m);
+		for (N m : this.<N>getPostset(n)) this.enqueue(m);
+	}
+
+	private void enqueue(N n) {
+		if (this.queued.add(n)) this.worklist.add(n);
+	}
+}
@@ -1,6 +1,7 @@
 package org.jbpt.petri.unfolding;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,7 +19,13 @@ import org.jbpt.petri.IPlace;
 import org.jbpt.petri.ITransition;
 
 /**
- * Abstract implementation of a branching process of a net system.
+ * Abstract implementation of a branching process of a net system.<br/><br/>
+ * 
+ * Nodes are numbered in the order in which they are appended. Causality and concurrency are stored as one 
+ * {@link BitSet} per node that refers to nodes with smaller numbers; conflict is derived from them. 
+ * Ordering relations thus take up to n^2 bits for a branching process with n nodes, i.e., memory grows quadratically: 
+ * about 12 MB for 10^4 nodes and about 1.2 GB for 10^5 nodes. Compressed bit sets would not lower this bound, 
+ * as the rows of causality and concurrency are dense for long runs and for many concurrent nodes.
  * 
  * @author Artem Polyvyanyy
  */
@@ -35,16 +42,19 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 	protected Set<C> conds	= null;
 	protected ICut<BPN,C,E,F,N,P,T,M> iniBP = null;
 	
-	// causality: maps node of unfolding to a set of preceding nodes
-	protected Map<BPN,Set<BPN>> ca = null;
-	// concurrency: maps node of unfolding to a set of concurrent nodes
-	protected Map<BPN,Set<BPN>> co = null;
+	// dense indexes of nodes of this branching process (in the order in which nodes were appended)
+	protected Map<BPN,Integer> node2index = null;
+	protected List<BPN> index2node = null;
 	
-	// indexes for conflict and concurrency relations 
-	private Map<BPN,Set<BPN>> EX    = null;
-	private Map<BPN,Set<BPN>> notEX = null;
-	private Map<BPN,Set<BPN>> CO    = null;
-	private Map<BPN,Set<BPN>> notCO = null;
+	// causality: maps index of a node to the indexes of preceding nodes (all of them have smaller indexes)
+	protected List<BitSet> ca = null;
+	// concurrency: maps index of a node to the indexes of concurrent nodes with smaller indexes;
+	// two distinct nodes are in conflict if they are neither causally related nor concurrent
+	protected List<BitSet> co = null;
+	// maps index of a condition to the events that have the condition in their presets
+	private List<List<E>> post = null;
+	// maps place of the originative net system to the indexes of conditions that correspond to the place
+	protected Map<P,BitSet> place2conds = null;
 	
 	protected AbstractBranchingProcess() {
 		this.initialize();
@@ -59,12 +69,12 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 		this.events	= new HashSet<E>();
 		this.conds	= new HashSet<C>();
 		this.iniBP	= this.createCut();
-		this.ca		= new HashMap<BPN,Set<BPN>>();
-		this.co		= new HashMap<BPN,Set<BPN>>();
-		this.EX		= new HashMap<BPN,Set<BPN>>();
-		this.notEX	= new HashMap<BPN,Set<BPN>>();
-		this.CO		= new HashMap<BPN,Set<BPN>>();
-		this.notCO	= new HashMap<BPN,Set<BPN>>();
+		this.node2index	= new HashMap<BPN,Integer>();
+		this.index2node	= new ArrayList<BPN>();
+		this.ca		= new ArrayList<BitSet>();
+		this.co		= new ArrayList<BitSet>();
+		this.post	= new ArrayList<List<E>>();
+		this.place2conds = new HashMap<P,BitSet>();
 	}
 
 	@Override
@@ -82,13 +92,16 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 		return this.conds;
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public Set<C> getConditions(P place) {
 		Set<C> result = new HashSet<C>();
-		for (C c : this.conds) {
-			if (c.getPlace().equals(place))
-				result.add(c);
-		}
+		BitSet cs = this.place2conds.get(place);
+		if (cs==null) return result;
+
+		for (int i = cs.nextSetBit(0); i>=0; i = cs.nextSetBit(i+1))
+			result.add((C) this.index2node.get(i));
+
 		return result;
 	}
 
@@ -112,30 +125,27 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 		return this.sys;
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public boolean areCausal(BPN n1, BPN n2) {
-		if (this.ca.get(n2)==null) {
-			if (n2 instanceof AbstractEvent) {
-				@SuppressWarnings("unchecked")
-				E e = (E) n2;
-				if (e.getPreConditions().contains(n1)) return true;
-				for (C c : e.getPreConditions())
-					if (this.ca.get(c).contains(n1))
-						return true;
-				
-				return false;
-			}
-			else {
-				@SuppressWarnings("unchecked")
-				C c = (C) n2;
-				if (c.getPreEvent().equals(n1)) return true;
-				if (this.ca.get(c.getPreEvent()).contains(n1)) return true;
-				
-				return false;
-			}
+		int i1 = this.getIndex(n1);
+		int i2 = this.getIndex(n2);
+		if (i2>=0) return i1>=0 && this.ca.get(i2).get(i1);
+		
+		// 'n2' is not (yet) part of this branching process, e.g., a possible extension
+		if (n2 instanceof AbstractEvent) {
+			E e = (E) n2;
+			for (C c : e.getPreConditions())
+				if (c.equals(n1) || this.areCausal(n1,(BPN)c))
+					return true;
+			
+			return false;
+		}
+		else {
+			C c = (C) n2;
+			if (c.getPreEvent()==null) return false;
+			return c.getPreEvent().equals(n1) || this.areCausal(n1,(BPN)c.getPreEvent());
 		}
-		
-		return this.ca.get(n2).contains(n1);
 	}
 
 	@Override
@@ -145,70 +155,212 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 
 	@Override
 	public boolean areConcurrent(BPN n1, BPN n2) {
-		Set<BPN> co = this.CO.get(n1);
-		if (co!=null)
-			if (co.contains(n2)) return true;
-		
-		Set<BPN> notCo = this.notCO.get(n1);
-		if (notCo!=null)
-			if (notCo.contains(n2)) return false;
-		
-		boolean result = !this.areCausal(n1,n2) && !this.areInverseCausal(n1,n2) && !this.areInConflict(n1,n2);
+		int i1 = this.getIndex(n1);
+		int i2 = this.getIndex(n2);
+		if (i1<0 || i2<0) 
+			return !this.areCausal(n1,n2) && !this.areInverseCausal(n1,n2) && !this.areInConflict(n1,n2);
 		
-		if (result)
-			this.index(this.CO,n1,n2);
-		else
-			this.index(this.notCO,n1,n2);
-		
-		return result;
+		return i1==i2 || this.isConcurrent(i1,i2);
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public boolean areInConflict(BPN n1, BPN n2) {
-		Set<BPN> ex = this.EX.get(n1);
-		if (ex!=null)
-			if (ex.contains(n2)) return true;
+		int i1 = this.getIndex(n1);
+		int i2 = this.getIndex(n2);
+		if (i1>=0 && i2>=0) return this.isConflict(i1,i2);
+		if (i2>=0) return this.getConflicts(n1).get(i2);
+		if (i1>=0) return this.getConflicts(n2).get(i1);
+		
+		// neither node is (yet) part of this branching process
+		if (this.getConflicts(n1).intersects(this.getPast(n2))) return true;
+		if (this.getConflicts(n2).intersects(this.getPast(n1))) return true;
+		
+		List<E> es1 = new ArrayList<E>();
+		List<E> es2 = new ArrayList<E>();
+		this.getNewEvents(n1,es1);
+		this.getNewEvents(n2,es2);
+		for (E e1 : es1)
+			for (E e2 : es2) {
+				if (e1.equals(e2)) continue;
+				for (C c : e1.getPreConditions())
+					if (e2.getPreConditions().contains(c))
+						return true;
+			}
 		
-		Set<BPN> notEx = this.notEX.get(n1);
-		if (notEx!=null)
-			if (notEx.contains(n2)) return false;
+		return false;
+	}
+	
+	/**
+	 * Get indexes of nodes of this branching process that are in conflict with a given node.
+	 * The given node need not (yet) be part of this branching process, e.g., it can be a possible extension; 
+	 * then, conflicts are derived in the same way as when the node gets appended.
+	 * 
+	 * @param n Node.
+	 * @return Indexes of nodes in conflict with the given node.
+	 */
+	@SuppressWarnings("unchecked")
+	private BitSet getConflicts(BPN n) {
+		int i = this.getIndex(n);
+		if (i>=0) return this.getConflicts(i);
 		
-		if (n1.equals(n2)) {
-			this.index(this.notEX,n1,n2);
-			return false;
+		BitSet result = new BitSet();
+		if (n instanceof AbstractEvent) {
+			E e = (E) n;
+			for (C c : e.getPreConditions()) {
+				result.or(this.getConflicts((BPN)c));
+				int ic = this.getIndex((BPN)c);
+				if (ic<0 || this.post.get(ic)==null) continue;
+				
+				for (E f : this.post.get(ic)) {
+					if (f.equals(e)) continue;
+					int jf = this.getIndex((BPN)f);
+					result.set(jf);
+					for (int j=jf+1; j<this.index2node.size(); j++)
+						if (this.ca.get(j).get(jf))
+							result.set(j);
+				}
+			}
+		}
+		else {
+			C c = (C) n;
+			if (c.getPreEvent()!=null)
+				result.or(this.getConflicts((BPN)c.getPreEvent()));
 		}
 		
-		Set<BPN> ca1 = new HashSet<BPN>(this.ca.get(n1));
-		ca1.add(n1);
-		Set<BPN> ca2 = new HashSet<BPN>(this.ca.get(n2));
-		ca2.add(n2);
+		return result;
+	}
+	
+	/**
+	 * Get indexes of nodes of this branching process that are in conflict with a node of this branching process.
+	 * 
+	 * @param i Index of a node.
+	 * @return Indexes of nodes in conflict with the node.
+	 */
+	private BitSet getConflicts(int i) {
+		BitSet result = new BitSet();
+		result.set(0,i);
+		result.andNot(this.ca.get(i));
+		result.andNot(this.co.get(i));
+		for (int j=i+1; j<this.index2node.size(); j++)
+			if (this.isConflict(i,j))
+				result.set(j);
 		
-		for (BPN nn1 : ca1) {
-			if (nn1.isCondition()) continue;
-			E e1 = (E) nn1;
-			for (BPN nn2 : ca2) {
-				if (nn2.isCondition()) continue;
-				E e2 = (E) nn2;
-				if (e1.equals(e2)) continue;				
-				if (!this.overlap(e1.getPreConditions(),e2.getPreConditions())) continue;
-				
-				this.index(this.EX,n1,n2);
-				return true;
-			}
+		return result;
+	}
+	
+	/**
+	 * Get indexes of nodes of this branching process that are concurrent with a node of this branching process.
+	 * 
+	 * @param i Index of a node.
+	 * @return Indexes of nodes concurrent with the node (the node itself excluded).
+	 */
+	protected BitSet getConcurrent(int i) {
+		BitSet result = (BitSet) this.co.get(i).clone();
+		for (int j=i+1; j<this.index2node.size(); j++)
+			if (this.co.get(j).get(i))
+				result.set(j);
+		
+		return result;
+	}
+	
+	/**
+	 * Check if two nodes of this branching process are concurrent.
+	 * 
+	 * @param i Index of a node.
+	 * @param j Index of a node.
+	 * @return <tt>true</tt> if the nodes are distinct and concurrent; otherwise <tt>false</tt>.
+	 */
+	protected boolean isConcurrent(int i, int j) {
+		return i<j ? this.co.get(j).get(i) : this.co.get(i).get(j);
+	}
+	
+	/**
+	 * Check if two nodes of this branching process are in conflict, i.e., are distinct and neither causally related nor concurrent.
+	 */
+	private boolean isConflict(int i, int j) {
+		if (i==j) return false;
+		if (i<j) return !this.ca.get(j).get(i) && !this.co.get(j).get(i);
+		return !this.ca.get(i).get(j) && !this.co.get(i).get(j);
+	}
+	
+	/**
+	 * Get indexes of nodes of this branching process that causally precede a given node or are equal to it.
+	 * 
+	 * @param n Node that need not (yet) be part of this branching process.
+	 * @return Indexes of the given node and of its causal predecessors.
+	 */
+	@SuppressWarnings("unchecked")
+	private BitSet getPast(BPN n) {
+		BitSet result = new BitSet();
+		int i = this.getIndex(n);
+		if (i>=0) {
+			result.or(this.ca.get(i));
+			result.set(i);
+		}
+		else if (n instanceof AbstractEvent) {
+			for (C c : ((E) n).getPreConditions())
+				result.or(this.getPast((BPN)c));
 		}
+		else if (((C) n).getPreEvent()!=null)
+			result.or(this.getPast((BPN)((C) n).getPreEvent()));
 		
-		this.index(this.notEX,n1,n2);
-		return false;
+		return result;
+	}
+	
+	/**
+	 * Collect events that are not (yet) part of this branching process and causally precede a given node or are equal to it.
+	 */
+	@SuppressWarnings("unchecked")
+	private void getNewEvents(BPN n, List<E> result) {
+		if (this.getIndex(n)>=0) return;
+		
+		if (n instanceof AbstractEvent) {
+			result.add((E) n);
+			for (C c : ((E) n).getPreConditions())
+				this.getNewEvents((BPN)c,result);
+		}
+		else if (((C) n).getPreEvent()!=null)
+			this.getNewEvents((BPN)((C) n).getPreEvent(),result);
 	}
 
 	@Override
 	public OrderingRelationType getOrderingRelation(BPN n1, BPN n2) {
-		if (this.areCausal(n1,n2)) return OrderingRelationType.CAUSAL;
-		if (this.areInverseCausal(n1,n2)) return OrderingRelationType.INVERSE_CAUSAL;
-		if (this.areInConflict(n1,n2)) return OrderingRelationType.CONFLICT;
+		int i1 = this.getIndex(n1);
+		int i2 = this.getIndex(n2);
+		if (i1<0 || i2<0) {
+			if (this.areCausal(n1,n2)) return OrderingRelationType.CAUSAL;
+			if (this.areInverseCausal(n1,n2)) return OrderingRelationType.INVERSE_CAUSAL;
+			if (this.areInConflict(n1,n2)) return OrderingRelationType.CONFLICT;
+			return OrderingRelationType.CONCURRENT;
+		}
+		
+		if (this.ca.get(i2).get(i1)) return OrderingRelationType.CAUSAL;
+		if (this.ca.get(i1).get(i2)) return OrderingRelationType.INVERSE_CAUSAL;
+		if (this.isConflict(i1,i2)) return OrderingRelationType.CONFLICT;
 		return OrderingRelationType.CONCURRENT;
 	}
+	
+	/**
+	 * Get index of a node of this branching process.
+	 * Nodes are indexed densely, i.e., by 0,1,2,..., in the order in which they were appended to this branching process.
+	 * 
+	 * @param node Node of this branching process.
+	 * @return Index of the given node, or <tt>-1</tt> if the node is not part of this branching process.
+	 */
+	protected int getIndex(BPN node) {
+		Integer i = this.node2index.get(node);
+		return i==null ? -1 : i;
+	}
+	
+	/**
+	 * Get node of this branching process with the given index.
+	 * 
+	 * @param index Index of a node.
+	 * @return Node with the given index. 
+	 */
+	protected BPN getNode(int index) {
+		return this.index2node.get(index);
+	}
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -249,28 +401,47 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 	@Override
 	public boolean appendCondition(C condition) {
 		this.conds.add(condition);
-		this.updateCausalityCondition(condition);
+		this.updateOrderingRelationsCondition(condition);
 		
 		return true;
 	}
 		
+	/**
+	 * Index a freshly appended condition and update ordering relations. 
+	 * A condition inherits causal predecessors and conflicts of its pre-event; 
+	 * it is concurrent with all earlier nodes that neither precede it nor are in conflict with it.
+	 * 
+	 * @param c Condition.
+	 */
 	@SuppressWarnings("unchecked")
-	protected void updateCausalityCondition(C c) {
-		if (this.ca.get(c)==null)
-			this.ca.put((BPN)c,new HashSet<BPN>());
+	protected void updateOrderingRelationsCondition(C c) {
+		if (this.getIndex((BPN)c)>=0) return;
 		
+		BitSet ca = new BitSet();
+		BitSet ex = new BitSet();
 		E e = c.getPreEvent();
-		if (e==null) return;
+		if (e!=null) {
+			int ie = this.getIndex((BPN)e);
+			ca.or(this.ca.get(ie));
+			ca.set(ie);
+			ex.or(this.getConflicts(ie));
+		}
 		
-		this.ca.get(c).addAll(this.ca.get(e));
-		this.ca.get(c).add((BPN)e);
+		this.index((BPN)c,ca,ex);
+
+		BitSet cs = this.place2conds.get(c.getPlace());
+		if (cs==null) {
+			cs = new BitSet();
+			this.place2conds.put(c.getPlace(),cs);
+		}
+		cs.set(this.getIndex((BPN)c));
 	}
 	
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean appendEvent(E event) {
 		this.events.add(event);		
-		this.updateCausalityEvent(event);
+		this.updateOrderingRelationsEvent(event);
 		
 		// add conditions that correspond to post-places of transition that corresponds to new event
 		ICoSet<BPN,C,E,F,N,P,T,M> postConditions = null;
@@ -315,45 +486,65 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 		return this.appendEvent(e);
 	}
 	
+	/**
+	 * Index a freshly appended event and update ordering relations. 
+	 * An event inherits causal predecessors and conflicts of its pre-conditions. 
+	 * In addition, the event is in conflict with every other event that shares a pre-condition with it and with all causal successors of such an event. 
+	 * 
+	 * @param e Event.
+	 */
 	@SuppressWarnings("unchecked")
-	private void updateCausalityEvent(E e) {
-		if (this.ca.get(e)==null)
-			this.ca.put((BPN)e, new HashSet<BPN>());
+	private void updateOrderingRelationsEvent(E e) {
+		if (this.getIndex((BPN)e)>=0) return;
 		
+		BitSet ca = new BitSet();
+		BitSet ex = new BitSet();
 		for (C c : e.getPreConditions()) {
-			this.ca.get(e).addAll(this.ca.get(c));
+			int ic = this.getIndex((BPN)c);
+			ca.or(this.ca.get(ic));
+			ca.set(ic);
+			ex.or(this.getConflicts(ic));
 		}
 		
-		for (C c : e.getPreConditions())
-			this.ca.get(e).add((BPN)c);
-	}
-	
-	private void index(Map<BPN,Set<BPN>> map, BPN n1, BPN n2) {
-		Set<BPN> s1 = map.get(n1);
-		if (s1==null) {
-			Set<BPN> ss1 = new HashSet<BPN>();
-			ss1.add(n2);
-			map.put(n1,ss1);
+		for (C c : e.getPreConditions()) {
+			int ic = this.getIndex((BPN)c);
+			List<E> es = this.post.get(ic);
+			if (es==null) {
+				es = new ArrayList<E>();
+				this.post.set(ic,es);
+			}
+			
+			for (E f : es) {
+				int jf = this.getIndex((BPN)f);
+				ex.set(jf);
+				for (int j=jf+1; j<this.index2node.size(); j++)
+					if (this.ca.get(j).get(jf))
+						ex.set(j);
+			}
+			
+			es.add(e);
 		}
-		else
-			s1.add(n2);
 		
-		Set<BPN> s2 = map.get(n2);
-		if (s2==null) {
-			Set<BPN> ss2 = new HashSet<BPN>();
-			ss2.add(n1);
-			map.put(n2,ss2);
-		}
-		else
-			s2.add(n1);
+		this.index((BPN)e,ca,ex);
 	}
 	
-	private boolean overlap(ICoSet<BPN,C,E,F,N,P,T,M> s1, ICoSet<BPN,C,E,F,N,P,T,M> s2) {
-		for (C n : s1)
-			if (s2.contains(n))
-				return true;
-		
-		return false;
+	/**
+	 * Assign the next index to a node and store its causal predecessors.
+	 * Concurrency of the node with earlier nodes is derived from its causal predecessors and conflicts.
+	 */
+	private void index(BPN n, BitSet ca, BitSet ex) {
+		int i = this.index2node.size();
+		this.node2index.put(n,i);
+		this.index2node.add(n);
+		
+		BitSet co = new BitSet();
+		co.set(0,i);
+		co.andNot(ca);
+		co.andNot(ex);
+		
+		this.ca.add(ca);
+		this.co.add(co);
+		this.post.add(null);
 	}
 
 	@Override
@@ -391,7 +582,15 @@ public abstract class AbstractBranchingProcess<BPN extends IBPNode<N>, C extends
 
 	@Override
 	public Set<BPN> getCausalPredecessors(BPN node) {
-		return this.ca.get(node);
+		int i = this.getIndex(node);
+		if (i<0) return null;
+		
+		Set<BPN> result = new HashSet<BPN>();
+		BitSet ca = this.ca.get(i);
+		for (int j = ca.nextSetBit(0); j>=0; j = ca.nextSetBit(j+1))
+			result.add(this.index2node.get(j));
+		
+		return result;
 	}
 
 	@Override
@@ -2,9 +2,7 @@ package org.jbpt.petri.unfolding;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import org.jbpt.petri.IFlow;
@@ -23,8 +21,6 @@ public class AbstractCoSet<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,
 
 	public AbstractCoSet() {}
 
-	private Map<P,Set<C>> p2cs = new HashMap<P,Set<C>>();
-
 	@Override
 	public int hashCode() {
 		int code = 0;
@@ -35,26 +31,6 @@ public class AbstractCoSet<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,
 		return code;
 	}
 
-	@Override
-	public boolean add(C c) {
-		if (this.p2cs.get(c.getPlace())==null) {
-			Set<C> cs = new HashSet<C>();
-			cs.add(c);
-			this.p2cs.put(c.getPlace(),cs);
-		}
-		else
-			this.p2cs.get(c.getPlace()).add(c);
-
-		return super.add(c);
-	}
-
-	@Override
-	public boolean addAll(Collection<? extends C> cs) {
-		boolean result=false;
-		for (C c : cs) result |= this.add(c);
-		return result;
-	}
-
 	@Override
 	public boolean remove(Object c) {
 		return super.remove(c);
@@ -65,9 +41,19 @@ public class AbstractCoSet<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,
 		return super.removeAll(cs);
 	}
 
+	/*
+	 * Conditions are not indexed by places, as co-sets are small and there is one co-set per event and cut of a branching process.
+	 */
 	@Override
 	public Set<C> getConditions(P place) {
-		return this.p2cs.get(place);
+		Set<C> result = null;
+		for (C c : this) {
+			if (!c.getPlace().equals(place)) continue;
+			if (result==null) result = new HashSet<C>();
+			result.add(c);
+		}
+
+		return result;
 	}
 
 	@Override
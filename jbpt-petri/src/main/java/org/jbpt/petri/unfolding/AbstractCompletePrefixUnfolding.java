@@ -1,12 +1,19 @@
 package org.jbpt.petri.unfolding;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.jbpt.petri.IFlow;
 import org.jbpt.petri.IMarking;
@@ -39,10 +46,20 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 	protected CompletePrefixUnfoldingSetup setup = null;
 	// map of cutoff events to corresponding events
 	protected Map<E,E> cutoff2corr = new HashMap<E,E>();
-	// set of possible extensions updates
-	private Set<E> UPE = null;
+	// map of markings of local configurations to events that induce these markings
+	protected Map<M,List<E>> marking2events = new HashMap<M,List<E>>();
+	// executor used to construct this complete prefix unfolding in parallel (null if construction is sequential)
+	private ExecutorService executor = null;
+	// maximal number of tasks submitted to the executor per step of the construction
+	private int batches = 1;
+	// listeners notified during construction of this complete prefix unfolding
+	private List<IUnfoldingListener<BPN,C,E,F,N,P,T,M>> listeners = new ArrayList<IUnfoldingListener<BPN,C,E,F,N,P,T,M>>();
+	// true if construction of this complete prefix unfolding was stopped by a listener
+	private boolean stopped = false;
 	// total order used to construct this complete prefix unfolding
 	protected List<T> totalOrderTs = null;
+	// maps transitions to their positions in the total order
+	private Map<T,Integer> transition2rank = null;
 	// adequate order used to construct this complete prefix unfolding
 	protected IAdequateOrder<BPN,C,E,F,N,P,T,M> ADEQUATE_ORDER = null;
 
@@ -68,7 +85,27 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 	 */
 	public AbstractCompletePrefixUnfolding(INetSystem<F,N,P,T,M> sys, CompletePrefixUnfoldingSetup setup) {
 		super(sys);
-		
+		this.construct(setup);
+	}
+	
+	/**
+	 * Constructor that rebuilds a complete prefix unfolding from its compact representation, e.g., from one retrieved from a {@link CompletePrefixUnfoldingCache}.
+	 * 
+	 * @param cpu Compact complete prefix unfolding (bound to the net system to construct complete prefix unfolding for).
+	 * @param setup Setup that was used to construct the given complete prefix unfolding.
+	 */
+	public AbstractCompletePrefixUnfolding(CompactCompletePrefixUnfolding<F,N,P,T,M> cpu, CompletePrefixUnfoldingSetup setup) {
+		super(cpu.getOriginativeNetSystem());
+		this.replay(cpu, setup);
+	}
+	
+	/**
+	 * Construct this complete prefix unfolding of its net system.
+	 * 
+	 * @param setup Setup to use when constructing complete prefix unfolding.
+	 */
+	@SuppressWarnings("unchecked")
+	protected void construct(CompletePrefixUnfoldingSetup setup) {
 		// net system must be different from null
 		if (this.sys==null) return;
 		// initial branching process must not be empty
@@ -76,47 +113,243 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 		if (this.iniBP.isEmpty()) return;
 		
 		// initialise
-		this.totalOrderTs = new ArrayList<T>(sys.getTransitions());
+		this.totalOrderTs = new ArrayList<T>(this.sys.getTransitions());
 		this.setup = setup;		
+		this.ADEQUATE_ORDER = this.createAdequateOrder();
+		this.rankTransitions();
+		
+		for (IUnfoldingListener<?,?,?,?,?,?,?,?> listener : this.setup.LISTENERS)
+			this.listeners.add((IUnfoldingListener<BPN,C,E,F,N,P,T,M>) listener);
+		
+		boolean shutdown = false;
+		if (this.setup.EXECUTOR!=null)
+			this.executor = this.setup.EXECUTOR;
+		else if (this.setup.THREADS>1) {
+			this.executor = Executors.newFixedThreadPool(this.setup.THREADS);
+			shutdown = true;
+		}
+		this.batches = this.setup.THREADS>1 ? this.setup.THREADS : Runtime.getRuntime().availableProcessors();
 		
+		// construct unfolding
+		try {
+			if (this.setup.SAFE_OPTIMIZATION)
+				this.constructSafe();
+			else
+				this.constructSafe();
+		}
+		finally {
+			if (shutdown) this.executor.shutdown();
+			this.executor = null;
+		}
+	}
+	
+	/**
+	 * Construct this complete prefix unfolding by replaying events of its compact representation.<br/><br/>
+	 * 
+	 * Events are appended in the order of the compact representation, i.e., in the order they were appended when 
+	 * the unfolding was constructed; hence, no possible extensions are computed and no cutoff checks are performed.
+	 * Listeners of the setup are not notified.  
+	 * 
+	 * @param cpu Compact complete prefix unfolding of the net system of this complete prefix unfolding.
+	 * @param setup Setup that was used to construct the given complete prefix unfolding.
+	 */
+	protected void replay(CompactCompletePrefixUnfolding<F,N,P,T,M> cpu, CompletePrefixUnfoldingSetup setup) {
+		if (this.sys==null) return;
+		this.constructInitialBranchingProcess();
+		
+		this.totalOrderTs = new ArrayList<T>(this.sys.getTransitions());
+		this.setup = setup;
+		this.ADEQUATE_ORDER = this.createAdequateOrder();
+		this.rankTransitions();
+		
+		// conditions of the initial cut that correspond to the same place are indistinguishable
+		Map<P,List<C>> p2cs = new HashMap<P,List<C>>();
+		for (C c : this.iniBP) {
+			List<C> cs = p2cs.get(c.getPlace());
+			if (cs==null) {
+				cs = new ArrayList<C>();
+				p2cs.put(c.getPlace(),cs);
+			}
+			cs.add(c);
+		}
+		
+		List<C> cs = new ArrayList<C>(Collections.<C>nCopies(cpu.countConditions(),null));
+		for (CompactCompletePrefixUnfolding<F,N,P,T,M>.ConditionView c : cpu.getInitialCut()) {
+			List<C> candidates = p2cs.get(c.getPlace());
+			if (candidates==null || candidates.isEmpty())
+				throw new IllegalArgumentException("Compact complete prefix unfolding does not match the initial marking of the net system!");
+			cs.set(c.getId(), candidates.remove(candidates.size()-1));
+		}
+		
+		List<E> es = new ArrayList<E>(cpu.countEvents());
+		for (CompactCompletePrefixUnfolding<F,N,P,T,M>.EventView ev : cpu.getEvents()) {
+			ICoSet<BPN,C,E,F,N,P,T,M> preset = this.createCoSet();
+			for (CompactCompletePrefixUnfolding<F,N,P,T,M>.ConditionView c : ev.getPreConditions())
+				preset.add(cs.get(c.getId()));
+			
+			E e = this.createEvent(ev.getTransition(), preset);
+			this.appendEvent(e);
+			es.add(e);
+			
+			// post-conditions of an event correspond to distinct places
+			for (CompactCompletePrefixUnfolding<F,N,P,T,M>.ConditionView c : ev.getPostConditions())
+				for (C b : e.getPostConditions())
+					if (b.getPlace().equals(c.getPlace()))
+						cs.set(c.getId(), b);
+		}
+		
+		for (CompactCompletePrefixUnfolding<F,N,P,T,M>.EventView ev : cpu.getCutoffEvents())
+			this.addCutoff(es.get(ev.getId()), es.get(ev.getCorrespondingEvent().getId()));
+	}
+	
+	/**
+	 * Create adequate order to use when constructing this complete prefix unfolding.
+	 * 
+	 * @return Adequate order specified in the setup of this complete prefix unfolding.
+	 */
+	protected IAdequateOrder<BPN,C,E,F,N,P,T,M> createAdequateOrder() {
 		switch (this.setup.ADEQUATE_ORDER) {
 			case ESPARZA_FOR_ARBITRARY_SYSTEMS:
-				this.ADEQUATE_ORDER = new EsparzaAdequateOrderForArbitrarySystems<BPN, C, E, F, N, P, T, M>();
-				break;
+				return new EsparzaAdequateOrderForArbitrarySystems<BPN, C, E, F, N, P, T, M>();
 			case ESPARZA_FOR_SAFE_SYSTEMS:
-				this.ADEQUATE_ORDER = new EsparzaAdequateTotalOrderForSafeSystems<BPN, C, E, F, N, P, T, M>();
-				break;
+				return new EsparzaAdequateTotalOrderForSafeSystems<BPN, C, E, F, N, P, T, M>();
 			case MCMILLAN:
-				this.ADEQUATE_ORDER = new McMillanAdequateOrder<BPN, C, E, F, N, P, T, M>();
-				break;
+				return new McMillanAdequateOrder<BPN, C, E, F, N, P, T, M>();
 			case UNFOLDING:
-				this.ADEQUATE_ORDER = new UnfoldingAdequateOrder<BPN, C, E, F, N, P, T, M>();
-				break;
+				return new UnfoldingAdequateOrder<BPN, C, E, F, N, P, T, M>();
 			default:
-				this.ADEQUATE_ORDER = new EsparzaAdequateTotalOrderForSafeSystems<BPN, C, E, F, N, P, T, M>();
-				break;
+				return new EsparzaAdequateTotalOrderForSafeSystems<BPN, C, E, F, N, P, T, M>();
 		}
-		
-		// construct unfolding
-		if (this.setup.SAFE_OPTIMIZATION)
-			this.constructSafe();
-		else
-			this.constructSafe();
 	}
 	
 	protected void constructSafe() {
 		IPossibleExtensions<BPN,C,E,F,N,P,T,M> pe = getInitialPossibleExtensions();	// get possible extensions of the initial branching process
+		if (!this.notifyPossibleExtensionsUpdated(null,pe)) return;
 		while (!pe.isEmpty()) { 										// while extensions exist
 			if (this.events.size() >= this.setup.MAX_EVENTS) return;	// track number of events in unfolding
 			E e = pe.getMinimal();										// event to use for extending unfolding			
 			pe.remove(e);												// remove 'e' from the set of possible extensions
 			
 			if (!this.appendEvent(e)) return;							// add event 'e' to unfolding
+			if (!this.notifyEventAppended(e)) return;
 			E corr = this.checkCutoffA(e);								// check if 'e' is a cutoff event
-			if (corr!=null) 											
+			if (corr!=null) {
 				this.addCutoff(e,corr);									// record cutoff
-			else
-				pe.addAll(this.updatePossibleExtensions(e));			// update the set of possible extensions
+				if (!this.notifyCutoffDetected(e,corr)) return;
+			}
+			else {
+				Set<E> upe = this.prepare(this.updatePossibleExtensions(e));	// update the set of possible extensions
+				if (!this.notifyPossibleExtensionsUpdated(e,upe)) return;
+				pe.addAll(upe);
+			}
+		}
+	}
+	
+	private boolean notifyEventAppended(E e) {
+		for (IUnfoldingListener<BPN,C,E,F,N,P,T,M> listener : this.listeners)
+			if (!listener.eventAppended(this,e)) {
+				this.stopped = true;
+				return false;
+			}
+		
+		return true;
+	}
+	
+	private boolean notifyCutoffDetected(E cutoff, E corr) {
+		for (IUnfoldingListener<BPN,C,E,F,N,P,T,M> listener : this.listeners)
+			if (!listener.cutoffDetected(this,cutoff,corr)) {
+				this.stopped = true;
+				return false;
+			}
+		
+		return true;
+	}
+	
+	private boolean notifyPossibleExtensionsUpdated(E e, Set<E> extensions) {
+		for (IUnfoldingListener<BPN,C,E,F,N,P,T,M> listener : this.listeners)
+			if (!listener.possibleExtensionsUpdated(this,e,extensions)) {
+				this.stopped = true;
+				return false;
+			}
+		
+		return true;
+	}
+	
+	/**
+	 * Check if construction of this complete prefix unfolding was stopped by a listener.
+	 * If so, this branching process is not necessarily complete.
+	 * 
+	 * @return <tt>true</tt> if construction was stopped by a listener; otherwise <tt>false</tt>.
+	 * @see CompletePrefixUnfoldingSetup#LISTENERS
+	 */
+	public boolean isStopped() {
+		return this.stopped;
+	}
+	
+	/**
+	 * Prepare possible extensions for being ordered, i.e., compute their local configurations together with  
+	 * the data used by adequate orders. Events are prepared concurrently if this complete prefix unfolding 
+	 * is constructed in parallel; otherwise, the data gets computed lazily.
+	 * 
+	 * @param es Possible extensions.
+	 * @return The given possible extensions.
+	 */
+	private Set<E> prepare(Set<E> es) {
+		if (this.executor==null || es.size()<2) return es;
+		
+		List<Future<Object>> futures = new ArrayList<Future<Object>>();
+		for (final List<E> batch : this.batch(new ArrayList<E>(es))) {
+			futures.add(this.executor.submit(new Callable<Object>() {
+				@Override
+				public Object call() {
+					for (E e : batch) {
+						ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc = e.getLocalConfiguration();
+						lc.getRankedQuasiParikhVector();
+						lc.getRankedFoataNormalForm();
+					}
+					return null;
+				}
+			}));
+		}
+		
+		for (Future<Object> future : futures)
+			this.await(future);
+		
+		return es;
+	}
+	
+	/**
+	 * Split work of one step of the construction into batches, one task per batch is submitted to the executor.
+	 * Batches are consecutive sublists of the given list; hence, results can be collected in the order of the list.
+	 * 
+	 * @param xs List of work items.
+	 * @return At most as many batches as there are tasks to run concurrently.
+	 */
+	private <X> List<List<X>> batch(List<X> xs) {
+		List<List<X>> result = new ArrayList<List<X>>();
+		int n = Math.min(this.batches, xs.size());
+		for (int i=0; i<n; i++)
+			result.add(xs.subList(i*xs.size()/n, (i+1)*xs.size()/n));
+		
+		return result;
+	}
+	
+	/**
+	 * Wait for a task submitted to the executor of this complete prefix unfolding.
+	 * 
+	 * @param future Result of the task.
+	 * @return Result of the task.
+	 * @throws IllegalStateException if the task failed or the construction was interrupted.
+	 */
+	private <V> V await(Future<V> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Construction of complete prefix unfolding was interrupted!", exception);
+		} catch (ExecutionException exception) {
+			if (exception.getCause() instanceof RuntimeException) throw (RuntimeException) exception.getCause();
+			throw new IllegalStateException(exception.getCause());
 		}
 	}
 	
@@ -192,49 +425,115 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 		return result;
 	}
 
-	private Set<E> updatePossibleExtensions(E e) {
-		this.UPE = new HashSet<E>();
-		
+	@SuppressWarnings("unchecked")
+	private Set<E> updatePossibleExtensions(final E e) {
+		Set<E> result = new HashSet<E>();
+
 		T u = e.getTransition();
 		Set<T> upp = new HashSet<T>(this.sys.getPostsetTransitions(this.sys.getPostset(u)));
 		Set<P> pu = new HashSet<P>(this.sys.getPreset(u));
 		pu.removeAll(this.sys.getPostset(u));
 		upp.removeAll(this.sys.getPostsetTransitions(pu));
+
+		// conditions concurrent with 'e' are also concurrent with all post-conditions of 'e'
+		final BitSet CC = this.getConcurrent(this.getIndex((BPN)e));
+
+		List<T> ts = new ArrayList<T>(upp);
+		if (this.executor==null || ts.size()<2) {
+			for (T t : ts)
+				for (ICoSet<BPN,C,E,F,N,P,T,M> coset : this.cover(CC,t,e))
+					result.add(this.createEvent(t,coset));
+			
+			return result;
+		}
 		
-		for (T t : upp) {
-			ICoSet<BPN,C,E,F,N,P,T,M> preset = this.createCoSet();
-			for (C b : e.getPostConditions()) {
-				if (this.sys.getPreset(t).contains(b.getPlace()))
-				preset.add(b);
-			}			
-			Set<C> C = this.getConcurrentConditions(e);
-			this.cover(C,t,preset);
+		List<Future<List<List<ICoSet<BPN,C,E,F,N,P,T,M>>>>> futures = new ArrayList<Future<List<List<ICoSet<BPN,C,E,F,N,P,T,M>>>>>();
+		List<List<T>> batches = this.batch(ts);
+		for (final List<T> batch : batches) {
+			futures.add(this.executor.submit(new Callable<List<List<ICoSet<BPN,C,E,F,N,P,T,M>>>>() {
+				@Override
+				public List<List<ICoSet<BPN,C,E,F,N,P,T,M>>> call() {
+					List<List<ICoSet<BPN,C,E,F,N,P,T,M>>> presets = new ArrayList<List<ICoSet<BPN,C,E,F,N,P,T,M>>>();
+					for (T t : batch)
+						presets.add(cover(CC,t,e));
+					return presets;
+				}
+			}));
+		}
+
+		// events get created in the same order as in sequential construction
+		for (int i=0; i<futures.size(); i++) {
+			List<List<ICoSet<BPN,C,E,F,N,P,T,M>>> presets = this.await(futures.get(i));
+			for (int j=0; j<presets.size(); j++)
+				for (ICoSet<BPN,C,E,F,N,P,T,M> coset : presets.get(j))
+					result.add(this.createEvent(batches.get(i).get(j),coset));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Get presets of events that correspond to a given transition and consume post-conditions of a given event.
+	 *
+	 * @param CC Indexes of nodes that are concurrent with the given event (not modified).
+	 * @param t Transition.
+	 * @param e Event.
+	 * @return Presets of events that correspond to the given transition.
+	 */
+	private List<ICoSet<BPN,C,E,F,N,P,T,M>> cover(BitSet CC, T t, E e) {
+		ICoSet<BPN,C,E,F,N,P,T,M> preset = this.createCoSet();
+		for (C b : e.getPostConditions()) {
+			if (this.sys.getPreset(t).contains(b.getPlace()))
+			preset.add(b);
+		}
+		
+		// only conditions that correspond to places in the preset of 't' are candidates
+		BitSet candidates = new BitSet();
+		for (P p : this.sys.getPreset(t)) {
+			BitSet cs = this.place2conds.get(p);
+			if (cs!=null) candidates.or(cs);
 		}
+		candidates.and(CC);
 		
-		return this.UPE;
+		List<ICoSet<BPN,C,E,F,N,P,T,M>> result = new ArrayList<ICoSet<BPN,C,E,F,N,P,T,M>>();
+		this.cover(candidates,t,preset,result);
+		return result;
 	}
 
+	/**
+	 * Extend a given co-set to presets of events that correspond to a given transition.<br/><br/>
+	 *
+	 * Candidate conditions are retrieved place by place from the index of conditions of this branching process
+	 * and are restricted to the conditions that are concurrent with every condition in the co-set.
+	 *
+	 * @param CC Indexes of candidate conditions that are concurrent with all conditions in the given co-set.
+	 * @param t Transition.
+	 * @param preset Co-set of conditions that correspond to some places in the preset of the given transition.
+	 * @param result Collection to add presets of events that correspond to the given transition to.
+	 */
 	@SuppressWarnings("unchecked")
-	private void cover(Set<C> CC, T t, ICoSet<BPN,C,E,F,N,P,T,M> preset) {
+	private void cover(BitSet CC, T t, ICoSet<BPN,C,E,F,N,P,T,M> preset, Collection<ICoSet<BPN,C,E,F,N,P,T,M>> result) {
 		if (this.sys.getPreset(t).size()==preset.size()) {
-			this.UPE.add(this.createEvent(t, preset));
+			result.add(preset);
 		}
 		else {
 			Set<P> pre = new HashSet<P>(this.sys.getPreset(t));
 			pre.removeAll(this.getPlaces(preset));
 			P p = pre.iterator().next();
-			
-			for (C d : CC) {
-				if (d.getPlace().equals(p)) {
-					Set<C> C2 = new HashSet<C>();
-					for (C dd : CC)
-						if (this.areConcurrent((BPN)d,(BPN)dd))
-							C2.add(dd);
-					ICoSet<BPN,C,E,F,N,P,T,M> preset2 = this.createCoSet();
-					preset2.addAll(preset);
-					preset2.add(d);
-					this.cover(C2,t,preset2);
-				}
+
+			BitSet ds = this.place2conds.get(p);
+			if (ds==null) return;
+			ds = (BitSet) ds.clone();
+			ds.and(CC);
+
+			for (int i = ds.nextSetBit(0); i>=0; i = ds.nextSetBit(i+1)) {
+				BitSet CC2 = (BitSet) CC.clone();
+				for (int j = CC2.nextSetBit(0); j>=0; j = CC2.nextSetBit(j+1))
+					if (!this.isConcurrent(i,j)) CC2.clear(j);
+				ICoSet<BPN,C,E,F,N,P,T,M> preset2 = this.createCoSet();
+				preset2.addAll(preset);
+				preset2.add((C) this.getNode(i));
+				this.cover(CC2,t,preset2,result);
 			}
 		}
 	}
@@ -248,18 +547,6 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 		return result;
 	}
 
-	@SuppressWarnings("unchecked")
-	private Set<C> getConcurrentConditions(E e) {
-		Set<C> result = new HashSet<C>();
-
-		for (C c : this.getConditions()) {
-			if (this.areConcurrent((BPN)e,(BPN)c))
-				result.add(c);
-		}
-		
-		return result;
-	}
-	
 	protected ICoSet<BPN,C,E,F,N,P,T,M> containsPlaces(ICoSet<BPN,C,E,F,N,P,T,M> coset, Collection<P> places) {
 		ICoSet<BPN,C,E,F,N,P,T,M> result = this.createCoSet();
 		
@@ -278,17 +565,42 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 		return result;
 	}
 	
+	/**
+	 * Check if a given event is a cutoff event.<br/><br/>
+	 * 
+	 * Only events whose local configurations induce the same marking as the local configuration of the given event are candidates for the corresponding event. 
+	 * These are retrieved from the index of markings of local configurations. The given event gets indexed afterwards. 
+	 * 
+	 * @param cutoff An event to check.
+	 * @return The minimal (with respect to the adequate order) corresponding event of the given event, 
+	 * or <tt>null</tt> if the given event is not a cutoff event.
+	 */
 	protected E checkCutoffA(E cutoff) {
 		ILocalConfiguration<BPN,C,E,F,N,P,T,M> lce = cutoff.getLocalConfiguration();
 		
-		for (E f : this.getEvents()) {
+		List<E> es = this.marking2events.get(lce.getMarking());
+		if (es==null) {
+			es = new ArrayList<E>();
+			this.marking2events.put(lce.getMarking(),es);
+		}
+		
+		E result = null;
+		ILocalConfiguration<BPN,C,E,F,N,P,T,M> lcr = null;
+		for (E f : es) {
 			if (f.equals(cutoff)) continue;
 			ILocalConfiguration<BPN,C,E,F,N,P,T,M> lcf = f.getLocalConfiguration();
-			if (lce.getMarking().equals(lcf.getMarking()) && this.ADEQUATE_ORDER.isSmaller(lcf, lce))
-				return this.checkCutoffB(cutoff,f); // check cutoff extended conditions
+			if (!this.ADEQUATE_ORDER.isSmaller(lcf, lce)) continue;
+			if (result!=null && !this.ADEQUATE_ORDER.isSmaller(lcf, lcr)) continue;
+			
+			E corr = this.checkCutoffB(cutoff,f); // check cutoff extended conditions
+			if (corr==null) continue;
+			
+			result = corr;
+			lcr = corr.getLocalConfiguration();
 		}
 		
-		return null;
+		es.add(cutoff);
+		return result;
 	}
 
 	protected E checkCutoffB(E cutoff, E corr) {
@@ -319,6 +631,33 @@ public class AbstractCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends I
 		return this.totalOrderTs;
 	}
 	
+	/**
+	 * Get rank of a transition, i.e., its position in the total order of transitions used to construct this complete prefix unfolding.
+	 * Ranks are computed once per unfolding; adequate orders compare transitions by their ranks. 
+	 * 
+	 * @param transition Transition of the originative net system.
+	 * @return Rank of the given transition, or <tt>-1</tt> if the transition is not part of the total order. 
+	 */
+	@Override
+	public int getRankOfTransition(T transition) {
+		if (this.transition2rank==null) return -1;
+		
+		Integer rank = this.transition2rank.get(transition);
+		return rank==null ? -1 : rank;
+	}
+	
+	/**
+	 * Rank transitions by their positions in the total order of transitions.
+	 * Transitions must be ranked before local configurations get compared (possibly concurrently).
+	 */
+	protected void rankTransitions() {
+		Map<T,Integer> result = new HashMap<T,Integer>();
+		for (int i=0; i<this.totalOrderTs.size(); i++)
+			result.put(this.totalOrderTs.get(i),i);
+		
+		this.transition2rank = result;
+	}
+	
 	@Override
 	public IOccurrenceNet<BPN,C,E,F,N,P,T,M> getOccurrenceNet() {		
 		try {
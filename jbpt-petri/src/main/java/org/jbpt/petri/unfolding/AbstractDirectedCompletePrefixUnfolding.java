@@ -0,0 +1,376 @@
+package org.jbpt.petri.unfolding;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jbpt.petri.AbstractRun;
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.IRun;
+import org.jbpt.petri.ITransition;
+import org.jbpt.petri.unfolding.order.DirectedAdequateOrder;
+import org.jbpt.petri.unfolding.order.IAdequateOrder;
+
+/**
+ * Complete prefix unfolding directed towards a target, i.e., a set of places that must be marked together or a marking that must be reached.<br/><br/>
+ *
+ * The net system is extended with a goal transition whose preset comprises the target places and whose postset is a fresh place; the construction
+ * of the prefix is directed towards an occurrence of the goal transition by a {@link DirectedAdequateOrder} and stops as soon as an event of
+ * the goal transition gets appended whose local configuration (without the event) reaches the target. This local configuration is a witness
+ * of reachability of the target. If the target is a marking that is not reached by such a local configuration, the completed prefix is searched
+ * for a configuration that reaches the marking; as the goal transition is enabled at the marking, such a configuration comprises the local
+ * configuration of some goal event (without the event) and events that are concurrent to the goal event. If the target is not reachable,
+ * the result is a complete prefix unfolding of the extended net system.<br/><br/>
+ *
+ * Note that nodes of this prefix refer to nodes of the extended net system, see {@link #getOriginativeNetSystem()},
+ * whereas the witness refers to nodes of the given net system.
+ */
+public abstract class AbstractDirectedCompletePrefixUnfolding<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>, F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>>
+		extends AbstractCompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> {
+
+	// net system to reach the target in
+	protected INetSystem<F,N,P,T,M> system = null;
+	// target marking, or null if only target places must be marked
+	protected M target = null;
+	// goal transition of the extended net system
+	protected T goal = null;
+	// maps of nodes of the given net system to nodes of the extended net system and vice versa
+	private Map<N,N> node2clone = new HashMap<N,N>();
+	private Map<N,N> clone2node = new HashMap<N,N>();
+
+	// event of the goal transition that reaches the target
+	private E goalEvent = null;
+	// events of the goal transition whose local configurations do not reach the target marking
+	private List<E> goalEvents = new ArrayList<E>();
+	// witness of reachability of the target
+	private IRun<F,N,P,T,M> witness = null;
+
+	protected AbstractDirectedCompletePrefixUnfolding() {}
+
+	/**
+	 * Constructor with default setup.
+	 *
+	 * @param sys Net system.
+	 * @param places Places that must be marked together.
+	 */
+	public AbstractDirectedCompletePrefixUnfolding(INetSystem<F,N,P,T,M> sys, Collection<P> places) {
+		this(sys, places, new CompletePrefixUnfoldingSetup());
+	}
+
+	/**
+	 * Constructor with specified setup.
+	 *
+	 * @param sys Net system.
+	 * @param places Places that must be marked together.
+	 * @param setup Setup to use when constructing complete prefix unfolding.
+	 */
+	public AbstractDirectedCompletePrefixUnfolding(INetSystem<F,N,P,T,M> sys, Collection<P> places, CompletePrefixUnfoldingSetup setup) {
+		super();
+		this.constructDirected(sys, places, null, setup);
+	}
+
+	/**
+	 * Constructor with default setup.
+	 *
+	 * @param sys Net system.
+	 * @param marking Marking that must be reached.
+	 */
+	public AbstractDirectedCompletePrefixUnfolding(INetSystem<F,N,P,T,M> sys, M marking) {
+		this(sys, marking, new CompletePrefixUnfoldingSetup());
+	}
+
+	/**
+	 * Constructor with specified setup.
+	 *
+	 * @param sys Net system.
+	 * @param marking Marking that must be reached.
+	 * @param setup Setup to use when constructing complete prefix unfolding.
+	 */
+	public AbstractDirectedCompletePrefixUnfolding(INetSystem<F,N,P,T,M> sys, M marking, CompletePrefixUnfoldingSetup setup) {
+		super();
+
+		Set<P> places = new HashSet<P>();
+		for (P p : sys.getPlaces())
+			if (marking.get(p)>0)
+				places.add(p);
+
+		this.constructDirected(sys, places, marking, setup);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void constructDirected(INetSystem<F,N,P,T,M> sys, Collection<P> places, M marking, CompletePrefixUnfoldingSetup setup) {
+		if (places.isEmpty()) throw new IllegalArgumentException("Target must comprise at least one place!");
+
+		this.system = sys;
+		this.target = marking;
+
+		// extend a copy of the net system with the goal transition
+		INetSystem<F,N,P,T,M> clone = sys.clone(this.node2clone);
+		for (Map.Entry<N,N> entry : this.node2clone.entrySet())
+			this.clone2node.put(entry.getValue(), entry.getKey());
+
+		this.goal = clone.createTransition();
+		this.goal.setName("goal");
+		clone.addTransition(this.goal);
+		for (P p : places)
+			clone.addFlow((P) this.node2clone.get(p), this.goal);
+		// marking of the fresh place distinguishes markings after an occurrence of the goal transition
+		P done = clone.createPlace();
+		done.setName("done");
+		clone.addPlace(done);
+		clone.addFlow(this.goal, done);
+
+		// stop once the target is reached
+		CompletePrefixUnfoldingSetup directed = new CompletePrefixUnfoldingSetup();
+		directed.MAX_EVENTS = setup.MAX_EVENTS;
+		directed.MAX_BOUND = setup.MAX_BOUND;
+		directed.ADEQUATE_ORDER = setup.ADEQUATE_ORDER;
+		directed.SAFE_OPTIMIZATION = setup.SAFE_OPTIMIZATION;
+		directed.THREADS = setup.THREADS;
+		directed.EXECUTOR = setup.EXECUTOR;
+		directed.LISTENERS.addAll(setup.LISTENERS);
+		directed.LISTENERS.add(new AbstractUnfoldingListener<BPN,C,E,F,N,P,T,M>() {
+			@Override
+			public boolean eventAppended(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E event) {
+				if (!isGoalEvent(event)) return true;
+				if (!reachesTarget(event)) {
+					goalEvents.add(event);
+					return true;
+				}
+
+				goalEvent = event;
+				return false;
+			}
+		});
+
+		this.setNetSystem(clone);
+		this.construct(directed);
+
+		if (this.goalEvent!=null) {
+			this.witness = this.createWitness(this.goalEvent, Collections.<E>emptyList());
+			return;
+		}
+
+		for (E e : this.goalEvents) {
+			List<E> events = this.searchTarget(e);
+			if (events==null) continue;
+
+			this.goalEvent = e;
+			this.witness = this.createWitness(e, events);
+			return;
+		}
+	}
+
+	@Override
+	protected IAdequateOrder<BPN,C,E,F,N,P,T,M> createAdequateOrder() {
+		return new DirectedAdequateOrder<BPN,C,E,F,N,P,T,M>(super.createAdequateOrder(), this.sys, this.goal);
+	}
+
+	/**
+	 * Events of the goal transition neither are cutoff events nor correspond to cutoff events.
+	 */
+	@Override
+	protected E checkCutoffA(E e) {
+		if (this.isGoalEvent(e)) return null;
+
+		return super.checkCutoffA(e);
+	}
+
+	/**
+	 * Check if the target was reached.
+	 *
+	 * @return <tt>true</tt> if the target was reached; otherwise <tt>false</tt>.
+	 */
+	public boolean isTargetReached() {
+		return this.goalEvent!=null;
+	}
+
+	/**
+	 * Get witness of reachability of the target.
+	 *
+	 * @return Run of the given net system that reaches the target, or <tt>null</tt> if the target is not reachable
+	 * (or the construction was stopped before the target was reached).
+	 */
+	public IRun<F,N,P,T,M> getWitness() {
+		return this.witness;
+	}
+
+	/**
+	 * Get event of the goal transition that reaches the target.
+	 *
+	 * @return Event of the goal transition that is enabled in a configuration that reaches the target, or <tt>null</tt> if the target was not reached.
+	 */
+	public E getGoalEvent() {
+		return this.goalEvent;
+	}
+
+	/**
+	 * Get goal transition of the extended net system.
+	 *
+	 * @return Goal transition.
+	 */
+	public T getGoalTransition() {
+		return this.goal;
+	}
+
+	private boolean isGoalEvent(E e) {
+		return e.getTransition()==this.goal;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean reachesTarget(E e) {
+		if (this.target==null) return true;
+
+		// the goal transition consumes a token from every target place
+		M marking = e.getLocalConfiguration().getMarking();
+		Set<P> preset = this.sys.getPreset(this.goal);
+		for (P p : this.system.getPlaces()) {
+			P q = (P) this.node2clone.get(p);
+			int tokens = marking.get(q) + (preset.contains(q) ? 1 : 0);
+			if (tokens!=this.target.get(p)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Breadth-first search for a configuration that reaches the target marking and extends the local configuration of a goal event
+	 * (without the event) by events that do not consume conditions in the preset of the goal event.
+	 *
+	 * @param e Event of the goal transition.
+	 * @return Events that extend the local configuration of the given event (without the event) in the order of their occurrence,
+	 * or <tt>null</tt> if no such configuration reaches the target marking.
+	 */
+	private List<E> searchTarget(E e) {
+		// conditions are represented by indexes, cuts by sets of indexes
+		List<C> conditions = new ArrayList<C>();
+		Map<C,Integer> c2index = new IdentityHashMap<C,Integer>();
+		Map<C,List<E>> c2post = new IdentityHashMap<C,List<E>>();
+		for (E f : this.getEvents()) {
+			if (this.isGoalEvent(f)) continue;
+			for (C c : f.getPreConditions()) {
+				List<E> post = c2post.get(c);
+				if (post==null) {
+					post = new ArrayList<E>();
+					c2post.put(c, post);
+				}
+				post.add(f);
+			}
+		}
+
+		BitSet reserved = new BitSet();
+		for (C c : e.getPreConditions())
+			reserved.set(this.getIndex(c, conditions, c2index));
+
+		BitSet initial = new BitSet();
+		for (C c : e.getLocalConfiguration().getCut())
+			initial.set(this.getIndex(c, conditions, c2index));
+		for (C c : e.getPostConditions())
+			initial.clear(this.getIndex(c, conditions, c2index));
+		initial.or(reserved);
+
+		// cut -> previous cut and event that leads to the cut
+		Map<BitSet,BitSet> previous = new HashMap<BitSet,BitSet>();
+		Map<BitSet,E> event = new HashMap<BitSet,E>();
+		LinkedList<BitSet> queue = new LinkedList<BitSet>();
+		previous.put(initial, null);
+		queue.add(initial);
+
+		while (!queue.isEmpty()) {
+			BitSet cut = queue.poll();
+			if (this.isTarget(cut, conditions)) {
+				LinkedList<E> result = new LinkedList<E>();
+				for (BitSet c = cut; previous.get(c)!=null; c = previous.get(c))
+					result.addFirst(event.get(c));
+				return result;
+			}
+
+			for (int i=cut.nextSetBit(0); i>=0; i=cut.nextSetBit(i+1)) {
+				if (reserved.get(i)) continue;
+				List<E> post = c2post.get(conditions.get(i));
+				if (post==null) continue;
+
+				for (E f : post) {
+					BitSet next = (BitSet) cut.clone();
+					boolean enabled = true;
+					for (C c : f.getPreConditions()) {
+						int j = this.getIndex(c, conditions, c2index);
+						if (!cut.get(j) || reserved.get(j)) { enabled = false; break; }
+						next.clear(j);
+					}
+					if (!enabled) continue;
+					for (C c : f.getPostConditions())
+						next.set(this.getIndex(c, conditions, c2index));
+
+					if (previous.containsKey(next)) continue;
+					previous.put(next, cut);
+					event.put(next, f);
+					queue.add(next);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private int getIndex(C c, List<C> conditions, Map<C,Integer> c2index) {
+		Integer result = c2index.get(c);
+		if (result==null) {
+			result = conditions.size();
+			conditions.add(c);
+			c2index.put(c, result);
+		}
+
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean isTarget(BitSet cut, List<C> conditions) {
+		Map<P,Integer> marking = new HashMap<P,Integer>();
+		for (int i=cut.nextSetBit(0); i>=0; i=cut.nextSetBit(i+1)) {
+			P p = (P) this.clone2node.get(conditions.get(i).getPlace());
+			if (p==null) return false;
+			Integer tokens = marking.get(p);
+			marking.put(p, tokens==null ? 1 : tokens+1);
+		}
+
+		for (P p : this.system.getPlaces()) {
+			Integer tokens = marking.get(p);
+			if ((tokens==null ? 0 : tokens)!=this.target.get(p)) return false;
+		}
+
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private IRun<F,N,P,T,M> createWitness(E e, List<E> events) {
+		Set<E> lc = Collections.newSetFromMap(new IdentityHashMap<E,Boolean>());
+		lc.addAll(e.getLocalConfiguration());
+
+		// events are appended in an order that is consistent with causality
+		IRun<F,N,P,T,M> result = new AbstractRun<F,N,P,T,M>(this.system);
+		for (E f : this.getLog()) {
+			if (f==e || !lc.contains(f)) continue;
+			if (!result.append((T) this.clone2node.get(f.getTransition())))
+				throw new IllegalStateException("Witness is not a run of the net system!");
+		}
+		for (E f : events) {
+			if (!result.append((T) this.clone2node.get(f.getTransition())))
+				throw new IllegalStateException("Witness is not a run of the net system!");
+		}
+
+		return result;
+	}
+}
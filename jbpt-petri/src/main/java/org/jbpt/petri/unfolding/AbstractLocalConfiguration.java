@@ -1,11 +1,14 @@
 package org.jbpt.petri.unfolding;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.jbpt.petri.IFlow;
@@ -27,6 +30,8 @@ public class AbstractLocalConfiguration<BPN extends IBPNode<N>, C extends ICondi
 	private M marking = null;					// marking of cut
 	private List<T> vec = null;					// quasi Parikh vector
 	private List<Set<E>> foata = null;			// Foata normal form
+	private int[] rvec = null;					// quasi Parikh vector as sorted ranks of transitions
+	private int[][] rfoata = null;				// Foata normal form as sorted ranks of transitions (per level)
 	private ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> CPU = null;
 	
 	public AbstractLocalConfiguration() {
@@ -74,16 +79,10 @@ public class AbstractLocalConfiguration<BPN extends IBPNode<N>, C extends ICondi
 	
 	class ParikhComparator implements Comparator<T> {
 		
-		private List<T> totalOrderTs = null;
-		
-		public ParikhComparator(List<T> totalOrderTs) {
-			this.totalOrderTs = totalOrderTs;
-		}
-		
 		@Override
 		public int compare(T t1, T t2) {
-			int i1 = this.totalOrderTs.indexOf(t1);
-			int i2 = this.totalOrderTs.indexOf(t2);
+			int i1 = CPU.getRankOfTransition(t1);
+			int i2 = CPU.getRankOfTransition(t2);
 			if (i1<i2) return -1;
 			if (i1>i2) return 1;
 			
@@ -96,57 +95,114 @@ public class AbstractLocalConfiguration<BPN extends IBPNode<N>, C extends ICondi
 		if (this.vec == null) {
 			this.vec = new ArrayList<T>();
 			for (E e : this) this.vec.add(e.getTransition());
-			Collections.sort(this.vec, new ParikhComparator(this.CPU.getTotalOrderOfTransitions()));
+			Collections.sort(this.vec, new ParikhComparator());
 		}
 		
 		return this.vec;
 	}
 	
-	// TODO cache this
 	@Override
 	public List<T> getQuasiParikhVector(Collection<E> es) {
 		List<T> result = new ArrayList<T>();
 		for (E e : es) result.add(e.getTransition());
-		Collections.sort(result, new ParikhComparator(this.CPU.getTotalOrderOfTransitions()));
+		Collections.sort(result, new ParikhComparator());
 		return result;
-	}	
+	}
+	
+	/**
+	 * Get quasi Parikh vector of this local configuration encoded as the sorted array of ranks of transitions.
+	 * The array is computed once and cached; adequate orders compare these arrays without allocating objects.
+	 * 
+	 * @return Sorted array of ranks of transitions that correspond to events of this local configuration.
+	 */
+	@Override
+	public int[] getRankedQuasiParikhVector() {
+		if (this.rvec == null)
+			this.rvec = this.getRanks(this);
+		
+		return this.rvec;
+	}
 	
 	@Override
 	public List<Set<E>> getFoataNormalForm() {
 		if (this.foata == null) {
 			this.foata = new ArrayList<Set<E>>();
-			Collection<E> lc = new ArrayList<E>(this);
-			while (lc.size()>0) {
-				Set<E> min = this.getMin(lc);
+			
+			// number of pre-conditions of an event with pre-events in this local configuration that are not yet in the normal form
+			Map<E,Integer> e2in = new HashMap<E,Integer>();
+			// events that consume post-conditions of an event
+			Map<E,List<E>> e2out = new HashMap<E,List<E>>();
+			
+			Set<E> min = new HashSet<E>();
+			for (E e : this) {
+				int in = 0;
+				for (C c : e.getPreConditions()) {
+					E f = c.getPreEvent();
+					if (f==null) continue;
+					in++;
+					List<E> out = e2out.get(f);
+					if (out==null) {
+						out = new ArrayList<E>();
+						e2out.put(f,out);
+					}
+					out.add(e);
+				}
+				
+				if (in==0) min.add(e);
+				else e2in.put(e,in);
+			}
+			
+			// every level of the Foata normal form consists of minimal events among the remaining ones
+			while (!min.isEmpty()) {
 				this.foata.add(min);
-				lc.removeAll(min);
+				Set<E> next = new HashSet<E>();
+				for (E f : min) {
+					List<E> out = e2out.get(f);
+					if (out==null) continue;
+					for (E e : out) {
+						int in = e2in.get(e)-1;
+						e2in.put(e,in);
+						if (in==0) next.add(e);
+					}
+				}
+				min = next;
 			}
 		}
 		
 		return this.foata;
 	}
 	
-	@SuppressWarnings("unchecked")
-	private Set<E> getMin(Collection<E> lc) {
-		Set<E> result = new HashSet<E>();
-		for (E e1 : lc) {
-			boolean flag = true;
-			for (E e2 : lc) {
-				if (this.CPU.areCausal((BPN)e2,(BPN)e1)) {
-					flag = false;
-					break;
-				}
-			}
-			
-			if (flag) result.add(e1);
+	/**
+	 * Get Foata normal form of this local configuration encoded as arrays of sorted ranks of transitions, one per level.
+	 * The arrays are computed once and cached; adequate orders compare these arrays without allocating objects.
+	 * 
+	 * @return Array of quasi Parikh vectors (as sorted arrays of ranks of transitions) of levels of the Foata normal form.
+	 */
+	@Override
+	public int[][] getRankedFoataNormalForm() {
+		if (this.rfoata == null) {
+			List<Set<E>> foata = this.getFoataNormalForm();
+			int[][] result = new int[foata.size()][];
+			for (int i=0; i<foata.size(); i++)
+				result[i] = this.getRanks(foata.get(i));
+			this.rfoata = result;
 		}
+		
+		return this.rfoata;
+	}
+	
+	private int[] getRanks(Collection<E> es) {
+		int[] result = new int[es.size()];
+		int i = 0;
+		for (E e : es) result[i++] = this.CPU.getRankOfTransition(e.getTransition());
+		Arrays.sort(result);
 		return result;
 	}
 
 	@Override
 	public Integer compareTransitions(T t1, T t2) {
-		int i1 = this.CPU.getTotalOrderOfTransitions().indexOf(t1);
-		int i2 = this.CPU.getTotalOrderOfTransitions().indexOf(t2);
+		int i1 = this.CPU.getRankOfTransition(t1);
+		int i2 = this.CPU.getRankOfTransition(t2);
 		if (i1<0 || i2<0) return null;
 		
 		if (i1<i2) return -1;
@@ -155,6 +211,11 @@ public class AbstractLocalConfiguration<BPN extends IBPNode<N>, C extends ICondi
 		return 0;
 	}
 
+	@Override
+	public E getEvent() {
+		return this.e;
+	}
+
 	@Override
 	public void setEvent(E e) {
 		this.e = e;
@@ -0,0 +1,32 @@
+package org.jbpt.petri.unfolding;
+
+import java.util.Set;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Listener of construction of complete prefix unfoldings that ignores all notifications (and never stops construction).
+ * Extend this class to react only to some notifications.
+ */
+public abstract class AbstractUnfoldingListener<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>, F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>>
+		implements IUnfoldingListener<BPN,C,E,F,N,P,T,M> {
+
+	@Override
+	public boolean eventAppended(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E event) {
+		return true;
+	}
+
+	@Override
+	public boolean cutoffDetected(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E cutoff, E corr) {
+		return true;
+	}
+
+	@Override
+	public boolean possibleExtensionsUpdated(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E event, Set<E> extensions) {
+		return true;
+	}
+}
@@ -0,0 +1,628 @@
+package org.jbpt.petri.unfolding;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Read-only snapshot of a constructed complete prefix unfolding of a net system, stored in primitive arrays.<br/><br/>
+ *
+ * Events and conditions are identified by integers and stored in primitive arrays: every event refers to (the index of)
+ * its transition and to ranges of the arrays of its pre- and post-conditions, every condition refers to (the index of) its place,
+ * its pre-event, and a range of the array of its post-events. Local configurations of events are stored as bitsets of event identifiers.
+ * Events are numbered in the order in which they were appended to the unfolding; hence, causal predecessors of an event have smaller identifiers.<br/><br/>
+ *
+ * Events and conditions of a snapshot are accessed via views ({@link EventView}, {@link ConditionView}) that are created on demand and hold only an identifier.
+ * The views do not implement {@link IEvent} and {@link ICondition}. Complete prefix unfoldings are constructed and queried
+ * using {@link Event} and {@link Condition} objects as before; a snapshot is an export of a constructed prefix 
+ * (or is read from its binary form) and does not change the memory needed to construct the prefix.
+ * Snapshots are meant for keeping prefixes after their construction, e.g., in a {@link CompletePrefixUnfoldingCache}.
+ */
+public class CompactCompletePrefixUnfolding<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	// originative net system
+	protected INetSystem<F,N,P,T,M> sys = null;
+
+	// transitions and places of the originative net system (index to node)
+	protected List<T> transitions = null;
+	protected List<P> places = null;
+
+	// events: transition, pre- and post-conditions (offsets into evPre/evPost), corresponding event of a cutoff (-1 if not a cutoff)
+	protected int[] evTransition = null;
+	protected int[] evPreOffset = null;
+	protected int[] evPre = null;
+	protected int[] evPostOffset = null;
+	protected int[] evPost = null;
+	protected int[] evCorr = null;
+	// local configurations of events
+	protected BitSet[] evLC = null;
+	// events that share a pre-condition with some other event in the local configuration of an event
+	protected BitSet[] evConflict = null;
+
+	// conditions: place, pre-event (-1 for conditions of the initial cut), post-events (offsets into condPost)
+	protected int[] condPlace = null;
+	protected int[] condPreEvent = null;
+	protected int[] condPostOffset = null;
+	protected int[] condPost = null;
+
+	protected CompactCompletePrefixUnfolding() {}
+
+	/**
+	 * Construct compact representation of a complete prefix unfolding.
+	 *
+	 * @param cpu Complete prefix unfolding.
+	 */
+	public <BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>>
+			CompactCompletePrefixUnfolding(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu) {
+		this(cpu, new ArrayList<T>(cpu.getOriginativeNetSystem().getTransitions()), new ArrayList<P>(cpu.getOriginativeNetSystem().getPlaces()));
+	}
+
+	/**
+	 * Construct compact representation of a complete prefix unfolding, where transitions and places of the originative net system are indexed in the given order.
+	 *
+	 * @param cpu Complete prefix unfolding.
+	 * @param transitions All transitions of the originative net system.
+	 * @param places All places of the originative net system.
+	 */
+	public <BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>>
+			CompactCompletePrefixUnfolding(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, List<T> transitions, List<P> places) {
+		this.sys = cpu.getOriginativeNetSystem();
+		this.transitions = transitions;
+		this.places = places;
+
+		Map<T,Integer> t2i = new HashMap<T,Integer>();
+		for (int i=0; i<this.transitions.size(); i++) t2i.put(this.transitions.get(i),i);
+		Map<P,Integer> p2i = new HashMap<P,Integer>();
+		for (int i=0; i<this.places.size(); i++) p2i.put(this.places.get(i),i);
+
+		// events and conditions are compared structurally, hence identity maps are used for indexing
+		List<E> es = cpu.getLog();
+		Map<E,Integer> e2i = new IdentityHashMap<E,Integer>();
+		for (int i=0; i<es.size(); i++) e2i.put(es.get(i),i);
+
+		List<C> cs = new ArrayList<C>(cpu.getInitialCut());
+		for (E e : es) cs.addAll(e.getPostConditions());
+		Map<C,Integer> c2i = new IdentityHashMap<C,Integer>();
+		for (int i=0; i<cs.size(); i++) c2i.put(cs.get(i),i);
+
+		int n = es.size();
+		this.evTransition = new int[n];
+		this.evPreOffset = new int[n+1];
+		this.evPostOffset = new int[n+1];
+		this.evCorr = new int[n];
+
+		int pre = 0, post = 0;
+		for (int i=0; i<n; i++) {
+			pre += es.get(i).getPreConditions().size();
+			post += es.get(i).getPostConditions().size();
+			this.evPreOffset[i+1] = pre;
+			this.evPostOffset[i+1] = post;
+		}
+		this.evPre = new int[pre];
+		this.evPost = new int[post];
+
+		int m = cs.size();
+		this.condPlace = new int[m];
+		this.condPreEvent = new int[m];
+
+		for (int i=0; i<m; i++) {
+			C c = cs.get(i);
+			this.condPlace[i] = p2i.get(c.getPlace());
+			this.condPreEvent[i] = c.getPreEvent()==null ? -1 : e2i.get(c.getPreEvent());
+		}
+
+		for (int i=0; i<n; i++) {
+			E e = es.get(i);
+			this.evTransition[i] = t2i.get(e.getTransition());
+			E corr = cpu.getCorrespondingEvent(e);
+			this.evCorr[i] = corr==null ? -1 : e2i.get(corr);
+
+			int j = this.evPreOffset[i];
+			for (C c : e.getPreConditions())
+				this.evPre[j++] = c2i.get(c);
+			j = this.evPostOffset[i];
+			for (C c : e.getPostConditions())
+				this.evPost[j++] = c2i.get(c);
+		}
+
+		this.index();
+	}
+
+	/**
+	 * Compute post-events of conditions and local configurations of events from the remaining arrays.
+	 */
+	private void index() {
+		int n = this.evTransition.length;
+		int m = this.condPlace.length;
+
+		this.condPostOffset = new int[m+1];
+		this.condPost = new int[this.evPre.length];
+		for (int j=0; j<this.evPre.length; j++)
+			this.condPostOffset[this.evPre[j]+1]++;
+		for (int i=0; i<m; i++)
+			this.condPostOffset[i+1] += this.condPostOffset[i];
+		int[] next = new int[m];
+		for (int i=0; i<m; i++) next[i] = this.condPostOffset[i];
+		for (int i=0; i<n; i++)
+			for (int j=this.evPreOffset[i]; j<this.evPreOffset[i+1]; j++)
+				this.condPost[next[this.evPre[j]]++] = i;
+
+		// local configuration of an event is the event together with local configurations of pre-events of its pre-conditions;
+		// events in conflict with the local configuration are collected in the same way
+		this.evLC = new BitSet[n];
+		this.evConflict = new BitSet[n];
+		for (int i=0; i<n; i++) {
+			BitSet lc = new BitSet(i+1);
+			BitSet conflict = new BitSet();
+			for (int j=this.evPreOffset[i]; j<this.evPreOffset[i+1]; j++) {
+				int c = this.evPre[j];
+				int f = this.condPreEvent[c];
+				if (f>=0) {
+					lc.or(this.evLC[f]);
+					conflict.or(this.evConflict[f]);
+				}
+				for (int k=this.condPostOffset[c]; k<this.condPostOffset[c+1]; k++)
+					if (this.condPost[k]!=i) conflict.set(this.condPost[k]);
+			}
+			lc.set(i);
+			this.evLC[i] = lc;
+			this.evConflict[i] = conflict;
+		}
+	}
+
+	/**
+	 * Get a copy of this unfolding for another (structurally identical) net system; arrays are shared.
+	 *
+	 * @param sys Net system.
+	 * @param transitions Transitions of the given net system indexed in the same way as transitions of this unfolding.
+	 * @param places Places of the given net system indexed in the same way as places of this unfolding.
+	 * @return Unfolding whose events and conditions refer to nodes of the given net system.
+	 */
+	CompactCompletePrefixUnfolding<F,N,P,T,M> bind(INetSystem<F,N,P,T,M> sys, List<T> transitions, List<P> places) {
+		CompactCompletePrefixUnfolding<F,N,P,T,M> result = new CompactCompletePrefixUnfolding<F,N,P,T,M>();
+		result.sys = sys;
+		result.transitions = transitions;
+		result.places = places;
+		result.evTransition = this.evTransition;
+		result.evPreOffset = this.evPreOffset;
+		result.evPre = this.evPre;
+		result.evPostOffset = this.evPostOffset;
+		result.evPost = this.evPost;
+		result.evCorr = this.evCorr;
+		result.evLC = this.evLC;
+		result.evConflict = this.evConflict;
+		result.condPlace = this.condPlace;
+		result.condPreEvent = this.condPreEvent;
+		result.condPostOffset = this.condPostOffset;
+		result.condPost = this.condPost;
+		return result;
+	}
+
+	// identifies the binary form of compact unfoldings (and its version)
+	private static final int MAGIC = 0x4A435055;
+	private static final int VERSION = 1;
+
+	/**
+	 * Write this unfolding in a compact binary form.<br/><br/>
+	 *
+	 * Only events, conditions and cutoffs are written (as variable-length integers);
+	 * post-events of conditions and local configurations are recomputed when reading.
+	 *
+	 * @param out Output to write to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		writeInt(out, this.transitions.size());
+		writeInt(out, this.places.size());
+
+		int n = this.evTransition.length;
+		int m = this.condPlace.length;
+		writeInt(out, n);
+		writeInt(out, m);
+
+		for (int i=0; i<m; i++) {
+			writeInt(out, this.condPlace[i]);
+			writeInt(out, this.condPreEvent[i]+1);
+		}
+
+		for (int i=0; i<n; i++) {
+			writeInt(out, this.evTransition[i]);
+			writeInt(out, this.evCorr[i]+1);
+			writeInt(out, this.evPreOffset[i+1]-this.evPreOffset[i]);
+			for (int j=this.evPreOffset[i]; j<this.evPreOffset[i+1]; j++)
+				writeInt(out, this.evPre[j]);
+			writeInt(out, this.evPostOffset[i+1]-this.evPostOffset[i]);
+			for (int j=this.evPostOffset[i]; j<this.evPostOffset[i+1]; j++)
+				writeInt(out, this.evPost[j]);
+		}
+	}
+
+	/**
+	 * Read an unfolding written by {@link #write(DataOutput)}.
+	 *
+	 * @param in Input to read from.
+	 * @param sys Originative net system.
+	 * @param transitions Transitions of the net system indexed in the same way as when the unfolding was written.
+	 * @param places Places of the net system indexed in the same way as when the unfolding was written.
+	 * @return Unfolding.
+	 * @throws IOException if an I/O error occurs or the input does not describe an unfolding of the given net system.
+	 */
+	public static <F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>>
+			CompactCompletePrefixUnfolding<F,N,P,T,M> read(DataInput in, INetSystem<F,N,P,T,M> sys, List<T> transitions, List<P> places) throws IOException {
+		if (in.readInt()!=MAGIC) throw new IOException("Not a compact complete prefix unfolding!");
+		if (in.readInt()!=VERSION) throw new IOException("Unsupported version of compact complete prefix unfolding!");
+		if (readInt(in)!=transitions.size() || readInt(in)!=places.size())
+			throw new IOException("Compact complete prefix unfolding does not fit the net system!");
+
+		CompactCompletePrefixUnfolding<F,N,P,T,M> result = new CompactCompletePrefixUnfolding<F,N,P,T,M>();
+		result.sys = sys;
+		result.transitions = transitions;
+		result.places = places;
+
+		int n = readInt(in);
+		int m = readInt(in);
+		result.condPlace = new int[m];
+		result.condPreEvent = new int[m];
+		for (int i=0; i<m; i++) {
+			result.condPlace[i] = readInt(in);
+			result.condPreEvent[i] = readInt(in)-1;
+		}
+
+		result.evTransition = new int[n];
+		result.evCorr = new int[n];
+		result.evPreOffset = new int[n+1];
+		result.evPostOffset = new int[n+1];
+		int[] pre = new int[n];
+		int[] post = new int[n];
+		int np = 0, nq = 0;
+		for (int i=0; i<n; i++) {
+			result.evTransition[i] = readInt(in);
+			result.evCorr[i] = readInt(in)-1;
+			int k = readInt(in);
+			if (np+k>pre.length) pre = Arrays.copyOf(pre, Math.max(2*pre.length, np+k));
+			for (int j=0; j<k; j++) pre[np++] = readInt(in);
+			result.evPreOffset[i+1] = np;
+			k = readInt(in);
+			if (nq+k>post.length) post = Arrays.copyOf(post, Math.max(2*post.length, nq+k));
+			for (int j=0; j<k; j++) post[nq++] = readInt(in);
+			result.evPostOffset[i+1] = nq;
+		}
+		result.evPre = Arrays.copyOf(pre, np);
+		result.evPost = Arrays.copyOf(post, nq);
+
+		result.index();
+		return result;
+	}
+
+	private static void writeInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readInt(DataInput in) throws IOException {
+		int value = 0;
+		for (int shift=0; shift<32; shift+=7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed compact complete prefix unfolding!");
+	}
+
+	/**
+	 * Get originative net system of this unfolding.
+	 *
+	 * @return Originative net system.
+	 */
+	public INetSystem<F,N,P,T,M> getOriginativeNetSystem() {
+		return this.sys;
+	}
+
+	/**
+	 * @return Number of events of this unfolding.
+	 */
+	public int countEvents() {
+		return this.evTransition.length;
+	}
+
+	/**
+	 * @return Number of conditions of this unfolding.
+	 */
+	public int countConditions() {
+		return this.condPlace.length;
+	}
+
+	/**
+	 * Get view of an event.
+	 *
+	 * @param id Identifier of an event, i.e., an integer between 0 (inclusive) and {@link #countEvents()} (exclusive).
+	 * @return View of the event with the given identifier.
+	 */
+	public EventView getEvent(int id) {
+		return new EventView(id);
+	}
+
+	/**
+	 * Get view of a condition.
+	 *
+	 * @param id Identifier of a condition, i.e., an integer between 0 (inclusive) and {@link #countConditions()} (exclusive).
+	 * @return View of the condition with the given identifier.
+	 */
+	public ConditionView getCondition(int id) {
+		return new ConditionView(id);
+	}
+
+	/**
+	 * @return Views of all events of this unfolding (in the order in which events were appended to the unfolding).
+	 */
+	public List<EventView> getEvents() {
+		return new AbstractList<EventView>() {
+			@Override
+			public EventView get(int index) {
+				return new EventView(index);
+			}
+
+			@Override
+			public int size() {
+				return evTransition.length;
+			}
+		};
+	}
+
+	/**
+	 * @return Views of all conditions of this unfolding.
+	 */
+	public List<ConditionView> getConditions() {
+		return new AbstractList<ConditionView>() {
+			@Override
+			public ConditionView get(int index) {
+				return new ConditionView(index);
+			}
+
+			@Override
+			public int size() {
+				return condPlace.length;
+			}
+		};
+	}
+
+	/**
+	 * @return Views of conditions of the initial cut of this unfolding.
+	 */
+	public List<ConditionView> getInitialCut() {
+		List<ConditionView> result = new ArrayList<ConditionView>();
+		for (int i=0; i<this.condPreEvent.length; i++)
+			if (this.condPreEvent[i]<0)
+				result.add(new ConditionView(i));
+
+		return result;
+	}
+
+	/**
+	 * @return Views of cutoff events of this unfolding.
+	 */
+	public List<EventView> getCutoffEvents() {
+		List<EventView> result = new ArrayList<EventView>();
+		for (int i=0; i<this.evCorr.length; i++)
+			if (this.evCorr[i]>=0)
+				result.add(new EventView(i));
+
+		return result;
+	}
+
+	/**
+	 * Check if one event causally precedes another event.
+	 *
+	 * @param e1 Identifier of an event.
+	 * @param e2 Identifier of an event.
+	 * @return <tt>true</tt> if 'e1' causally precedes 'e2'; otherwise <tt>false</tt>.
+	 */
+	public boolean areCausal(int e1, int e2) {
+		return e1!=e2 && this.evLC[e2].get(e1);
+	}
+
+	/**
+	 * Check if two events are in conflict, i.e., their local configurations contain distinct events that share a pre-condition.
+	 *
+	 * @param e1 Identifier of an event.
+	 * @param e2 Identifier of an event.
+	 * @return <tt>true</tt> if 'e1' and 'e2' are in conflict; otherwise <tt>false</tt>.
+	 */
+	public boolean areInConflict(int e1, int e2) {
+		return this.evConflict[e1].intersects(this.evLC[e2]);
+	}
+
+	/**
+	 * Check if two distinct events are concurrent, i.e., are neither causally related nor in conflict.
+	 *
+	 * @param e1 Identifier of an event.
+	 * @param e2 Identifier of an event.
+	 * @return <tt>true</tt> if 'e1' and 'e2' are concurrent; otherwise <tt>false</tt>.
+	 */
+	public boolean areConcurrent(int e1, int e2) {
+		if (e1==e2) return false;
+		return !this.areCausal(e1,e2) && !this.areCausal(e2,e1) && !this.areInConflict(e1,e2);
+	}
+
+	/**
+	 * Lightweight view of an event of a compact complete prefix unfolding.
+	 */
+	public final class EventView {
+		private final int id;
+
+		private EventView(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * @return Identifier of this event.
+		 */
+		public int getId() {
+			return this.id;
+		}
+
+		/**
+		 * @return Transition whose occurrence is represented by this event.
+		 */
+		public T getTransition() {
+			return transitions.get(evTransition[this.id]);
+		}
+
+		/**
+		 * @return Views of pre-conditions of this event.
+		 */
+		public List<ConditionView> getPreConditions() {
+			return getConditions(evPre, evPreOffset[this.id], evPreOffset[this.id+1]);
+		}
+
+		/**
+		 * @return Views of post-conditions of this event.
+		 */
+		public List<ConditionView> getPostConditions() {
+			return getConditions(evPost, evPostOffset[this.id], evPostOffset[this.id+1]);
+		}
+
+		/**
+		 * @return Local configuration of this event as a set of identifiers of events (a copy).
+		 */
+		public BitSet getLocalConfiguration() {
+			return (BitSet) evLC[this.id].clone();
+		}
+
+		/**
+		 * @return Size of the local configuration of this event.
+		 */
+		public int getLocalConfigurationSize() {
+			return evLC[this.id].cardinality();
+		}
+
+		/**
+		 * @return <tt>true</tt> if this event is a cutoff event; otherwise <tt>false</tt>.
+		 */
+		public boolean isCutoff() {
+			return evCorr[this.id]>=0;
+		}
+
+		/**
+		 * @return View of the event that corresponds to this cutoff event, or <tt>null</tt> if this event is not a cutoff event.
+		 */
+		public EventView getCorrespondingEvent() {
+			return evCorr[this.id]<0 ? null : new EventView(evCorr[this.id]);
+		}
+
+		@Override
+		public boolean equals(Object that) {
+			if (!(that instanceof CompactCompletePrefixUnfolding.EventView)) return false;
+			@SuppressWarnings("unchecked")
+			EventView e = (EventView) that;
+			return this.id==e.id && this.unfolding()==e.unfolding();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.id;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s-%s",this.getTransition().getName(),this.id);
+		}
+
+		private CompactCompletePrefixUnfolding<F,N,P,T,M> unfolding() {
+			return CompactCompletePrefixUnfolding.this;
+		}
+	}
+
+	/**
+	 * Lightweight view of a condition of a compact complete prefix unfolding.
+	 */
+	public final class ConditionView {
+		private final int id;
+
+		private ConditionView(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * @return Identifier of this condition.
+		 */
+		public int getId() {
+			return this.id;
+		}
+
+		/**
+		 * @return Place that corresponds to this condition.
+		 */
+		public P getPlace() {
+			return places.get(condPlace[this.id]);
+		}
+
+		/**
+		 * @return View of the pre-event of this condition, or <tt>null</tt> if this condition belongs to the initial cut.
+		 */
+		public EventView getPreEvent() {
+			return condPreEvent[this.id]<0 ? null : new EventView(condPreEvent[this.id]);
+		}
+
+		/**
+		 * @return Views of events that have this condition as a pre-condition.
+		 */
+		public List<EventView> getPostEvents() {
+			List<EventView> result = new ArrayList<EventView>();
+			for (int i=condPostOffset[this.id]; i<condPostOffset[this.id+1]; i++)
+				result.add(new EventView(condPost[i]));
+
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object that) {
+			if (!(that instanceof CompactCompletePrefixUnfolding.ConditionView)) return false;
+			@SuppressWarnings("unchecked")
+			ConditionView c = (ConditionView) that;
+			return this.id==c.id && this.unfolding()==c.unfolding();
+		}
+
+		@Override
+		public int hashCode() {
+			return this.id;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s-%s",this.getPlace().getName(),this.id);
+		}
+
+		private CompactCompletePrefixUnfolding<F,N,P,T,M> unfolding() {
+			return CompactCompletePrefixUnfolding.this;
+		}
+	}
+
+	private List<ConditionView> getConditions(int[] cs, int from, int to) {
+		List<ConditionView> result = new ArrayList<ConditionView>(to-from);
+		for (int i=from; i<to; i++)
+			result.add(new ConditionView(cs[i]));
+
+		return result;
+	}
+}
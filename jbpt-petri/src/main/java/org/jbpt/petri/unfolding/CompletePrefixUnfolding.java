@@ -26,4 +26,8 @@ public class CompletePrefixUnfolding extends
 		super(sys, setup);
 	}
 	
+	public CompletePrefixUnfolding(CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cpu, CompletePrefixUnfoldingSetup setup) {
+		super(cpu, setup);
+	}
+	
 }
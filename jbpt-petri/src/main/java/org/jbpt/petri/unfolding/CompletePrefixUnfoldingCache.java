@@ -0,0 +1,414 @@
+package org.jbpt.petri.unfolding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Cache of complete prefix unfoldings keyed by fingerprints of net systems.<br/><br/>
+ *
+ * A fingerprint is a structural hash of a net system, its initial marking, the type of the unfolding and the {@link CompletePrefixUnfoldingSetup}.
+ * Hence, an unfolding computed for one net system is reused for every structurally identical net system (with the same names of nodes).
+ * Unfoldings are cached in their {@link CompactCompletePrefixUnfolding} representation; recently used unfoldings are kept in memory,
+ * the total number of events and conditions of unfoldings kept in memory is bounded by the capacity of the cache.
+ * Optionally, unfoldings are persisted in a compact binary form in a directory and are reloaded from there once evicted from memory.<br/><br/>
+ *
+ * Net systems whose nodes cannot be ordered canonically (nodes with the same names that cannot be distinguished by the structure of the net) are not cached.
+ * Unfoldings whose construction was stopped by a listener are not cached either.
+ */
+public class CompletePrefixUnfoldingCache<F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	// suffix of names of files with persisted unfoldings
+	private static final String SUFFIX = ".cpu";
+
+	// maximal total number of events and conditions of unfoldings kept in memory
+	private int capacity = 0;
+	// total number of events and conditions of unfoldings kept in memory
+	private int size = 0;
+	// directory to persist unfoldings in, or null
+	private File directory = null;
+	// fingerprint -> unfolding (in access order)
+	private LinkedHashMap<String,Entry> entries = new LinkedHashMap<String,Entry>(16,0.75f,true);
+
+	private int hits = 0;
+	private int loads = 0;
+	private int misses = 0;
+
+	/**
+	 * Construct in-memory cache of complete prefix unfoldings.
+	 *
+	 * @param capacity Maximal total number of events and conditions of unfoldings kept in memory.
+	 */
+	public CompletePrefixUnfoldingCache(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * Construct cache of complete prefix unfoldings that persists unfoldings in a directory.
+	 *
+	 * @param capacity Maximal total number of events and conditions of unfoldings kept in memory.
+	 * @param directory Directory to persist unfoldings in, <tt>null</tt> to keep unfoldings only in memory.
+	 */
+	public CompletePrefixUnfoldingCache(int capacity, File directory) {
+		if (capacity<0) throw new IllegalArgumentException("Capacity of the cache must not be negative!");
+		this.capacity = capacity;
+		this.directory = directory;
+		if (this.directory!=null) this.directory.mkdirs();
+	}
+
+	/**
+	 * Get cached complete prefix unfolding of a net system.
+	 *
+	 * @param type Type of the unfolding, e.g., {@link CompletePrefixUnfolding}.
+	 * @param sys Net system.
+	 * @param setup Setup of the unfolding.
+	 * @return Compact complete prefix unfolding of the given net system, or <tt>null</tt> if no such unfolding is cached.
+	 */
+	public synchronized CompactCompletePrefixUnfolding<F,N,P,T,M> get(Class<?> type, INetSystem<F,N,P,T,M> sys, CompletePrefixUnfoldingSetup setup) {
+		Canonization c = new Canonization(sys);
+		String fingerprint = this.getFingerprint(type, c, setup);
+		if (fingerprint==null) return null;
+
+		Entry entry = this.entries.get(fingerprint);
+		if (entry!=null) {
+			this.hits++;
+			return entry.cpu.bind(sys, c.transitions, c.places);
+		}
+
+		CompactCompletePrefixUnfolding<F,N,P,T,M> cpu = this.load(fingerprint, sys, c);
+		if (cpu==null) {
+			this.misses++;
+			return null;
+		}
+
+		this.loads++;
+		this.remember(fingerprint, cpu);
+		return cpu;
+	}
+
+	/**
+	 * Put complete prefix unfolding of a net system into this cache.
+	 * If this cache persists unfoldings, the unfolding is also written to its directory.
+	 *
+	 * @param sys Net system.
+	 * @param setup Setup that was used to construct the unfolding.
+	 * @param cpu Complete prefix unfolding of the given net system.
+	 * @return Compact representation of the given unfolding.
+	 * @throws IOException if the unfolding cannot be persisted; the unfolding is kept in memory nevertheless.
+	 */
+	public synchronized <BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>>
+			CompactCompletePrefixUnfolding<F,N,P,T,M> put(INetSystem<F,N,P,T,M> sys, CompletePrefixUnfoldingSetup setup, ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu) throws IOException {
+		Canonization c = new Canonization(sys);
+		CompactCompletePrefixUnfolding<F,N,P,T,M> result = new CompactCompletePrefixUnfolding<F,N,P,T,M>(cpu, c.transitions, c.places);
+
+		boolean stopped = cpu instanceof AbstractCompletePrefixUnfolding && ((AbstractCompletePrefixUnfolding<?,?,?,?,?,?,?,?>) cpu).isStopped();
+		if (stopped || !setup.LISTENERS.isEmpty()) return result;
+
+		String fingerprint = this.getFingerprint(cpu.getClass(), c, setup);
+		if (fingerprint==null) return result;
+
+		this.remember(fingerprint, result);
+		this.store(fingerprint, result);
+
+		return result;
+	}
+
+	/**
+	 * Get fingerprint of a net system.
+	 *
+	 * @param type Type of the unfolding, e.g., {@link CompletePrefixUnfolding}.
+	 * @param sys Net system.
+	 * @param setup Setup of the unfolding.
+	 * @return Fingerprint (hexadecimal SHA-256 digest), or <tt>null</tt> if nodes of the given net system cannot be ordered canonically.
+	 */
+	public String getFingerprint(Class<?> type, INetSystem<F,N,P,T,M> sys, CompletePrefixUnfoldingSetup setup) {
+		return this.getFingerprint(type, new Canonization(sys), setup);
+	}
+
+	/**
+	 * Remove all unfoldings from memory (persisted unfoldings are kept).
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+		this.size = 0;
+	}
+
+	/**
+	 * Get number of unfoldings kept in memory.
+	 *
+	 * @return Number of unfoldings kept in memory.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return Number of requests served from memory.
+	 */
+	public synchronized int getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * @return Number of requests served from disk.
+	 */
+	public synchronized int getLoads() {
+		return this.loads;
+	}
+
+	/**
+	 * @return Number of requests that could not be served.
+	 */
+	public synchronized int getMisses() {
+		return this.misses;
+	}
+
+	private void remember(String fingerprint, CompactCompletePrefixUnfolding<F,N,P,T,M> cpu) {
+		Entry entry = new Entry(cpu);
+		Entry old = this.entries.put(fingerprint, entry);
+		if (old!=null) this.size -= old.size;
+		this.size += entry.size;
+
+		// evict least recently used unfoldings
+		Iterator<Entry> i = this.entries.values().iterator();
+		while (this.size>this.capacity && i.hasNext()) {
+			this.size -= i.next().size;
+			i.remove();
+		}
+	}
+
+	private void store(String fingerprint, CompactCompletePrefixUnfolding<F,N,P,T,M> cpu) throws IOException {
+		if (this.directory==null) return;
+
+		File file = new File(this.directory, fingerprint+SUFFIX);
+		File tmp = null;
+		try {
+			// write to a temporary file first, so that readers never see partially written unfoldings
+			tmp = File.createTempFile(fingerprint, SUFFIX, this.directory);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+			try {
+				cpu.write(out);
+			}
+			finally {
+				out.close();
+			}
+
+			if (!tmp.renameTo(file)) {
+				file.delete();
+				if (!tmp.renameTo(file))
+					throw new IOException("Cannot rename " + tmp + " to " + file);
+			}
+		}
+		finally {
+			if (tmp!=null && tmp.exists()) tmp.delete();
+		}
+	}
+
+	private CompactCompletePrefixUnfolding<F,N,P,T,M> load(String fingerprint, INetSystem<F,N,P,T,M> sys, Canonization c) {
+		if (this.directory==null) return null;
+
+		File file = new File(this.directory, fingerprint+SUFFIX);
+		if (!file.isFile()) return null;
+
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				return CompactCompletePrefixUnfolding.read(in, sys, c.transitions, c.places);
+			}
+			finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			// unreadable unfoldings are treated as missing
+			return null;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	private String getFingerprint(Class<?> type, Canonization c, CompletePrefixUnfoldingSetup setup) {
+		if (!c.isCanonical()) return null;
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(type.getName()).append('\n');
+		sb.append(setup.MAX_EVENTS).append(',').append(setup.MAX_BOUND).append(',');
+		sb.append(setup.ADEQUATE_ORDER).append(',').append(setup.SAFE_OPTIMIZATION).append('\n');
+
+		for (P p : c.places)
+			append(sb, p.getName()).append(c.sys.getTokens(p)).append('\n');
+		for (T t : c.transitions)
+			append(sb, t.getName()).append('\n');
+
+		List<String> flow = new ArrayList<String>();
+		for (F f : c.sys.getFlow()) {
+			if (f.getSource() instanceof IPlace)
+				flow.add("p"+c.p2i.get(f.getSource())+">t"+c.t2i.get(f.getTarget()));
+			else
+				flow.add("t"+c.t2i.get(f.getSource())+">p"+c.p2i.get(f.getTarget()));
+		}
+		Collections.sort(flow);
+		for (String f : flow) sb.append(f).append('\n');
+
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes("UTF-8"));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest) hex.append(String.format("%02x", b));
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static StringBuilder append(StringBuilder sb, String s) {
+		if (s==null) s = "";
+		return sb.append(s.length()).append(':').append(s);
+	}
+
+	/**
+	 * Canonical order of places and transitions of a net system.<br/><br/>
+	 *
+	 * Nodes are labeled by their names (and places also by their initial tokens);
+	 * labels are refined by labels of presets and postsets of nodes until the number of distinct labels stabilizes.
+	 * Nodes are then ordered by their labels.
+	 */
+	private class Canonization {
+		INetSystem<F,N,P,T,M> sys = null;
+		List<P> places = null;
+		List<T> transitions = null;
+		Map<N,Integer> p2i = new HashMap<N,Integer>();
+		Map<N,Integer> t2i = new HashMap<N,Integer>();
+		// number of distinct labels
+		int labels = 0;
+
+		Canonization(INetSystem<F,N,P,T,M> sys) {
+			this.sys = sys;
+			List<N> nodes = new ArrayList<N>(sys.getNodes());
+			Map<N,Integer> n2i = new HashMap<N,Integer>();
+			for (int i=0; i<nodes.size(); i++) n2i.put(nodes.get(i),i);
+
+			int[][] pre = new int[nodes.size()][];
+			int[][] post = new int[nodes.size()][];
+			String[] label = new String[nodes.size()];
+			for (int i=0; i<nodes.size(); i++) {
+				N n = nodes.get(i);
+				pre[i] = indexes(sys.getPreset(n), n2i);
+				post[i] = indexes(sys.getPostset(n), n2i);
+				StringBuilder sb = new StringBuilder();
+				if (n instanceof IPlace) {
+					sb.append('p');
+					@SuppressWarnings("unchecked")
+					P p = (P) n;
+					append(sb, n.getName()).append(sys.getTokens(p));
+				}
+				else
+					append(sb.append('t'), n.getName());
+				label[i] = sb.toString();
+			}
+
+			int[] rank = this.rank(label);
+			while (this.labels<nodes.size()) {
+				int before = this.labels;
+				for (int i=0; i<nodes.size(); i++)
+					label[i] = rank[i] + ":" + ranks(pre[i], rank) + ":" + ranks(post[i], rank);
+				rank = this.rank(label);
+				if (this.labels==before) break;
+			}
+
+			// order nodes by their labels
+			Integer[] order = new Integer[nodes.size()];
+			for (int i=0; i<order.length; i++) order[i] = i;
+			final int[] r = rank;
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i, Integer j) {
+					return r[i]<r[j] ? -1 : (r[i]==r[j] ? 0 : 1);
+				}
+			});
+
+			this.places = new ArrayList<P>();
+			this.transitions = new ArrayList<T>();
+			for (Integer i : order) {
+				N n = nodes.get(i);
+				if (n instanceof IPlace) {
+					this.p2i.put(n, this.places.size());
+					@SuppressWarnings("unchecked")
+					P p = (P) n;
+					this.places.add(p);
+				}
+				else {
+					this.t2i.put(n, this.transitions.size());
+					@SuppressWarnings("unchecked")
+					T t = (T) n;
+					this.transitions.add(t);
+				}
+			}
+		}
+
+		boolean isCanonical() {
+			return this.labels==this.places.size()+this.transitions.size();
+		}
+
+		private int[] rank(String[] label) {
+			List<String> sorted = new ArrayList<String>(new TreeSet<String>(Arrays.asList(label)));
+			Map<String,Integer> l2r = new HashMap<String,Integer>();
+			for (int i=0; i<sorted.size(); i++) l2r.put(sorted.get(i),i);
+			this.labels = sorted.size();
+
+			int[] result = new int[label.length];
+			for (int i=0; i<label.length; i++) result[i] = l2r.get(label[i]);
+			return result;
+		}
+
+		private int[] indexes(Set<N> nodes, Map<N,Integer> n2i) {
+			int[] result = new int[nodes.size()];
+			int i = 0;
+			for (N n : nodes) result[i++] = n2i.get(n);
+			return result;
+		}
+
+		private String ranks(int[] nodes, int[] rank) {
+			int[] result = new int[nodes.length];
+			for (int i=0; i<nodes.length; i++) result[i] = rank[nodes[i]];
+			Arrays.sort(result);
+			return Arrays.toString(result);
+		}
+	}
+
+	private class Entry {
+		CompactCompletePrefixUnfolding<F,N,P,T,M> cpu = null;
+		int size = 0;
+
+		Entry(CompactCompletePrefixUnfolding<F,N,P,T,M> cpu) {
+			this.cpu = cpu;
+			this.size = cpu.countEvents()+cpu.countConditions();
+		}
+	}
+}
@@ -1,5 +1,9 @@
 package org.jbpt.petri.unfolding;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import org.jbpt.petri.unfolding.order.AdequateOrderType;
 
 /**
@@ -32,4 +36,28 @@ public class CompletePrefixUnfoldingSetup {
 	 * @assumption The originative system is safe.
 	 */
 	public boolean SAFE_OPTIMIZATION = true;
+	
+	/**
+	 * Use THREADS threads to construct the branching process (construction is sequential if set to 1, which is the default).
+	 * 
+	 * Possible extensions and their local configurations are computed concurrently, while events are appended 
+	 * in the sequence prescribed by the adequate order. Hence, the resulting branching process does not depend on THREADS.
+	 * The work of every step is split into at most THREADS tasks; steps that yield fewer than two transitions or events to process run sequentially.
+	 * Parallel construction pays off only for net systems where events enable many transitions, e.g., wide forks.
+	 */
+	public int THREADS = 1;
+	
+	/**
+	 * Use this executor to construct the branching process in parallel (takes precedence over THREADS).
+	 * 
+	 * If set to <tt>null</tt> and THREADS is greater than 1, a thread pool is created for and shut down after the construction.
+	 */
+	public ExecutorService EXECUTOR = null;
+	
+	/**
+	 * Notify these listeners during construction of the branching process; every listener can stop the construction.
+	 * 
+	 * Listeners must be parameterized with the same types as the constructed branching process.
+	 */
+	public List<IUnfoldingListener<?,?,?,?,?,?,?,?>> LISTENERS = new ArrayList<IUnfoldingListener<?,?,?,?,?,?,?,?>>();
 }
@@ -0,0 +1,37 @@
+package org.jbpt.petri.unfolding;
+
+import java.util.Collection;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+
+/**
+ * An implementation of a complete prefix unfolding of a net system directed towards a target.<br/><br/>
+ *
+ * @see {@link AbstractDirectedCompletePrefixUnfolding} for details.
+ */
+public class DirectedCompletePrefixUnfolding extends
+		AbstractDirectedCompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking>
+{
+
+	public DirectedCompletePrefixUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys, Collection<Place> places) {
+		super(sys, places);
+	}
+
+	public DirectedCompletePrefixUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys, Collection<Place> places, CompletePrefixUnfoldingSetup setup) {
+		super(sys, places, setup);
+	}
+
+	public DirectedCompletePrefixUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys, Marking marking) {
+		super(sys, marking);
+	}
+
+	public DirectedCompletePrefixUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys, Marking marking, CompletePrefixUnfoldingSetup setup) {
+		super(sys, marking, setup);
+	}
+
+}
@@ -47,6 +47,8 @@ public interface ICompletePrefixUnfolding<BPN extends IBPNode<N>, C extends ICon
 	 */
 	public List<T> getTotalOrderOfTransitions();
 	
+	public int getRankOfTransition(T transition);
+	
 	public boolean isHealthyCutoffEvent(E event);
 	
 	public boolean isProper();
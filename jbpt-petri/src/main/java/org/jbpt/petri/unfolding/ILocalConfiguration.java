@@ -23,9 +23,15 @@ public interface ILocalConfiguration<BPN extends IBPNode<N>, C extends IConditio
 	public List<T> getQuasiParikhVector(Collection<E> events);
 
 	public List<Set<E>> getFoataNormalForm();
+	
+	public int[] getRankedQuasiParikhVector();
+	
+	public int[][] getRankedFoataNormalForm();
 
 	public Integer compareTransitions(T transition1, T transition2);
 	
+	public E getEvent();
+
 	public void setEvent(E e);
 	
 	public void setCompletePrefixUnfolding(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpf);
@@ -0,0 +1,49 @@
+package org.jbpt.petri.unfolding;
+
+import java.util.Set;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+
+/**
+ * Interface to a listener that gets notified during construction of a complete prefix unfolding.<br/><br/>
+ *
+ * Every notification returns a flag that tells whether the construction shall continue;
+ * the construction stops as soon as some listener returns <tt>false</tt>.
+ *
+ * @see CompletePrefixUnfoldingSetup#LISTENERS
+ */
+public interface IUnfoldingListener<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>, F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>> {
+
+	/**
+	 * Notify that an event was appended to a complete prefix unfolding (before it is checked for being a cutoff event).
+	 *
+	 * @param cpu Complete prefix unfolding under construction.
+	 * @param event Appended event.
+	 * @return <tt>true</tt> to continue construction; <tt>false</tt> to stop construction.
+	 */
+	public boolean eventAppended(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E event);
+
+	/**
+	 * Notify that a cutoff event was detected.
+	 *
+	 * @param cpu Complete prefix unfolding under construction.
+	 * @param cutoff Cutoff event.
+	 * @param corr Corresponding event of the cutoff event.
+	 * @return <tt>true</tt> to continue construction; <tt>false</tt> to stop construction.
+	 */
+	public boolean cutoffDetected(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E cutoff, E corr);
+
+	/**
+	 * Notify that new possible extensions were computed (before they are added to the set of possible extensions).
+	 *
+	 * @param cpu Complete prefix unfolding under construction.
+	 * @param event Event whose appending resulted in the new possible extensions, or <tt>null</tt> for the possible extensions of the initial branching process.
+	 * @param extensions New possible extensions.
+	 * @return <tt>true</tt> to continue construction; <tt>false</tt> to stop construction.
+	 */
+	public boolean possibleExtensionsUpdated(ICompletePrefixUnfolding<BPN,C,E,F,N,P,T,M> cpu, E event, Set<E> extensions);
+}
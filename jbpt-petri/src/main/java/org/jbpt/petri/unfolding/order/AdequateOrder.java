@@ -21,4 +21,25 @@ public abstract class AdequateOrder<BPN extends IBPNode<N>, C extends ICondition
 	public boolean isTotal() {
 		return false;
 	}
+	
+	/**
+	 * Lexicographically compare two quasi Parikh vectors encoded as sorted arrays of ranks of transitions.
+	 * 
+	 * @param pvec1 A sorted array of ranks of transitions.
+	 * @param pvec2 A sorted array of ranks of transitions.
+	 * @return -1,0,1 if 'pvec1' is smaller, equal, or larger than 'pvec2', respectively.
+	 */
+	protected static int compareQuasiParikhVectors(int[] pvec1, int[] pvec2) {
+		int n = pvec1.length;
+		if (pvec2.length<n) n = pvec2.length;
+		
+		for (int i = 0; i<n; i++) {
+			if (pvec1[i]<pvec2[i]) return -1;
+			if (pvec1[i]>pvec2[i]) return 1;
+		}
+		
+		if (pvec1.length==pvec2.length) return 0;
+		if (pvec1.length<pvec2.length) return -1;
+		return 1;
+	}
 }
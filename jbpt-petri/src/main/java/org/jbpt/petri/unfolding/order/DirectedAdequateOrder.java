@@ -0,0 +1,178 @@
+package org.jbpt.petri.unfolding.order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jbpt.petri.IFlow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.INode;
+import org.jbpt.petri.IPlace;
+import org.jbpt.petri.ITransition;
+import org.jbpt.petri.unfolding.IBPNode;
+import org.jbpt.petri.unfolding.ICondition;
+import org.jbpt.petri.unfolding.IEvent;
+import org.jbpt.petri.unfolding.ILocalConfiguration;
+
+/**
+ * An adequate order which directs construction of a complete prefix unfolding towards an occurrence of a goal transition.<br/><br/>
+ *
+ * Local configurations are compared by their sizes plus estimated distances of their markings to a marking that enables the goal transition,
+ * then by their sizes, and then by a given adequate order. The distance of a marking to a place is the length (number of transitions)
+ * of the shortest path in the net from some marked place to the place; the estimate is the maximal distance to some place in the preset of
+ * the goal transition, or zero if some place in the postset of the goal transition is marked. The goal transition is expected to have
+ * an output place that no other transition is connected to, so that the estimate depends only on the marking.<br/><br/>
+ *
+ * The order is adequate: it is well-founded, it refines the prefix order (an extension by one event increases the size by one and
+ * decreases the estimate by at most one, as the distance of a place is at most one plus the distance of any place in the postset of a
+ * transition in its preset), and it is preserved by finite extensions of local configurations with the same marking (the estimates
+ * of the extended local configurations are equal and their sizes grow by the same number, whereas the given order resolves ties).<br/><br/>
+ *
+ * This order closely follows:
+ * Blai Bonet, Patrik Haslum, Sarah Hickmott, Sylvie Thiebaux: Directed Unfolding of Petri Nets. Transactions on Petri Nets and Other Models of Concurrency (ToPNoC) 1:172-198 (2008).
+ */
+public class DirectedAdequateOrder<BPN extends IBPNode<N>, C extends ICondition<BPN,C,E,F,N,P,T,M>, E extends IEvent<BPN,C,E,F,N,P,T,M>, F extends IFlow<N>, N extends INode, P extends IPlace, T extends ITransition, M extends IMarking<F,N,P,T>>
+	extends AdequateOrder<BPN,C,E,F,N,P,T,M> {
+
+	// distance of markings from which the goal transition cannot get enabled
+	public static final int INFINITY = Integer.MAX_VALUE/2;
+
+	// adequate order to resolve ties
+	private IAdequateOrder<BPN,C,E,F,N,P,T,M> order = null;
+
+	// initial marking (tokens per place)
+	private int[] marking = null;
+	// transition -> indexes of places in its preset/postset
+	private Map<T,int[]> t2pre = new HashMap<T,int[]>();
+	private Map<T,int[]> t2post = new HashMap<T,int[]>();
+	// places in the postset of the goal transition
+	private boolean[] done = null;
+	// place in the preset of the goal transition -> place -> distance
+	private int[][] distance = null;
+	// event -> estimated distance of the marking of its local configuration (entries of discarded events are released)
+	private Map<E,Integer> cache = Collections.synchronizedMap(new WeakHashMap<E,Integer>());
+
+	/**
+	 * Constructor.
+	 *
+	 * @param order Adequate order to resolve ties.
+	 * @param sys Net system.
+	 * @param goal Goal transition of the net system.
+	 */
+	public DirectedAdequateOrder(IAdequateOrder<BPN,C,E,F,N,P,T,M> order, INetSystem<F,N,P,T,M> sys, T goal) {
+		this.order = order;
+		Collection<P> targets = sys.getPreset(goal);
+
+		List<P> places = new ArrayList<P>(sys.getPlaces());
+		Map<P,Integer> p2i = new HashMap<P,Integer>();
+		this.marking = new int[places.size()];
+		for (int i=0; i<places.size(); i++) {
+			p2i.put(places.get(i),i);
+			this.marking[i] = sys.getTokens(places.get(i));
+		}
+
+		for (T t : sys.getTransitions()) {
+			this.t2pre.put(t, indexes(sys.getPreset(t), p2i));
+			this.t2post.put(t, indexes(sys.getPostset(t), p2i));
+		}
+
+		this.done = new boolean[places.size()];
+		for (int i : this.t2post.get(goal))
+			this.done[i] = true;
+
+		// distances to a place are lengths of shortest paths computed by backward breadth-first search
+		this.distance = new int[targets.size()][];
+		int i = 0;
+		for (P target : targets) {
+			int[] d = new int[places.size()];
+			Arrays.fill(d, INFINITY);
+			d[p2i.get(target)] = 0;
+
+			List<P> layer = new ArrayList<P>();
+			layer.add(target);
+			for (int k=1; !layer.isEmpty(); k++) {
+				List<P> next = new ArrayList<P>();
+				for (P p : layer)
+					for (T t : sys.getPreset(p))
+						for (P q : sys.getPreset(t)) {
+							int j = p2i.get(q);
+							if (d[j]!=INFINITY) continue;
+							d[j] = k;
+							next.add(q);
+						}
+				layer = next;
+			}
+
+			this.distance[i++] = d;
+		}
+	}
+
+	@Override
+	public boolean isSmaller(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc1, ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc2) {
+		long f1 = (long) lc1.size() + this.getDistance(lc1);
+		long f2 = (long) lc2.size() + this.getDistance(lc2);
+		if (f1!=f2) return f1<f2;
+		if (lc1.size()!=lc2.size()) return lc1.size()<lc2.size();
+
+		return this.order.isSmaller(lc1,lc2);
+	}
+
+	@Override
+	public boolean isTotal() {
+		return this.order.isTotal();
+	}
+
+	/**
+	 * Get estimated distance of the marking of a local configuration to a marking that enables the goal transition.
+	 *
+	 * @param lc Local configuration.
+	 * @return Estimated number of transitions that must occur to enable the goal transition, or {@link #INFINITY} if the goal transition cannot get enabled.
+	 */
+	public int getDistance(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc) {
+		E event = lc.getEvent();
+		if (event==null) return this.computeDistance(lc);
+
+		Integer result = this.cache.get(event);
+		if (result==null) {
+			result = this.computeDistance(lc);
+			this.cache.put(event, result);
+		}
+
+		return result;
+	}
+
+	private int computeDistance(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc) {
+		// marking equation; local configurations of possible extensions have no cuts yet
+		int[] m = this.marking.clone();
+		for (E e : lc) {
+			for (int i : this.t2pre.get(e.getTransition())) m[i]--;
+			for (int i : this.t2post.get(e.getTransition())) m[i]++;
+		}
+
+		int result = 0;
+		for (int[] d : this.distance) {
+			int min = INFINITY;
+			for (int i=0; i<m.length; i++) {
+				if (m[i]<=0) continue;
+				if (this.done[i]) return 0;
+				if (d[i]<min) min = d[i];
+			}
+			if (min>result) result = min;
+		}
+
+		return result;
+	}
+
+	private static <P> int[] indexes(Collection<P> places, Map<P,Integer> p2i) {
+		int[] result = new int[places.size()];
+		int i = 0;
+		for (P p : places) result[i++] = p2i.get(p);
+		return result;
+	}
+}
@@ -1,7 +1,5 @@
 package org.jbpt.petri.unfolding.order;
 
-import java.util.List;
-
 import org.jbpt.petri.IFlow;
 import org.jbpt.petri.IMarking;
 import org.jbpt.petri.INode;
@@ -27,17 +25,8 @@ public class EsparzaAdequateOrderForArbitrarySystems<BPN extends IBPNode<N>, C e
 	@Override
 	public boolean isSmaller(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc1, ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc2) {
 		if (lc1.size() < lc2.size()) return true;
-		else if (lc1.size() == lc2.size()) {
-			List<T> pvec1 = lc1.getQuasiParikhVector();
-			List<T> pvec2 = lc2.getQuasiParikhVector();
-			
-			for (int i = 0; i<pvec1.size(); i++) {
-				Integer comp = lc1.compareTransitions(pvec1.get(i), pvec2.get(i));
-				if (comp<0) return true;
-				if (comp!=0) return false;
-			}
-			return false;
-		}
+		else if (lc1.size() == lc2.size())
+			return compareQuasiParikhVectors(lc1.getRankedQuasiParikhVector(), lc2.getRankedQuasiParikhVector())<0;
 		
 		return false;
 	}
@@ -1,8 +1,5 @@
 package org.jbpt.petri.unfolding.order;
 
-import java.util.List;
-import java.util.Set;
-
 import org.jbpt.petri.IFlow;
 import org.jbpt.petri.IMarking;
 import org.jbpt.petri.INode;
@@ -28,26 +25,21 @@ public class EsparzaAdequateTotalOrderForSafeSystems<BPN extends IBPNode<N>, C e
 	public boolean isSmaller(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc1, ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc2) {
 		if (lc1.size() < lc2.size()) return true;
 		
-		int comp = this.compareQuasiParikhVectors(lc1, lc2);
+		int comp = compareQuasiParikhVectors(lc1.getRankedQuasiParikhVector(), lc2.getRankedQuasiParikhVector());
 		if ((lc1.size()==lc2.size()) && comp<0) return true;
+		if (comp!=0) return false;
 		
-		int comp2 = this.compareFoataNormalForms(lc1, lc2);
-		if (comp==0 && comp2<0) return true;
+		int comp2 = this.compareFoataNormalForms(lc1.getRankedFoataNormalForm(), lc2.getRankedFoataNormalForm());
+		if (comp2<0) return true;
 		
 		return false;	
 	}
 	
-	private int compareFoataNormalForms(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc1, ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc2) {
-		List<Set<E>> foata1 = lc1.getFoataNormalForm();
-		List<Set<E>> foata2 = lc2.getFoataNormalForm();
-		
-		for (int i=0; i<foata1.size(); i++) {
+	private int compareFoataNormalForms(int[][] foata1, int[][] foata2) {
+		for (int i=0; i<foata1.length; i++) {
 			boolean flag = true;
 			for (int j=0; j<i; j++) {
-				List<T> pvec1 = lc1.getQuasiParikhVector(foata1.get(j));
-				List<T> pvec2 = lc2.getQuasiParikhVector(foata2.get(j));
-				
-				int comp = compareQuasiParikhVectors(lc1,pvec1,pvec2);
+				int comp = compareQuasiParikhVectors(foata1[j],foata2[j]);
 				if (comp!=0) {
 					flag = false;
 					break;
@@ -55,9 +47,7 @@ public class EsparzaAdequateTotalOrderForSafeSystems<BPN extends IBPNode<N>, C e
 			}
 			
 			if (flag) {
-				List<T> pvec1 = lc1.getQuasiParikhVector(foata1.get(i));
-				List<T> pvec2 = lc2.getQuasiParikhVector(foata2.get(i));
-				int comp = compareQuasiParikhVectors(lc1,pvec1,pvec2);
+				int comp = compareQuasiParikhVectors(foata1[i],foata2[i]);
 				if (comp==0) return -1;
 			}
 		}
@@ -65,44 +55,6 @@ public class EsparzaAdequateTotalOrderForSafeSystems<BPN extends IBPNode<N>, C e
 		return 0;
 	}
 	
-	/**
-	 * Lexicographically compare two quasi Parikh vectors.
-	 * 
-	 * @param lc A local configuration (gives a link to the total order of transitions).
-	 * @param pvec1 A list of transitions.
-	 * @param pvec2 A list of transitions.
-	 * @return -1,0,1 if 'pvec1' is smaller, equal, or larger than 'pvec2', respectively.
-	 */
-	private int compareQuasiParikhVectors(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc, List<T> pvec1, List<T> pvec2) {
-		int n = pvec1.size();
-		if (pvec2.size()<n) n = pvec2.size();
-		
-		for (int i = 0; i<n; i++) {
-			Integer comp = lc.compareTransitions(pvec1.get(i), pvec2.get(i));
-			if (comp<0) return -1;
-			if (comp>0) return 1;
-		}
-		
-		if (pvec1.size()==pvec2.size()) return 0;
-		if (pvec1.size()<pvec2.size()) return -1;
-		return 1;
-	}
-
-	/**
-	 * Lexicographically compare two quasi Parikh vectors.
-	 * 
-	 * @param lc A local configuration (gives a link to the total order of transitions).
-	 * @param pvec1 A list of transitions.
-	 * @param pvec2 A list of transitions.
-	 * @return -1,0,1 if 'pvec1' is smaller, equal, or larger than 'pvec2', respectively.
-	 */
-	private int compareQuasiParikhVectors(ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc1, ILocalConfiguration<BPN,C,E,F,N,P,T,M> lc2) {
-		List<T> pvec1 = lc1.getQuasiParikhVector();
-		List<T> pvec2 = lc2.getQuasiParikhVector();
-		
-		return this.compareQuasiParikhVectors(lc1, pvec1, pvec2);
-	}
-	
 	@Override
 	public boolean isTotal() {
 		return true;
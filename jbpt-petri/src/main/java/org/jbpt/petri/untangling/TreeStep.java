@@ -71,8 +71,7 @@ public class TreeStep<F extends IFlow<N>, N extends INode, P extends IPlace, T e
 		
 		int i=0;
 		for (T t : ts) {
-			M m = (M) this.outputMarking.clone();
-			m.fire(t);	
+			M m = this.system.fire(this.outputMarking, t);
 			
 			TreeStep<F,N,P,T,M> step = new TreeStep<F,N,P,T,M>(this.system, this, this.outputMarking, t, m, this.getPosition()+1);
 			
@@ -0,0 +1,62 @@
+package org.jbpt.test.petri;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.IMarking;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.PackedMarking;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+/**
+ * Compares breadth-first exploration of state spaces using packed and generic markings.<br/><br/>
+ *
+ * Benchmarks are not part of the unit tests; they are located in a separate source folder and must be run explicitly.
+ */
+public class PackedMarkingBenchmark extends TestCase {
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(6,6);
+		List<Transition> ts = new ArrayList<Transition>(sys.getTransitions());
+
+		PackedMarking initial = new PackedMarking(sys);
+		initial.putAll(sys.getMarking());
+		long start = System.nanoTime();
+		int packed = this.explore(initial, ts);
+		long packedTime = System.nanoTime()-start;
+
+		start = System.nanoTime();
+		int generic = this.explore((Marking) sys.getMarking().clone(), ts);
+		long genericTime = System.nanoTime()-start;
+
+		assertEquals(generic, packed);
+		System.out.println(String.format("Explored %d markings: packed markings %d ms, generic markings %d ms",
+				packed, packedTime/1000000, genericTime/1000000));
+	}
+
+	private int explore(IMarking<Flow,Node,Place,Transition> initial, List<Transition> ts) {
+		Set<IMarking<Flow,Node,Place,Transition>> visited = new HashSet<IMarking<Flow,Node,Place,Transition>>();
+		LinkedList<IMarking<Flow,Node,Place,Transition>> queue = new LinkedList<IMarking<Flow,Node,Place,Transition>>();
+		visited.add(initial);
+		queue.add(initial);
+		while (!queue.isEmpty()) {
+			IMarking<Flow,Node,Place,Transition> m = queue.poll();
+			for (Transition t : ts) {
+				IMarking<Flow,Node,Place,Transition> n = m.clone();
+				if (n.fire(t) && visited.add(n)) queue.add(n);
+			}
+		}
+
+		return visited.size();
+	}
+}
@@ -0,0 +1,50 @@
+package org.jbpt.test.petri.unfolding;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompactCompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.Event;
+
+/**
+ * Compares memory retained by constructed complete prefix unfoldings and by their snapshots.
+ * Snapshots are built from constructed unfoldings, hence the peak memory of the construction is not compared.<br/><br/>
+ *
+ * Benchmarks are not part of the unit tests; they are located in a separate source folder and must be run explicitly.
+ */
+public class CompactUnfoldingBenchmark extends TestCase {
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(20,40);
+
+		long m0 = usedMemory();
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys);
+		for (Event e : cpu.getEvents()) e.getLocalConfiguration();
+		long m1 = usedMemory();
+		CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> compact = new CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>(cpu);
+		long m2 = usedMemory();
+
+		assertEquals(cpu.getEvents().size(), compact.countEvents());
+		System.out.println(String.format("Unfolding with %s events and %s conditions retained as objects in %d KB and as snapshot in %d KB",
+				compact.countEvents(), compact.countConditions(), (m1-m0)/1024, (m2-m1)/1024));
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i=0; i<5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,31 @@
+package org.jbpt.test.petri.unfolding;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+
+/**
+ * Compares time spent in cutoff checks based on the index of markings of local configurations
+ * and in the linear scan over all events of the prefix.<br/><br/>
+ *
+ * Benchmarks are not part of the unit tests; they are located in a separate source folder and must be run explicitly.
+ */
+public class CutoffIndexBenchmark extends TestCase {
+
+	public void testParallelCycles() {
+		// warm up
+		new CutoffIndexBenchmarkTest.IndexedUnfolding(CutoffIndexBenchmarkTest.createParallelCycles(3,10));
+		new CutoffIndexBenchmarkTest.LinearScanUnfolding(CutoffIndexBenchmarkTest.createParallelCycles(3,10));
+
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(10,40);
+		CutoffIndexBenchmarkTest.timeIndexed = 0;
+		CutoffIndexBenchmarkTest.timeLinear = 0;
+		CompletePrefixUnfolding cpu1 = new CutoffIndexBenchmarkTest.IndexedUnfolding(sys);
+		CompletePrefixUnfolding cpu2 = new CutoffIndexBenchmarkTest.LinearScanUnfolding(sys);
+
+		assertEquals(cpu2.getCutoffEvents().size(), cpu1.getCutoffEvents().size());
+		System.out.println(String.format("Cutoff checks for %s events: indexed %d ms, linear scan %d ms",
+				cpu1.getEvents().size(), CutoffIndexBenchmarkTest.timeIndexed/1000000, CutoffIndexBenchmarkTest.timeLinear/1000000));
+	}
+}
@@ -0,0 +1,131 @@
+package org.jbpt.test.algo;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.bdd.BDD;
+
+public class BDDTest extends TestCase {
+
+	public void testOperations() {
+		BDD bdd = new BDD(4);
+		int a = bdd.ithVar(0), b = bdd.ithVar(1), c = bdd.ithVar(2);
+
+		// canonicity
+		assertEquals(bdd.and(a,b), bdd.and(b,a));
+		assertEquals(bdd.not(bdd.and(a,b)), bdd.or(bdd.not(a), bdd.not(b)));
+		assertEquals(bdd.nithVar(0), bdd.not(a));
+		assertEquals(BDD.ONE, bdd.or(a, bdd.not(a)));
+		assertEquals(BDD.ZERO, bdd.and(a, bdd.not(a)));
+		assertEquals(bdd.or(bdd.diff(a,b), bdd.diff(b,a)), bdd.xor(a,b));
+		assertEquals(bdd.and(bdd.and(a,b),c), bdd.cube(new int[] {2,0,1}));
+		assertEquals(bdd.and(a, bdd.not(c)), bdd.cube(new int[] {0,2}, new boolean[] {true,false}));
+		assertEquals(BDD.ZERO, bdd.cube(new int[] {1,1}, new boolean[] {true,false}));
+
+		// counting over 4 variables
+		assertEquals(16.0, bdd.satCount(BDD.ONE));
+		assertEquals(0.0, bdd.satCount(BDD.ZERO));
+		assertEquals(8.0, bdd.satCount(c));
+		assertEquals(12.0, bdd.satCount(bdd.or(a,b)));
+		assertEquals(1.0, bdd.satCount(bdd.minterm(new boolean[] {true,false,true,false})));
+		assertEquals(3, bdd.nodeCount(bdd.and(bdd.and(a,b),c)));
+
+		// quantification
+		int f = bdd.or(bdd.and(a,b), bdd.and(bdd.not(a),c));
+		assertEquals(bdd.or(b,c), bdd.exists(f, bdd.cube(new int[] {0})));
+		assertEquals(BDD.ONE, bdd.exists(f, bdd.cube(new int[] {0,1,2})));
+		int g = bdd.or(bdd.not(b), c);
+		int cube = bdd.cube(new int[] {1,2});
+		assertEquals(bdd.exists(bdd.and(f,g), cube), bdd.relProd(f, g, cube));
+
+		int[] assignment = bdd.satOne(bdd.and(bdd.not(a),c));
+		assertEquals(0, assignment[0]);
+		assertEquals(1, assignment[2]);
+		assertEquals(-1, assignment[3]);
+		assertNull(bdd.satOne(BDD.ZERO));
+	}
+
+	public void testQueens() {
+		assertEquals(4.0, this.queens(6, new BDD(36, 1024, 1024)));
+		// a small node table enforces garbage collection
+		BDD bdd = new BDD(64, 1024, 1024);
+		assertEquals(92.0, this.queens(8, bdd));
+		assertTrue(bdd.countGarbageCollections()>0);
+	}
+
+	public void testGarbageCollection() {
+		BDD bdd = new BDD(20, 1024, 1024);
+		int parity = bdd.ref(BDD.ZERO);
+		for (int v=0; v<20; v++) {
+			int next = bdd.ref(bdd.xor(parity, bdd.ithVar(v)));
+			bdd.deref(parity);
+			parity = next;
+		}
+		int nodes = bdd.nodeCount(parity);
+
+		// garbage
+		for (int i=0; i<2000; i++) {
+			int v = bdd.ref(bdd.ithVar(i%20));
+			bdd.and(v, bdd.cube(new int[] {(i+7)%20, (i+13)%20}));
+			bdd.deref(v);
+		}
+
+		bdd.gc();
+		assertEquals(nodes, bdd.nodeCount(parity));
+		assertEquals(Math.pow(2,19), bdd.satCount(parity));
+		assertEquals(nodes+2, bdd.countNodes());
+
+		bdd.deref(parity);
+		bdd.gc();
+		assertEquals(2, bdd.countNodes());
+		try {
+			bdd.deref(parity);
+			fail();
+		}
+		catch (IllegalStateException e) {}
+	}
+
+	/**
+	 * Count placements of n non-attacking queens on an n x n board.
+	 */
+	private double queens(int n, BDD bdd) {
+		int board = bdd.ref(BDD.ONE);
+		for (int i=0; i<n; i++)
+			for (int j=0; j<n; j++) {
+				// a queen at (i,j) excludes queens in the same row, column and diagonals
+				int others = bdd.ref(BDD.ONE);
+				for (int k=0; k<n; k++)
+					for (int l=0; l<n; l++) {
+						if (k==i && l==j) continue;
+						if (k==i || l==j || k-l==i-j || k+l==i+j) {
+							int next = bdd.ref(bdd.and(others, bdd.nithVar(k*n+l)));
+							bdd.deref(others);
+							others = next;
+						}
+					}
+				int rule = bdd.ref(bdd.or(bdd.nithVar(i*n+j), others));
+				bdd.deref(others);
+				int next = bdd.ref(bdd.and(board, rule));
+				bdd.deref(rule);
+				bdd.deref(board);
+				board = next;
+			}
+
+		// a queen in every row
+		for (int i=0; i<n; i++) {
+			int row = bdd.ref(BDD.ZERO);
+			for (int j=0; j<n; j++) {
+				int next = bdd.ref(bdd.or(row, bdd.ithVar(i*n+j)));
+				bdd.deref(row);
+				row = next;
+			}
+			int next = bdd.ref(bdd.and(board, row));
+			bdd.deref(row);
+			bdd.deref(board);
+			board = next;
+		}
+
+		double result = bdd.satCount(board);
+		bdd.deref(board);
+		return result;
+	}
+}
@@ -0,0 +1,165 @@
+package org.jbpt.test.algo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.graph.DirectedGraphAlgorithms;
+import org.jbpt.algo.graph.DominatorTree;
+import org.jbpt.graph.DirectedEdge;
+import org.jbpt.graph.DirectedGraph;
+import org.jbpt.hypergraph.abs.Vertex;
+
+public class DominatorTreeTest extends TestCase {
+
+	private DirectedGraphAlgorithms<DirectedEdge,Vertex> dga = new DirectedGraphAlgorithms<DirectedEdge,Vertex>();
+
+	public void testLoop() {
+		// i -> a -> b -> c -> o, c -> a, a -> d -> c
+		DirectedGraph g = new DirectedGraph();
+		Vertex i = new Vertex("i");
+		Vertex a = new Vertex("a");
+		Vertex b = new Vertex("b");
+		Vertex c = new Vertex("c");
+		Vertex d = new Vertex("d");
+		Vertex o = new Vertex("o");
+		g.addEdge(i, a);
+		g.addEdge(a, b);
+		g.addEdge(b, c);
+		g.addEdge(c, o);
+		g.addEdge(c, a);
+		g.addEdge(a, d);
+		g.addEdge(d, c);
+
+		DominatorTree<DirectedEdge,Vertex> dom = dga.getDominatorTree(g, false);
+		assertFalse(dom.isPostDominatorTree());
+		assertNull(dom.getImmediateDominator(i));
+		assertEquals(i, dom.getImmediateDominator(a));
+		assertEquals(a, dom.getImmediateDominator(b));
+		assertEquals(a, dom.getImmediateDominator(c));
+		assertEquals(c, dom.getImmediateDominator(o));
+		assertTrue(dom.dominates(a, o));
+		assertTrue(dom.dominates(o, o));
+		assertFalse(dom.dominates(b, c));
+		assertFalse(dom.dominates(o, i));
+		assertEquals(3, dom.getChildren(a).size());
+
+		DominatorTree<DirectedEdge,Vertex> pdom = dga.getDominatorTree(g, true);
+		assertTrue(pdom.isPostDominatorTree());
+		assertNull(pdom.getImmediateDominator(o));
+		assertEquals(c, pdom.getImmediateDominator(a));
+		assertEquals(c, pdom.getImmediateDominator(b));
+		assertTrue(pdom.dominates(c, i));
+		assertFalse(pdom.dominates(b, a));
+
+		// vertices in a loop that cannot be entered are dominated by all vertices
+		Vertex x = new Vertex("x");
+		Vertex y = new Vertex("y");
+		g.addEdge(x, y);
+		g.addEdge(y, x);
+		g.addEdge(y, o);
+		dom = dga.getDominatorTree(g, false);
+		assertFalse(dom.isReachable(x));
+		assertTrue(dom.dominates(o, x));
+		assertEquals(8, dom.getDominators(y).size());
+		assertFalse(dom.dominates(x, o));
+	}
+
+	public void testRandomGraphs() {
+		Random random = new Random(17);
+		for (int run=0; run<100; run++) {
+			int n = 2+random.nextInt(40);
+			DirectedGraph g = createRandomGraph(random, n, n+random.nextInt(2*n));
+			List<Vertex> vs = new ArrayList<Vertex>(g.getVertices());
+
+			for (boolean post : new boolean[] {false, true}) {
+				BitSet[] expected = fixpoint(g, vs, post);
+				DominatorTree<DirectedEdge,Vertex> tree = dga.getDominatorTree(g, post);
+				for (int i=0; i<n; i++) {
+					for (int j=0; j<n; j++)
+						assertEquals(expected[i].get(j), tree.dominates(vs.get(j), vs.get(i)));
+					assertEquals(expected[i].cardinality(), dga.getDominators(g, post).get(vs.get(i)).size());
+
+					// the immediate dominator is the strict dominator with most dominators
+					Vertex idom = null;
+					int size = 0;
+					for (int j=expected[i].nextSetBit(0); j>=0; j=expected[i].nextSetBit(j+1))
+						if (j!=i && expected[j].cardinality()>size && tree.isReachable(vs.get(i))) {
+							idom = vs.get(j);
+							size = expected[j].cardinality();
+						}
+					assertEquals(idom, tree.getImmediateDominator(vs.get(i)));
+				}
+			}
+		}
+	}
+
+	public void testLargeGraph() {
+		int n = 100000;
+		DirectedGraph g = createRandomGraph(new Random(19), n, 2*n);
+		List<Vertex> vs = new ArrayList<Vertex>(g.getVertices());
+
+		long start = System.nanoTime();
+		DominatorTree<DirectedEdge,Vertex> dom = dga.getDominatorTree(g, false);
+		DominatorTree<DirectedEdge,Vertex> pdom = dga.getDominatorTree(g, true);
+		int count = 0;
+		for (Vertex v : vs)
+			if (dom.dominates(vs.get(0), v) || pdom.dominates(vs.get(0), v)) count++;
+		long time = System.nanoTime()-start;
+
+		assertTrue(count>0);
+		System.out.println(String.format("Dominator trees of a graph with %d vertices computed in %d ms", n, time/1000000));
+	}
+
+	/**
+	 * Random graph whose edges mostly lead forward, so that there are few sources and sinks.
+	 */
+	private static DirectedGraph createRandomGraph(Random random, int n, int m) {
+		DirectedGraph g = new DirectedGraph();
+		Vertex[] vs = new Vertex[n];
+		for (int i=0; i<n; i++) {
+			vs[i] = new Vertex("v" + i);
+			g.addVertex(vs[i]);
+		}
+		for (int i=0; i<n-1; i++) g.addEdge(vs[i], vs[i+1+random.nextInt(Math.min(3, n-i-1))]);
+		for (int k=n-1; k<m; k++) g.addEdge(vs[random.nextInt(n)], vs[random.nextInt(n)]);
+
+		return g;
+	}
+
+	/**
+	 * Iterative computation of dominators as reference.
+	 */
+	private static BitSet[] fixpoint(DirectedGraph g, List<Vertex> vs, boolean post) {
+		int n = vs.size();
+		BitSet[] dom = new BitSet[n];
+		boolean[] entry = new boolean[n];
+		for (int i=0; i<n; i++) {
+			dom[i] = new BitSet(n);
+			entry[i] = (post ? g.getDirectSuccessors(vs.get(i)) : g.getDirectPredecessors(vs.get(i))).isEmpty();
+			if (entry[i]) dom[i].set(i);
+			else dom[i].set(0, n);
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i=0; i<n; i++) {
+				if (entry[i]) continue;
+				BitSet current = (BitSet) dom[i].clone();
+				for (Vertex v : post ? g.getDirectSuccessors(vs.get(i)) : g.getDirectPredecessors(vs.get(i)))
+					current.and(dom[vs.indexOf(v)]);
+				current.set(i);
+				if (!current.equals(dom[i])) {
+					dom[i] = current;
+					changed = true;
+				}
+			}
+		}
+
+		return dom;
+	}
+}
@@ -0,0 +1,113 @@
+package org.jbpt.test.algo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.graph.DirectedGraphAlgorithms;
+import org.jbpt.algo.graph.ReachabilityIndex;
+import org.jbpt.algo.graph.TransitiveClosure;
+import org.jbpt.graph.DirectedEdge;
+import org.jbpt.graph.DirectedGraph;
+import org.jbpt.hypergraph.abs.Vertex;
+
+public class ReachabilityIndexTest extends TestCase {
+
+	public void testSmallGraph() {
+		DirectedGraph g = new DirectedGraph();
+		Vertex a = new Vertex("a");
+		Vertex b = new Vertex("b");
+		Vertex c = new Vertex("c");
+		Vertex d = new Vertex("d");
+		Vertex e = new Vertex("e");
+		g.addEdge(a, b);
+		g.addEdge(b, c);
+		g.addEdge(c, b);
+		g.addEdge(c, d);
+		g.addVertex(e);
+
+		ReachabilityIndex<DirectedEdge,Vertex> index = new ReachabilityIndex<DirectedEdge,Vertex>(g);
+		assertTrue(index.hasPath(a, d));
+		assertTrue(index.hasPath(b, b));
+		assertTrue(index.hasPath(c, b));
+		assertFalse(index.hasPath(a, a));
+		assertFalse(index.hasPath(d, a));
+		assertFalse(index.hasPath(a, e));
+		assertTrue(index.isInLoop(c));
+		assertFalse(index.isInLoop(d));
+		assertFalse(index.hasPath(a, new Vertex("x")));
+
+		// the index is rebuilt after modifications of the graph
+		g.addEdge(d, a);
+		assertFalse(index.isValid());
+		assertTrue(index.hasPath(a, a));
+		assertTrue(index.hasPath(d, c));
+		assertTrue(index.isValid());
+		g.addEdge(e, e);
+		assertTrue(index.isInLoop(e));
+		g.removeEdge(g.getDirectedEdge(d, a));
+		assertFalse(index.hasPath(d, c));
+
+		DirectedGraphAlgorithms<DirectedEdge,Vertex> dga = new DirectedGraphAlgorithms<DirectedEdge,Vertex>();
+		assertTrue(dga.hasPath(g, a, d));
+		g.addEdge(d, e);
+		assertTrue(dga.hasPath(g, a, e));
+		assertFalse(dga.hasPath(g, e, a));
+	}
+
+	public void testRandomGraphs() {
+		Random random = new Random(7);
+		for (int run=0; run<50; run++) {
+			int n = 5+random.nextInt(60);
+			int m = random.nextInt(3*n);
+			DirectedGraph g = createRandomGraph(random, n, m, run%2==0);
+			List<Vertex> vs = new ArrayList<Vertex>(g.getVertices());
+
+			ReachabilityIndex<DirectedEdge,Vertex> index = new ReachabilityIndex<DirectedEdge,Vertex>(g);
+			TransitiveClosure<DirectedEdge,Vertex> tc = new TransitiveClosure<DirectedEdge,Vertex>(g);
+			for (Vertex v1 : vs) {
+				assertEquals(tc.isInLoop(v1), index.isInLoop(v1));
+				for (Vertex v2 : vs)
+					assertEquals(v1 + "->" + v2, tc.hasPath(v1, v2), index.hasPath(v1, v2));
+			}
+		}
+	}
+
+	public void testLargeGraph() {
+		int n = 20000;
+		DirectedGraph g = createRandomGraph(new Random(11), n, 3*n, true);
+		List<Vertex> vs = new ArrayList<Vertex>(g.getVertices());
+
+		long start = System.nanoTime();
+		ReachabilityIndex<DirectedEdge,Vertex> index = new ReachabilityIndex<DirectedEdge,Vertex>(g);
+		Random random = new Random(13);
+		int paths = 0;
+		for (int i=0; i<100000; i++)
+			if (index.hasPath(vs.get(random.nextInt(n)), vs.get(random.nextInt(n)))) paths++;
+		long time = System.nanoTime()-start;
+
+		assertTrue(paths>0);
+		System.out.println(String.format("Reachability index of a graph with %d vertices built and queried %d times in %d ms", n, 100000, time/1000000));
+	}
+
+	/**
+	 * Random graph; acyclic graphs only have edges from vertices with smaller numbers to vertices with greater numbers.
+	 */
+	private static DirectedGraph createRandomGraph(Random random, int n, int m, boolean acyclic) {
+		DirectedGraph g = new DirectedGraph();
+		Vertex[] vs = new Vertex[n];
+		for (int i=0; i<n; i++) {
+			vs[i] = new Vertex("v" + i);
+			g.addVertex(vs[i]);
+		}
+		for (int k=0; k<m; k++) {
+			int i = random.nextInt(n), j = random.nextInt(n);
+			if (acyclic && i>=j) continue;
+			g.addEdge(vs[i], vs[j]);
+		}
+
+		return g;
+	}
+}
@@ -0,0 +1,137 @@
+package org.jbpt.test.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.graph.ReflexiveTransitiveClosure;
+import org.jbpt.algo.graph.TransitiveClosure;
+import org.jbpt.graph.DirectedEdge;
+import org.jbpt.graph.DirectedGraph;
+import org.jbpt.hypergraph.abs.Vertex;
+
+public class TransitiveClosureTest extends TestCase {
+
+	public void testRandomGraphs() {
+		Random random = new Random(3);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (int run=0; run<40; run++) {
+				int n = 5+random.nextInt(300);
+				DirectedGraph g = createRandomGraph(random, n, random.nextInt(2*n));
+				List<Vertex> vs = new ArrayList<Vertex>(g.getVertices());
+				boolean[][] expected = warshall(g, vs);
+
+				TransitiveClosure<DirectedEdge,Vertex> tc = new TransitiveClosure<DirectedEdge,Vertex>(g);
+				TransitiveClosure<DirectedEdge,Vertex> parallel = new TransitiveClosure<DirectedEdge,Vertex>(g, 4);
+				TransitiveClosure<DirectedEdge,Vertex> submitted = new TransitiveClosure<DirectedEdge,Vertex>(g, executor);
+				TransitiveClosure<DirectedEdge,Vertex> reflexive = new ReflexiveTransitiveClosure<DirectedEdge,Vertex>(g);
+				for (int i=0; i<n; i++) {
+					assertEquals(expected[i][i], tc.isInLoop(vs.get(i)));
+					for (int j=0; j<n; j++) {
+						assertEquals(expected[i][j], tc.hasPath(vs.get(i), vs.get(j)));
+						assertEquals(expected[i][j], parallel.hasPath(vs.get(i), vs.get(j)));
+						assertEquals(expected[i][j], submitted.hasPath(vs.get(i), vs.get(j)));
+						assertEquals(i==j || expected[i][j], reflexive.hasPath(vs.get(i), vs.get(j)));
+					}
+				}
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		DirectedGraph g = new DirectedGraph();
+		Vertex a = new Vertex("a");
+		g.addVertex(a);
+		assertFalse(new TransitiveClosure<DirectedEdge,Vertex>(g).hasPath(a, new Vertex("b")));
+	}
+
+	public void testMatrix() {
+		DirectedGraph g = createRandomGraph(new Random(7), 50, 60);
+		MatrixClosure tc = new MatrixClosure(g);
+		boolean[][] matrix = tc.matrix();
+		assertTrue(Arrays.deepEquals(warshall(g, tc.vertices()), matrix));
+	}
+
+	/**
+	 * Subclass that reads the closure through the deprecated matrix accessor.
+	 */
+	private static class MatrixClosure extends TransitiveClosure<DirectedEdge,Vertex> {
+		MatrixClosure(DirectedGraph g) {
+			super(g);
+		}
+
+		@SuppressWarnings("deprecation")
+		boolean[][] matrix() {
+			return this.getMatrix();
+		}
+
+		List<Vertex> vertices() {
+			return this.verticesAsList;
+		}
+	}
+
+	public void testLargeGraph() {
+		// acyclic graph, i.e., every vertex is a component
+		int n = 10000;
+		Random random = new Random(5);
+		DirectedGraph g = new DirectedGraph();
+		List<Vertex> vs = new ArrayList<Vertex>();
+		for (int i=0; i<n; i++) {
+			vs.add(new Vertex("v" + i));
+			g.addVertex(vs.get(i));
+		}
+		for (int k=0; k<3*n; k++) {
+			int i = random.nextInt(n-1);
+			g.addEdge(vs.get(i), vs.get(i+1+random.nextInt(Math.min(n-i-1, 200))));
+		}
+
+		long start = System.nanoTime();
+		TransitiveClosure<DirectedEdge,Vertex> tc = new TransitiveClosure<DirectedEdge,Vertex>(g, Runtime.getRuntime().availableProcessors());
+		int paths = 0;
+		for (Vertex v : vs) if (tc.hasPath(vs.get(0), v)) paths++;
+		long time = System.nanoTime()-start;
+
+		assertTrue(paths>0);
+		System.out.println(String.format("Transitive closure of a graph with %d vertices computed in %d ms", n, time/1000000));
+	}
+
+	/**
+	 * Random graph in which edges between vertices with close numbers are likely, so that there are large and small components.
+	 */
+	private static DirectedGraph createRandomGraph(Random random, int n, int m) {
+		DirectedGraph g = new DirectedGraph();
+		Vertex[] vs = new Vertex[n];
+		for (int i=0; i<n; i++) {
+			vs[i] = new Vertex("v" + i);
+			g.addVertex(vs[i]);
+		}
+		for (int k=0; k<m; k++) {
+			int i = random.nextInt(n);
+			int j = random.nextInt(4)==0 ? random.nextInt(n) : Math.min(n-1, i+random.nextInt(5));
+			g.addEdge(vs[i], vs[j]);
+		}
+
+		return g;
+	}
+
+	private static boolean[][] warshall(DirectedGraph g, List<Vertex> vs) {
+		int n = vs.size();
+		boolean[][] matrix = new boolean[n][n];
+		for (DirectedEdge e : g.getEdges())
+			matrix[vs.indexOf(e.getSource())][vs.indexOf(e.getTarget())] = true;
+		for (int i=0; i<n; i++)
+			for (int j=0; j<n; j++)
+				if (matrix[j][i])
+					for (int k=0; k<n; k++)
+						matrix[j][k] |= matrix[i][k];
+
+		return matrix;
+	}
+}
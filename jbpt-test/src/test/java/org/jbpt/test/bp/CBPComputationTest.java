@@ -1,5 +1,9 @@
 package org.jbpt.test.bp;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
 import junit.framework.TestCase;
 
 import org.jbpt.bp.BehaviouralProfile;
@@ -10,11 +14,14 @@ import org.jbpt.bp.construct.BPCreatorTree;
 import org.jbpt.bp.construct.BPCreatorUnfolding;
 import org.jbpt.bp.construct.CBPCreatorTree;
 import org.jbpt.bp.construct.CBPCreatorUnfolding;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
 import org.jbpt.petri.NetSystem;
 import org.jbpt.petri.Node;
 import org.jbpt.petri.PetriNet;
 import org.jbpt.petri.Place;
 import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingCache;
 
 public class CBPComputationTest extends TestCase {
 
@@ -354,6 +361,71 @@ public class CBPComputationTest extends TestCase {
 
 
 	}
-
-
+	
+	public void testCBPComputationWithCache() {
+		NetSystem net = createNet();
+		
+		CausalBehaviouralProfile<NetSystem, Node> expected = CBPCreatorUnfolding.getInstance().deriveCausalBehaviouralProfile(net);
+		
+		CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000);
+		CBPCreatorUnfolding creator = new CBPCreatorUnfolding(cache);
+		assertSame(cache, creator.getCache());
+		assertNull(CBPCreatorUnfolding.getInstance().getCache());
+		
+		CausalBehaviouralProfile<NetSystem, Node> miss = creator.deriveCausalBehaviouralProfile(net);
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.size());
+		
+		// the augmented net is cloned for every profile, its unfolding is replayed from the cache
+		CausalBehaviouralProfile<NetSystem, Node> hit = creator.deriveCausalBehaviouralProfile(net);
+		assertEquals(1, cache.getHits());
+		
+		for (CausalBehaviouralProfile<NetSystem, Node> cbp : Arrays.asList(miss, hit)) {
+			assertTrue(Arrays.deepEquals(expected.getMatrix(), cbp.getMatrix()));
+			assertTrue(Arrays.deepEquals(expected.getCooccurrenceMatrix(), cbp.getCooccurrenceMatrix()));
+		}
+	}
+	
+	public void testCBPComputationWithFailingCache() throws IOException {
+		// a regular file cannot be used as the directory of a cache
+		File file = File.createTempFile("jbpt", "cache");
+		try {
+			CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000, file);
+			new CBPCreatorUnfolding(cache).deriveCausalBehaviouralProfile(createNet());
+			fail();
+		}
+		catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		finally {
+			file.delete();
+		}
+	}
+	
+	private static NetSystem createNet() {
+		NetSystem net = new NetSystem();
+		
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition c = new Transition("c");
+		Transition d = new Transition("d");
+		
+		Place p1 = new Place("1");
+		Place p2 = new Place("2");
+		Place p3 = new Place("3");
+		Place p4 = new Place("4");
+		
+		net.addFlow(p1, a);
+		net.addFlow(a, p2);
+		net.addFlow(a, p3);
+		net.addFlow(p2, b);
+		net.addFlow(p3, c);
+		net.addFlow(c, p3);
+		net.addFlow(b, p4);
+		net.addFlow(p3, d);
+		net.addFlow(d, p4);
+		net.getMarking().put(p1,1);
+		
+		return net;
+	}
 }
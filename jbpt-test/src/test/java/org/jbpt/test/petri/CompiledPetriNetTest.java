@@ -0,0 +1,259 @@
+package org.jbpt.test.petri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.CompiledPetriNet;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+public class CompiledPetriNetTest extends TestCase {
+
+	public void testStructure() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+
+		assertEquals(sys.getPlaces().size(), net.countPlaces());
+		assertEquals(sys.getTransitions().size(), net.countTransitions());
+
+		for (Transition t : sys.getTransitions()) {
+			int i = net.getIndex(t);
+			assertSame(t, net.getTransition(i));
+			assertEquals(sys.getPreset(t), places(net, net.getPresetOffsets(), net.getPresetPlaces(), i));
+			assertEquals(sys.getPostset(t), places(net, net.getPostsetOffsets(), net.getPostsetPlaces(), i));
+		}
+
+		for (Place p : sys.getPlaces()) {
+			int i = net.getIndex(p);
+			assertSame(p, net.getPlace(i));
+			assertEquals(sys.getPreset(p), transitions(net, net.getPlacePresetOffsets(), net.getPlacePresetTransitions(), i));
+			assertEquals(sys.getPostset(p), transitions(net, net.getPlacePostsetOffsets(), net.getPlacePostsetTransitions(), i));
+		}
+
+		assertEquals(-1, net.getIndex(new Place()));
+		assertFalse(net.containsPlace(new Place()));
+	}
+
+	public void testInvalidation() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+		assertSame(net, sys.compile());
+
+		// markings do not affect the structure
+		sys.putTokens(sys.getPlaces().iterator().next(), 2);
+		assertTrue(net.isValid());
+		assertSame(net, sys.compile());
+
+		Place p = new Place("p");
+		Transition t = sys.getTransitions().iterator().next();
+		sys.addFlow(t, p);
+		assertFalse(net.isValid());
+		CompiledPetriNet<Flow,Node,Place,Transition> net2 = sys.compile();
+		assertNotSame(net, net2);
+		assertTrue(net2.containsPlace(p));
+		assertTrue(places(net2, net2.getPostsetOffsets(), net2.getPostsetPlaces(), net2.getIndex(t)).contains(p));
+
+		sys.removeNode(p);
+		assertFalse(net2.isValid());
+		assertFalse(sys.compile().containsPlace(p));
+	}
+
+	public void testQueries() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		Transition t = sys.getTransitions().iterator().next();
+		Place p = sys.getPostset(t).iterator().next();
+
+		// queries are served from the graph until the net gets compiled
+		assertSameQueries(sys);
+		assertNull(sys.getCompiled());
+		CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+		assertSame(net, sys.getCompiled());
+		assertSameQueries(sys);
+
+		// queries interleaved with modifications are served from the graph, reflect the modifications, and do not compile the net
+		for (int i=0; i<3; i++) {
+			Place q = new Place("q"+i);
+			sys.addFlow(t, q);
+			assertTrue(sys.getPostset(t).contains(q));
+			assertTrue(sys.getPlaces().contains(q));
+			assertEquals(1, sys.getPreset(q).size());
+			sys.putTokens(q, 1);
+			assertNull(sys.getCompiled());
+		}
+
+		sys.removeFlow(sys.getDirectedEdge(t, p));
+		assertFalse(sys.getPostset(t).contains(p));
+		assertFalse(sys.getPreset(p).contains(t));
+		sys.removeNode(t);
+		assertFalse(sys.getTransitions().contains(t));
+		assertTrue(sys.getPostset(t).isEmpty());
+		assertSameQueries(sys);
+		assertNull(sys.getCompiled());
+		sys.compile();
+		assertSameQueries(sys);
+		assertTrue(sys.getPreset(t).isEmpty());
+	}
+
+	public void testOrder() {
+		NetSystem sys = new NetSystem();
+		List<Place> places = new ArrayList<Place>();
+		List<Transition> transitions = new ArrayList<Transition>();
+		for (int i=0; i<20; i++) {
+			places.add(new Place("p"+i));
+			transitions.add(new Transition("t"+i));
+			sys.addFlow(places.get(i), transitions.get(i));
+		}
+
+		// nodes are ordered by their addition, whether or not the net is compiled
+		assertEquals(places, new ArrayList<Place>(sys.getPlaces()));
+		assertEquals(places, sys.compile().getPlaces());
+		assertEquals(transitions, new ArrayList<Transition>(sys.getTransitions()));
+		assertEquals(transitions, sys.compile().getTransitions());
+
+		// removed nodes leave the order, added nodes are appended
+		sys.removePlace(places.remove(3));
+		sys.removeFlow(sys.getDirectedEdge(places.get(5), transitions.get(5)));
+		places.add(new Place("p"));
+		sys.addFlow(transitions.get(0), places.get(places.size()-1));
+		assertEquals(places, new ArrayList<Place>(sys.getPlaces()));
+		assertEquals(places, sys.compile().getPlaces());
+		assertEquals(transitions, sys.compile().getTransitions());
+	}
+
+	public void testUpdate() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(5,5);
+		Random random = new Random(1);
+		for (int k=0; k<50; k++) {
+			sys.compile();
+			List<Transition> transitions = new ArrayList<Transition>(sys.getTransitions());
+			List<Place> places = new ArrayList<Place>(sys.getPlaces());
+			Transition t = transitions.get(random.nextInt(transitions.size()));
+			Place p = places.get(random.nextInt(places.size()));
+			switch (random.nextInt(4)) {
+				case 0: sys.removePlace(p); break;
+				case 1: sys.addFlow(t, new Place("q"+k)); break;
+				case 2: if (sys.getDirectedEdge(p, t)==null) sys.addFlow(p, t); break;
+				default: for (Flow f : sys.getIncomingEdges(t)) { sys.removeFlow(f); break; }
+			}
+
+			// the updated view equals a view compiled from scratch
+			CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+			CompiledPetriNet<Flow,Node,Place,Transition> scratch = new CompiledPetriNet<Flow,Node,Place,Transition>(sys);
+			assertEquals(scratch.getPlaces(), net.getPlaces());
+			assertEquals(scratch.getTransitions(), net.getTransitions());
+			assertTrue(Arrays.equals(scratch.getPresetOffsets(), net.getPresetOffsets()));
+			assertTrue(Arrays.equals(scratch.getPresetPlaces(), net.getPresetPlaces()));
+			assertTrue(Arrays.equals(scratch.getPostsetOffsets(), net.getPostsetOffsets()));
+			assertTrue(Arrays.equals(scratch.getPostsetPlaces(), net.getPostsetPlaces()));
+			assertTrue(Arrays.equals(scratch.getPlacePresetOffsets(), net.getPlacePresetOffsets()));
+			assertTrue(Arrays.equals(scratch.getPlacePresetTransitions(), net.getPlacePresetTransitions()));
+			assertTrue(Arrays.equals(scratch.getPlacePostsetOffsets(), net.getPlacePostsetOffsets()));
+			assertTrue(Arrays.equals(scratch.getPlacePostsetTransitions(), net.getPlacePostsetTransitions()));
+		}
+	}
+
+	// compares answers to queries against the graph
+	private void assertSameQueries(NetSystem sys) {
+		Set<Place> places = new HashSet<Place>();
+		Set<Transition> transitions = new HashSet<Transition>();
+		for (Node n : sys.getVertices()) {
+			if (n instanceof Place) places.add((Place) n);
+			else transitions.add((Transition) n);
+		}
+		assertEquals(places, sys.getPlaces());
+		assertEquals(transitions, sys.getTransitions());
+
+		for (Transition t : transitions) {
+			assertEquals(new HashSet<Node>(sys.getDirectPredecessors(t)), new HashSet<Node>(sys.getPreset(t)));
+			assertEquals(new HashSet<Node>(sys.getDirectSuccessors(t)), new HashSet<Node>(sys.getPostset(t)));
+		}
+		for (Place p : places) {
+			assertEquals(new HashSet<Node>(sys.getDirectPredecessors(p)), new HashSet<Node>(sys.getPreset(p)));
+			assertEquals(new HashSet<Node>(sys.getDirectSuccessors(p)), new HashSet<Node>(sys.getPostset(p)));
+		}
+	}
+
+	public void testFiring() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+		int[] m = net.toArray(sys.getMarking());
+
+		for (int k=0; k<20; k++) {
+			Set<Transition> enabled = new HashSet<Transition>();
+			for (int t=0; t<net.countTransitions(); t++)
+				if (net.isEnabled(t, m))
+					enabled.add(net.getTransition(t));
+			assertEquals(sys.getEnabledTransitions(), enabled);
+
+			Transition t = enabled.iterator().next();
+			assertTrue(net.fire(net.getIndex(t), m));
+			assertTrue(sys.fire(t));
+			assertTrue(Arrays.equals(net.toArray(sys.getMarking()), m));
+		}
+	}
+
+	public void testWeights() {
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition t = new Transition("t");
+		sys.addFlow(p, t);
+		sys.addFlow(t, q);
+		// parallel flows are not added
+		sys.addFlow(t, q);
+		sys.putTokens(p, 1);
+
+		CompiledPetriNet<Flow,Node,Place,Transition> net = sys.compile();
+		for (int w : net.getPresetWeights()) assertEquals(1, w);
+		for (int w : net.getPostsetWeights()) assertEquals(1, w);
+
+		int[] m = net.toArray(sys.getMarking());
+		assertTrue(net.fire(net.getIndex(t), m));
+		assertEquals(1, m[net.getIndex(q)]);
+		assertFalse(net.fire(net.getIndex(t), m));
+
+		Marking marking = sys.getMarking();
+		assertTrue(marking.fire(t));
+		assertEquals(1, marking.get(q).intValue());
+	}
+
+	public void testEnabledTransitionsBenchmark() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(50,50);
+
+		long start = System.nanoTime();
+		int count = 0;
+		for (int k=0; k<1000; k++) {
+			Transition t = sys.getEnabledTransitions().iterator().next();
+			sys.fire(t);
+			count++;
+		}
+		long time = System.nanoTime()-start;
+
+		assertEquals(1000, count);
+		System.out.println(String.format("%d enabled transitions queries and firings in a net with %d transitions in %d ms",
+				count, sys.getTransitions().size(), time/1000000));
+	}
+
+	private Set<Place> places(CompiledPetriNet<Flow,Node,Place,Transition> net, int[] offsets, int[] index, int i) {
+		Set<Place> result = new HashSet<Place>();
+		for (int j=offsets[i]; j<offsets[i+1]; j++) result.add(net.getPlace(index[j]));
+		return result;
+	}
+
+	private Set<Transition> transitions(CompiledPetriNet<Flow,Node,Place,Transition> net, int[] offsets, int[] index, int i) {
+		Set<Transition> result = new HashSet<Transition>();
+		for (int j=offsets[i]; j<offsets[i+1]; j++) result.add(net.getTransition(index[j]));
+		return result;
+	}
+}
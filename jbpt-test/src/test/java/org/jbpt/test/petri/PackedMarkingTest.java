@@ -0,0 +1,194 @@
+package org.jbpt.test.petri;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.PackedMarking;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+public class PackedMarkingTest extends TestCase {
+
+	public void testCompatibility() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		PackedMarking packed = new PackedMarking(sys);
+		packed.putAll(sys.getMarking());
+
+		assertEquals(sys.getMarking(), packed);
+		assertEquals(packed, sys.getMarking());
+		assertEquals(sys.getMarking().hashCode(), packed.hashCode());
+		assertEquals(sys.getMarking().size(), packed.size());
+		assertEquals(sys.getMarkedPlaces(), packed.keySet());
+		assertEquals(sys.getEnabledTransitions(), sys.getEnabledTransitionsAtMarking(toMarking(sys, packed)));
+
+		// fire transitions in a fixed order, as the iteration order of sets of transitions differs between runs
+		List<Transition> ts = new ArrayList<Transition>(sys.getTransitions());
+		Collections.sort(ts, new Comparator<Transition>() {
+			@Override
+			public int compare(Transition t1, Transition t2) {
+				return t1.getLabel().compareTo(t2.getLabel());
+			}
+		});
+		for (int i=0; i<50; i++) {
+			Transition t = this.getFirstEnabled(sys, ts, i);
+			assertTrue(sys.fire(t));
+			assertTrue(packed.fire(t));
+			assertEquals(sys.getMarking(), packed);
+			assertEquals(sys.getMarking().hashCode(), packed.hashCode());
+		}
+
+		Transition t = ts.get(0);
+		while (sys.isEnabled(t)) {
+			sys.fire(t);
+		}
+		packed.clear();
+		packed.putAll(sys.getMarking());
+		assertFalse(packed.fire(t));
+		assertEquals(sys.getMarking(), packed);
+
+		PackedMarking clone = (PackedMarking) packed.clone();
+		assertEquals(packed, clone);
+		clone.fire(this.getFirstEnabled(sys, ts, 0));
+		assertFalse(packed.equals(clone));
+		assertEquals(sys.getMarking(), packed);
+	}
+
+	public void testStateSpace() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(4,5);
+
+		// breadth-first search over packed markings
+		PackedMarking initial = new PackedMarking(sys);
+		initial.putAll(sys.getMarking());
+		Set<PackedMarking> packed = new HashSet<PackedMarking>();
+		LinkedList<PackedMarking> queue = new LinkedList<PackedMarking>();
+		packed.add(initial);
+		queue.add(initial);
+		while (!queue.isEmpty()) {
+			PackedMarking m = queue.poll();
+			for (Transition t : sys.getTransitions()) {
+				PackedMarking n = (PackedMarking) m.clone();
+				if (n.fire(t) && packed.add(n)) queue.add(n);
+			}
+		}
+		assertEquals(625, packed.size());
+
+		// the same markings are reached using generic markings
+		Set<Marking> markings = new HashSet<Marking>();
+		LinkedList<Marking> mqueue = new LinkedList<Marking>();
+		markings.add((Marking) sys.getMarking().clone());
+		mqueue.add((Marking) sys.getMarking().clone());
+		while (!mqueue.isEmpty()) {
+			Marking m = mqueue.poll();
+			for (Transition t : sys.getTransitions()) {
+				Marking n = (Marking) m.clone();
+				if (n.fire(t) && markings.add(n)) mqueue.add(n);
+			}
+		}
+		assertEquals(packed.size(), markings.size());
+		for (Marking m : markings)
+			assertTrue(packed.contains(m));
+	}
+
+	public void testBounded() {
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition t = new Transition("t");
+		sys.addFlow(p, t);
+		sys.addFlow(t, p);
+		sys.addFlow(t, q);
+		sys.putTokens(p, 1);
+
+		PackedMarking safe = new PackedMarking(sys);
+		assertEquals(1, safe.getBound());
+		safe.putAll(sys.getMarking());
+		assertTrue(safe.fire(t));
+		assertEquals(1, safe.get(q).intValue());
+		try {
+			safe.fire(t);
+			fail();
+		}
+		catch (IllegalStateException e) {}
+		// failed firing does not change the marking
+		assertEquals(1, safe.get(p).intValue());
+		assertEquals(1, safe.get(q).intValue());
+		try {
+			safe.put(q, 2);
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+
+		PackedMarking bounded = new PackedMarking(sys, 300);
+		assertEquals(65535, bounded.getBound());
+		bounded.putAll(sys.getMarking());
+		for (int i=0; i<300; i++) {
+			assertTrue(bounded.fire(t));
+			assertTrue(sys.fire(t));
+		}
+		assertEquals(300, bounded.get(q).intValue());
+		assertEquals(sys.getMarking(), bounded);
+		assertEquals(sys.getMarking().hashCode(), bounded.hashCode());
+		assertFalse(bounded.isSafe());
+		assertTrue(bounded.isBounded(300));
+
+		assertEquals(Integer.valueOf(300), bounded.remove(q));
+		assertNull(bounded.remove(q));
+		assertEquals(1, bounded.size());
+		assertEquals(1, bounded.toMultiSet().size());
+	}
+
+	public void testModification() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(2,70);
+		PackedMarking packed = new PackedMarking(sys);
+		packed.putAll(sys.getMarking());
+
+		// places get new indexes once the net changes
+		List<Place> places = new ArrayList<Place>(sys.getPlaces());
+		Place removed = null;
+		for (Place p : places)
+			if (!sys.isMarked(p)) {
+				removed = p;
+				break;
+			}
+		sys.removePlace(removed);
+		Place p = new Place("p");
+		sys.addPlace(p);
+
+		assertEquals(sys.getMarking(), packed);
+		packed.put(p, 1);
+		sys.putTokens(p, 1);
+		assertEquals(sys.getMarking(), packed);
+		assertEquals(sys.getMarking().hashCode(), packed.hashCode());
+		try {
+			packed.put(removed, 1);
+			fail();
+		}
+		catch (IllegalArgumentException e) {}
+	}
+
+	// first enabled transition in the given list, starting from the given position
+	private Transition getFirstEnabled(NetSystem sys, List<Transition> ts, int from) {
+		for (int i=0; i<ts.size(); i++) {
+			Transition t = ts.get((from+i) % ts.size());
+			if (sys.isEnabled(t)) return t;
+		}
+
+		return null;
+	}
+
+	private Marking toMarking(NetSystem sys, PackedMarking packed) {
+		Marking result = new Marking(sys);
+		result.putAll(packed);
+		return result;
+	}
+}
@@ -0,0 +1,145 @@
+package org.jbpt.test.petri;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.ReachabilityGraph;
+import org.jbpt.petri.behavior.ReachabilityGraphSetup;
+import org.jbpt.petri.io.PNMLSerializer;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.io.JSON2Process;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+import org.jbpt.throwable.SerializationException;
+
+public class ParallelReachabilityGraphTest extends TestCase {
+
+	protected static final String MODELS_DIR = "src/test/resources/models/process_json/allmodels";
+
+	public void testSimp() throws Exception {
+		NetSystem sys = new PNMLSerializer().parse("src/test/resources/models/petri_net_pnml/simp.pnml");
+		this.assertSameAsSequential(sys, new ReachabilityGraphSetup());
+	}
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(5,5);
+		this.assertSameAsSequential(sys, new ReachabilityGraphSetup());
+
+		// limit on the number of states
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.MAX_STATES = 1000;
+		this.assertSameAsSequential(sys, setup);
+
+		setup = new ReachabilityGraphSetup();
+		setup.STORE_EDGES = false;
+		this.assertSameAsSequential(sys, setup);
+	}
+
+	public void testUnbounded() {
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition t = new Transition("t");
+		Transition u = new Transition("u");
+		sys.addFlow(p, t);
+		sys.addFlow(t, p);
+		sys.addFlow(t, q);
+		sys.addFlow(q, u);
+		sys.putTokens(p, 1);
+
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.MAX_BOUND = 7;
+		this.assertSameAsSequential(sys, setup);
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+
+		int count = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 30) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loadProcess(MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+			setup.MAX_BOUND = 3;
+			setup.MAX_STATES = 20000;
+			this.assertSameAsSequential(sys, setup);
+		}
+	}
+
+	public void testScaling() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(7,7);
+		StringBuilder result = new StringBuilder();
+		int states = -1;
+		for (int threads=1; threads<=8; threads*=2) {
+			ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+			setup.THREADS = threads;
+			long start = System.nanoTime();
+			ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+			long time = System.nanoTime()-start;
+
+			if (states<0) states = graph.countStates();
+			assertEquals(states, graph.countStates());
+			result.append(String.format(" %d threads: %d ms;", threads, time/1000000));
+		}
+
+		System.out.println(String.format("Reachability graph with %d states (%d processors):%s", states, Runtime.getRuntime().availableProcessors(), result));
+	}
+
+	private void assertSameAsSequential(NetSystem sys, ReachabilityGraphSetup setup) {
+		setup.THREADS = 1;
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> sequential = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+
+		for (int threads=2; threads<=4; threads*=2) {
+			setup.THREADS = threads;
+			ReachabilityGraph<Flow,Node,Place,Transition,Marking> parallel = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+
+			assertEquals(sequential.countStates(), parallel.countStates());
+			assertEquals(sequential.countEdges(), parallel.countEdges());
+			assertEquals(sequential.isComplete(), parallel.isComplete());
+			assertEquals(sequential.isBoundExceeded(), parallel.isBoundExceeded());
+			assertTrue(Arrays.equals(sequential.getDeadlocks(), parallel.getDeadlocks()));
+			assertEquals(sequential.getDeadTransitions(), parallel.getDeadTransitions());
+
+			for (int s=0; s<sequential.countStates(); s++) {
+				assertEquals(sequential.getMarking(s), parallel.getMarking(s));
+				if (!setup.STORE_EDGES) continue;
+				assertEquals(sequential.countSuccessors(s), parallel.countSuccessors(s));
+				for (int i=0; i<sequential.countSuccessors(s); i++) {
+					assertEquals(sequential.getSuccessor(s,i), parallel.getSuccessor(s,i));
+					assertSame(sequential.getSuccessorTransition(s,i), parallel.getSuccessorTransition(s,i));
+				}
+			}
+
+			if (setup.STORE_EDGES)
+				assertTrue(Arrays.equals(sequential.getHomeStates(), parallel.getHomeStates()));
+		}
+	}
+
+	protected ProcessModel loadProcess(String filename) throws SerializationException, IOException {
+		String line;
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(filename));
+		while ((line = reader.readLine()) != null) {
+			sb.append(line);
+		}
+		reader.close();
+		return JSON2Process.convert(sb.toString());
+	}
+}
@@ -0,0 +1,177 @@
+package org.jbpt.test.petri;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.structure.PetriNetInvariants;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+public class PetriNetInvariantsTest extends TestCase {
+
+	public void testWorkflowNet() {
+		NetSystem net = new NetSystem();
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place p3 = new Place("p3");
+		Place p4 = new Place("p4");
+		Place p5 = new Place("p5");
+		Place p6 = new Place("p6");
+		Transition t1 = new Transition("t1");
+		Transition t2 = new Transition("t2");
+		Transition t3 = new Transition("t3");
+		Transition t4 = new Transition("t4");
+		net.addFlow(p1, t1);
+		net.addFlow(t1, p2);
+		net.addFlow(t1, p3);
+		net.addFlow(p2, t2);
+		net.addFlow(p3, t3);
+		net.addFlow(t2, p4);
+		net.addFlow(t3, p5);
+		net.addFlow(p4, t4);
+		net.addFlow(p5, t4);
+		net.addFlow(t4, p6);
+		net.putTokens(p1, 1);
+
+		PetriNetInvariants<Flow,Node,Place,Transition> invariants = new PetriNetInvariants<Flow,Node,Place,Transition>(net);
+		List<Map<Place,Integer>> pInvariants = invariants.getPlaceInvariants();
+		assertEquals(2, pInvariants.size());
+		assertTrue(pInvariants.contains(invariant(1, p1, p2, p4, p6)));
+		assertTrue(pInvariants.contains(invariant(1, p1, p3, p5, p6)));
+		assertTrue(invariants.isCoveredByPlaceInvariants());
+		assertTrue(invariants.getTransitionInvariants().isEmpty());
+		assertFalse(invariants.isCoveredByTransitionInvariants());
+
+		Marking m = net.getMarking();
+		assertEquals(1, invariants.getBound(p4, m));
+		assertTrue(invariants.areMutuallyExclusive(p2, p4, m));
+		assertTrue(invariants.areMutuallyExclusive(p1, p6, m));
+		assertFalse(invariants.areMutuallyExclusive(p2, p5, m));
+
+		Marking fin = new Marking(net);
+		fin.put(p6, 1);
+		assertTrue(invariants.isMarkingEquationSatisfiable(m, fin));
+		assertFalse(invariants.isMarkingEquationSatisfiable(fin, m));
+		fin.put(p6, 2);
+		assertFalse(invariants.isMarkingEquationSatisfiable(m, fin));
+		Marking half = new Marking(net);
+		half.put(p2, 1);
+		assertFalse(invariants.isMarkingEquationSatisfiable(m, half));
+		half.put(p5, 1);
+		assertTrue(invariants.isMarkingEquationSatisfiable(m, half));
+
+		// short-circuit the net
+		Transition t5 = new Transition("t5");
+		net.addFlow(p6, t5);
+		net.addFlow(t5, p1);
+		List<Map<Transition,Integer>> tInvariants = invariants.getTransitionInvariants();
+		assertEquals(1, tInvariants.size());
+		assertEquals(invariant(1, t1, t2, t3, t4, t5), tInvariants.get(0));
+		assertTrue(invariants.isCoveredByTransitionInvariants());
+		assertTrue(invariants.isMarkingEquationSatisfiable(fin, fin));
+		assertTrue(invariants.isMarkingEquationSatisfiable(half, m));
+	}
+
+	public void testUnbounded() {
+		NetSystem net = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place o = new Place("o");
+		Transition a = new Transition("a");
+		Transition loop = new Transition("loop");
+		Transition end = new Transition("end");
+		Transition drain = new Transition("drain");
+		net.addFlow(i, a);
+		net.addFlow(a, p1);
+		net.addFlow(p1, loop);
+		net.addFlow(loop, p1);
+		net.addFlow(loop, p2);
+		net.addFlow(p1, end);
+		net.addFlow(end, o);
+		net.addFlow(p2, drain);
+		net.addFlow(drain, o);
+		net.putTokens(i, 1);
+
+		PetriNetInvariants<Flow,Node,Place,Transition> invariants = new PetriNetInvariants<Flow,Node,Place,Transition>(net);
+		// every token at p2 eventually yields a token at o, so no weighted token sum is constant
+		assertFalse(invariants.isCoveredByPlaceInvariants());
+		assertTrue(invariants.getPlaceInvariants().isEmpty());
+		assertEquals(-1, invariants.getBound(p2, net.getMarking()));
+		assertTrue(invariants.getTransitionInvariants().isEmpty());
+
+		// any number of tokens can be put to p2
+		Marking m = new Marking(net);
+		m.put(p1, 1);
+		m.put(p2, 5);
+		assertTrue(invariants.isMarkingEquationSatisfiable(net.getMarking(), m));
+	}
+
+	public void testBound() {
+		// cycle with three tokens
+		NetSystem net = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Place r = new Place("r");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition c = new Transition("c");
+		net.addFlow(p, a);
+		net.addFlow(a, q);
+		net.addFlow(q, b);
+		net.addFlow(b, r);
+		net.addFlow(r, c);
+		net.addFlow(c, p);
+		net.putTokens(p, 3);
+
+		PetriNetInvariants<Flow,Node,Place,Transition> invariants = new PetriNetInvariants<Flow,Node,Place,Transition>(net);
+		assertEquals(1, invariants.getPlaceInvariants().size());
+		assertEquals(invariant(1, p, q, r), invariants.getPlaceInvariants().get(0));
+		assertEquals(invariant(1, a, b, c), invariants.getTransitionInvariants().get(0));
+		assertEquals(3, invariants.getBound(r, net.getMarking()));
+		assertFalse(invariants.areMutuallyExclusive(p, q, net.getMarking()));
+		assertFalse(invariants.areMutuallyExclusive(p, p, net.getMarking()));
+
+		net.putTokens(p, 1);
+		assertEquals(1, invariants.getBound(r, net.getMarking()));
+		assertTrue(invariants.areMutuallyExclusive(p, q, net.getMarking()));
+		assertTrue(invariants.areMutuallyExclusive(p, p, net.getMarking()));
+	}
+
+	public void testLargeNet() {
+		int cycles = 300;
+		int length = 10;
+		NetSystem net = CutoffIndexBenchmarkTest.createParallelCycles(cycles, length);
+
+		long start = System.nanoTime();
+		PetriNetInvariants<Flow,Node,Place,Transition> invariants = new PetriNetInvariants<Flow,Node,Place,Transition>(net);
+		assertEquals(cycles, invariants.getPlaceInvariants().size());
+		assertEquals(cycles, invariants.getTransitionInvariants().size());
+		assertTrue(invariants.isCoveredByPlaceInvariants());
+		assertTrue(invariants.isCoveredByTransitionInvariants());
+		for (Map<Place,Integer> y : invariants.getPlaceInvariants()) assertEquals(length, y.size());
+
+		Marking m = new Marking(net);
+		for (Place p : net.getPlaces())
+			if (p.getName().endsWith("_1")) m.put(p, 1);
+		assertTrue(invariants.isMarkingEquationSatisfiable(net.getMarking(), m));
+		long time = System.nanoTime()-start;
+
+		System.out.println(String.format("Invariants of a net with %d nodes computed in %d ms", net.getNodes().size(), time/1000000));
+	}
+
+	private static <N> Map<N,Integer> invariant(int coefficient, N... nodes) {
+		Map<N,Integer> result = new HashMap<N,Integer>();
+		for (N n : nodes) result.put(n, coefficient);
+
+		return result;
+	}
+}
@@ -0,0 +1,187 @@
+package org.jbpt.test.petri;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.SoundnessChecker;
+import org.jbpt.petri.structure.PetriNetReducer;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+
+public class PetriNetReducerTest extends TestCase {
+
+	public void testSeries() {
+		// a, silent, silent, b
+		NetSystem sys = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place p3 = new Place("p3");
+		Place o = new Place("o");
+		Transition a = new Transition("a");
+		Transition s1 = new Transition();
+		Transition s2 = new Transition();
+		Transition b = new Transition("b");
+		sys.addFlow(i, a);
+		sys.addFlow(a, p1);
+		sys.addFlow(p1, s1);
+		sys.addFlow(s1, p2);
+		sys.addFlow(p2, s2);
+		sys.addFlow(s2, p3);
+		sys.addFlow(p3, b);
+		sys.addFlow(b, o);
+		sys.putTokens(i, 1);
+
+		Map<Node,Node> map = new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys);
+		assertEquals(new HashSet<Transition>(Arrays.asList(a, b)), sys.getTransitions());
+		assertEquals(3, sys.getPlaces().size());
+		assertEquals(9, map.size());
+		assertEquals(a, map.get(a));
+		assertEquals(b, map.get(b));
+		// silent transitions and their places are represented by the place between a and b
+		Place p = sys.getPostset(a).iterator().next();
+		assertEquals(p, map.get(s1));
+		assertEquals(p, map.get(s2));
+		assertEquals(p, map.get(p1));
+		assertEquals(p, map.get(p2));
+		assertEquals(p, map.get(p3));
+		assertEquals(1, sys.getTokens(i).intValue());
+	}
+
+	public void testParallelAndSelfLoops() {
+		NetSystem sys = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place o = new Place("o");
+		Place loop = new Place("loop");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition s1 = new Transition();
+		Transition s2 = new Transition();
+		Transition idle = new Transition();
+		sys.addFlow(i, a);
+		sys.addFlow(a, p1);
+		sys.addFlow(a, p2);
+		sys.addFlow(p1, b);
+		sys.addFlow(p2, b);
+		sys.addFlow(b, o);
+		// parallel silent transitions from o to i
+		sys.addFlow(o, s1);
+		sys.addFlow(s1, i);
+		sys.addFlow(o, s2);
+		sys.addFlow(s2, i);
+		// marked self-loop place of b and a self-loop transition at p1
+		sys.addFlow(loop, b);
+		sys.addFlow(b, loop);
+		sys.addFlow(p1, idle);
+		sys.addFlow(idle, p1);
+		sys.putTokens(i, 1);
+		sys.putTokens(loop, 1);
+
+		Map<Node,Node> map = new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys);
+		assertFalse(map.containsKey(loop));
+		assertFalse(map.containsKey(idle));
+		assertEquals(map.get(p1), map.get(p2));
+		assertEquals(map.get(s1), map.get(s2));
+		assertEquals(i, map.get(s1));
+		assertEquals(i, map.get(o));
+		assertEquals(new HashSet<Transition>(Arrays.asList(a, b)), sys.getTransitions());
+		assertEquals(2, sys.getPlaces().size());
+	}
+
+	public void testSelfLoopTransitionOfSeveralPlaces() {
+		// p and q are never marked together, so t is dead and must not be removed
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition t = new Transition();
+		sys.addFlow(p, a);
+		sys.addFlow(a, q);
+		sys.addFlow(q, b);
+		sys.addFlow(b, p);
+		sys.addFlow(p, t);
+		sys.addFlow(q, t);
+		sys.addFlow(t, p);
+		sys.addFlow(t, q);
+		sys.putTokens(p, 1);
+
+		Map<Node,Node> map = new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys);
+		assertEquals(t, map.get(t));
+		assertTrue(sys.getTransitions().contains(t));
+		assertEquals(new HashSet<Place>(Arrays.asList(p, q)), sys.getPreset(t));
+	}
+
+	public void testAndSplit() {
+		// all transitions are silent, so the net is reduced to a single place
+		NetSystem sys = StubbornSetTest.createAndSplit(200, 10);
+		for (Transition t : sys.getTransitions()) t.setLabel("");
+
+		long start = System.nanoTime();
+		Map<Node,Node> map = new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys, null);
+		long time = System.nanoTime()-start;
+		assertEquals(0, sys.getTransitions().size());
+		assertEquals(1, sys.getPlaces().size());
+		Place p = sys.getPlaces().iterator().next();
+		assertEquals(1, sys.getTokens(p).intValue());
+		assertEquals(2*200*10+200+4, map.size());
+		assertEquals(new HashSet<Node>(Arrays.<Node>asList(p)), new HashSet<Node>(map.values()));
+		System.out.println(String.format("Net with %d nodes reduced in %d ms", map.size(), time/1000000));
+	}
+
+	public void testScaling() {
+		// reduction time must grow linearly with the size of the net
+		this.reduceAndSplit(100, 25);
+		long small = this.reduceAndSplit(100, 25);
+		long large = this.reduceAndSplit(100, 100);
+		System.out.println(String.format("Nets with %d and %d nodes reduced in %d ms and %d ms", 2*100*25+104, 2*100*100+104, small/1000000, large/1000000));
+		assertTrue(large < 8*small);
+	}
+
+	private long reduceAndSplit(int branches, int length) {
+		NetSystem sys = StubbornSetTest.createAndSplit(branches, length);
+		for (Transition t : sys.getTransitions()) t.setLabel("");
+
+		long start = System.nanoTime();
+		new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys, null);
+		long time = System.nanoTime()-start;
+		assertEquals(1, sys.getPlaces().size());
+		return time;
+	}
+
+	public void testSoundness() throws Exception {
+		File modelsDir = new File(ParallelReachabilityGraphTest.MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+		ParallelReachabilityGraphTest loader = new ParallelReachabilityGraphTest();
+
+		int count = 0, before = 0, after = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			NetSystem sys = ProcessModel2NetSystem.transform(loader.loadProcess(ParallelReachabilityGraphTest.MODELS_DIR + File.separator + name));
+			if (sys.getSourcePlaces().size()!=1 || sys.getSinkPlaces().size()!=1 || sys.getTransitions().size()>40) continue;
+			if (count++ >= 30) break;
+
+			sys.loadNaturalMarking();
+			boolean sound = SoundnessChecker.analyzeSoundness(sys).isClassicalSound();
+			before += sys.getNodes().size();
+			new PetriNetReducer<Flow,Node,Place,Transition,Marking>().reduce(sys);
+			after += sys.getNodes().size();
+			if (sys.getTransitions().isEmpty()) continue;
+			assertEquals(name, sound, SoundnessChecker.analyzeSoundness(sys).isClassicalSound());
+		}
+
+		assertTrue(after < before);
+	}
+}
@@ -0,0 +1,171 @@
+package org.jbpt.test.petri;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.automaton.Automaton;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.ReachabilityGraph;
+import org.jbpt.petri.behavior.ReachabilityGraphSetup;
+import org.jbpt.petri.behavior.SearchOrderType;
+import org.jbpt.petri.behavior.SimpleStateSpace;
+import org.jbpt.petri.io.PNMLSerializer;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+public class ReachabilityGraphTest extends TestCase {
+
+	public void testSimpleStateSpace() throws IOException {
+		PNMLSerializer ser = new PNMLSerializer();
+		NetSystem sys = ser.parse("src/test/resources/models/petri_net_pnml/simp.pnml");
+
+		SimpleStateSpace<Flow,Node,Place,Transition,Marking> space = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		space.create();
+
+		for (SearchOrderType order : SearchOrderType.values()) {
+			ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+			setup.SEARCH_ORDER = order;
+			ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+
+			assertTrue(graph.isComplete());
+			assertFalse(graph.isBoundExceeded());
+			assertEquals(space.getNumberOfMarkings(), graph.countStates());
+			assertEquals(sys.getMarking(), graph.getMarking(graph.getInitialState()));
+
+			// every state is a distinct reachable marking and edges agree with the firing rule
+			Set<Marking> markings = new HashSet<Marking>();
+			int edges = 0;
+			for (int s=0; s<graph.countStates(); s++) {
+				Marking m = graph.getMarking(s);
+				assertTrue(markings.add(m));
+				assertEquals(s, graph.getState(m));
+				for (Place p : sys.getPlaces())
+					assertEquals(m.get(p).intValue(), graph.getTokens(s,p));
+				assertEquals(sys.getEnabledTransitionsAtMarking(m).size(), graph.countSuccessors(s));
+				for (int i=0; i<graph.countSuccessors(s); i++)
+					assertEquals(sys.fire(m, graph.getSuccessorTransition(s,i)), graph.getMarking(graph.getSuccessor(s,i)));
+				edges += graph.countSuccessors(s);
+			}
+			assertEquals(edges, graph.countEdges());
+		}
+	}
+
+	public void testAnalyses() {
+		// p1 -> t1 -> p2 -> t2 -> p3, and t3 needs a token at p4 which never gets marked
+		NetSystem sys = new NetSystem();
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place p3 = new Place("p3");
+		Place p4 = new Place("p4");
+		Transition t1 = new Transition("t1");
+		Transition t2 = new Transition("t2");
+		Transition t3 = new Transition("t3");
+		sys.addFlow(p1, t1);
+		sys.addFlow(t1, p2);
+		sys.addFlow(p2, t2);
+		sys.addFlow(t2, p3);
+		sys.addFlow(p4, t3);
+		sys.addFlow(t3, p1);
+		sys.putTokens(p1, 1);
+
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys);
+		assertEquals(3, graph.countStates());
+		assertEquals(1, graph.getDeadlocks().length);
+		assertEquals(1, graph.getMarking(graph.getDeadlocks()[0]).get(p3).intValue());
+		assertEquals(1, graph.getDeadTransitions().size());
+		assertTrue(graph.getDeadTransitions().contains(t3));
+		// the deadlock is the only home marking
+		assertEquals(1, graph.getHomeStates().length);
+		assertEquals(graph.getDeadlocks()[0], graph.getHomeStates()[0]);
+		assertFalse(graph.isReversible());
+
+		// t2 also returns the token to p1, hence p3 is unbounded
+		sys.addFlow(t2, p1);
+		graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys);
+		assertTrue(graph.isBoundExceeded());
+		assertFalse(graph.isComplete());
+		assertFalse(graph.hasDeadlock());
+
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.MAX_BOUND = 10;
+		graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+		assertTrue(graph.isBoundExceeded());
+		assertEquals(22, graph.countStates());
+
+		// limit on the number of states
+		setup.MAX_STATES = 5;
+		graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+		assertEquals(5, graph.countStates());
+		assertFalse(graph.isComplete());
+	}
+
+	public void testHomeMarkings() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,4);
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys);
+		assertEquals(64, graph.countStates());
+		assertEquals(64, graph.getHomeStates().length);
+		assertTrue(graph.isReversible());
+		assertFalse(graph.hasDeadlock());
+		assertTrue(graph.getDeadTransitions().isEmpty());
+
+		// two terminal components: no home markings
+		NetSystem choice = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Place r = new Place("r");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		choice.addFlow(p, a);
+		choice.addFlow(a, q);
+		choice.addFlow(p, b);
+		choice.addFlow(b, r);
+		choice.putTokens(p, 1);
+		graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(choice);
+		assertEquals(0, graph.getHomeStates().length);
+		assertEquals(2, graph.getDeadlocks().length);
+	}
+
+	public void testWithoutEdges() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,4);
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.STORE_EDGES = false;
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+		assertEquals(64, graph.countStates());
+		assertEquals(0, graph.countEdges());
+		try {
+			graph.getHomeStates();
+			fail();
+		}
+		catch (IllegalStateException e) {}
+	}
+
+	public void testBenchmark() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(6,6);
+
+		long start = System.nanoTime();
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys);
+		long time = System.nanoTime()-start;
+		start = System.nanoTime();
+		Automaton automaton = new Automaton(sys);
+		long automatonTime = System.nanoTime()-start;
+		assertEquals(automaton.getVertices().size(), graph.countStates());
+
+		NetSystem large = CutoffIndexBenchmarkTest.createParallelCycles(7,8);
+		ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+		setup.STORE_EDGES = false;
+		start = System.nanoTime();
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> largeGraph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(large, setup);
+		long largeTime = System.nanoTime()-start;
+		assertEquals(2097152, largeGraph.countStates());
+
+		System.out.println(String.format("%d states: reachability graph %d ms, automaton %d ms; %d states without edges in %d ms",
+				graph.countStates(), time/1000000, automatonTime/1000000, largeGraph.countStates(), largeTime/1000000));
+	}
+}
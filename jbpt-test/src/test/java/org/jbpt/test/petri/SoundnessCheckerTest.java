@@ -0,0 +1,224 @@
+package org.jbpt.test.petri;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.LolaSoundnessCheckerResult;
+import org.jbpt.petri.behavior.SoundnessChecker;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+
+public class SoundnessCheckerTest extends TestCase {
+
+	public void testSound() {
+		NetSystem net = new NetSystem();
+		Place p1 = new Place();
+		Place p2 = new Place();
+		Place p3 = new Place();
+		Place p4 = new Place();
+		Place p5 = new Place();
+		Place p6 = new Place();
+		Transition t1 = new Transition();
+		Transition t2 = new Transition();
+		Transition t3 = new Transition();
+		Transition t4 = new Transition();
+		net.addFlow(p1, t1);
+		net.addFlow(t1, p2);
+		net.addFlow(t1, p3);
+		net.addFlow(p2, t2);
+		net.addFlow(p3, t3);
+		net.addFlow(t2, p4);
+		net.addFlow(t3, p5);
+		net.addFlow(p4, t4);
+		net.addFlow(p5, t4);
+		net.addFlow(t4, p6);
+
+		LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+		assertTrue(result.isClassicalSound());
+		assertTrue(result.isWeakSound());
+		assertTrue(result.isRelaxedSound());
+		assertTrue(result.isBounded());
+		assertTrue(result.hasLiveness());
+		assertTrue(result.hasQuasiLiveness());
+		assertTrue(result.getDeadTransitions().isEmpty());
+		assertTrue(result.getUncoveredTransitions().isEmpty());
+		// the marking of the net is not used
+		assertEquals(0, net.getMarking().size());
+	}
+
+	public void testDeadlock() {
+		// AND-split followed by an XOR-join and an AND-join: the net deadlocks
+		NetSystem net = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place p3 = new Place("p3");
+		Place o = new Place("o");
+		Transition split = new Transition("split");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition join = new Transition("join");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		net.addFlow(p1, a);
+		net.addFlow(p2, b);
+		net.addFlow(a, p3);
+		net.addFlow(b, p3);
+		net.addFlow(p3, join);
+		net.addFlow(p1, join);
+		net.addFlow(join, o);
+
+		LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+		assertTrue(result.isBounded());
+		assertFalse(result.isWeakSound());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.hasLiveness());
+		// split, b, join reaches o, whereas every sequence with a deadlocks
+		assertFalse(result.isRelaxedSound());
+		assertEquals(Arrays.asList(a), new ArrayList<Transition>(result.getUncoveredTransitions()));
+		assertTrue(result.hasQuasiLiveness());
+	}
+
+	public void testImproperCompletion() {
+		// AND-split into two branches that both put a token to the sink place
+		NetSystem net = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place o = new Place("o");
+		Transition split = new Transition("split");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		net.addFlow(i, split);
+		net.addFlow(split, p1);
+		net.addFlow(split, p2);
+		net.addFlow(p1, a);
+		net.addFlow(p2, b);
+		net.addFlow(a, o);
+		net.addFlow(b, o);
+
+		LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+		assertTrue(result.isBounded());
+		assertTrue(result.getUnboundedPlaces().isEmpty());
+		assertFalse(result.isWeakSound());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.isRelaxedSound());
+		assertEquals(3, result.getUncoveredTransitions().size());
+		assertTrue(result.hasQuasiLiveness());
+	}
+
+	public void testUnbounded() {
+		// a loop that produces tokens in place p2 on every iteration
+		NetSystem net = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place o = new Place("o");
+		Transition a = new Transition("a");
+		Transition loop = new Transition("loop");
+		Transition end = new Transition("end");
+		Transition drain = new Transition("drain");
+		net.addFlow(i, a);
+		net.addFlow(a, p1);
+		net.addFlow(p1, loop);
+		net.addFlow(loop, p1);
+		net.addFlow(loop, p2);
+		net.addFlow(p1, end);
+		net.addFlow(end, o);
+		net.addFlow(p2, drain);
+		net.addFlow(drain, o);
+
+		LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+		assertFalse(result.isBounded());
+		assertTrue(result.getUnboundedPlaces().contains(p2));
+		assertTrue(result.getUnboundedPlaces().contains(o));
+		assertFalse(result.getUnboundedPlaces().contains(p1));
+		assertTrue(result.hasQuasiLiveness());
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.isWeakSound());
+		assertFalse(result.hasLiveness());
+	}
+
+	public void testDeadTransitions() {
+		// XOR-split into places p1 and p2 that are never marked together, transition c requires both
+		NetSystem net = new NetSystem();
+		Place i = new Place("i");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place o = new Place("o");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition c = new Transition("c");
+		Transition d = new Transition("d");
+		Transition e = new Transition("e");
+		net.addFlow(i, a);
+		net.addFlow(a, p1);
+		net.addFlow(i, b);
+		net.addFlow(b, p2);
+		net.addFlow(p1, c);
+		net.addFlow(p2, c);
+		net.addFlow(c, o);
+		net.addFlow(p1, d);
+		net.addFlow(d, o);
+		net.addFlow(p2, e);
+		net.addFlow(e, o);
+
+		LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+		assertTrue(result.isBounded());
+		assertTrue(result.isWeakSound());
+		assertFalse(result.hasQuasiLiveness());
+		assertEquals(Arrays.asList(c), new ArrayList<Transition>(result.getDeadTransitions()));
+		assertFalse(result.isClassicalSound());
+		assertFalse(result.hasLiveness());
+		assertTrue(result.getUncoveredTransitions().contains(c));
+	}
+
+	public void testNoWorkflowNet() {
+		NetSystem net = StubbornSetTest.createAndSplit(2,1);
+		net.addFlow(new Place("source"), net.getTransitions().iterator().next());
+		try {
+			SoundnessChecker.analyzeSoundness(net);
+			fail("Net must be a WF-net!");
+		}
+		catch (IllegalArgumentException e) {
+		}
+	}
+
+	public void testBatch() throws Exception {
+		File modelsDir = new File(ParallelReachabilityGraphTest.MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+		ParallelReachabilityGraphTest loader = new ParallelReachabilityGraphTest();
+
+		List<NetSystem> nets = new ArrayList<NetSystem>();
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			NetSystem net = ProcessModel2NetSystem.transform(loader.loadProcess(ParallelReachabilityGraphTest.MODELS_DIR + File.separator + name));
+			if (net.getSourcePlaces().size()!=1 || net.getSinkPlaces().size()!=1 || net.getTransitions().size()>40) continue;
+			nets.add(net);
+			if (nets.size()>=30) break;
+		}
+
+		List<LolaSoundnessCheckerResult> expected = new ArrayList<LolaSoundnessCheckerResult>();
+		int sound = 0;
+		for (NetSystem net : nets) {
+			LolaSoundnessCheckerResult result = SoundnessChecker.analyzeSoundness(net);
+			expected.add(result);
+			if (result.isClassicalSound()) sound++;
+			assertEquals(result.isClassicalSound(), result.hasLiveness() && result.isBounded());
+		}
+
+		List<LolaSoundnessCheckerResult> actual = SoundnessChecker.analyzeSoundness(nets, 4);
+		assertEquals(expected.size(), actual.size());
+		for (int k=0; k<expected.size(); k++)
+			assertEquals(expected.get(k).toString(), actual.get(k).toString());
+		System.out.println(String.format("%d of %d workflow nets are sound", sound, nets.size()));
+	}
+}
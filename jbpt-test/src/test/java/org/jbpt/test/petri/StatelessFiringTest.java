@@ -0,0 +1,98 @@
+package org.jbpt.test.petri;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.jbpt.automaton.Automaton;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Run;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.ProjectedStateSpace;
+import org.jbpt.petri.behavior.SimpleStateSpace;
+import org.jbpt.petri.io.PNMLSerializer;
+
+public class StatelessFiringTest extends TestCase {
+
+	public void testFire() {
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition t = new Transition("t");
+		Transition u = new Transition("u");
+		sys.addFlow(p, t);
+		sys.addFlow(t, q);
+		sys.addFlow(q, u);
+		sys.putTokens(p, 1);
+
+		Marking m = (Marking) sys.getMarking().clone();
+		assertTrue(sys.isEnabled(m, t));
+		assertFalse(sys.isEnabled(m, u));
+
+		Marking n = sys.fire(m, t);
+		assertNotNull(n);
+		assertNotSame(m, n);
+		assertEquals(1, n.get(q).intValue());
+		assertEquals(0, n.get(p).intValue());
+		// neither the given marking nor the marking of the net system are changed
+		assertEquals(1, m.get(p).intValue());
+		assertEquals(sys.getMarking(), m);
+
+		assertNull(sys.fire(m, u));
+		assertEquals(sys.getEnabledTransitionsAtMarking(n), sys.getEnabledTransitionsAtMarking(n, sys.getEnabledTransitionsAtMarking(m), t));
+		assertTrue(sys.getEnabledTransitionsAtMarking(n).contains(u));
+	}
+
+	public void testConcurrentAnalyses() throws Exception {
+		PNMLSerializer ser = new PNMLSerializer();
+		final NetSystem sys = ser.parse("src/test/resources/models/petri_net_pnml/simp.pnml");
+		final Marking initial = (Marking) sys.getMarking().clone();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+			for (int i=0; i<8; i++) {
+				results.add(executor.submit(new Callable<int[]>() {
+					@Override
+					public int[] call() {
+						SimpleStateSpace<Flow,Node,Place,Transition,Marking> space = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+						space.create();
+
+						ProjectedStateSpace<Flow,Node,Place,Transition,Marking> projected = new ProjectedStateSpace<Flow,Node,Place,Transition,Marking>(sys, sys.getObservableTransitions());
+						projected.create();
+
+						Automaton automaton = new Automaton(sys);
+
+						Run run = new Run(sys);
+						for (int j=0; j<10 && !run.getPossibleExtensions().isEmpty(); j++)
+							run.append(run.getPossibleExtensions().iterator().next());
+
+						return new int[] {space.getNumberOfMarkings(), projected.getNumberOfMarkings(), automaton.getVertices().size()};
+					}
+				}));
+			}
+
+			for (Future<int[]> result : results) {
+				int[] counts = result.get();
+				assertEquals(121, counts[0]);
+				assertEquals(121, counts[2]);
+				assertTrue(counts[1]>0);
+				assertEquals(results.get(0).get()[1], counts[1]);
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+
+		assertEquals(initial, sys.getMarking());
+	}
+}
@@ -0,0 +1,181 @@
+package org.jbpt.test.petri;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.bp.RelSet;
+import org.jbpt.bp.construct.ProjTARCreatorStateSpace;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.ProjectedStateSpace;
+import org.jbpt.petri.behavior.ReachabilityGraph;
+import org.jbpt.petri.behavior.ReachabilityGraphSetup;
+import org.jbpt.petri.behavior.SimpleStateSpace;
+import org.jbpt.petri.io.PNMLSerializer;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+
+public class StubbornSetTest extends TestCase {
+
+	public void testDeadlocks() {
+		NetSystem sys = createAndSplit(6,4);
+		SimpleStateSpace<Flow,Node,Place,Transition,Marking> full = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		full.create();
+		SimpleStateSpace<Flow,Node,Place,Transition,Marking> reduced = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys, true);
+		reduced.create();
+
+		// 5^6 markings between the AND-split and the AND-join, of which the reduced state space visits one sequence
+		assertEquals(15627, full.getNumberOfMarkings());
+		assertEquals(27, reduced.getNumberOfMarkings());
+		assertTrue(reduced.isReduced());
+		assertEquals(1, reduced.getDeadlocks().size());
+		assertEquals(full.getDeadlocks(), reduced.getDeadlocks());
+	}
+
+	public void testProjection() {
+		// AND-split with silent branches and two visible transitions
+		NetSystem sys = createAndSplit(6,4);
+		Set<Transition> projection = new HashSet<Transition>();
+		for (Transition t : sys.getTransitions())
+			if (t.getLabel().equals("b0_0") || t.getLabel().equals("b1_3") || t.getLabel().equals("split") || t.getLabel().equals("join"))
+				projection.add(t);
+
+		ProjectedStateSpace<Flow,Node,Place,Transition,Marking> full = new ProjectedStateSpace<Flow,Node,Place,Transition,Marking>(sys, projection);
+		full.create();
+		ProjectedStateSpace<Flow,Node,Place,Transition,Marking> reduced = new ProjectedStateSpace<Flow,Node,Place,Transition,Marking>(sys, projection, true);
+		reduced.create();
+
+		assertSameSteps(full, reduced, projection);
+		assertTrue(reduced.getNumberOfMarkings()*10 < full.getNumberOfMarkings());
+	}
+
+	public void testSimp() {
+		NetSystem sys = new PNMLSerializer().parse("src/test/resources/models/petri_net_pnml/simp.pnml");
+
+		SimpleStateSpace<Flow,Node,Place,Transition,Marking> full = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		full.create();
+		SimpleStateSpace<Flow,Node,Place,Transition,Marking> reduced = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys, true);
+		reduced.create();
+		assertEquals(full.getDeadlocks(), reduced.getDeadlocks());
+		assertTrue(reduced.getNumberOfMarkings() < full.getNumberOfMarkings());
+
+		this.assertSameSteps(sys, sys.getObservableTransitions());
+		this.assertSameSteps(sys, sys.getTransitions());
+		Random random = new Random(1);
+		for (int i=0; i<10; i++)
+			this.assertSameSteps(sys, randomSubset(sys.getTransitions(), random));
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(ParallelReachabilityGraphTest.MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+		ParallelReachabilityGraphTest loader = new ParallelReachabilityGraphTest();
+		Random random = new Random(1);
+
+		int count = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 50) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loader.loadProcess(ParallelReachabilityGraphTest.MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			// consider safe nets with small state spaces
+			ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+			setup.MAX_STATES = 5000;
+			setup.STORE_EDGES = false;
+			if (!new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup).isComplete()) continue;
+
+			SimpleStateSpace<Flow,Node,Place,Transition,Marking> full = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+			full.create();
+			SimpleStateSpace<Flow,Node,Place,Transition,Marking> reduced = new SimpleStateSpace<Flow,Node,Place,Transition,Marking>(sys, true);
+			reduced.create();
+			assertEquals(name, full.getDeadlocks(), reduced.getDeadlocks());
+
+			this.assertSameSteps(sys, sys.getObservableTransitions());
+			this.assertSameSteps(sys, randomSubset(sys.getTransitions(), random));
+		}
+	}
+
+	public void testProjTARCreator() {
+		NetSystem sys = createAndSplit(10,3);
+		Set<Node> projection = new HashSet<Node>();
+		for (Transition t : sys.getTransitions())
+			if (t.getLabel().endsWith("_0") || t.getLabel().equals("join"))
+				projection.add(t);
+
+		// 4^10 markings in the full state space
+		long start = System.nanoTime();
+		RelSet<NetSystem,Node> tar = ProjTARCreatorStateSpace.getInstance().deriveRelationSet(sys, new ArrayList<Node>(projection));
+		long time = System.nanoTime()-start;
+		assertEquals(projection.size(), tar.getEntities().size());
+		System.out.println(String.format("Relation set of %d transitions derived from a reduced state space in %d ms", projection.size(), time/1000000));
+	}
+
+	private void assertSameSteps(NetSystem sys, Set<Transition> projection) {
+		ProjectedStateSpace<Flow,Node,Place,Transition,Marking> full = new ProjectedStateSpace<Flow,Node,Place,Transition,Marking>(sys, projection);
+		full.create();
+		ProjectedStateSpace<Flow,Node,Place,Transition,Marking> reduced = new ProjectedStateSpace<Flow,Node,Place,Transition,Marking>(sys, projection, true);
+		reduced.create();
+		assertSameSteps(full, reduced, projection);
+		assertTrue(reduced.getNumberOfMarkings() <= full.getNumberOfMarkings());
+	}
+
+	private static void assertSameSteps(ProjectedStateSpace<Flow,Node,Place,Transition,Marking> full, ProjectedStateSpace<Flow,Node,Place,Transition,Marking> reduced, Set<Transition> projection) {
+		for (Transition t1 : projection)
+			for (Transition t2 : projection)
+				assertEquals(t1.getLabel() + " " + t2.getLabel(), full.isStep(t1,t2), reduced.isStep(t1,t2));
+	}
+
+	private static Set<Transition> randomSubset(Set<Transition> transitions, Random random) {
+		Set<Transition> result = new HashSet<Transition>();
+		for (Transition t : transitions)
+			if (random.nextInt(3)==0) result.add(t);
+
+		return result;
+	}
+
+	/**
+	 * Create a net with an AND-split into branches that are sequences of transitions, followed by an AND-join.
+	 *
+	 * @param branches Number of branches.
+	 * @param length Number of transitions per branch.
+	 * @return Net system with (length+1)^branches+2 reachable markings.
+	 */
+	public static NetSystem createAndSplit(int branches, int length) {
+		NetSystem sys = new NetSystem();
+		Place i = new Place("i");
+		Place o = new Place("o");
+		Transition split = new Transition("split");
+		Transition join = new Transition("join");
+		sys.addFlow(i, split);
+		sys.addFlow(join, o);
+
+		for (int b=0; b<branches; b++) {
+			Place p = new Place("p" + b + "_0");
+			sys.addFlow(split, p);
+			for (int k=0; k<length; k++) {
+				Transition t = new Transition("b" + b + "_" + k);
+				Place q = new Place("p" + b + "_" + (k+1));
+				sys.addFlow(p, t);
+				sys.addFlow(t, q);
+				p = q;
+			}
+			sys.addFlow(p, join);
+		}
+
+		sys.putTokens(i, 1);
+		return sys;
+	}
+}
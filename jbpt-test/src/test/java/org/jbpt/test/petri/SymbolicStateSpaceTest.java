@@ -0,0 +1,145 @@
+package org.jbpt.test.petri;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.behavior.ReachabilityGraph;
+import org.jbpt.petri.behavior.ReachabilityGraphSetup;
+import org.jbpt.petri.behavior.SymbolicStateSpace;
+import org.jbpt.petri.io.PNMLSerializer;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+import org.jbpt.test.petri.unfolding.CutoffIndexBenchmarkTest;
+
+public class SymbolicStateSpaceTest extends TestCase {
+
+	public void testSimp() {
+		NetSystem sys = new PNMLSerializer().parse("src/test/resources/models/petri_net_pnml/simp.pnml");
+		SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+
+		assertTrue(space.isSafe());
+		assertEquals(121.0, space.countMarkings());
+		this.assertSameAsExplicit(sys, space, new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys));
+	}
+
+	public void testQueries() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(4,5);
+		SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys);
+		assertEquals(625.0, space.countMarkings());
+		assertTrue(space.isDeadlockFree());
+		assertNull(space.getDeadlock());
+		this.assertSameAsExplicit(sys, space, graph);
+
+		// places of the same cycle are never marked together
+		Set<Place> marked = new HashSet<Place>(sys.getMarkedPlaces());
+		assertTrue(space.isCoverable(marked));
+		Place p = marked.iterator().next();
+		Transition t = sys.getPostset(p).iterator().next();
+		marked.add(sys.getPostset(t).iterator().next());
+		assertFalse(space.isCoverable(marked));
+
+		// an unsafe marking is not reachable
+		Marking m = (Marking) sys.getMarking().clone();
+		m.put(p, 2);
+		assertFalse(space.isReachable(m));
+	}
+
+	public void testDeadlock() {
+		NetSystem sys = StubbornSetTest.createAndSplit(3,2);
+		Transition dead = new Transition("dead");
+		Place never = new Place("never");
+		sys.addFlow(never, dead);
+		SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+
+		assertEquals(29.0, space.countMarkings());
+		assertFalse(space.isDeadlockFree());
+		Marking deadlock = space.getDeadlock();
+		assertEquals(1, deadlock.size());
+		assertEquals(1, deadlock.get(sys.getSinkPlaces().iterator().next()).intValue());
+		assertEquals(1, space.getDeadTransitions().size());
+		assertTrue(space.getDeadTransitions().contains(dead));
+	}
+
+	public void testUnsafe() {
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Transition t = new Transition("t");
+		sys.addFlow(p, t);
+		sys.addFlow(t, p);
+		sys.addFlow(t, q);
+		sys.putTokens(p, 1);
+
+		SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		assertFalse(space.isSafe());
+		try {
+			space.countMarkings();
+			fail();
+		}
+		catch (IllegalStateException e) {}
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(ParallelReachabilityGraphTest.MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+		ParallelReachabilityGraphTest loader = new ParallelReachabilityGraphTest();
+
+		int count = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 100) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loader.loadProcess(ParallelReachabilityGraphTest.MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			ReachabilityGraphSetup setup = new ReachabilityGraphSetup();
+			setup.MAX_STATES = 50000;
+			ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph = new ReachabilityGraph<Flow,Node,Place,Transition,Marking>(sys, setup);
+			SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+
+			if (graph.isBoundExceeded()) {
+				assertFalse(name, space.isSafe());
+				continue;
+			}
+			assertTrue(name, space.isSafe());
+			if (graph.isComplete())
+				this.assertSameAsExplicit(sys, space, graph);
+		}
+	}
+
+	public void testBenchmark() {
+		// 6^40 markings between the AND-split and the AND-join
+		NetSystem sys = StubbornSetTest.createAndSplit(40,5);
+		long start = System.nanoTime();
+		SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space = new SymbolicStateSpace<Flow,Node,Place,Transition,Marking>(sys);
+		long time = System.nanoTime()-start;
+
+		double expected = Math.pow(6,40)+2;
+		assertEquals(expected, space.countMarkings(), expected*1e-12);
+		assertFalse(space.isDeadlockFree());
+		assertTrue(space.getDeadTransitions().isEmpty());
+		System.out.println(String.format("%.3e markings in a BDD of %d nodes after %d images in %d ms",
+				space.countMarkings(), space.countNodes(), space.countImages(), time/1000000));
+	}
+
+	private void assertSameAsExplicit(NetSystem sys, SymbolicStateSpace<Flow,Node,Place,Transition,Marking> space, ReachabilityGraph<Flow,Node,Place,Transition,Marking> graph) {
+		assertEquals((double) graph.countStates(), space.countMarkings());
+		assertEquals(graph.hasDeadlock(), !space.isDeadlockFree());
+		assertEquals(graph.getDeadTransitions(), space.getDeadTransitions());
+		for (int s=0; s<graph.countStates(); s++)
+			assertTrue(space.isReachable(graph.getMarking(s)));
+		if (graph.hasDeadlock())
+			assertTrue(graph.getState(space.getDeadlock())>=0);
+	}
+}
@@ -0,0 +1,116 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompactCompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.Event;
+import org.jbpt.petri.unfolding.IBPNode;
+import org.jbpt.petri.unfolding.IBranchingProcess;
+import org.jbpt.petri.unfolding.OrderingRelationType;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.io.JSON2Process;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+import org.jbpt.throwable.SerializationException;
+
+/**
+ * Checks that snapshots of constructed complete prefix unfoldings describe the same prefixes as the unfoldings.
+ */
+public class CompactCompletePrefixUnfoldingTest extends TestCase {
+
+	protected static final String MODELS_DIR = "src/test/resources/models/process_json/allmodels";
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(20,40);
+
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys);
+
+		assertSameUnfolding(cpu, new CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>(cpu));
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+
+		int count = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 30) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loadProcess(MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+			setup.MAX_EVENTS = 100;
+			CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+
+			assertSameUnfolding(cpu, new CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>(cpu));
+		}
+	}
+
+	private void assertSameUnfolding(CompletePrefixUnfolding cpu, CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> compact) {
+		List<Event> es = cpu.getLog();
+		assertEquals(es.size(), compact.countEvents());
+		assertEquals(cpu.getConditions().size(), compact.countConditions());
+		assertEquals(cpu.getCutoffEvents().size(), compact.getCutoffEvents().size());
+		assertEquals(cpu.getInitialCut().size(), compact.getInitialCut().size());
+
+		for (int i=0; i<es.size(); i++) {
+			Event e = es.get(i);
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView v = compact.getEvent(i);
+			assertEquals(e.getTransition(), v.getTransition());
+			assertEquals(e.getPreConditions().size(), v.getPreConditions().size());
+			assertEquals(e.getPostConditions().size(), v.getPostConditions().size());
+			assertEquals(e.getLocalConfiguration().size(), v.getLocalConfigurationSize());
+			assertEquals(cpu.isCutoffEvent(e), v.isCutoff());
+			if (v.isCutoff())
+				assertSame(cpu.getCorrespondingEvent(e), es.get(v.getCorrespondingEvent().getId()));
+
+			List<Place> ps = new ArrayList<Place>();
+			for (CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.ConditionView c : v.getPostConditions()) {
+				assertEquals(v, c.getPreEvent());
+				ps.add(c.getPlace());
+			}
+			assertTrue(ps.containsAll(cpu.getPlaces(e.getPostConditions())));
+
+			for (int j=0; j<es.size(); j++) {
+				Event f = es.get(j);
+				assertEquals(getOrderingRelation(cpu,e,f)==OrderingRelationType.CAUSAL, compact.areCausal(i,j));
+				assertEquals(getOrderingRelation(cpu,e,f)==OrderingRelationType.CONFLICT, compact.areInConflict(i,j));
+			}
+		}
+	}
+
+	// events are not typed as nodes of complete prefix unfoldings (BPNode)
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static OrderingRelationType getOrderingRelation(IBranchingProcess bp, Event e, Event f) {
+		return bp.getOrderingRelation((IBPNode)e,(IBPNode)f);
+	}
+
+	protected ProcessModel loadProcess(String filename) throws SerializationException, IOException {
+		String line;
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(filename));
+		while ((line = reader.readLine()) != null) {
+			sb.append(line);
+		}
+		reader.close();
+		return JSON2Process.convert(sb.toString());
+	}
+}
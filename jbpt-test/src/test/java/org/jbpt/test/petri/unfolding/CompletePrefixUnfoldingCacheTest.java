@@ -0,0 +1,250 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompactCompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingCache;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.Event;
+import org.jbpt.petri.unfolding.IBPNode;
+import org.jbpt.petri.unfolding.IBranchingProcess;
+import org.jbpt.petri.unfolding.OrderingRelationType;
+import org.jbpt.petri.unfolding.ProperCompletePrefixUnfolding;
+
+public class CompletePrefixUnfoldingCacheTest extends TestCase {
+
+	public void testMemory() throws IOException {
+		CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000);
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+
+		NetSystem sys1 = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		assertNull(cache.get(CompletePrefixUnfolding.class, sys1, setup));
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys1, setup);
+		cache.put(sys1, setup, cpu);
+		assertEquals(1, cache.size());
+
+		// structurally identical net system
+		NetSystem sys2 = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cached = cache.get(CompletePrefixUnfolding.class, sys2, setup);
+		assertNotNull(cached);
+		assertSame(sys2, cached.getOriginativeNetSystem());
+		assertEquals(cpu.getEvents().size(), cached.countEvents());
+		assertEquals(cpu.getConditions().size(), cached.countConditions());
+		assertEquals(cpu.getCutoffEvents().size(), cached.getCutoffEvents().size());
+		for (CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView e : cached.getEvents())
+			assertTrue(sys2.getTransitions().contains(e.getTransition()));
+		assertEquals(1, cache.getHits());
+
+		// different unfolding type
+		assertNull(cache.get(ProperCompletePrefixUnfolding.class, sys2, setup));
+
+		// different setup
+		CompletePrefixUnfoldingSetup setup2 = new CompletePrefixUnfoldingSetup();
+		setup2.MAX_EVENTS = 10;
+		assertNull(cache.get(CompletePrefixUnfolding.class, sys2, setup2));
+
+		// different initial marking
+		for (Place p : sys2.getPlaces())
+			if (p.getName().equals("p1_2"))
+				sys2.putTokens(p, 1);
+		assertNull(cache.get(CompletePrefixUnfolding.class, sys2, setup));
+		assertEquals(4, cache.getMisses());
+	}
+
+	public void testEviction() throws IOException {
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		NetSystem sys1 = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		NetSystem sys2 = CutoffIndexBenchmarkTest.createParallelCycles(3,6);
+		CompletePrefixUnfolding cpu1 = new CompletePrefixUnfolding(sys1, setup);
+		CompletePrefixUnfolding cpu2 = new CompletePrefixUnfolding(sys2, setup);
+
+		// room for the larger unfolding only
+		int capacity = cpu2.getEvents().size()+cpu2.getConditions().size();
+		CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(capacity);
+
+		cache.put(sys1, setup, cpu1);
+		assertNotNull(cache.get(CompletePrefixUnfolding.class, sys1, setup));
+		cache.put(sys2, setup, cpu2);
+		assertEquals(1, cache.size());
+		assertNull(cache.get(CompletePrefixUnfolding.class, sys1, setup));
+		assertNotNull(cache.get(CompletePrefixUnfolding.class, sys2, setup));
+	}
+
+	public void testDisk() throws IOException {
+		File dir = File.createTempFile("jbpt", "cache");
+		dir.delete();
+
+		try {
+			CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+			NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(20,40);
+
+			long start = System.nanoTime();
+			CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+			long compute = System.nanoTime()-start;
+
+			CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(1000000, dir);
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> compact = cache.put(sys, setup, cpu);
+			assertEquals(1, dir.listFiles().length);
+
+			// a new cache (e.g., after a restart) loads the unfolding from disk
+			cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(1000000, dir);
+			start = System.nanoTime();
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> loaded = cache.get(CompletePrefixUnfolding.class, sys, setup);
+			long load = System.nanoTime()-start;
+			assertNotNull(loaded);
+			assertEquals(1, cache.getLoads());
+			assertSameUnfolding(compact, loaded);
+
+			System.out.println(String.format("Unfolding with %s events: computing %d ms, loading %d ms",
+					loaded.countEvents(), compute/1000000, load/1000000));
+
+			// corrupted files are ignored
+			for (File f : dir.listFiles()) {
+				assertTrue(f.delete());
+				assertTrue(f.createNewFile());
+			}
+			cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(1000000, dir);
+			assertNull(cache.get(CompletePrefixUnfolding.class, sys, setup));
+		}
+		finally {
+			for (File f : dir.listFiles()) f.delete();
+			dir.delete();
+		}
+	}
+
+	public void testAmbiguousNet() throws IOException {
+		// two indistinguishable cycles
+		NetSystem sys = new NetSystem();
+		for (int i=0; i<2; i++) {
+			Place p = new Place("p");
+			Place q = new Place("q");
+			Transition t = new Transition("t");
+			Transition u = new Transition("u");
+			sys.addFlow(p,t); sys.addFlow(t,q);
+			sys.addFlow(q,u); sys.addFlow(u,p);
+			sys.putTokens(p,1);
+		}
+
+		CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000);
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		assertNull(cache.getFingerprint(CompletePrefixUnfolding.class, sys, setup));
+
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+		assertNotNull(cache.put(sys, setup, cpu));
+		assertEquals(0, cache.size());
+	}
+
+	public void testStoreFailure() throws IOException {
+		// a regular file cannot be used as a directory
+		File file = File.createTempFile("jbpt", "cache");
+
+		try {
+			CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+			NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+			CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+
+			CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000, file);
+			try {
+				cache.put(sys, setup, cpu);
+				fail();
+			} catch (IOException e) {
+				// the unfolding is kept in memory
+				assertEquals(1, cache.size());
+				assertNotNull(cache.get(CompletePrefixUnfolding.class, sys, setup));
+			}
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	public void testReplay() throws IOException {
+		CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking> cache = new CompletePrefixUnfoldingCache<Flow,Node,Place,Transition,Marking>(100000);
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+
+		NetSystem sys1 = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompletePrefixUnfolding computed = new CompletePrefixUnfolding(sys1, setup);
+		cache.put(sys1, setup, computed);
+
+		// unfolding of a structurally identical net system is rebuilt from the cache
+		NetSystem sys2 = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CompletePrefixUnfolding replayed = new CompletePrefixUnfolding(cache.get(CompletePrefixUnfolding.class, sys2, setup), setup);
+
+		assertSame(sys2, replayed.getOriginativeNetSystem());
+		assertEquals(computed.getConditions().size(), replayed.getConditions().size());
+		assertSameEvents(new CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>(computed), new CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>(replayed));
+
+		List<Event> es1 = computed.getLog();
+		List<Event> es2 = replayed.getLog();
+		for (int i=0; i<es1.size(); i++) {
+			assertEquals(computed.isCutoffEvent(es1.get(i)), replayed.isCutoffEvent(es2.get(i)));
+			for (int j=0; j<es1.size(); j++)
+				assertEquals(getOrderingRelation(computed,es1.get(i),es1.get(j)), getOrderingRelation(replayed,es2.get(i),es2.get(j)));
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static OrderingRelationType getOrderingRelation(IBranchingProcess bp, Event e, Event f) {
+		return bp.getOrderingRelation((IBPNode)e,(IBPNode)f);
+	}
+
+	// unfoldings of different net systems are compared by names of nodes;
+	// conditions of different unfoldings are numbered differently, hence they are compared by their places and pre-events
+	private void assertSameEvents(CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cpu1, CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cpu2) {
+		assertEquals(cpu1.countEvents(), cpu2.countEvents());
+		assertEquals(cpu1.countConditions(), cpu2.countConditions());
+
+		for (int i=0; i<cpu1.countEvents(); i++) {
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView e1 = cpu1.getEvent(i);
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView e2 = cpu2.getEvent(i);
+			assertEquals(e1.getTransition().getName(), e2.getTransition().getName());
+			assertEquals(getConditions(e1.getPreConditions()), getConditions(e2.getPreConditions()));
+			assertEquals(getConditions(e1.getPostConditions()), getConditions(e2.getPostConditions()));
+			assertEquals(e1.getLocalConfiguration(), e2.getLocalConfiguration());
+			assertEquals(String.valueOf(e1.getCorrespondingEvent()), String.valueOf(e2.getCorrespondingEvent()));
+		}
+	}
+
+	private Set<String> getConditions(List<CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.ConditionView> cs) {
+		Set<String> result = new HashSet<String>();
+		for (CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.ConditionView c : cs)
+			result.add(c.getPlace().getName() + "@" + c.getPreEvent());
+		return result;
+	}
+
+	// views of different unfoldings are compared by their string representations (which are based on identifiers)
+	private void assertSameUnfolding(CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cpu1, CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking> cpu2) {
+		assertEquals(cpu1.countEvents(), cpu2.countEvents());
+		assertEquals(cpu1.countConditions(), cpu2.countConditions());
+		assertEquals(String.valueOf(cpu1.getInitialCut()), String.valueOf(cpu2.getInitialCut()));
+		assertEquals(String.valueOf(cpu1.getCutoffEvents()), String.valueOf(cpu2.getCutoffEvents()));
+
+		for (int i=0; i<cpu1.countEvents(); i++) {
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView e1 = cpu1.getEvent(i);
+			CompactCompletePrefixUnfolding<Flow,Node,Place,Transition,Marking>.EventView e2 = cpu2.getEvent(i);
+			assertSame(e1.getTransition(), e2.getTransition());
+			assertEquals(String.valueOf(e1.getPreConditions()), String.valueOf(e2.getPreConditions()));
+			assertEquals(String.valueOf(e1.getPostConditions()), String.valueOf(e2.getPostConditions()));
+			assertEquals(e1.getLocalConfiguration(), e2.getLocalConfiguration());
+			assertEquals(String.valueOf(e1.getCorrespondingEvent()), String.valueOf(e2.getCorrespondingEvent()));
+		}
+
+		for (int i=0; i<cpu1.countConditions(); i++) {
+			assertSame(cpu1.getCondition(i).getPlace(), cpu2.getCondition(i).getPlace());
+			assertEquals(String.valueOf(cpu1.getCondition(i).getPostEvents()), String.valueOf(cpu2.getCondition(i).getPostEvents()));
+		}
+	}
+}
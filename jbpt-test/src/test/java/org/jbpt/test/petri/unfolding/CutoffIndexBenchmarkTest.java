@@ -0,0 +1,124 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.INetSystem;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.BPNode;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.Condition;
+import org.jbpt.petri.unfolding.Event;
+import org.jbpt.petri.unfolding.ILocalConfiguration;
+import org.jbpt.petri.unfolding.ProperCompletePrefixUnfolding;
+
+/**
+ * Compares cutoff detection based on the index of markings of local configurations
+ * with the linear scan over all events of the prefix.
+ */
+public class CutoffIndexBenchmarkTest extends TestCase {
+
+	// accumulated number of candidates for corresponding events and time spent in cutoff checks 
+	// (static, as unfoldings are constructed in constructors)
+	static long candidatesIndexed = 0;
+	static long candidatesLinear = 0;
+	static long timeIndexed = 0;
+	static long timeLinear = 0;
+
+	public void testParallelCycles() {
+		NetSystem sys = createParallelCycles(10,40);
+		candidatesIndexed = 0; candidatesLinear = 0;
+		CompletePrefixUnfolding cpu1 = new IndexedUnfolding(sys);
+		CompletePrefixUnfolding cpu2 = new LinearScanUnfolding(sys);
+
+		assertEquals(10*40+1, cpu1.getEvents().size());
+		assertEquals(10, cpu1.getCutoffEvents().size());
+		assertEquals(cpu2.getEvents().size(), cpu1.getEvents().size());
+		assertEquals(cpu2.getConditions().size(), cpu1.getConditions().size());
+		assertEquals(cpu2.getCutoffEvents().size(), cpu1.getCutoffEvents().size());
+
+		// cutoff checks with the index only look at events whose local configurations induce the same marking,
+		// the linear scan looks at (almost) all events of the prefix
+		assertTrue(candidatesIndexed <= cpu1.getEvents().size());
+		assertTrue(100*candidatesIndexed < candidatesLinear);
+	}
+
+	public void testProperUnfolding() {
+		NetSystem sys = createParallelCycles(5,20);
+
+		ProperCompletePrefixUnfolding cpu = new ProperCompletePrefixUnfolding(sys);
+		assertEquals(5*21, cpu.getEvents().size());
+		assertEquals(5, cpu.getCutoffEvents().size());
+		assertTrue(cpu.isProper());
+	}
+
+	/**
+	 * Create a net system with a given number of concurrent cycles of a given length.
+	 */
+	public static NetSystem createParallelCycles(int cycles, int length) {
+		NetSystem sys = new NetSystem();
+
+		for (int i=0; i<cycles; i++) {
+			Place first = new Place("p"+i+"_0");
+			Place p = first;
+			for (int j=0; j<length; j++) {
+				Transition t = new Transition("t"+i+"_"+j);
+				Place q = j==length-1 ? first : new Place("p"+i+"_"+(j+1));
+				sys.addFlow(p,t);
+				sys.addFlow(t,q);
+				p = q;
+			}
+			sys.putTokens(first,1);
+		}
+
+		return sys;
+	}
+
+	static class IndexedUnfolding extends CompletePrefixUnfolding {
+		public IndexedUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys) {
+			super(sys);
+		}
+
+		@Override
+		protected Event checkCutoffA(Event cutoff) {
+			cutoff.getLocalConfiguration().getMarking(); // compute the marking outside of measurements
+			List<Event> es = this.marking2events.get(cutoff.getLocalConfiguration().getMarking());
+			if (es!=null) candidatesIndexed += es.size();
+			long start = System.nanoTime();
+			Event result = super.checkCutoffA(cutoff);
+			timeIndexed += System.nanoTime() - start;
+			return result;
+		}
+	}
+
+	static class LinearScanUnfolding extends CompletePrefixUnfolding {
+		public LinearScanUnfolding(INetSystem<Flow,Node,Place,Transition,Marking> sys) {
+			super(sys);
+		}
+
+		@Override
+		protected Event checkCutoffA(Event cutoff) {
+			cutoff.getLocalConfiguration().getMarking(); // compute the marking outside of measurements
+			long start = System.nanoTime();
+			Event result = null;
+			ILocalConfiguration<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> lce = cutoff.getLocalConfiguration();
+			for (Event f : this.getEvents()) {
+				if (f.equals(cutoff)) continue;
+				candidatesLinear++;
+				ILocalConfiguration<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> lcf = f.getLocalConfiguration();
+				if (lce.getMarking().equals(lcf.getMarking()) && this.ADEQUATE_ORDER.isSmaller(lcf, lce)) {
+					result = this.checkCutoffB(cutoff,f);
+					break;
+				}
+			}
+			timeLinear += System.nanoTime() - start;
+			return result;
+		}
+	}
+}
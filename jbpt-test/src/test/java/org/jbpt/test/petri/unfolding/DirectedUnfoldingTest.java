@@ -0,0 +1,250 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.IRun;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.DirectedCompletePrefixUnfolding;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.io.JSON2Process;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+import org.jbpt.throwable.SerializationException;
+
+public class DirectedUnfoldingTest extends TestCase {
+
+	protected static final String MODELS_DIR = "src/test/resources/models/process_json/allmodels";
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(20,40);
+		List<Place> target = Arrays.asList(getPlace(sys, "p0_3"), getPlace(sys, "p1_5"));
+
+		long start = System.nanoTime();
+		DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, target);
+		long directed = System.nanoTime()-start;
+		start = System.nanoTime();
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys);
+		long full = System.nanoTime()-start;
+
+		assertTrue(dpu.isTargetReached());
+		assertTrue(dpu.isStopped());
+		assertEquals(8, dpu.getWitness().size());
+		assertReaches(sys, dpu.getWitness(), target);
+		assertTrue(dpu.getEvents().size() < cpu.getEvents().size());
+
+		System.out.println(String.format("Directed unfolding with %s events in %d ms, complete prefix unfolding with %s events in %d ms",
+				dpu.getEvents().size(), directed/1000000, cpu.getEvents().size(), full/1000000));
+	}
+
+	public void testMarking() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+
+		Marking marking = new Marking(sys);
+		for (Place p : sys.getPlaces())
+			if (p.getName().equals("p0_2") || p.getName().equals("p1_4") || p.getName().equals("p2_0"))
+				marking.put(p,1);
+
+		DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, marking);
+		assertTrue(dpu.isTargetReached());
+		IRun<Flow,Node,Place,Transition,Marking> run = dpu.getWitness();
+		assertEquals(6, run.size());
+		assertEquals(marking, run.get(run.size()-1).getOutputMarking());
+
+		// two tokens in one cycle are not reachable
+		marking.put(getPlace(sys, "p2_1"),1);
+		dpu = new DirectedCompletePrefixUnfolding(sys, marking);
+		assertFalse(dpu.isTargetReached());
+		assertNull(dpu.getWitness());
+		assertFalse(dpu.isStopped());
+	}
+
+	public void testMarkingWithConcurrentTokens() {
+		// a is marked and not connected, b is marked and emptied by t
+		NetSystem sys = new NetSystem();
+		Place a = new Place("a");
+		Place b = new Place("b");
+		Transition t = new Transition("t");
+		sys.addPlace(a);
+		sys.addFlow(b, t);
+		sys.putTokens(a, 1);
+		sys.putTokens(b, 1);
+
+		Marking marking = new Marking(sys);
+		marking.put(a, 1);
+
+		DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, marking);
+		assertTrue(dpu.isTargetReached());
+		IRun<Flow,Node,Place,Transition,Marking> run = dpu.getWitness();
+		assertEquals(1, run.size());
+		assertEquals(t, run.get(0).getTransition());
+		assertEquals(marking, run.get(0).getOutputMarking());
+	}
+
+	public void testMarkingWithConcurrentChain() {
+		// p is marked, q is marked and emptied by the chain q -> u -> r -> v
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Place q = new Place("q");
+		Place r = new Place("r");
+		Transition u = new Transition("u");
+		Transition v = new Transition("v");
+		sys.addPlace(p);
+		sys.addFlow(q, u);
+		sys.addFlow(u, r);
+		sys.addFlow(r, v);
+		sys.putTokens(p, 1);
+		sys.putTokens(q, 1);
+
+		Marking marking = new Marking(sys);
+		marking.put(p, 1);
+
+		DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, marking);
+		assertTrue(dpu.isTargetReached());
+		IRun<Flow,Node,Place,Transition,Marking> run = dpu.getWitness();
+		assertEquals(2, run.size());
+		assertEquals(u, run.get(0).getTransition());
+		assertEquals(v, run.get(1).getTransition());
+		assertEquals(marking, run.get(1).getOutputMarking());
+
+		// p and r are marked together as well, whereas p, q and r are not
+		marking.put(r, 1);
+		assertTrue(new DirectedCompletePrefixUnfolding(sys, marking).isTargetReached());
+		marking.put(q, 1);
+		assertFalse(new DirectedCompletePrefixUnfolding(sys, marking).isTargetReached());
+	}
+
+	public void testUnreachable() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		Place p = new Place("p");
+		sys.addPlace(p);
+
+		DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, Arrays.asList(getPlace(sys, "p0_2"), p));
+		assertFalse(dpu.isTargetReached());
+		assertNull(dpu.getWitness());
+		// complete prefix unfolding of the net system extended with the goal transition
+		assertEquals(new CompletePrefixUnfolding(sys).getEvents().size(), dpu.getEvents().size());
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+
+		int count = 0, queries = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 20) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loadProcess(MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			Set<Set<Place>> reachable = this.getMarkedPairs(sys, 5000);
+			if (reachable==null) continue;
+
+			List<Place> places = new ArrayList<Place>(sys.getPlaces());
+			Collections.sort(places, new Comparator<Place>() {
+				@Override
+				public int compare(Place p1, Place p2) {
+					return p1.getId().compareTo(p2.getId());
+				}
+			});
+
+			for (int i=0; i<places.size() && i<8; i++) {
+				for (int j=i+1; j<places.size() && j<8; j++) {
+					List<Place> target = Arrays.asList(places.get(i), places.get(j));
+					CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+					setup.MAX_BOUND = Integer.MAX_VALUE;
+					DirectedCompletePrefixUnfolding dpu = new DirectedCompletePrefixUnfolding(sys, target, setup);
+
+					assertEquals(name, reachable.contains(new HashSet<Place>(target)), dpu.isTargetReached());
+					if (dpu.isTargetReached()) assertReaches(sys, dpu.getWitness(), target);
+					queries++;
+				}
+			}
+		}
+
+		assertTrue(queries>0);
+	}
+
+	private void assertReaches(NetSystem sys, IRun<Flow,Node,Place,Transition,Marking> run, Collection<Place> target) {
+		Marking marking = run.isEmpty() ? sys.getMarking() : run.get(run.size()-1).getOutputMarking();
+		for (Place p : target)
+			assertTrue(marking.get(p)>0);
+	}
+
+	/**
+	 * Get sets of two places that are marked together in some reachable marking, or null if there are too many reachable markings.
+	 */
+	private Set<Set<Place>> getMarkedPairs(NetSystem sys, int max) {
+		Marking initial = (Marking) sys.getMarking().clone();
+		Set<Marking> visited = new HashSet<Marking>();
+		LinkedList<Marking> queue = new LinkedList<Marking>();
+		visited.add(initial);
+		queue.add(initial);
+
+		Set<Set<Place>> result = new HashSet<Set<Place>>();
+		try {
+			while (!queue.isEmpty()) {
+				Marking m = queue.poll();
+				for (Place p : m.keySet())
+					for (Place q : m.keySet())
+						result.add(new HashSet<Place>(Arrays.asList(p,q)));
+
+				sys.loadMarking(m);
+				for (Transition t : new ArrayList<Transition>(sys.getEnabledTransitions())) {
+					sys.loadMarking(m);
+					sys.fire(t);
+					Marking n = (Marking) sys.getMarking().clone();
+					if (visited.add(n)) {
+						if (visited.size()>max) return null;
+						queue.add(n);
+					}
+				}
+			}
+		}
+		finally {
+			sys.loadMarking(initial);
+		}
+
+		return result;
+	}
+
+	private Place getPlace(NetSystem sys, String name) {
+		for (Place p : sys.getPlaces())
+			if (p.getName().equals(name))
+				return p;
+
+		return null;
+	}
+
+	protected ProcessModel loadProcess(String filename) throws SerializationException, IOException {
+		String line;
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(filename));
+		while ((line = reader.readLine()) != null) {
+			sb.append(line);
+		}
+		reader.close();
+		return JSON2Process.convert(sb.toString());
+	}
+}
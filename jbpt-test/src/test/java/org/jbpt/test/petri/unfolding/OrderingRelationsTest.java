@@ -0,0 +1,170 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.AbstractUnfoldingListener;
+import org.jbpt.petri.unfolding.BPNode;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.Condition;
+import org.jbpt.petri.unfolding.Event;
+import org.jbpt.petri.unfolding.IBPNode;
+import org.jbpt.petri.unfolding.IBranchingProcess;
+import org.jbpt.petri.unfolding.ICompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.OrderingRelationType;
+
+public class OrderingRelationsTest extends TestCase {
+
+	/**
+	 * Ordering relations of possible extensions (events that are not yet part of the unfolding) 
+	 * must not change once the extensions get appended.
+	 */
+	public void testPossibleExtensions() {
+		NetSystem sys = createNet();
+
+		RecordingListener listener = new RecordingListener();
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.LISTENERS.add(listener);
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+
+		assertFalse(listener.relations.isEmpty());
+		assertTrue(listener.relations.containsValue(OrderingRelationType.CONFLICT));
+		for (Map.Entry<List<Object>,OrderingRelationType> entry : listener.relations.entrySet())
+			assertEquals(entry.getValue(), getOrderingRelation(cpu,entry.getKey().get(0),entry.getKey().get(1)));
+	}
+
+	/**
+	 * Conflict and concurrency are derived from stored relations; 
+	 * they must agree with the definitions in terms of causal pasts of nodes.
+	 */
+	public void testDerivedRelations() {
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(createNet());
+		List<Object> nodes = new ArrayList<Object>(cpu.getEvents());
+		nodes.addAll(cpu.getConditions());
+
+		int conflicts = 0;
+		for (Object n1 : nodes)
+			for (Object n2 : nodes) {
+				Set<Event> past1 = getPast(n1);
+				Set<Event> past2 = getPast(n2);
+				OrderingRelationType expected = OrderingRelationType.CONCURRENT;
+				if (n1!=n2 && (past2.contains(n1) || getPreConditions(past2).contains(n1))) expected = OrderingRelationType.CAUSAL;
+				else if (n1!=n2 && (past1.contains(n2) || getPreConditions(past1).contains(n2))) expected = OrderingRelationType.INVERSE_CAUSAL;
+				else if (inConflict(past1, past2)) expected = OrderingRelationType.CONFLICT;
+
+				assertEquals(expected, getOrderingRelation(cpu, n1, n2));
+				if (expected==OrderingRelationType.CONFLICT) conflicts++;
+			}
+
+		assertTrue(conflicts>0);
+	}
+
+	// events that causally precede a node or are equal to it
+	private static Set<Event> getPast(Object n) {
+		Set<Event> result = new HashSet<Event>();
+		List<Object> queue = new ArrayList<Object>();
+		queue.add(n);
+		while (!queue.isEmpty()) {
+			Object m = queue.remove(queue.size()-1);
+			if (m instanceof Event) {
+				if (result.add((Event) m)) queue.addAll(((Event) m).getPreConditions());
+			}
+			else if (((Condition) m).getPreEvent()!=null)
+				queue.add(((Condition) m).getPreEvent());
+		}
+		return result;
+	}
+
+	private static Set<Condition> getPreConditions(Set<Event> events) {
+		Set<Condition> result = new HashSet<Condition>();
+		for (Event e : events) result.addAll(e.getPreConditions());
+		return result;
+	}
+
+	// distinct events of the pasts that share a pre-condition
+	private static boolean inConflict(Set<Event> past1, Set<Event> past2) {
+		for (Event e1 : past1)
+			for (Event e2 : past2)
+				if (!e1.equals(e2))
+					for (Condition c : e1.getPreConditions())
+						if (e2.getPreConditions().contains(c)) return true;
+		return false;
+	}
+
+	private static NetSystem createNet() {
+		NetSystem sys = new NetSystem();
+		Place i = new Place("i");
+		Place p0 = new Place("p0");
+		Place p1 = new Place("p1");
+		Place p2 = new Place("p2");
+		Place p3 = new Place("p3");
+		Place q0 = new Place("q0");
+		Place q1 = new Place("q1");
+		Transition s = new Transition("s");
+		Transition a = new Transition("a");
+		Transition b = new Transition("b");
+		Transition c = new Transition("c");
+		Transition d = new Transition("d");
+		Transition e = new Transition("e");
+		Transition f = new Transition("f");
+		Transition g = new Transition("g");
+
+		sys.addFlow(i,s); sys.addFlow(s,p0); sys.addFlow(s,q0);
+		sys.addFlow(p0,a); sys.addFlow(a,p1); sys.addFlow(p1,c); sys.addFlow(c,p3);
+		sys.addFlow(p0,b); sys.addFlow(b,p2); sys.addFlow(p2,d); sys.addFlow(d,p3);
+		sys.addFlow(q0,e); sys.addFlow(e,q1);
+		sys.addFlow(q0,f); sys.addFlow(f,q1);
+		sys.addFlow(p3,g); sys.addFlow(q1,g); sys.addFlow(g,i);
+		sys.putTokens(i,1);
+		return sys;
+	}
+
+	// events are not typed as nodes of complete prefix unfoldings (BPNode)
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static OrderingRelationType getOrderingRelation(IBranchingProcess bp, Object n1, Object n2) {
+		OrderingRelationType result = bp.getOrderingRelation((IBPNode)n1,(IBPNode)n2);
+		assertEquals(result==OrderingRelationType.CONFLICT, bp.areInConflict((IBPNode)n1,(IBPNode)n2));
+		assertEquals(result==OrderingRelationType.CONCURRENT, bp.areConcurrent((IBPNode)n1,(IBPNode)n2));
+		return result;
+	}
+
+	// records ordering relations of possible extensions with nodes of the unfolding and with each other
+	private class RecordingListener extends AbstractUnfoldingListener<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> {
+		Map<List<Object>,OrderingRelationType> relations = new HashMap<List<Object>,OrderingRelationType>();
+
+		@Override
+		public boolean possibleExtensionsUpdated(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Event event, Set<Event> extensions) {
+			List<Object> nodes = new ArrayList<Object>(cpu.getEvents());
+			nodes.addAll(cpu.getConditions());
+			nodes.addAll(extensions);
+
+			for (Event x : extensions)
+				for (Object n : nodes) {
+					this.record(cpu, x, n);
+					this.record(cpu, n, x);
+				}
+
+			return true;
+		}
+
+		private void record(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Object n1, Object n2) {
+			List<Object> key = new ArrayList<Object>();
+			key.add(n1);
+			key.add(n2);
+			this.relations.put(key, getOrderingRelation(cpu, n1, n2));
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.order.AdequateOrderType;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.io.JSON2Process;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+import org.jbpt.throwable.SerializationException;
+
+/**
+ * Checks that parallel construction of complete prefix unfoldings results in the same prefixes as sequential construction.
+ */
+public class ParallelUnfoldingTest extends TestCase {
+
+	protected static final String MODELS_DIR = "src/test/resources/models/process_json/allmodels";
+
+	public void testParallelCycles() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(10,20);
+
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.THREADS = 4;
+
+		CompletePrefixUnfolding seq = new CompletePrefixUnfolding(sys);
+		CompletePrefixUnfolding par = new CompletePrefixUnfolding(sys, setup);
+
+		assertEquals(10*20+1, par.getEvents().size());
+		assertSameUnfolding(seq, par);
+	}
+
+	public void testWideFork() {
+		// every branch of the fork is a sequence of two choices, hence the fork enables many transitions at once
+		NetSystem sys = new NetSystem();
+		Place p = new Place("p");
+		Transition fork = new Transition("fork");
+		sys.addFlow(p, fork);
+		sys.putTokens(p, 1);
+		for (int i=0; i<20; i++) {
+			Place a = new Place("a"+i+"_0");
+			sys.addFlow(fork, a);
+			for (int j=0; j<2; j++) {
+				Place b = new Place("a"+i+"_"+(j+1));
+				Transition x = new Transition("x"+i+"_"+j);
+				Transition y = new Transition("y"+i+"_"+j);
+				sys.addFlow(a, x); sys.addFlow(x, b);
+				sys.addFlow(a, y); sys.addFlow(y, b);
+				a = b;
+			}
+		}
+
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.THREADS = 3;
+
+		CompletePrefixUnfolding seq = new CompletePrefixUnfolding(sys);
+		CompletePrefixUnfolding par = new CompletePrefixUnfolding(sys, setup);
+
+		assertEquals(1+20*2*2, par.getEvents().size());
+		assertSameUnfolding(seq, par);
+	}
+
+	public void testSuppliedExecutor() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(5,10);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.EXECUTOR = executor;
+
+		CompletePrefixUnfolding seq = new CompletePrefixUnfolding(sys);
+		CompletePrefixUnfolding par1 = new CompletePrefixUnfolding(sys, setup);
+		CompletePrefixUnfolding par2 = new CompletePrefixUnfolding(sys, setup);
+
+		// supplied executor is not shut down by the unfolding
+		assertFalse(executor.isShutdown());
+		executor.shutdown();
+
+		assertSameUnfolding(seq, par1);
+		assertSameUnfolding(seq, par2);
+	}
+
+	public void testModels() throws Exception {
+		File modelsDir = new File(MODELS_DIR);
+		String[] names = modelsDir.list();
+		Arrays.sort(names);
+
+		int count = 0;
+		for (String name : names) {
+			if (!name.endsWith(".json")) continue;
+			if (count++ >= 50) break;
+
+			NetSystem sys = ProcessModel2NetSystem.transform(loadProcess(MODELS_DIR + File.separator + name));
+			sys.loadNaturalMarking();
+
+			for (AdequateOrderType order : new AdequateOrderType[] {AdequateOrderType.ESPARZA_FOR_SAFE_SYSTEMS, AdequateOrderType.ESPARZA_FOR_ARBITRARY_SYSTEMS}) {
+				CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+				setup.MAX_EVENTS = 300;
+				setup.ADEQUATE_ORDER = order;
+				CompletePrefixUnfolding seq = new CompletePrefixUnfolding(sys, setup);
+
+				setup.THREADS = 4;
+				CompletePrefixUnfolding par = new CompletePrefixUnfolding(sys, setup);
+
+				assertSameUnfolding(seq, par);
+			}
+		}
+	}
+
+	private void assertSameUnfolding(CompletePrefixUnfolding seq, CompletePrefixUnfolding par) {
+		// events and conditions are compared structurally, i.e., by transitions/places and their histories
+		assertEquals(seq.getLog(), par.getLog());
+		assertEquals(seq.getConditions(), par.getConditions());
+		assertEquals(seq.getCutoffEvents(), par.getCutoffEvents());
+	}
+
+	protected ProcessModel loadProcess(String filename) throws SerializationException, IOException {
+		String line;
+		StringBuilder sb = new StringBuilder();
+		BufferedReader reader = new BufferedReader(new FileReader(filename));
+		while ((line = reader.readLine()) != null) {
+			sb.append(line);
+		}
+		reader.close();
+		return JSON2Process.convert(sb.toString());
+	}
+}
@@ -0,0 +1,96 @@
+package org.jbpt.test.petri.unfolding;
+
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.Marking;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.petri.Place;
+import org.jbpt.petri.Transition;
+import org.jbpt.petri.unfolding.AbstractUnfoldingListener;
+import org.jbpt.petri.unfolding.BPNode;
+import org.jbpt.petri.unfolding.CompletePrefixUnfolding;
+import org.jbpt.petri.unfolding.CompletePrefixUnfoldingSetup;
+import org.jbpt.petri.unfolding.Condition;
+import org.jbpt.petri.unfolding.Event;
+import org.jbpt.petri.unfolding.ICompletePrefixUnfolding;
+
+public class UnfoldingListenerTest extends TestCase {
+
+	public void testNotifications() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		CountingListener listener = new CountingListener();
+
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.LISTENERS.add(listener);
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+
+		assertFalse(cpu.isStopped());
+		assertEquals(cpu.getEvents().size(), listener.appended);
+		assertEquals(cpu.getCutoffEvents().size(), listener.cutoffs);
+		// initial branching process and every event that is not a cutoff event
+		assertEquals(cpu.getEvents().size()-cpu.getCutoffEvents().size()+1, listener.updates);
+		assertEquals(cpu.getEvents().size(), listener.extensions);
+	}
+
+	public void testEarlyTermination() {
+		NetSystem sys = CutoffIndexBenchmarkTest.createParallelCycles(3,5);
+		final Place target = getPlace(sys, "p0_3");
+
+		CompletePrefixUnfoldingSetup setup = new CompletePrefixUnfoldingSetup();
+		setup.LISTENERS.add(new AbstractUnfoldingListener<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking>() {
+			@Override
+			public boolean eventAppended(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Event event) {
+				// stop as soon as the target place gets marked
+				return !event.getLocalConfiguration().getMarking().isMarked(target);
+			}
+		});
+		CompletePrefixUnfolding cpu = new CompletePrefixUnfolding(sys, setup);
+
+		assertTrue(cpu.isStopped());
+		assertTrue(cpu.getEvents().size() < 3*5+1);
+		Event last = cpu.getLog().get(cpu.getLog().size()-1);
+		assertEquals("t0_2", last.getTransition().getName());
+		assertEquals(3, last.getLocalConfiguration().size());
+		assertTrue(cpu.getCutoffEvents().isEmpty());
+	}
+
+	private Place getPlace(NetSystem sys, String name) {
+		for (Place p : sys.getPlaces())
+			if (p.getName().equals(name))
+				return p;
+
+		return null;
+	}
+
+	private class CountingListener extends AbstractUnfoldingListener<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> {
+		int appended = 0;
+		int cutoffs = 0;
+		int updates = 0;
+		int extensions = 0;
+
+		@Override
+		public boolean eventAppended(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Event event) {
+			assertTrue(cpu.getEvents().contains(event));
+			this.appended++;
+			return true;
+		}
+
+		@Override
+		public boolean cutoffDetected(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Event cutoff, Event corr) {
+			assertSame(corr, cpu.getCorrespondingEvent(cutoff));
+			this.cutoffs++;
+			return true;
+		}
+
+		@Override
+		public boolean possibleExtensionsUpdated(ICompletePrefixUnfolding<BPNode,Condition,Event,Flow,Node,Place,Transition,Marking> cpu, Event event, Set<Event> extensions) {
+			this.updates++;
+			this.extensions += extensions.size();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.jbpt.test.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.jbpt.graph.abs.AbstractTree;
+import org.jbpt.hypergraph.abs.Vertex;
+
+public class AbstractTreeTest extends TestCase {
+
+	public void testQueries() {
+		Vertex r = new Vertex("r");
+		Vertex a = new Vertex("a");
+		Vertex b = new Vertex("b");
+		Vertex c = new Vertex("c");
+		Vertex d = new Vertex("d");
+		AbstractTree<Vertex> tree = new AbstractTree<Vertex>(r);
+		tree.addVertex(r);
+		tree.addChild(r, a);
+		tree.addChild(a, b);
+		tree.addChild(a, c);
+
+		assertEquals(a, tree.getLCA(b, c));
+		assertEquals(a, tree.getLCA(a, c));
+		assertEquals(a, tree.getLCA(Arrays.asList(b, c, b)));
+		assertEquals(r, tree.getLCA(Arrays.asList(b, r)));
+		assertTrue(tree.isAncestor(r, c));
+		assertFalse(tree.isAncestor(b, c));
+		assertFalse(tree.isAncestor(c, c));
+		assertTrue(tree.isDescendant(c, a));
+		assertEquals(Arrays.asList(r, a, c), tree.getDownwardPath(r, c));
+		assertTrue(tree.getDownwardPath(b, c).isEmpty());
+		assertNull(tree.getLCA(b, d));
+
+		// the index is rebuilt after modifications of the tree
+		tree.addChild(b, d);
+		assertEquals(a, tree.getLCA(d, c));
+		assertEquals(Arrays.asList(a, b, d), tree.getDownwardPath(a, d));
+		tree.reRoot(a);
+		assertEquals(a, tree.getLCA(r, d));
+		assertTrue(tree.isAncestor(a, r));
+		assertFalse(tree.isAncestor(r, a));
+		tree.removeVertex(b);
+		assertNull(tree.getLCA(b, c));
+		assertFalse(tree.isDescendant(d, a));
+	}
+
+	public void testRandomTrees() {
+		Random random = new Random(23);
+		for (int run=0; run<30; run++) {
+			int n = 1+random.nextInt(200);
+			List<Vertex> vs = new ArrayList<Vertex>();
+			int[] parent = new int[n];
+			AbstractTree<Vertex> tree = createRandomTree(random, n, vs, parent);
+
+			for (int k=0; k<500; k++) {
+				int i = random.nextInt(n), j = random.nextInt(n);
+				List<Integer> pi = path(parent, i), pj = path(parent, j);
+				int lca = 0;
+				for (int l=0; l<Math.min(pi.size(), pj.size()) && pi.get(l).equals(pj.get(l)); l++) lca = pi.get(l);
+
+				assertEquals(vs.get(lca), tree.getLCA(vs.get(i), vs.get(j)));
+				assertEquals(i!=j && pj.contains(i), tree.isAncestor(vs.get(i), vs.get(j)));
+				assertEquals(i!=j && pi.contains(j), tree.isDescendant(vs.get(i), vs.get(j)));
+				List<Vertex> expected = new ArrayList<Vertex>();
+				if (pj.contains(i))
+					for (int v : pj.subList(pj.indexOf(i), pj.size())) expected.add(vs.get(v));
+				assertEquals(expected, tree.getDownwardPath(vs.get(i), vs.get(j)));
+			}
+		}
+	}
+
+	public void testLargeTree() {
+		int n = 50000;
+		List<Vertex> vs = new ArrayList<Vertex>();
+		AbstractTree<Vertex> tree = createRandomTree(new Random(29), n, vs, new int[n]);
+
+		long start = System.nanoTime();
+		Random random = new Random(31);
+		int roots = 0;
+		for (int k=0; k<100000; k++)
+			if (tree.getLCA(vs.get(random.nextInt(n)), vs.get(random.nextInt(n))).equals(tree.getRoot())) roots++;
+		long time = System.nanoTime()-start;
+
+		assertTrue(roots>0);
+		System.out.println(String.format("%d lowest common ancestors in a tree with %d vertices computed in %d ms", 100000, n, time/1000000));
+	}
+
+	/**
+	 * Random tree in which the parent of vertex i is a vertex with a smaller number; deep paths are likely.
+	 */
+	private static AbstractTree<Vertex> createRandomTree(Random random, int n, List<Vertex> vs, int[] parent) {
+		for (int i=0; i<n; i++) vs.add(new Vertex("v" + i));
+		AbstractTree<Vertex> tree = new AbstractTree<Vertex>(vs.get(0));
+		tree.addVertex(vs.get(0));
+		parent[0] = -1;
+		for (int i=1; i<n; i++) {
+			parent[i] = Math.max(0, i-1-random.nextInt(Math.min(i, 5)));
+			tree.addChild(vs.get(parent[i]), vs.get(i));
+		}
+
+		return tree;
+	}
+
+	private static List<Integer> path(int[] parent, int v) {
+		List<Integer> result = new ArrayList<Integer>();
+		for (int u=v; u>=0; u=parent[u]) result.add(0, u);
+
+		return result;
+	}
+}
@@ -0,0 +1,115 @@
+package org.jbpt.test.tree;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.tree.bctree.BCTree;
+import org.jbpt.algo.tree.rpst.RPST;
+import org.jbpt.algo.tree.tctree.BiconnectivityCheck;
+import org.jbpt.algo.tree.tctree.TCTree;
+import org.jbpt.algo.tree.tctree.TCType;
+import org.jbpt.graph.DirectedEdge;
+import org.jbpt.graph.MultiDirectedGraph;
+import org.jbpt.hypergraph.abs.Vertex;
+
+/**
+ * Decompositions of graphs whose depth-first searches are too deep for recursion on the default thread stack.
+ * 
+ * Decompositions of graphs with 10^6 edges take several seconds and a large heap; they run only if the system 
+ * property jbpt.benchmark is set to true, e.g., mvn test -Djbpt.benchmark=true.
+ */
+public class LargeGraphDecompositionTest extends TestCase {
+	
+	private static final int EDGES = 100000;
+	
+	private static final int MANY_EDGES = 1000000;
+	
+	public void testTCTree() {
+		assertTCTree(EDGES);
+	}
+	
+	public void testRPST() {
+		assertRPST(EDGES);
+	}
+	
+	public void testBCTree() {
+		assertBCTree(EDGES);
+	}
+	
+	public void testManyEdges() {
+		if (!Boolean.getBoolean("jbpt.benchmark")) return;
+		
+		long start = System.nanoTime();
+		assertTCTree(MANY_EDGES);
+		assertRPST(MANY_EDGES);
+		assertBCTree(MANY_EDGES);
+		System.out.println(String.format("Decompositions of graphs with %d edges computed in %d ms", MANY_EDGES, (System.nanoTime()-start)/1000000));
+	}
+	
+	private static void assertTCTree(int edges) {
+		int n = edges/3;
+		MultiDirectedGraph g = createNestedGraph(n);
+		
+		assertTrue(new BiconnectivityCheck<DirectedEdge,Vertex>(g).isBiconnected());
+		TCTree<DirectedEdge,Vertex> tctree = new TCTree<DirectedEdge,Vertex>(g);
+		
+		assertEquals(n, tctree.getTCTreeNodes(TCType.POLYGON).size());
+		assertEquals(n-1, tctree.getTCTreeNodes(TCType.BOND).size());
+		assertEquals(0, tctree.getTCTreeNodes(TCType.RIGID).size());
+		assertEquals(g.countEdges(), tctree.getTCTreeNodes(TCType.TRIVIAL).size());
+	}
+	
+	private static void assertRPST(int edges) {
+		int n = edges/3;
+		MultiDirectedGraph g = createNestedGraph(n);
+		
+		RPST<DirectedEdge,Vertex> rpst = new RPST<DirectedEdge,Vertex>(g);
+		
+		assertEquals(TCType.BOND, rpst.getRoot().getType());
+		assertEquals(n, rpst.getRPSTNodes(TCType.POLYGON).size());
+		assertEquals(g.countEdges(), rpst.getRPSTNodes(TCType.TRIVIAL).size());
+	}
+	
+	private static void assertBCTree(int edges) {
+		// path of triangles; vertices shared by consecutive triangles are articulation points
+		int n = edges/3;
+		MultiDirectedGraph g = new MultiDirectedGraph();
+		Vertex v = new Vertex("v0");
+		for (int i=0; i<n; i++) {
+			Vertex w = new Vertex("w" + i);
+			Vertex u = new Vertex("v" + (i+1));
+			g.addEdge(v, w);
+			g.addEdge(w, u);
+			g.addEdge(v, u);
+			v = u;
+		}
+		
+		assertFalse(new BiconnectivityCheck<DirectedEdge,Vertex>(g).isBiconnected());
+		BCTree<DirectedEdge,Vertex> bctree = new BCTree<DirectedEdge,Vertex>(g);
+		
+		assertEquals(n, bctree.getBiconnectedComponents().size());
+		assertEquals(n-1, bctree.getArticulationPoints().size());
+		assertEquals(2*n-2, bctree.countEdges());
+	}
+	
+	/**
+	 * Graph from s_n to t_n, where (s_0,t_0) is an edge and every level i>0 consists of the edge (s_i,t_i) in parallel to 
+	 * the sequence (s_i,s_(i-1)), level i-1, (t_(i-1),t_i); every level but the outermost nests a polygon in a bond.
+	 */
+	private static MultiDirectedGraph createNestedGraph(int n) {
+		MultiDirectedGraph g = new MultiDirectedGraph();
+		Vertex s = new Vertex("s0");
+		Vertex t = new Vertex("t0");
+		g.addEdge(s, t);
+		for (int i=1; i<=n; i++) {
+			Vertex s2 = new Vertex("s" + i);
+			Vertex t2 = new Vertex("t" + i);
+			g.addEdge(s2, s);
+			g.addEdge(t, t2);
+			g.addEdge(s2, t2);
+			s = s2;
+			t = t2;
+		}
+		
+		return g;
+	}
+}
@@ -0,0 +1,140 @@
+package org.jbpt.test.tree;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import org.jbpt.algo.tree.rpst.IRPST;
+import org.jbpt.algo.tree.rpst.IRPSTNode;
+import org.jbpt.algo.tree.rpst.RPST;
+import org.jbpt.algo.tree.tctree.TCType;
+import org.jbpt.graph.DirectedEdge;
+import org.jbpt.graph.MultiDirectedGraph;
+import org.jbpt.graph.abs.IDirectedEdge;
+import org.jbpt.hypergraph.abs.IVertex;
+import org.jbpt.hypergraph.abs.Vertex;
+import org.jbpt.petri.Flow;
+import org.jbpt.petri.NetSystem;
+import org.jbpt.petri.Node;
+import org.jbpt.pm.ProcessModel;
+import org.jbpt.pm.structure.ProcessModel2NetSystem;
+
+public class RPSTParallelTest extends TestCase {
+	
+	public void testModels() throws Exception {
+		RPSTExtensiveTest loader = new RPSTExtensiveTest();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (String name : new File(RPSTExtensiveTest.MODELS_DIR).list()) {
+				if (!name.endsWith(".json")) continue;
+				
+				ProcessModel p = loader.loadProcess(RPSTExtensiveTest.MODELS_DIR + File.separator + name);
+				NetSystem sys = ProcessModel2NetSystem.transform(p);
+				
+				Set<List<Object>> expected = nodes(new RPST<Flow,Node>(sys));
+				assertEquals(name, expected, nodes(new RPST<Flow,Node>(sys, 4)));
+				assertEquals(name, expected, nodes(new RPST<Flow,Node>(sys, executor)));
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+	
+	public void testRandomGraphs() {
+		Random random = new Random(37);
+		for (int run=0; run<500; run++) {
+			MultiDirectedGraph g = createRandomGraph(random, 1+random.nextInt(20));
+			
+			// every bridge is a rigid component
+			int bridges = 0;
+			for (Vertex v : g.getVertices())
+				if (v.getName().startsWith("x")) bridges++;
+			
+			Set<List<Object>> expected = nodes(new RPST<DirectedEdge,Vertex>(g));
+			assertEquals(bridges, count(expected, TCType.RIGID));
+			for (int i=0; i<3; i++) {
+				assertEquals(expected, nodes(new RPST<DirectedEdge,Vertex>(g)));
+				assertEquals(expected, nodes(new RPST<DirectedEdge,Vertex>(g, 3)));
+			}
+		}
+	}
+	
+	/**
+	 * Random two-terminal graph composed of sequences, choices, loops, and bridges (rigid components) of edges.
+	 */
+	private static MultiDirectedGraph createRandomGraph(Random random, int size) {
+		MultiDirectedGraph g = new MultiDirectedGraph();
+		Vertex s = new Vertex("s");
+		Vertex t = new Vertex("t");
+		g.addEdge(s, t);
+		List<DirectedEdge> edges = new ArrayList<DirectedEdge>(g.getEdges());
+		for (int i=0; i<size; i++) {
+			DirectedEdge edge = edges.remove(random.nextInt(edges.size()));
+			g.removeEdge(edge);
+			Vertex v1 = edge.getSource();
+			Vertex v2 = edge.getTarget();
+			Vertex v = new Vertex("v" + i);
+			Vertex w = new Vertex("w" + i);
+			switch (random.nextInt(4)) {
+			case 0:
+				edges.add(g.addEdge(v1, v));
+				edges.add(g.addEdge(v, w));
+				edges.add(g.addEdge(w, v2));
+				break;
+			case 1:
+				edges.add(g.addEdge(v1, v));
+				edges.add(g.addEdge(v, w));
+				edges.add(g.addEdge(v, w));
+				edges.add(g.addEdge(w, v2));
+				break;
+			case 2:
+				edges.add(g.addEdge(v1, v));
+				edges.add(g.addEdge(v, w));
+				edges.add(g.addEdge(w, v));
+				edges.add(g.addEdge(w, v2));
+				break;
+			default:
+				v.setName("x" + i);
+				w.setName("y" + i);
+				edges.add(g.addEdge(v1, v));
+				edges.add(g.addEdge(v1, w));
+				edges.add(g.addEdge(v, w));
+				edges.add(g.addEdge(v, v2));
+				edges.add(g.addEdge(w, v2));
+			}
+		}
+		
+		return g;
+	}
+	
+	private static int count(Set<List<Object>> nodes, TCType type) {
+		int result = 0;
+		for (List<Object> node : nodes)
+			if (node.get(0)==type) result++;
+		
+		return result;
+	}
+	
+	/**
+	 * Nodes of an RPST given by their types, fragments, boundaries, and fragments of their parents.
+	 */
+	private static <E extends IDirectedEdge<V>, V extends IVertex> Set<List<Object>> nodes(IRPST<E,V> rpst) {
+		Set<List<Object>> result = new HashSet<List<Object>>();
+		for (IRPSTNode<E,V> node : rpst.getRPSTNodes()) {
+			IRPSTNode<E,V> parent = rpst.getParent(node);
+			result.add(Arrays.<Object>asList(node.getType(), new HashSet<E>(node.getFragment()), node.getEntry(), node.getExit(), 
+					parent==null ? null : new HashSet<E>(parent.getFragment())));
+		}
+		
+		return result;
+	}
+}